@@ -0,0 +1,13 @@
+package com.ironinstruction.api.errors;
+
+public class ConcurrentModification extends Exception {
+    private final String resourceId;
+    public ConcurrentModification(String resourceId) {
+        super();
+        this.resourceId = resourceId;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+}
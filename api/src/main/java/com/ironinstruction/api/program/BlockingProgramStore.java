@@ -0,0 +1,90 @@
+package com.ironinstruction.api.program;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// ProgramStore over the blocking repositories, every query runs on the thread that subscribes,
+// which is the request thread ProgramService waits on
+public class BlockingProgramStore implements ProgramStore {
+    private final ProgramRepository programRepository;
+    private final SetResultRepository setResultRepository;
+
+    public BlockingProgramStore(ProgramRepository programRepository, SetResultRepository setResultRepository) {
+        this.programRepository = programRepository;
+        this.setResultRepository = setResultRepository;
+    }
+
+    @Override
+    public Mono<Program> findById(String programId) {
+        return Mono.fromCallable(() -> programRepository.findById(programId).orElse(null));
+    }
+
+    @Override
+    public Flux<Program> findByEmail(String email) {
+        // the stream holds the cursor, fromStream closes it when the flux completes or is cancelled
+        return Flux.fromStream(() -> programRepository.streamByEmail(email));
+    }
+
+    @Override
+    public <T> Mono<T> findNode(ProgramPath node, Class<T> nodeType) {
+        return Mono.fromCallable(() -> programRepository.findNode(node, nodeType));
+    }
+
+    @Override
+    public Mono<ProgramVersion> findVersion(String programId) {
+        return Mono.fromCallable(() -> programRepository.findVersion(programId));
+    }
+
+    @Override
+    public Mono<ProgramOwnership> findOwnership(String programId) {
+        return Mono.fromCallable(() -> programRepository.findOwnership(programId));
+    }
+
+    @Override
+    public Flux<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(programRepository.findSummaries(email, sortField, direction, afterValue, afterId, limit)));
+    }
+
+    @Override
+    public Flux<SetResult> findLatestResults(String programId) {
+        return Flux.defer(() -> Flux.fromIterable(setResultRepository.findLatestByProgramId(programId)));
+    }
+
+    @Override
+    public Flux<SetResult> findLatestResults(String programId, Collection<String> setIds) {
+        return Flux.defer(() -> Flux.fromIterable(setResultRepository.findLatestByProgramIdAndSetIdIn(programId, setIds)));
+    }
+
+    @Override
+    public Flux<SetResult> findResults(String programId, String setId) {
+        return Flux.defer(() -> Flux.fromIterable(setResultRepository.findByProgramIdAndSetIdOrderByRecordedAtAsc(programId, setId)));
+    }
+
+    @Override
+    public Mono<SetResult> insertResult(SetResult result) {
+        return Mono.fromCallable(() -> setResultRepository.insert(result));
+    }
+
+    @Override
+    public Mono<Void> deleteResult(SetResult result) {
+        return Mono.fromRunnable(() -> setResultRepository.delete(result));
+    }
+
+    @Override
+    public Mono<Boolean> exists(ProgramPath node) {
+        return Mono.fromCallable(() -> programRepository.exists(node));
+    }
+
+    @Override
+    public Mono<Void> bumpResultsVersion(String programId) {
+        // a callable that returns null completes empty, unlike a runnable it may throw ResourceNotFound
+        return Mono.fromCallable(() -> {
+            programRepository.bumpResultsVersion(programId);
+            return null;
+        }).then();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ironinstruction.api.program;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+// positions of a node's children by id, so a path through weeks, days, exercises and sets resolves in constant time.
+// The children's list is handed out by its getter and may be changed through it, so a position is only trusted while
+// the child found there still has the id; a lookup that misses or finds another child rebuilds the index. Cached
+// programs are read by several requests at once, so a rebuilt index is only published once complete, through a
+// volatile field so other threads see the finished map
+final class ChildIndex<T> {
+    private final Function<T, String> idOf;
+    private volatile Map<String, Integer> positions; // built on the first lookup
+
+    ChildIndex(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    // position of the first child with the id, -1 if there is none
+    int find(List<T> children, String id) {
+        Map<String, Integer> positions = this.positions;
+        Integer position = positions == null ? null : positions.get(id);
+        if (position != null && position < children.size() && Objects.equals(id, idOf.apply(children.get(position)))) {
+            return position;
+        }
+
+        positions = new HashMap<String, Integer>();
+        for (int i = 0; i < children.size(); i++) {
+            positions.putIfAbsent(idOf.apply(children.get(i)), i);
+        }
+        this.positions = positions;
+        position = positions.get(id);
+
+        return position == null ? -1 : position;
+    }
+
+    // the owner removed a child, the positions after it moved
+    void clear() {
+        this.positions = null;
+    }
+}
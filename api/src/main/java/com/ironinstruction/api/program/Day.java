@@ -2,6 +2,7 @@ package com.ironinstruction.api.program;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 
 import java.util.ArrayList;
 
@@ -13,6 +14,8 @@ public class Day {
     private String coachNotes;
     private String athleteNotes;
     private ArrayList<Exercise> exercises;
+    @Transient
+    private final ChildIndex<Exercise> exerciseIndex = new ChildIndex<Exercise>(Exercise::getId); // position in exercises by id
 
     public Day() { }
 
@@ -22,14 +25,17 @@ public class Day {
         this.exercises = new ArrayList<Exercise>();
     }
 
-    public Exercise findExerciseById(String exerciseId) throws ResourceNotFound {
-        for (Exercise exercise : this.exercises) {
-            if (exercise.getId().equals(exerciseId)) {
-                return exercise;
-            }
+    private int positionOf(String exerciseId) throws ResourceNotFound {
+        int position = exerciseIndex.find(this.exercises, exerciseId);
+        if (position == -1) {
+            throw new ResourceNotFound("Exercise with id '" + exerciseId + "' not found");
         }
 
-        throw new ResourceNotFound("Exercise with id '" + exerciseId + "' not found");
+        return position;
+    }
+
+    public Exercise findExerciseById(String exerciseId) throws ResourceNotFound {
+        return this.exercises.get(positionOf(exerciseId));
     }
 
     public String getId() {
@@ -59,4 +65,25 @@ public class Day {
     public void addExercise(Exercise exercise) {
         this.exercises.add(exercise);
     }
+
+    // swaps in an edited copy of an exercise at the same position
+    public void replaceExercise(Exercise exercise) throws ResourceNotFound {
+        this.exercises.set(positionOf(exercise.getId()), exercise);
+    }
+
+    public void removeExercise(String exerciseId) throws ResourceNotFound {
+        this.exercises.remove(positionOf(exerciseId));
+        this.exerciseIndex.clear();
+    }
+
+    // coach notes and exercises under new ids, athlete notes stay with the original
+    Day copy() {
+        Day copy = new Day(this.coachNotes);
+        if (this.exercises != null) {
+            for (Exercise exercise : this.exercises) {
+                copy.exercises.add(exercise.copy());
+            }
+        }
+        return copy;
+    }
 }
@@ -2,6 +2,7 @@ package com.ironinstruction.api.program;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 
 import java.util.ArrayList;
 
@@ -13,6 +14,8 @@ public class Exercise {
     private String name;
     private String videoRef;
     private ArrayList<Set> sets;
+    @Transient
+    private final ChildIndex<Set> setIndex = new ChildIndex<Set>(Set::getId); // position in sets by id
 
     public Exercise(String name, String videoRef) {
         this.id = new ObjectId().toString();
@@ -21,14 +24,17 @@ public class Exercise {
         this.sets = new ArrayList<Set>();
     }
 
-    public Set findSetById(String setId) throws ResourceNotFound {
-        for (Set set : this.sets) {
-            if (set.getId().equals(setId)) {
-                return set;
-            }
+    private int positionOf(String setId) throws ResourceNotFound {
+        int position = setIndex.find(this.sets, setId);
+        if (position == -1) {
+            throw new ResourceNotFound(setId);
         }
 
-         throw new ResourceNotFound(setId);
+        return position;
+    }
+
+    public Set findSetById(String setId) throws ResourceNotFound {
+        return this.sets.get(positionOf(setId));
     }
 
     public String getId() {
@@ -58,4 +64,20 @@ public class Exercise {
     public void addSet(Set set) {
         this.sets.add(set);
     }
+
+    public void removeSet(String setId) throws ResourceNotFound {
+        this.sets.remove(positionOf(setId));
+        this.setIndex.clear();
+    }
+
+    // the demo video is shared with the copy, sets are copied with new ids
+    Exercise copy() {
+        Exercise copy = new Exercise(this.name, this.videoRef);
+        if (this.sets != null) {
+            for (Set set : this.sets) {
+                copy.sets.add(set.copy());
+            }
+        }
+        return copy;
+    }
 }
@@ -3,35 +3,62 @@ package com.ironinstruction.api.program;
 import com.ironinstruction.api.errors.ResourceNotFound;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
+import java.util.Date;
 
 @Document(collection = "programs")
+// lets ownership lookups be answered from the index without reading the program
+@CompoundIndex(name = Program.OWNERSHIP_INDEX, def = "{'_id': 1, 'coachEmail': 1, 'athleteEmail': 1}")
+// each side of the summary $or is read in page order, and the cursor seeks within it
+@CompoundIndex(name = "coach_name", def = "{'coachEmail': 1, 'name': 1, '_id': 1}")
+@CompoundIndex(name = "coach_lastModified", def = "{'coachEmail': 1, 'lastModified': 1, '_id': 1}")
+@CompoundIndex(name = "athlete_name", def = "{'athleteEmail': 1, 'name': 1, '_id': 1}")
+@CompoundIndex(name = "athlete_lastModified", def = "{'athleteEmail': 1, 'lastModified': 1, '_id': 1}")
 public class Program {
+    public static final String OWNERSHIP_INDEX = "ownership";
+
     @Id
     private String id;
     private String name;
     private String description;
     private ArrayList<Week> weeks;
+    @Transient
+    private final ChildIndex<Week> weekIndex = new ChildIndex<Week>(Week::getId); // position in weeks by id
+    // both emails are indexed so the $or in ProgramRepository.findByEmail can union two index scans
+    @Indexed
     private String athleteEmail; // who the program is assigned to
+    @Indexed
     private final String coachEmail;
+    @Version
+    private Long version; // bumped on every write so concurrent full-document writes can be detected
+    private Long resultsVersion; // bumped for every set result logged, which doesn't write the document
+    private Date lastModified;
 
     public Program(String coachEmail, String name, String description) {
         this.coachEmail = coachEmail;
         this.name = name;
         this.description = description;
         this.weeks = new ArrayList<Week>();
+        this.lastModified = new Date();
     }
 
-    public Week findWeekById(String weekId) throws ResourceNotFound {
-        for (Week week : this.weeks) {
-            if (week.getId().equals(weekId)) {
-                return week;
-            }
+    private int positionOf(String weekId) throws ResourceNotFound {
+        int position = weekIndex.find(this.weeks, weekId);
+        if (position == -1) {
+            throw new ResourceNotFound(weekId);
         }
 
-        throw new ResourceNotFound(weekId);
+        return position;
+    }
+
+    public Week findWeekById(String weekId) throws ResourceNotFound {
+        return this.weeks.get(positionOf(weekId));
     }
 
     public String getCoachEmail() {
@@ -66,6 +93,35 @@ public class Program {
         this.weeks.add(week);
     }
 
+    public void removeWeek(String weekId) throws ResourceNotFound {
+        this.weeks.remove(positionOf(weekId));
+        this.weekIndex.clear();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getResultsVersion() {
+        return resultsVersion;
+    }
+
+    void setResultsVersion(Long resultsVersion) {
+        this.resultsVersion = resultsVersion;
+    }
+
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+
     public String getAthleteEmail() {
         return athleteEmail;
     }
@@ -73,4 +129,15 @@ public class Program {
     public void setAthleteEmail(String athleteEmail) {
         this.athleteEmail = athleteEmail;
     }
+
+    // a fresh, unsaved program with the same weeks for another athlete, every node gets a new id
+    // so the copies can be edited and logged independently of the template
+    Program copyFor(String athleteEmail) {
+        Program copy = new Program(this.coachEmail, this.name, this.description);
+        copy.athleteEmail = athleteEmail;
+        for (Week week : this.weeks) {
+            copy.weeks.add(week.copy());
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,182 @@
+package com.ironinstruction.api.program;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// user -> programs they coach or are assigned, kept in memory so access checks don't read the program.
+// ProgramService updates it on create, assign and delete; programs it hasn't seen are loaded on demand
+// and entries expire so changes made by another instance are picked up within the ttl; until then only
+// reads trust an entry, RequestAuthorizer reads the ownership again for every write.
+// Once it holds more than max-entries programs, a write purges the expired ones and then the oldest
+@Component
+public class ProgramAccessIndex {
+    private static class Entry {
+        private final ProgramOwnership ownership;
+        private final long expiresAt;
+
+        private Entry(ProgramOwnership ownership, long expiresAt) {
+            this.ownership = ownership;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> programs = new ConcurrentHashMap<String, Entry>();
+    private final ConcurrentHashMap<String, Map<String, ProgramRole>> users = new ConcurrentHashMap<String, Map<String, ProgramRole>>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // only one writer sweeps at a time, the others carry on
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    public ProgramAccessIndex(
+        @Value("${ironinstruction.program-acl.ttl-seconds:30}") long ttlSeconds,
+        @Value("${ironinstruction.program-acl.max-entries:100000}") int maxEntries
+    ) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+    }
+
+    // false when the program has to be looked up before asking for a role
+    public boolean contains(String programId) {
+        Entry entry = programs.get(programId);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits.increment();
+            return true;
+        }
+
+        misses.increment();
+        return false;
+    }
+
+    // role of the user in a program the index contains, null if they have none
+    public ProgramRole roleOf(String email, String programId) {
+        return users.getOrDefault(email, Collections.emptyMap()).get(programId);
+    }
+
+    // the per-user maps are only changed while holding the program's entry so two updates
+    // to the same program can't leave a stale role behind
+    public void put(ProgramOwnership ownership) {
+        programs.compute(ownership.getId(), (programId, previous) -> {
+            if (previous != null) {
+                unlink(previous.ownership);
+            }
+            link(ownership.getCoachEmail(), programId, ProgramRole.COACH);
+            link(ownership.getAthleteEmail(), programId, ProgramRole.ATHLETE);
+
+            return new Entry(ownership, System.nanoTime() + this.ttlNanos);
+        });
+
+        if (programs.size() > this.maxEntries && sweepLock.tryLock()) {
+            try {
+                sweep();
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+    }
+
+    public void remove(String programId) {
+        programs.computeIfPresent(programId, (id, previous) -> {
+            unlink(previous.ownership);
+            return null;
+        });
+    }
+
+    // drops the entry only if it wasn't replaced in the meantime
+    private boolean evict(String programId, Entry entry) {
+        boolean[] evicted = new boolean[1];
+        programs.computeIfPresent(programId, (id, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            unlink(current.ownership);
+            evicted[0] = true;
+            return null;
+        });
+
+        return evicted[0];
+    }
+
+    // removes the expired programs, then the ones closest to expiring until a tenth of the room is free again
+    // so the sort isn't repeated on every write; evicted programs are simply loaded again when asked for
+    private void sweep() {
+        long now = System.nanoTime();
+        List<Map.Entry<String, Entry>> live = new ArrayList<Map.Entry<String, Entry>>();
+        for (Map.Entry<String, Entry> entry : programs.entrySet()) {
+            if (entry.getValue().expiresAt - now > 0) {
+                live.add(Map.entry(entry.getKey(), entry.getValue()));
+            } else if (evict(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+
+        int target = this.maxEntries - this.maxEntries / 10;
+        if (programs.size() <= target) {
+            return;
+        }
+        // every entry lives for the same ttl, so the earliest expiry is the oldest write
+        live.sort(Comparator.comparingLong((Map.Entry<String, Entry> entry) -> entry.getValue().expiresAt - now));
+        for (Map.Entry<String, Entry> entry : live) {
+            if (programs.size() <= target) {
+                break;
+            }
+            if (evict(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private void link(String email, String programId, ProgramRole role) {
+        // unassigned programs have a blank athlete email
+        if (email == null || email.isBlank()) {
+            return;
+        }
+        // coach wins if the same user somehow holds both roles
+        users.computeIfAbsent(email, key -> new ConcurrentHashMap<String, ProgramRole>()).merge(programId, role, (existing, added) -> existing == ProgramRole.COACH ? existing : added);
+    }
+
+    private void unlink(ProgramOwnership ownership) {
+        for (String email : new String[] { ownership.getCoachEmail(), ownership.getAthleteEmail() }) {
+            if (email != null) {
+                users.computeIfPresent(email, (key, programIds) -> {
+                    programIds.remove(ownership.getId());
+                    return programIds.isEmpty() ? null : programIds;
+                });
+            }
+        }
+    }
+
+    public int getSize() {
+        return programs.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getUserCount() {
+        return users.size();
+    }
+}
@@ -0,0 +1,256 @@
+package com.ironinstruction.api.program;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// keeps recently read programs in memory so the ownership check in JWTAuthorizationFilter
+// and the controller share one read, entries are dropped on every write through ProgramService
+@Component
+public class ProgramCache {
+    @FunctionalInterface
+    public interface Loader {
+        Program load(String programId) throws ResourceNotFound;
+    }
+
+    private static class Entry {
+        private final Program program;
+        private final long weight;
+        private final long expiresAt;
+
+        private Entry(Program program, long weight, long expiresAt) {
+            this.program = program;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+
+    // access ordered, so iteration starts at the least recently used program
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long totalWeight;
+    // bumped on every invalidation, a load notes it when it starts
+    private long generation;
+    // the generation each program was last invalidated at, so a load that raced with a write to its program isn't
+    // cached while loads of other programs still are; stamps are dropped when there are more than maxEntries,
+    // loads started before stampFloor are then treated as raced
+    private final HashMap<String, Long> invalidatedAt = new HashMap<String, Long>();
+    private long stampFloor;
+
+    // a lock rather than synchronized, which would pin virtual threads to their carrier while they wait for it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProgramCache(
+        @Value("${ironinstruction.program-cache.enabled:true}") boolean enabled,
+        @Value("${ironinstruction.program-cache.max-entries:1000}") int maxEntries,
+        @Value("${ironinstruction.program-cache.max-weight:500000}") long maxWeight,
+        @Value("${ironinstruction.program-cache.ttl-seconds:60}") long ttlSeconds
+    ) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    // weight is the number of nodes in the program tree, which tracks its size in memory
+    static long weigh(Program program) {
+        long weight = 1;
+        for (Week week : program.getWeeks()) {
+            weight++;
+            for (Day day : week.getDays()) {
+                weight++;
+                for (Exercise exercise : day.getExercises()) {
+                    weight += 1 + exercise.getSets().size();
+                }
+            }
+        }
+
+        return weight;
+    }
+
+    // cached programs are shared between requests and must not be modified, apart from the buffered
+    // set results ProgramReadService copies in
+    public Program get(String programId, Loader loader) throws ResourceNotFound {
+        if (!this.enabled) {
+            return loader.load(programId);
+        }
+
+        long loadGeneration;
+        this.lock.lock();
+        try {
+            Entry entry = this.entries.get(programId);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.program;
+            } else if (entry != null) {
+                remove(programId);
+                evictions.increment();
+            }
+            loadGeneration = this.generation;
+        } finally {
+            this.lock.unlock();
+        }
+
+        misses.increment();
+        Program program = loader.load(programId);
+        store(programId, program, loadGeneration);
+
+        return program;
+    }
+
+    private void store(String programId, Program program, long loadGeneration) {
+        long weight = weigh(program);
+
+        this.lock.lock();
+        try {
+            if (loadGeneration >= this.stampFloor && loadGeneration >= this.invalidatedAt.getOrDefault(programId, 0L) && weight <= this.maxWeight) {
+                remove(programId);
+                this.entries.put(programId, new Entry(program, weight, System.nanoTime() + this.ttlNanos));
+                this.totalWeight += weight;
+                evictLeastRecentlyUsed();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // get split in two for callers that can't block in a Loader, like the reactive profile: find counts a hit,
+    // on null the caller reads getGeneration, loads the program without blocking and hands it to put
+    public Program find(String programId) {
+        Program program = this.enabled ? peek(programId) : null;
+        if (program != null) {
+            hits.increment();
+        }
+
+        return program;
+    }
+
+    public long getGeneration() {
+        this.lock.lock();
+        try {
+            return this.generation;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // a program loaded after find missed, kept unless that program was invalidated since loadGeneration
+    public void put(String programId, Program program, long loadGeneration) {
+        if (this.enabled) {
+            misses.increment();
+            store(programId, program, loadGeneration);
+        }
+    }
+
+    // the cached program if there is a live entry, without loading it or counting a hit or miss
+    public Program peek(String programId) {
+        this.lock.lock();
+        try {
+            Entry entry = this.entries.get(programId);
+            return entry != null && entry.expiresAt - System.nanoTime() > 0 ? entry.program : null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void invalidate(String programId) {
+        this.lock.lock();
+        try {
+            this.generation++;
+            if (this.invalidatedAt.size() >= this.maxEntries && !this.invalidatedAt.containsKey(programId)) {
+                this.invalidatedAt.clear();
+                this.stampFloor = this.generation - 1;
+            }
+            this.invalidatedAt.put(programId, this.generation);
+            remove(programId);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.generation++;
+            this.invalidatedAt.clear();
+            this.stampFloor = this.generation;
+            this.entries.clear();
+            this.totalWeight = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void remove(String programId) {
+        Entry removed = this.entries.remove(programId);
+        if (removed != null) {
+            this.totalWeight -= removed.weight;
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while ((this.entries.size() > this.maxEntries || this.totalWeight > this.maxWeight) && iterator.hasNext()) {
+            this.totalWeight -= iterator.next().getValue().weight;
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSize() {
+        this.lock.lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getWeight() {
+        this.lock.lock();
+        try {
+            return this.totalWeight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // programs dropped because the cache was full or their entry expired, not because of a write
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long requests = getHits() + getMisses();
+        return requests == 0 ? 0 : (double) getHits() / requests;
+    }
+}
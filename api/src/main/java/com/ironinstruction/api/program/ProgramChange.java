@@ -0,0 +1,55 @@
+package com.ironinstruction.api.program;
+
+// describes what a mutation did to a program so the response can carry only that part
+final class ProgramChange {
+    enum Type {
+        ADD,
+        REPLACE,
+        REMOVE
+    }
+
+    private final Type type;
+    private final ProgramPath path;
+    private final String[] fields; // replaced fields of the node, empty when the whole node was replaced
+    private final Object node; // the node as the write returned it, null if the write didn't
+
+    private ProgramChange(Type type, ProgramPath path, String[] fields, Object node) {
+        this.type = type;
+        this.path = path;
+        this.fields = fields;
+        this.node = node;
+    }
+
+    static ProgramChange added(ProgramPath path) {
+        return new ProgramChange(Type.ADD, path, new String[0], null);
+    }
+
+    static ProgramChange replaced(ProgramPath path, String... fields) {
+        return new ProgramChange(Type.REPLACE, path, fields, null);
+    }
+
+    static ProgramChange removed(ProgramPath path) {
+        return new ProgramChange(Type.REMOVE, path, new String[0], null);
+    }
+
+    // a node response is built from it instead of the program read after the write
+    ProgramChange withNode(Object node) {
+        return new ProgramChange(type, path, fields, node);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    ProgramPath getPath() {
+        return path;
+    }
+
+    String[] getFields() {
+        return fields;
+    }
+
+    Object getNode() {
+        return node;
+    }
+}
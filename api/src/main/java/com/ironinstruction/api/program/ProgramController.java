@@ -1,51 +1,115 @@
 package com.ironinstruction.api.program;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.errors.ConcurrentModification;
 import com.ironinstruction.api.errors.InvalidRequest;
 import com.ironinstruction.api.errors.ResourceNotFound;
 import com.ironinstruction.api.requests.AssignProgramRequest;
+import com.ironinstruction.api.requests.BatchRequest;
+import com.ironinstruction.api.requests.BulkAssignRequest;
 import com.ironinstruction.api.requests.NoteRequest;
+import com.ironinstruction.api.requests.ResponseMode;
 import com.ironinstruction.api.requests.FinishSetRequest;
+import com.ironinstruction.api.requests.CompleteVideoUploadRequest;
 import com.ironinstruction.api.requests.CreateExerciseRequest;
 import com.ironinstruction.api.requests.CreateProgramRequest;
 import com.ironinstruction.api.requests.CreateSetRequest;
+import com.ironinstruction.api.responses.BatchResponse;
+import com.ironinstruction.api.responses.BulkAssignResponse;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
 import com.ironinstruction.api.responses.VideoLinkResponse;
-import com.ironinstruction.api.security.SecurityConstants;
-import com.ironinstruction.api.user.User;
-import com.ironinstruction.api.user.UserService;
-import com.ironinstruction.api.user.UserType;
-import com.ironinstruction.api.utils.AwsS3Manager;
+import com.ironinstruction.api.responses.VideoUploadResponse;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/programs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProgramController {
-    private final AwsS3Manager s3Manager;
     private final ProgramService programService;
-    private final UserService userService;
+    private final ProgramVideoService videoService;
+    private final ObjectMapper objectMapper;
 
-    public ProgramController(ProgramService programService, UserService userService) {
-        this.s3Manager = new AwsS3Manager(SecurityConstants.S3_BUCKET_NAME);
+    public ProgramController(ProgramService programService, ProgramVideoService videoService, ObjectMapper objectMapper) {
         this.programService = programService; 
-        this.userService = userService;
+        this.videoService = videoService;
+        this.objectMapper = objectMapper;
+    }
+
+    private ResponseMode responseMode(WebRequest webRequest) throws InvalidRequest {
+        return ProgramResponses.responseMode(webRequest.getParameter("response"), webRequest.getHeader("X-Response-Mode"));
+    }
+
+    private ProgramVersion baseVersion(WebRequest webRequest) throws InvalidRequest {
+        return ProgramResponses.baseVersion(webRequest.getParameter("baseVersion"), webRequest.getHeader("X-Base-Version"));
+    }
+
+    // runs before every handler so a bad mode is rejected before the mutation is applied
+    @ModelAttribute
+    public void checkResponseOptions(WebRequest webRequest) throws InvalidRequest {
+        responseMode(webRequest);
+        baseVersion(webRequest);
+    }
+
+    // a removed node can only be located before the write, null if no exact patch is possible
+    private String locateRemoval(ProgramPath path, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        ProgramVersion baseVersion = baseVersion(webRequest);
+        if (!ProgramResponses.locatesRemoval(responseMode(webRequest), baseVersion)) {
+            return null;
+        }
+
+        return ProgramResponses.removedPointer(programService.findById(path.getProgramId()), path, baseVersion);
+    }
+
+    private ResponseEntity<Object> respond(ProgramChange change, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        return respond(change, null, webRequest);
+    }
+
+    // the default full response and patches read the program after the write, a node response
+    // only reads the results of the node's sets and the version
+    private ResponseEntity<Object> respond(ProgramChange change, String removedPointer, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        String programId = change.getPath().getProgramId();
+        if (ProgramResponses.answersFromNode(change, responseMode(webRequest))) {
+            Object node = change.getNode() == null ? null : programService.withResults(programId, change.getNode());
+            return ProgramResponses.node(change.withNode(node), programService.findVersion(programId));
+        }
+
+        return respond(change, removedPointer, programService.findById(programId), webRequest);
+    }
+
+    // program is the program after the change, for writes that already returned it
+    private ResponseEntity<Object> respond(ProgramChange change, String removedPointer, Program program, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        return ProgramResponses.change(change, removedPointer, program, responseMode(webRequest), baseVersion(webRequest), objectMapper);
     }
 
     @PostMapping("")
     public Program createProgram(@RequestBody CreateProgramRequest request) throws InvalidRequest {
-        if (request.getName().isBlank()) {
-            throw new InvalidRequest("name field must not be empty");
-        }
         return programService.createProgram(
             (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal(), // JWT token's associated email
             request.getName(),
@@ -54,133 +118,171 @@ public class ProgramController {
     }
 
     @GetMapping("/user/me")
-    public List<Program> getUserPrograms() {
+    public ProgramSummaryPage getUserPrograms(
+        @RequestParam(defaultValue = "lastModified") String sort,
+        @RequestParam(defaultValue = "desc") String direction,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) String cursor
+    ) throws InvalidRequest {
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction).orElseThrow(() -> new InvalidRequest("direction must be asc or desc"));
         String userEmail = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
-        return programService.findUserPrograms(userEmail);
+        return programService.findUserProgramSummaries(userEmail, sort, sortDirection, limit, cursor);
+    }
+
+    // every week, day, exercise and set of every program, only for clients that really need the whole tree
+    // programs are written to the response as they come off the cursor instead of being collected first
+    @GetMapping("/user/me/full")
+    public void getUserProgramsFull(HttpServletResponse response) throws IOException {
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (
+            Stream<Program> programs = programService.streamUserPrograms(userEmail);
+            JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())
+        ) {
+            ProgramJsonWriter.writePrograms(generator, programs.iterator());
+        }
     }
 
     @GetMapping("/{programId}") 
-    public Program getProgram(@PathVariable String programId) throws ResourceNotFound {
-        return programService.findById(programId);
+    public ResponseEntity<byte[]> getProgram(@PathVariable String programId, WebRequest request) throws ResourceNotFound, JsonProcessingException {
+        // If-None-Match is answered from the version alone, the program is only loaded when it changed
+        ProgramVersion version = programService.findVersion(programId);
+        String etag = ProgramETag.of(version);
+        if (!programService.hasPendingResults(programId) && request.checkNotModified(etag)) {
+            return ProgramResponses.notModified(etag);
+        }
+
+        ProgramResponseCache.Body body = programService.findResponseBody(programId, version);
+        return ProgramResponses.program(body, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
     }
 
     @PostMapping("/{programId}")
-    public Program updateProgram(@PathVariable String programId, @RequestBody CreateProgramRequest request) throws ResourceNotFound {
-        return programService.updateProgram(programId, request.getName(), request.getDescription()); 
+    public ResponseEntity<Object> updateProgram(@PathVariable String programId, @RequestBody CreateProgramRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        programService.updateProgram(programId, request.getName(), request.getDescription()); 
+        return respond(ProgramChange.replaced(ProgramPath.of(programId), "name", "description"), webRequest);
     }
 
     @PostMapping("/{programId}/assign")
-    public Program assignProgram(@PathVariable String programId, @RequestBody AssignProgramRequest request) throws ResourceNotFound, InvalidRequest {
-        if (!request.getEmail().isBlank()) {
-            User user = userService.findByEmail(request.getEmail());
-            if (user.getUserType().equals(UserType.COACH)) {
-                throw new InvalidRequest("Cannot assign program to coach");
-            }
-        } 
-
-        return programService.assignProgram(
+    public ResponseEntity<Object> assignProgram(@PathVariable String programId, @RequestBody AssignProgramRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        programService.assignToAthlete(
             programId,
             request.getEmail()
         );
+        return respond(ProgramChange.replaced(ProgramPath.of(programId), "athleteEmail"), webRequest);
+    }
+
+    // gives every athlete on a roster their own copy of the program, the program itself stays unassigned
+    @PostMapping("/{programId}/assign/bulk")
+    public BulkAssignResponse bulkAssignProgram(@PathVariable String programId, @RequestBody BulkAssignRequest request) throws ResourceNotFound, InvalidRequest {
+        return programService.bulkAssign(programId, request.getEmails());
+    }
+
+    @PostMapping("/{programId}/batch")
+    public BatchResponse applyBatch(@PathVariable String programId, @RequestBody BatchRequest request) throws ResourceNotFound, InvalidRequest, ConcurrentModification {
+        return programService.applyBatch(programId, request.getOperations());
     }
 
     @PostMapping("/{programId}/weeks")
-    public Program createWeek(@PathVariable String programId, @RequestBody NoteRequest request) throws ResourceNotFound {
-        return programService.addWeek(programId, request.getNote());
+    public ResponseEntity<Object> createWeek(@PathVariable String programId, @RequestBody NoteRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Week week = programService.addWeek(programId, request.getNote());
+        return respond(ProgramChange.added(ProgramPath.of(programId, week.getId())).withNode(week), webRequest);
     }
 
     @DeleteMapping("/{programId}/weeks/{weekId}")
-    public Program deleteWeek(@PathVariable String programId, @PathVariable String weekId) throws ResourceNotFound {
-        return programService.deleteWeek(programId, weekId);  
+    public ResponseEntity<Object> deleteWeek(@PathVariable String programId, @PathVariable String weekId, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        ProgramPath path = ProgramPath.of(programId, weekId);
+        String removedPointer = locateRemoval(path, webRequest);
+        programService.deleteWeek(programId, weekId);
+        return respond(ProgramChange.removed(path), removedPointer, webRequest);
     }
 
     @PostMapping("/{programId}/weeks/{weekId}/notes")
-    public Program updateWeekCoachNotes(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request) throws ResourceNotFound {
-        return programService.updateWeekCoachNote(programId, weekId, request.getNote());
+    public ResponseEntity<Object> updateWeekCoachNotes(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Week week = programService.updateWeekCoachNote(programId, weekId, request.getNote());
+        return respond(ProgramChange.replaced(ProgramPath.of(programId, weekId), "coachNotes").withNode(week), webRequest);
     }
 
     @PatchMapping("/{programId}/weeks/{weekId}/notes")
-    public Program updateWeekAthleteNote(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request) throws ResourceNotFound {
-        return programService.updateWeekAthleteNote(programId, weekId, request.getNote());
+    public ResponseEntity<Object> updateWeekAthleteNote(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Week week = programService.updateWeekAthleteNote(programId, weekId, request.getNote());
+        return respond(ProgramChange.replaced(ProgramPath.of(programId, weekId), "athleteNotes").withNode(week), webRequest);
     }
 
     @PostMapping("/{programId}/weeks/{weekId}/days")
-    public Program createDay(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request) throws ResourceNotFound {
-        return programService.addDay(programId, weekId, request.getNote());
+    public ResponseEntity<Object> createDay(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Day day = programService.addDay(programId, weekId, request.getNote());
+        return respond(ProgramChange.added(ProgramPath.of(programId, weekId, day.getId())).withNode(day), webRequest);
     }
 
     @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}")
-    public Program deleteDay(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId) throws ResourceNotFound {
-        return programService.deleteDay(programId, weekId, dayId);
+    public ResponseEntity<Object> deleteDay(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        ProgramPath path = ProgramPath.of(programId, weekId, dayId);
+        String removedPointer = locateRemoval(path, webRequest);
+        programService.deleteDay(programId, weekId, dayId);
+        return respond(ProgramChange.removed(path), removedPointer, webRequest);
     }
 
     @PatchMapping("/{programId}/weeks/{weekId}/days/{dayId}/notes")
-    public Program updateDayAthleteNote(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody NoteRequest request) throws ResourceNotFound {
-        return programService.updateDayAthleteNote(programId, weekId, dayId, request.getNote());
+    public ResponseEntity<Object> updateDayAthleteNote(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody NoteRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Day day = programService.updateDayAthleteNote(programId, weekId, dayId, request.getNote());
+        return respond(ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId), "athleteNotes").withNode(day), webRequest);
     }
 
     @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/notes")
-    public Program updateDayCoachNote(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody NoteRequest request) throws ResourceNotFound {
-        return programService.updateDayCoachNote(programId, weekId, dayId, request.getNote());
+    public ResponseEntity<Object> updateDayCoachNote(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody NoteRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Day day = programService.updateDayCoachNote(programId, weekId, dayId, request.getNote());
+        return respond(ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId), "coachNotes").withNode(day), webRequest);
     }
 
     @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises")
-    public Program createExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody CreateExerciseRequest request) throws ResourceNotFound, InvalidRequest {
-        if (request.getName().isBlank()) {
-            throw new InvalidRequest("Exercise name must not be blank");
-        }
-
-        return programService.addExercise(programId, weekId, dayId, request.getName(), request.getVideoRef());
+    public ResponseEntity<Object> createExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody CreateExerciseRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Exercise exercise = programService.addExercise(programId, weekId, dayId, request.getName(), request.getVideoRef());
+        return respond(ProgramChange.added(ProgramPath.of(programId, weekId, dayId, exercise.getId())).withNode(exercise), webRequest);
     }
 
     @PutMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}")
-    public Program updateExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @RequestBody Exercise request) throws ResourceNotFound, InvalidRequest {
-        if (request.getName().isBlank()) {
-            throw new InvalidRequest("Exercise name must not be blank");
-        }
+    public ResponseEntity<Object> updateExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @RequestBody Exercise request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest, ConcurrentModification {
+        Exercise exercise = programService.updateExercise(programId, weekId, dayId, request);
+        return respond(ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId, request.getId())).withNode(exercise), webRequest);
+    }
 
-        request.getSets().forEach(set -> {
-            if (set.getId().isBlank()) {
-                set.generateId();   
-            }
-        });
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}")
+    public ResponseEntity<Object> deleteExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        ProgramPath path = ProgramPath.of(programId, weekId, dayId, exerciseId);
+        String removedPointer = locateRemoval(path, webRequest);
+        programService.deleteExercise(programId, weekId, dayId, exerciseId);
+        return respond(ProgramChange.removed(path), removedPointer, webRequest);
+    }
 
-        return programService.updateExercise(programId, weekId, dayId, request);
+    // download links for every video in the week, keyed by exercise or set id, so a client showing
+    // the week doesn't ask for each video on its own
+    @GetMapping("/{programId}/weeks/{weekId}/video-links")
+    public Map<String, String> getWeekVideoLinks(@PathVariable String programId, @PathVariable String weekId) throws ResourceNotFound {
+        return videoService.presignVideoRefs(programService.findWeekVideoRefs(programId, weekId));
     }
 
-    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}")
-    public Program deleteExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) throws ResourceNotFound {
-        return programService.deleteExercise(programId, weekId, dayId, exerciseId);
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/video-links")
+    public Map<String, String> getDayVideoLinks(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId) throws ResourceNotFound {
+        return videoService.presignVideoRefs(programService.findDayVideoRefs(programId, weekId, dayId));
     }
 
     @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video") 
     public VideoLinkResponse getExerciseVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) throws ResourceNotFound { 
-        String key = programService.findById(programId).findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).getVideoRef();
-        if (key == null || key.length() == 0) {
-            throw new ResourceNotFound(exerciseId);
-        }
-        return new VideoLinkResponse(this.s3Manager.newPresignedGetUrl(key));
+        return new VideoLinkResponse(videoService.presignVideo(exerciseId, programService.findExercise(programId, weekId, dayId, exerciseId).getVideoRef()));
     }
     
     // make it post so only coach can access
     @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/upload") 
     public VideoLinkResponse createExerciseVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) throws ResourceNotFound { 
-        String existingKey = programService.findById(programId).findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).getVideoRef();
-        if (existingKey != null && existingKey.length() != 0) {
-            this.s3Manager.deleteObject(existingKey);
-        }
-        String key = exerciseId + ".mp4"; 
-        String videoLink = this.s3Manager.newPresignedPutUrl(key);
-        programService.assignExerciseVideoUrl(programId, weekId, dayId, exerciseId, key);
-
-        return new VideoLinkResponse(videoLink);
+        return new VideoLinkResponse(videoService.newExerciseUploadUrl(programId, weekId, dayId, exerciseId));
     }
 
     @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets")
-    public Program createSet(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @RequestBody CreateSetRequest request) throws ResourceNotFound {
+    public ResponseEntity<Object> createSet(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @RequestBody CreateSetRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        Set set;
         // rpe == -1 when set is designed with reps instead of rpe
         if (request.getRpe() == -1) { 
-            return programService.addSet(
+            set = programService.addSet(
                 programId,
                 weekId,
                 dayId,
@@ -191,7 +293,7 @@ public class ProgramController {
                 request.getVideoRequested()
             );
         } else {
-            return programService.addSet(
+            set = programService.addSet(
                 programId,
                 weekId,
                 dayId,
@@ -202,32 +304,75 @@ public class ProgramController {
                 request.getVideoRequested()
             );
         }
+
+        return respond(ProgramChange.added(ProgramPath.of(programId, weekId, dayId, exerciseId, set.getId())).withNode(set), webRequest);
     }
 
     @PatchMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}")
-    public Program finishSet(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @RequestBody FinishSetRequest request) throws ResourceNotFound {
-        return programService.updateSet(programId, weekId, dayId, exerciseId, setId, request.getRepsDone());
+    public ResponseEntity<Object> finishSet(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @RequestBody FinishSetRequest request, WebRequest webRequest) throws ResourceNotFound, InvalidRequest {
+        // the program comes back with the new result, so respond doesn't read it again
+        Program program = programService.finishSet(programId, weekId, dayId, exerciseId, setId, request.getRepsDone(), request.getRpe(), request.getWeight());
+        return respond(ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId, exerciseId, setId), "completedReps"), null, program, webRequest);
+    }
+
+    // every time the set was logged, the program only shows the latest
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/results")
+    public List<SetResult> getSetResults(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) throws ResourceNotFound {
+        return programService.findSetResults(programId, weekId, dayId, exerciseId, setId);
     }
 
     @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video") 
     public VideoLinkResponse getSetVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) throws ResourceNotFound { 
-        String key = programService.findById(programId).findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).findSetById(setId).getVideoRef();
-        if (key == null || key.length() == 0) {
-            throw new ResourceNotFound(setId);
-        }
-        return new VideoLinkResponse(this.s3Manager.newPresignedGetUrl(key));
+        return new VideoLinkResponse(videoService.presignVideo(setId, programService.findSet(programId, weekId, dayId, exerciseId, setId).getVideoRef()));
     }
 
     @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/upload") 
     public VideoLinkResponse createSetVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) throws ResourceNotFound { 
-        String existingKey = programService.findById(programId).findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).findSetById(setId).getVideoRef();
-        if (existingKey != null && existingKey.length() != 0) {
-            this.s3Manager.deleteObject(existingKey);
-        }
-        String key = setId + ".mp4"; 
-        String url = this.s3Manager.newPresignedPutUrl(key);
-        programService.assignSetVideoUrl(programId, weekId, dayId, exerciseId, setId, key);
-        return new VideoLinkResponse(url);
+        return new VideoLinkResponse(videoService.newSetUploadUrl(programId, weekId, dayId, exerciseId, setId));
     }
-}
 
+    // multipart uploads let a client send a long video in parts, several at a time, and resend only the parts that failed
+    // the video is assigned to the node once the upload completes, the janitor aborts the ones that never do
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart")
+    public VideoUploadResponse startExerciseVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) throws ResourceNotFound {
+        return videoService.startExerciseUpload(programId, weekId, dayId, exerciseId);
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart/{uploadId}")
+    public Map<Integer, String> getExerciseVideoPartLinks(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String uploadId, @RequestParam List<Integer> partNumbers) throws ResourceNotFound, InvalidRequest {
+        return videoService.presignExerciseParts(programId, weekId, dayId, exerciseId, uploadId, partNumbers);
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart/{uploadId}")
+    public VideoLinkResponse completeExerciseVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String uploadId, @RequestBody CompleteVideoUploadRequest request) throws ResourceNotFound, InvalidRequest {
+        return new VideoLinkResponse(videoService.completeExerciseUpload(programId, weekId, dayId, exerciseId, uploadId, request));
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart/{uploadId}")
+    public ResponseEntity<Object> abortExerciseVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String uploadId) throws ResourceNotFound {
+        videoService.abortExerciseUpload(programId, weekId, dayId, exerciseId, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // athletes upload their set videos, JWTAuthorizationFilter lets them use these POST and DELETE endpoints
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart")
+    public VideoUploadResponse startSetVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) throws ResourceNotFound {
+        return videoService.startSetUpload(programId, weekId, dayId, exerciseId, setId);
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart/{uploadId}")
+    public Map<Integer, String> getSetVideoPartLinks(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @PathVariable String uploadId, @RequestParam List<Integer> partNumbers) throws ResourceNotFound, InvalidRequest {
+        return videoService.presignSetParts(programId, weekId, dayId, exerciseId, setId, uploadId, partNumbers);
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart/{uploadId}")
+    public VideoLinkResponse completeSetVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @PathVariable String uploadId, @RequestBody CompleteVideoUploadRequest request) throws ResourceNotFound, InvalidRequest {
+        return new VideoLinkResponse(videoService.completeSetUpload(programId, weekId, dayId, exerciseId, setId, uploadId, request));
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart/{uploadId}")
+    public ResponseEntity<Object> abortSetVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @PathVariable String uploadId) throws ResourceNotFound {
+        videoService.abortSetUpload(programId, weekId, dayId, exerciseId, setId, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ironinstruction.api.program;
+
+// strong entity tag of a program, every write bumps the version or the results version so the tag changes with the content
+public final class ProgramETag {
+    private ProgramETag() { }
+
+    public static String of(ProgramVersion version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String of(Program program) {
+        return of(ProgramVersion.of(program));
+    }
+}
@@ -0,0 +1,39 @@
+package com.ironinstruction.api.program;
+
+import com.ironinstruction.api.responses.BatchResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// tags every response that carries a whole program, including the ones returned by mutations,
+// so clients can keep using their copy in a conditional GET afterwards
+@ControllerAdvice(assignableTypes = ProgramController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProgramETagAdvice implements ResponseBodyAdvice<Object> {
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+        Program program = null;
+        if (body instanceof Program) {
+            program = (Program) body;
+        } else if (body instanceof BatchResponse) {
+            program = ((BatchResponse) body).getProgram();
+        }
+
+        if (program != null) {
+            response.getHeaders().setETag(ProgramETag.of(program));
+        }
+
+        return body;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ironinstruction.api.program;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+// writes programs straight to a generator as they come off a cursor instead of building the whole response first
+// each program goes through the generator's codec, the application's object mapper for the generators it
+// creates, so the output is the same JSON the mapper produces for the list
+public final class ProgramJsonWriter {
+    private ProgramJsonWriter() { }
+
+    // writes a JSON array of programs, flushing after each one so the client starts receiving data
+    // while later programs are still being read from the cursor
+    public static void writePrograms(JsonGenerator generator, Iterator<Program> programs) throws IOException {
+        generator.writeStartArray();
+        while (programs.hasNext()) {
+            generator.writeObject(programs.next());
+            generator.flush();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+}
@@ -0,0 +1,9 @@
+package com.ironinstruction.api.program;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+// a change applied to a freshly loaded program, may run more than once when writes conflict
+@FunctionalInterface
+public interface ProgramModification<T> {
+    T apply(Program program) throws ResourceNotFound;
+}
@@ -0,0 +1,28 @@
+package com.ironinstruction.api.program;
+
+// the only fields authorization needs from a program
+public class ProgramOwnership {
+    private String id;
+    private String coachEmail;
+    private String athleteEmail;
+
+    public ProgramOwnership() { }
+
+    public ProgramOwnership(String id, String coachEmail, String athleteEmail) {
+        this.id = id;
+        this.coachEmail = coachEmail;
+        this.athleteEmail = athleteEmail;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCoachEmail() {
+        return coachEmail;
+    }
+
+    public String getAthleteEmail() {
+        return athleteEmail;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ironinstruction.api.program;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.responses.JsonPatchOperation;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+// locates nodes of a program by path and turns a ProgramChange into RFC 6902 operations
+final class ProgramPatches {
+    private ProgramPatches() { }
+
+    private static Object child(Object parent, String id) throws ResourceNotFound {
+        if (parent instanceof Program) {
+            return ((Program) parent).findWeekById(id);
+        } else if (parent instanceof Week) {
+            return ((Week) parent).findDayById(id);
+        } else if (parent instanceof Day) {
+            return ((Day) parent).findExerciseById(id);
+        }
+
+        return ((Exercise) parent).findSetById(id);
+    }
+
+    private static List<?> children(Object parent) {
+        if (parent instanceof Program) {
+            return ((Program) parent).getWeeks();
+        } else if (parent instanceof Week) {
+            return ((Week) parent).getDays();
+        } else if (parent instanceof Day) {
+            return ((Day) parent).getExercises();
+        }
+
+        return ((Exercise) parent).getSets();
+    }
+
+    static Object node(Program program, ProgramPath path) throws ResourceNotFound {
+        Object node = program;
+        for (int level = 0; level < path.depth(); level++) {
+            node = child(node, path.nodeId(level));
+        }
+
+        return node;
+    }
+
+    // JSON pointer of the node, e.g. /weeks/2/days/0, empty for the program itself
+    static String pointer(Program program, ProgramPath path) throws ResourceNotFound {
+        StringBuilder pointer = new StringBuilder();
+        Object node = program;
+        for (int level = 0; level < path.depth(); level++) {
+            Object child = child(node, path.nodeId(level));
+            pointer.append('/').append(ProgramPath.arrayName(level)).append('/').append(children(node).indexOf(child));
+            node = child;
+        }
+
+        return pointer.toString();
+    }
+
+    // a missing value is written as null, like the field in a serialized node
+    private static JsonNode value(Object value, ObjectMapper objectMapper) {
+        return value == null ? objectMapper.getNodeFactory().nullNode() : objectMapper.valueToTree(value);
+    }
+
+    // patch that turns the program before the change into program, removals need the pointer
+    // of the removed node in the program before the change since it no longer exists
+    static List<JsonPatchOperation> operations(Program program, ProgramChange change, String removedPointer, ObjectMapper objectMapper) throws ResourceNotFound {
+        List<JsonPatchOperation> operations = new ArrayList<JsonPatchOperation>();
+        ProgramPath path = change.getPath();
+
+        switch (change.getType()) {
+            case ADD:
+                operations.add(new JsonPatchOperation("add", pointer(program, path), objectMapper.valueToTree(node(program, path))));
+                break;
+            case REPLACE:
+                String pointer = pointer(program, path);
+                if (change.getFields().length == 0) {
+                    operations.add(new JsonPatchOperation("replace", pointer, objectMapper.valueToTree(node(program, path))));
+                    break;
+                }
+                // only the changed fields are serialized, for a program field the node is the whole program
+                BeanWrapper node = PropertyAccessorFactory.forBeanPropertyAccess(node(program, path));
+                for (String field : change.getFields()) {
+                    operations.add(new JsonPatchOperation("replace", pointer + "/" + field, value(node.getPropertyValue(field), objectMapper)));
+                }
+                break;
+            case REMOVE:
+                operations.add(new JsonPatchOperation("remove", removedPointer, null));
+                break;
+        }
+
+        // every write also moves a version and the modification time
+        operations.add(new JsonPatchOperation("replace", "/version", value(program.getVersion(), objectMapper)));
+        operations.add(new JsonPatchOperation("replace", "/lastModified", value(program.getLastModified(), objectMapper)));
+        operations.add(new JsonPatchOperation("replace", "/resultsVersion", value(program.getResultsVersion(), objectMapper)));
+
+        return operations;
+    }
+}
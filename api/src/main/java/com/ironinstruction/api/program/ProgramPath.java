@@ -0,0 +1,136 @@
+package com.ironinstruction.api.program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+// addresses a single node (program, week, day, exercise or set) inside a program document
+// so that updates can be sent as operators on that node instead of saving the whole tree
+public class ProgramPath {
+    private static final String[] ARRAYS = { "weeks", "days", "exercises", "sets" };
+    private static final String[] FILTERS = { "w", "d", "e", "s" };
+
+    private final String programId;
+    private final String[] nodeIds; // week, day, exercise, set ids in order
+
+    private ProgramPath(String programId, String[] nodeIds) {
+        this.programId = programId;
+        this.nodeIds = nodeIds;
+    }
+
+    public static ProgramPath of(String programId, String... nodeIds) {
+        if (nodeIds.length > ARRAYS.length) {
+            throw new IllegalArgumentException("Program paths can't be deeper than a set");
+        }
+        return new ProgramPath(programId, nodeIds);
+    }
+
+    public ProgramPath child(String nodeId) {
+        String[] childIds = Arrays.copyOf(this.nodeIds, this.nodeIds.length + 1);
+        childIds[this.nodeIds.length] = nodeId;
+        return ProgramPath.of(this.programId, childIds);
+    }
+
+    public ProgramPath parent() {
+        return new ProgramPath(this.programId, Arrays.copyOf(this.nodeIds, this.nodeIds.length - 1));
+    }
+
+    public String getProgramId() {
+        return this.programId;
+    }
+
+    // id of the addressed node, used when reporting a missing resource
+    public String getNodeId() {
+        return this.nodeIds.length == 0 ? this.programId : this.nodeIds[this.nodeIds.length - 1];
+    }
+
+    public int depth() {
+        return this.nodeIds.length;
+    }
+
+    String nodeId(int level) {
+        return this.nodeIds[level];
+    }
+
+    // name of the array holding the nodes at depth level + 1, weeks for level 0
+    static String arrayName(int level) {
+        return ARRAYS[level];
+    }
+
+    // ids are written as ObjectIds when they are valid hex strings, so match them in the same form
+    public static Object storedId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    // matches the program only if every node along the path exists
+    public Criteria criteria() {
+        Criteria criteria = Criteria.where("_id").is(storedId(this.programId));
+        if (this.nodeIds.length == 0) {
+            return criteria;
+        }
+
+        return criteria.and(ARRAYS[0]).elemMatch(elemMatch(0));
+    }
+
+    private Criteria elemMatch(int level) {
+        Criteria criteria = Criteria.where("_id").is(storedId(this.nodeIds[level]));
+        if (level + 1 < this.nodeIds.length) {
+            criteria.and(ARRAYS[level + 1]).elemMatch(elemMatch(level + 1));
+        }
+
+        return criteria;
+    }
+
+    // update path of the addressed node, e.g. weeks.$[w].days.$[d]
+    public String nodePath() {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < this.nodeIds.length; i++) {
+            if (i > 0) {
+                path.append('.');
+            }
+            path.append(ARRAYS[i]).append(".$[").append(FILTERS[i]).append(']');
+        }
+
+        return path.toString();
+    }
+
+    public String fieldPath(String field) {
+        return this.nodeIds.length == 0 ? field : nodePath() + "." + field;
+    }
+
+    // array holding the children of the addressed node, e.g. weeks.$[w].days
+    public String childArrayPath() {
+        if (this.nodeIds.length == ARRAYS.length) {
+            throw new IllegalArgumentException("Sets don't have children");
+        }
+
+        return fieldPath(ARRAYS[this.nodeIds.length]);
+    }
+
+    public List<Criteria> arrayFilters() {
+        List<Criteria> filters = new ArrayList<Criteria>();
+        for (int i = 0; i < this.nodeIds.length; i++) {
+            filters.add(Criteria.where(FILTERS[i] + "._id").is(storedId(this.nodeIds[i])));
+        }
+
+        return filters;
+    }
+
+    // aggregation stages that reduce the program document down to the addressed node
+    public List<AggregationOperation> fragmentStages() {
+        List<AggregationOperation> stages = new ArrayList<AggregationOperation>();
+        stages.add(Aggregation.match(Criteria.where("_id").is(storedId(this.programId))));
+        for (int i = 0; i < this.nodeIds.length; i++) {
+            stages.add(Aggregation.unwind(ARRAYS[i]));
+            stages.add(Aggregation.match(Criteria.where(ARRAYS[i] + "._id").is(storedId(this.nodeIds[i]))));
+            stages.add(Aggregation.replaceRoot(ARRAYS[i]));
+        }
+
+        return stages;
+    }
+}
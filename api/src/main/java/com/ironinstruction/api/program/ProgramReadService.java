@@ -0,0 +1,265 @@
+package com.ironinstruction.api.program;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
+
+import org.springframework.data.domain.Sort;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the reads and set logging of both web stacks, written once against a ProgramStore
+// ProgramService runs it over BlockingProgramStore and waits for the result, the reactive profile
+// runs it over ReactiveProgramStore; both share the caches, the access index and the result buffer
+public class ProgramReadService {
+    private final ProgramStore store;
+    private final ProgramCache programCache;
+    private final ProgramAccessIndex accessIndex;
+    private final ProgramResponseCache responseCache;
+    private final SetResultBuffer resultBuffer;
+
+    public ProgramReadService(ProgramStore store, ProgramCache programCache, ProgramAccessIndex accessIndex, ProgramResponseCache responseCache, SetResultBuffer resultBuffer) {
+        this.store = store;
+        this.programCache = programCache;
+        this.accessIndex = accessIndex;
+        this.responseCache = responseCache;
+        this.resultBuffer = resultBuffer;
+    }
+
+    static void collectSets(Object node, List<Set> sets) {
+        if (node instanceof Program) {
+            ((Program) node).getWeeks().forEach((week) -> collectSets(week, sets));
+        } else if (node instanceof Week && ((Week) node).getDays() != null) {
+            ((Week) node).getDays().forEach((day) -> collectSets(day, sets));
+        } else if (node instanceof Day && ((Day) node).getExercises() != null) {
+            ((Day) node).getExercises().forEach((exercise) -> collectSets(exercise, sets));
+        } else if (node instanceof Exercise && ((Exercise) node).getSets() != null) {
+            sets.addAll(((Exercise) node).getSets());
+        } else if (node instanceof Set) {
+            sets.add((Set) node);
+        }
+    }
+
+    // completed reps are logged as set results outside the program document,
+    // every read copies the latest result of each set into the node before it is returned
+    <T> Mono<T> withResults(String programId, T node) {
+        List<Set> sets = new ArrayList<Set>();
+        collectSets(node, sets);
+        if (sets.isEmpty()) {
+            return Mono.just(node);
+        }
+
+        Flux<SetResult> results;
+        if (node instanceof Program) {
+            results = store.findLatestResults(programId);
+        } else {
+            List<String> setIds = new ArrayList<String>(sets.size());
+            sets.forEach((set) -> setIds.add(set.getId()));
+            results = store.findLatestResults(programId, setIds);
+        }
+
+        return results.collectList().map((latest) -> {
+            // read once the stored results are in, buffered results are newer than anything written
+            applyResults(sets, latest, resultBuffer.pendingResults(programId));
+            return node;
+        });
+    }
+
+    static void applyResults(List<Set> sets, List<SetResult> results, List<SetResult> buffered) {
+        if (results.isEmpty() && buffered.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> completedReps = new HashMap<String, Integer>();
+        results.forEach((result) -> completedReps.put(result.getSetId(), result.getCompletedReps()));
+        buffered.forEach((result) -> completedReps.put(result.getSetId(), result.getCompletedReps()));
+        for (Set set : sets) {
+            Integer reps = completedReps.get(set.getId());
+            if (reps != null) {
+                set.setCompletedReps(reps);
+            }
+        }
+    }
+
+    // for exports, programs are requested one at a time so only the one being written is held in memory
+    public Flux<Program> streamUserPrograms(String email) {
+        return store.findByEmail(email).concatMap((program) -> withResults(program.getId(), program), 1);
+    }
+
+    // sort is lastModified or name, cursor is the nextCursor of the previous page or null for the first page
+    public Mono<ProgramSummaryPage> findUserProgramSummaries(String email, String sort, Sort.Direction direction, int limit, String cursor) {
+        return Mono.fromCallable(() -> ProgramSummaryCursor.decode(sort, limit, cursor))
+            // fetch one extra summary to know whether another page follows
+            .flatMap((after) -> store.findSummaries(email, sort, direction, after.getAfterValue(), after.getAfterId(), limit + 1).collectList())
+            .map((summaries) -> ProgramSummaryCursor.page(summaries, sort, limit));
+    }
+
+    // the returned program may be shared with other requests through the cache, so it is read only
+    // a miss is loaded and cached unless the program was written meanwhile
+    public Mono<Program> findById(String programId) {
+        return Mono.defer(() -> {
+            Program cached = programCache.find(programId);
+            if (cached != null) {
+                return Mono.just(withPendingResults(programId, cached));
+            }
+
+            long loadGeneration = programCache.getGeneration();
+            return load(programId).doOnNext((program) -> programCache.put(programId, program, loadGeneration));
+        });
+    }
+
+    // buffered taps leave the cached program in place and are copied into it on read instead, every
+    // value written is the one a load would read once the buffer is flushed, and the flush drops the copy
+    private Program withPendingResults(String programId, Program cached) {
+        List<SetResult> pending = resultBuffer.pendingResults(programId);
+        if (!pending.isEmpty()) {
+            List<Set> sets = new ArrayList<Set>();
+            collectSets(cached, sets);
+            applyResults(sets, List.of(), pending);
+        }
+
+        return cached;
+    }
+
+    // a fresh copy that nobody else reads, for the writes that modify it
+    public Mono<Program> load(String programId) {
+        return store.findById(programId)
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFound(programId)))
+            .flatMap((program) -> withResults(programId, program));
+    }
+
+    // enough to answer a conditional GET, hot programs are answered from the cache
+    public Mono<ProgramVersion> findVersion(String programId) {
+        return Mono.defer(() -> {
+            Program cached = programCache.peek(programId);
+            return cached != null ? Mono.just(ProgramVersion.of(cached)) : store.findVersion(programId);
+        });
+    }
+
+    // response body of the program, serialized at most once per version
+    public Mono<ProgramResponseCache.Body> findResponseBody(String programId, ProgramVersion version) {
+        return Mono.defer(() -> {
+            if (hasPendingResults(programId)) {
+                return findById(programId).flatMap((program) -> Mono.fromCallable(() -> responseCache.serialize(program)));
+            }
+
+            ProgramResponseCache.Body body = responseCache.get(programId, version);
+            // the loaded program may already be newer than version, the body carries its own
+            return body != null ? Mono.just(body) : findById(programId).flatMap((program) -> Mono.fromCallable(() -> responseCache.put(program)));
+        });
+    }
+
+    // results waiting in the buffer aren't reflected in the version yet, so it can't vouch for the program
+    public boolean hasPendingResults(String programId) {
+        return resultBuffer.hasPending(programId);
+    }
+
+    // what the user may do with the program, completes empty if it isn't theirs
+    public Mono<ProgramRole> findRole(String email, String programId) {
+        return findRole(email, programId, false);
+    }
+
+    // the index only sees the ownership changes made through this instance, with verify the ownership is read
+    // again instead of trusting an entry another instance's assign or delete may have made stale
+    public Mono<ProgramRole> findRole(String email, String programId, boolean verify) {
+        return Mono.defer(() -> {
+            Mono<Void> indexed = !verify && accessIndex.contains(programId) ? Mono.empty() : store.findOwnership(programId).doOnNext(accessIndex::put).then();
+            return indexed.then(Mono.fromSupplier(() -> accessIndex.roleOf(email, programId)));
+        });
+    }
+
+    public Mono<Week> findWeek(String programId, String weekId) {
+        return store.findNode(ProgramPath.of(programId, weekId), Week.class).flatMap((week) -> withResults(programId, week));
+    }
+
+    public Mono<Day> findDay(String programId, String weekId, String dayId) {
+        return store.findNode(ProgramPath.of(programId, weekId, dayId), Day.class).flatMap((day) -> withResults(programId, day));
+    }
+
+    public Mono<Exercise> findExercise(String programId, String weekId, String dayId, String exerciseId) {
+        return store.findNode(ProgramPath.of(programId, weekId, dayId, exerciseId), Exercise.class).flatMap((exercise) -> withResults(programId, exercise));
+    }
+
+    public Mono<Set> findSet(String programId, String weekId, String dayId, String exerciseId, String setId) {
+        return store.findNode(ProgramPath.of(programId, weekId, dayId, exerciseId, setId), Set.class).flatMap((set) -> withResults(programId, set));
+    }
+
+    // node id -> videoRef of every exercise and set under the node that has a video, in program order
+    static Map<String, String> videoRefs(Object node) {
+        Map<String, String> videoRefs = new LinkedHashMap<String, String>();
+        collectVideoRefs(node, videoRefs);
+        return videoRefs;
+    }
+
+    private static void collectVideoRefs(Object node, Map<String, String> videoRefs) {
+        if (node instanceof Week && ((Week) node).getDays() != null) {
+            ((Week) node).getDays().forEach((day) -> collectVideoRefs(day, videoRefs));
+        } else if (node instanceof Day && ((Day) node).getExercises() != null) {
+            for (Exercise exercise : ((Day) node).getExercises()) {
+                putVideoRef(exercise.getId(), exercise.getVideoRef(), videoRefs);
+                if (exercise.getSets() != null) {
+                    exercise.getSets().forEach((set) -> putVideoRef(set.getId(), set.getVideoRef(), videoRefs));
+                }
+            }
+        }
+    }
+
+    private static void putVideoRef(String nodeId, String videoRef, Map<String, String> videoRefs) {
+        if (videoRef != null && videoRef.length() != 0) {
+            videoRefs.put(nodeId, videoRef);
+        }
+    }
+
+    // one read of the subtree, without the set results the videos don't need
+    public Mono<Map<String, String>> findWeekVideoRefs(String programId, String weekId) {
+        return store.findNode(ProgramPath.of(programId, weekId), Week.class).map(ProgramReadService::videoRefs);
+    }
+
+    public Mono<Map<String, String>> findDayVideoRefs(String programId, String weekId, String dayId) {
+        return store.findNode(ProgramPath.of(programId, weekId, dayId), Day.class).map(ProgramReadService::videoRefs);
+    }
+
+    // logs the set and returns the program with the new result, read only like findById
+    public Mono<Program> finishSet(String programId, String weekId, String dayId, String exerciseId, String setId, int completedReps, Float rpe, Float weight) {
+        ProgramPath path = ProgramPath.of(programId, weekId, dayId, exerciseId, setId);
+        return logResult(path, new SetResult(programId, setId, completedReps, rpe, weight)).then(Mono.defer(() -> findById(programId)));
+    }
+
+    // appends a result instead of writing the program, so logging a set can't collide with the coach editing it;
+    // only the results version is bumped, which keeps ETags and cached responses in step with what readers see
+    // while the version a coach's replace is checked against stays where it was
+    public Mono<Void> logResult(ProgramPath path, SetResult result) {
+        if (resultBuffer.isEnabled()) {
+            // nothing is written to the program, so the path is checked against the cached copy or just the set
+            return Mono.defer(() -> {
+                Program cached = programCache.peek(path.getProgramId());
+                return cached != null ? Mono.fromCallable(() -> ProgramPatches.node(cached, path)) : store.findNode(path, Set.class);
+            })
+                // readers see the buffered result right away through findById, the caches are only dropped
+                // by the flush, which moves the results version on
+                .doOnNext((node) -> resultBuffer.add(result))
+                .then();
+        }
+
+        // the existence check sends no document back; a set removed right after it leaves a result nobody
+        // reads, results are only ever looked up by the sets still in the program.
+        // The result goes in first so the new results version never stands for a program without it
+        return store.exists(path)
+            .flatMap((exists) -> exists ? store.insertResult(result) : Mono.error(new ResourceNotFound(path.getNodeId())))
+            .then(store.bumpResultsVersion(path.getProgramId()));
+    }
+
+    // every result logged for the set, oldest first
+    public Flux<SetResult> findSetResults(String programId, String weekId, String dayId, String exerciseId, String setId) {
+        return findById(programId)
+            .flatMap((program) -> Mono.fromCallable(() -> program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).findSetById(setId)))
+            .thenMany(Flux.defer(() -> store.findResults(programId, setId)))
+            .concatWith(Flux.defer(() -> Flux.fromStream(resultBuffer.pendingResults(programId).stream().filter((result) -> result.getSetId().equals(setId)))));
+    }
+}
@@ -1,15 +1,22 @@
 package com.ironinstruction.api.program;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProgramRepository extends MongoRepository<Program, String> {
+public interface ProgramRepository extends MongoRepository<Program, String>, ProgramRepositoryCustom {
     @Query("{$or: [ {'coachEmail': ?0}, {'athleteEmail': ?0} ]}")
     public List<Program> findByEmail(String email);
+
+    // same programs as findByEmail read through a cursor, the stream has to be closed by the caller
+    @Query("{$or: [ {'coachEmail': ?0}, {'athleteEmail': ?0} ]}")
+    @Meta(cursorBatchSize = 20)
+    public Stream<Program> streamByEmail(String email);
 }
 
 
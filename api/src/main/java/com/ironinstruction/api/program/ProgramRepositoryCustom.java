@@ -0,0 +1,48 @@
+package com.ironinstruction.api.program;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+import org.springframework.data.domain.Sort;
+
+// targeted writes that only touch the addressed node of a program document
+public interface ProgramRepositoryCustom {
+    // appends the node to the children of parent and returns it
+    <T> T push(ProgramPath parent, T node) throws ResourceNotFound;
+
+    void pull(ProgramPath node) throws ResourceNotFound;
+
+    // sets a single field on the addressed node and returns the updated node
+    <T> T set(ProgramPath node, String field, Object value, Class<T> nodeType) throws ResourceNotFound;
+
+    Program setProgramFields(String programId, Map<String, Object> fields) throws ResourceNotFound;
+
+    // whether every node on the path exists, without reading the program
+    boolean exists(ProgramPath node);
+
+    // bumps resultsVersion and lastModified for set results, which are stored outside the program document
+    void bumpResultsVersion(String programId) throws ResourceNotFound;
+
+    // replaces the program only if nobody wrote to it since it was read, returns false on a conflict
+    // set results logged meanwhile don't conflict, the stored resultsVersion is kept
+    boolean replaceIfUnchanged(Program program);
+
+    // reads only the addressed node instead of the whole program
+    <T> T findNode(ProgramPath node, Class<T> nodeType) throws ResourceNotFound;
+
+    // version of the program without reading the rest of it
+    ProgramVersion findVersion(String programId) throws ResourceNotFound;
+
+    // coach and athlete of a program, read from the ownership index only
+    ProgramOwnership findOwnership(String programId) throws ResourceNotFound;
+
+    // summaries of the programs a user coaches or is assigned, sorted by sortField and then id,
+    // starting after the program identified by afterValue and afterId when afterId is set
+    List<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit);
+
+    // passes the videoRef of every exercise and set of every program to action, only those fields are read
+    void forEachVideoRef(Consumer<String> action);
+}
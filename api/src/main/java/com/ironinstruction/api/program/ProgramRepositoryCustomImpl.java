@@ -0,0 +1,307 @@
+package com.ironinstruction.api.program;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.mongodb.client.result.UpdateResult;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+public class ProgramRepositoryCustomImpl implements ProgramRepositoryCustom {
+    private static final String EXERCISE_VIDEO_REF = "weeks.days.exercises.videoRef";
+    private static final String SET_VIDEO_REF = "weeks.days.exercises.sets.videoRef";
+
+    private final MongoTemplate mongoTemplate;
+    private final ProgramCache programCache;
+    private final ProgramResponseCache responseCache;
+
+    public ProgramRepositoryCustomImpl(MongoTemplate mongoTemplate, ProgramCache programCache, ProgramResponseCache responseCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.programCache = programCache;
+        this.responseCache = responseCache;
+    }
+
+    private void invalidate(String programId) {
+        programCache.invalidate(programId);
+        responseCache.invalidate(programId);
+    }
+
+    // every write bumps the version so full-document replaces based on older reads fail
+    static Update bumpVersion(Update update) {
+        return update.inc("version", 1).currentDate("lastModified");
+    }
+
+    private Update withFilters(Update update, ProgramPath path) {
+        for (Criteria filter : path.arrayFilters()) {
+            update.filterArray(filter);
+        }
+
+        return update;
+    }
+
+    // path decides which program matches, filterPath which array filters the update references
+    private void updateNode(ProgramPath path, ProgramPath filterPath, Update update) throws ResourceNotFound {
+        UpdateResult result = mongoTemplate.updateFirst(new Query(path.criteria()), withFilters(bumpVersion(update), filterPath), Program.class);
+        // the query only matches when every node on the path exists
+        if (result.getMatchedCount() == 0) {
+            throw new ResourceNotFound(path.getNodeId());
+        }
+        // every write path ends here, in setProgramFields, bumpResultsVersion or in replaceIfUnchanged,
+        // so they are the only places that have to drop the cached program
+        invalidate(path.getProgramId());
+    }
+
+    @Override
+    public <T> T push(ProgramPath parent, T node) throws ResourceNotFound {
+        updateNode(parent, parent, new Update().push(parent.childArrayPath(), node));
+        return node;
+    }
+
+    @Override
+    public void pull(ProgramPath node) throws ResourceNotFound {
+        ProgramPath parent = node.parent();
+        updateNode(node, parent, new Update().pull(parent.childArrayPath(), new Document("_id", ProgramPath.storedId(node.getNodeId()))));
+    }
+
+    @Override
+    public <T> T set(ProgramPath node, String field, Object value, Class<T> nodeType) throws ResourceNotFound {
+        updateNode(node, node, new Update().set(node.fieldPath(field), value));
+        return findNode(node, nodeType);
+    }
+
+    // applies update to the program if path matches and returns the program as written
+    private Program findAndModify(ProgramPath path, Update update) throws ResourceNotFound {
+        Program program = mongoTemplate.findAndModify(
+            new Query(path.criteria()),
+            bumpVersion(update),
+            FindAndModifyOptions.options().returnNew(true),
+            Program.class
+        );
+        if (program == null) {
+            throw new ResourceNotFound(path.getNodeId());
+        }
+        invalidate(path.getProgramId());
+
+        return program;
+    }
+
+    @Override
+    public Program setProgramFields(String programId, Map<String, Object> fields) throws ResourceNotFound {
+        Update update = new Update();
+        fields.forEach(update::set);
+
+        return findAndModify(ProgramPath.of(programId), update);
+    }
+
+    @Override
+    public boolean exists(ProgramPath node) {
+        return mongoTemplate.exists(new Query(node.criteria()), Program.class);
+    }
+
+    // leaves version alone, a coach's replace based on a read from before the result still applies
+    static Update bumpResultsVersion() {
+        return new Update().inc("resultsVersion", 1).currentDate("lastModified");
+    }
+
+    @Override
+    public void bumpResultsVersion(String programId) throws ResourceNotFound {
+        // by collection name, for Program.class the template would also increment the @Version field
+        UpdateResult result = mongoTemplate.updateFirst(new Query(ProgramPath.of(programId).criteria()), bumpResultsVersion(), mongoTemplate.getCollectionName(Program.class));
+        if (result.getMatchedCount() == 0) {
+            throw new ResourceNotFound(programId);
+        }
+        invalidate(programId);
+    }
+
+    @Override
+    public boolean replaceIfUnchanged(Program program) {
+        Long expectedVersion = program.getVersion();
+        Criteria criteria = ProgramPath.of(program.getId()).criteria();
+        // programs written before versioning have no version field yet
+        criteria = expectedVersion == null ? criteria.and("version").exists(false) : criteria.and("version").is(expectedVersion);
+
+        Date previousModified = program.getLastModified();
+        program.setVersion(expectedVersion == null ? 1 : expectedVersion + 1);
+        program.setLastModified(new Date());
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(program, fields);
+        fields.remove("_id");
+        // results logged since the read only moved resultsVersion, the stored count stays
+        fields.remove("resultsVersion");
+        // every other field is written as a replace would, the ones the converter left out because they are null are removed
+        Document unset = new Document();
+        for (MongoPersistentProperty property : mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Program.class)) {
+            String field = property.getFieldName();
+            if (!property.isIdProperty() && !field.equals("resultsVersion") && !fields.containsKey(field)) {
+                unset.append(field, "");
+            }
+        }
+        Document update = new Document("$set", fields);
+        if (!unset.isEmpty()) {
+            update.append("$unset", unset);
+        }
+
+        UpdateResult result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Program.class))
+            .updateOne(new Query(criteria).getQueryObject(), update);
+        if (result.getMatchedCount() == 0) {
+            program.setVersion(expectedVersion);
+            program.setLastModified(previousModified);
+            return false;
+        }
+        invalidate(program.getId());
+
+        return true;
+    }
+
+    @Override
+    public <T> T findNode(ProgramPath node, Class<T> nodeType) throws ResourceNotFound {
+        // aggregate on the collection name so field names after the unwinds aren't checked against Program
+        T result = mongoTemplate.aggregate(
+            Aggregation.newAggregation(node.fragmentStages()),
+            mongoTemplate.getCollectionName(Program.class),
+            nodeType
+        ).getUniqueMappedResult();
+        if (result == null) {
+            throw new ResourceNotFound(node.getNodeId());
+        }
+
+        return result;
+    }
+
+    static Query versionQuery(String programId) {
+        Query query = new Query(ProgramPath.of(programId).criteria());
+        query.fields().include("version", "resultsVersion");
+
+        return query;
+    }
+
+    private static Long longValue(Document document, String field) {
+        Number value = document.get(field, Number.class);
+
+        return value == null ? null : value.longValue();
+    }
+
+    static ProgramVersion version(Document document) {
+        return ProgramVersion.of(longValue(document, "version"), longValue(document, "resultsVersion"));
+    }
+
+    @Override
+    public ProgramVersion findVersion(String programId) throws ResourceNotFound {
+        Document document = mongoTemplate.findOne(versionQuery(programId), Document.class, mongoTemplate.getCollectionName(Program.class));
+        if (document == null) {
+            throw new ResourceNotFound(programId);
+        }
+
+        return version(document);
+    }
+
+    static Query ownershipQuery(String programId) {
+        Query query = new Query(ProgramPath.of(programId).criteria()).withHint(Program.OWNERSHIP_INDEX);
+        query.fields().include("coachEmail", "athleteEmail");
+
+        return query;
+    }
+
+    @Override
+    public ProgramOwnership findOwnership(String programId) throws ResourceNotFound {
+        ProgramOwnership ownership = mongoTemplate.findOne(ownershipQuery(programId), ProgramOwnership.class, mongoTemplate.getCollectionName(Program.class));
+        if (ownership == null) {
+            throw new ResourceNotFound(programId);
+        }
+
+        return ownership;
+    }
+
+    // where a page continues within one side of the user's programs, as a range on the sort field the index can seek to
+    // and a filter for the ties up to afterId; mongo orders a missing or null value before any other
+    static Criteria after(String sortField, Sort.Direction direction, Object afterValue, Object afterId) {
+        boolean ascending = direction.isAscending();
+        Criteria tie = Criteria.where(sortField).is(afterValue);
+        Criteria returned = new Criteria().norOperator(ascending ? tie.and("_id").lte(afterId) : tie.and("_id").gte(afterId));
+        if (afterValue == null) {
+            // ascending every program with a value still follows, descending only the remaining nulls do
+            return ascending ? returned : Criteria.where(sortField).is(null).and("_id").lt(afterId);
+        }
+        // descending the nulls come last, $not keeps them in the range
+        Criteria range = ascending ? Criteria.where(sortField).gte(afterValue) : Criteria.where(sortField).not().gt(afterValue);
+        return new Criteria().andOperator(range, returned);
+    }
+
+    public static Aggregation summaryAggregation(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit) {
+        // one branch per side of the $or so each is answered in sort order from its (email, sort field, _id) index,
+        // matching, sorting and limiting on the stored fields before anything is projected
+        Criteria coached = Criteria.where("coachEmail").is(email);
+        Criteria assigned = Criteria.where("athleteEmail").is(email);
+        if (afterId != null) {
+            Object id = ProgramPath.storedId(afterId);
+            coached = new Criteria().andOperator(coached, after(sortField, direction, afterValue, id));
+            assigned = new Criteria().andOperator(assigned, after(sortField, direction, afterValue, id));
+        }
+
+        List<AggregationOperation> stages = new ArrayList<AggregationOperation>();
+        stages.add(Aggregation.match(new Criteria().orOperator(coached, assigned)));
+        stages.add(Aggregation.sort(direction, sortField, "_id"));
+        stages.add(Aggregation.limit(limit));
+        // only the summary fields leave the database, the weeks array is reduced to its length
+        stages.add(Aggregation.project("_id", "name", "description", "coachEmail", "athleteEmail", "lastModified")
+            .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("weeks").then(Collections.emptyList()))).as("weekCount"));
+
+        return Aggregation.newAggregation(stages);
+    }
+
+    @Override
+    public List<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit) {
+        return mongoTemplate.aggregate(
+            summaryAggregation(email, sortField, direction, afterValue, afterId, limit),
+            mongoTemplate.getCollectionName(Program.class),
+            ProgramSummary.class
+        ).getMappedResults();
+    }
+
+    // walks the weeks of a program document projected to its video refs
+    private static void forEachVideoRef(Document program, Consumer<String> action) {
+        for (Document week : program.getList("weeks", Document.class, List.of())) {
+            for (Document day : week.getList("days", Document.class, List.of())) {
+                for (Document exercise : day.getList("exercises", Document.class, List.of())) {
+                    acceptVideoRef(exercise, action);
+                    for (Document set : exercise.getList("sets", Document.class, List.of())) {
+                        acceptVideoRef(set, action);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void acceptVideoRef(Document node, Consumer<String> action) {
+        String videoRef = node.getString("videoRef");
+        if (videoRef != null && videoRef.length() != 0) {
+            action.accept(videoRef);
+        }
+    }
+
+    @Override
+    public void forEachVideoRef(Consumer<String> action) {
+        Query query = new Query();
+        query.fields().include(EXERCISE_VIDEO_REF, SET_VIDEO_REF);
+        try (CloseableIterator<Document> programs = mongoTemplate.stream(query.cursorBatchSize(200), Document.class, mongoTemplate.getCollectionName(Program.class))) {
+            programs.forEachRemaining((program) -> forEachVideoRef(program, action));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.ironinstruction.api.program;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// serialized and gzipped program bodies keyed by program id and version, so polling an unchanged
+// program costs a version lookup instead of a Jackson pass over the whole tree
+@Component
+public class ProgramResponseCache {
+    public static class Body {
+        private final ProgramVersion version;
+        private final byte[] identity;
+        private final byte[] gzip;
+
+        private Body(ProgramVersion version, byte[] identity, byte[] gzip) {
+            this.version = version;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+
+        public ProgramVersion getVersion() {
+            return version;
+        }
+
+        public byte[] getIdentity() {
+            return identity;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        private long size() {
+            return identity.length + gzip.length;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private volatile boolean enabled;
+    private final long maxBytes;
+
+    // access ordered, so iteration starts at the least recently served program
+    private final LinkedHashMap<String, Body> bodies = new LinkedHashMap<String, Body>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProgramResponseCache(
+        ObjectMapper objectMapper,
+        @Value("${ironinstruction.program-response-cache.enabled:true}") boolean enabled,
+        @Value("${ironinstruction.program-response-cache.max-bytes:67108864}") long maxBytes
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    // the cached body if it was serialized from this version of the program
+    public Body get(String programId, ProgramVersion version) {
+        this.lock.lock();
+        try {
+            Body body = this.enabled ? this.bodies.get(programId) : null;
+            if (body == null || !body.version.equals(version)) {
+                misses.increment();
+                return null;
+            }
+
+            hits.increment();
+            return body;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // both encodings of the program without caching them
+    public Body serialize(Program program) throws JsonProcessingException {
+        byte[] identity = objectMapper.writeValueAsBytes(program);
+        return new Body(ProgramVersion.of(program), identity, gzip(identity));
+    }
+
+    // serializes the program with the application's object mapper and caches both encodings
+    public Body put(Program program) throws JsonProcessingException {
+        Body body = serialize(program);
+        if (!this.enabled || body.size() > this.maxBytes) {
+            return body;
+        }
+
+        this.lock.lock();
+        try {
+            Body previous = this.bodies.get(program.getId());
+            // a slower request may finish after a newer version was cached
+            if (previous != null && previous.version.compareTo(body.version) > 0) {
+                return body;
+            }
+            remove(program.getId());
+            this.bodies.put(program.getId(), body);
+            this.totalBytes += body.size();
+
+            Iterator<Map.Entry<String, Body>> iterator = this.bodies.entrySet().iterator();
+            while (this.totalBytes > this.maxBytes && iterator.hasNext()) {
+                this.totalBytes -= iterator.next().getValue().size();
+                iterator.remove();
+                evictions.increment();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        return body;
+    }
+
+    public void invalidate(String programId) {
+        this.lock.lock();
+        try {
+            remove(programId);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void remove(String programId) {
+        Body removed = this.bodies.remove(programId);
+        if (removed != null) {
+            this.totalBytes -= removed.size();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // lets benchmarks compare serving with and without the cache in one context
+    public void setEnabled(boolean enabled) {
+        this.lock.lock();
+        try {
+            this.enabled = enabled;
+            if (!enabled) {
+                this.bodies.clear();
+                this.totalBytes = 0;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getSize() {
+        this.lock.lock();
+        try {
+            return this.bodies.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getBytes() {
+        this.lock.lock();
+        try {
+            return this.totalBytes;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
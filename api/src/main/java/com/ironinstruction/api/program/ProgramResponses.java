@@ -0,0 +1,139 @@
+package com.ironinstruction.api.program;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.requests.ResponseMode;
+import com.ironinstruction.api.responses.JsonPatchOperation;
+import com.ironinstruction.api.responses.ProgramNodeResponse;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+// the responses of the program endpoints, the servlet and the reactive controllers read the request
+// their own way and build the same answers here
+final class ProgramResponses {
+    private static final MediaType JSON_PATCH = MediaType.parseMediaType("application/json-patch+json");
+
+    private ProgramResponses() { }
+
+    // mutations answer with the full program unless the client asks for a node or a patch
+    // through the response query parameter or the X-Response-Mode header
+    static ResponseMode responseMode(String parameter, String header) throws InvalidRequest {
+        String mode = parameter != null ? parameter : header;
+        if (mode == null) {
+            return ResponseMode.FULL;
+        }
+
+        try {
+            return ResponseMode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequest("response must be full, node or patch");
+        }
+    }
+
+    // program version the client's patch applies to, from baseVersion or X-Base-Version,
+    // either as a number or as the ETag it was sent
+    static ProgramVersion baseVersion(String parameter, String header) throws InvalidRequest {
+        String version = parameter != null ? parameter : header;
+        if (version == null) {
+            return null;
+        }
+
+        try {
+            return ProgramVersion.parse(version);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequest("baseVersion must be a program version");
+        }
+    }
+
+    // gzip listed in Accept-Encoding without q=0, or * when gzip isn't listed at all
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean accepted = parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if (name.equalsIgnoreCase("gzip")) {
+                return accepted;
+            } else if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+
+        return wildcard;
+    }
+
+    // a removed node can only be located before the write, a patch response needs it when the client sent its version
+    static boolean locatesRemoval(ResponseMode mode, ProgramVersion baseVersion) {
+        return mode == ResponseMode.PATCH && baseVersion != null;
+    }
+
+    // null if no exact patch is possible
+    static String removedPointer(Program before, ProgramPath path, ProgramVersion baseVersion) throws ResourceNotFound {
+        return ProgramVersion.of(before).equals(baseVersion) ? ProgramPatches.pointer(before, path) : null;
+    }
+
+    // the full program and patch responses need the program after the change, a node response only
+    // needs the node the write returned, or nothing for a removal
+    static boolean answersFromNode(ProgramChange change, ResponseMode mode) {
+        return mode == ResponseMode.NODE && (change.getNode() != null || change.getType() == ProgramChange.Type.REMOVE);
+    }
+
+    // version is read after the write, like the program of the other modes
+    static ResponseEntity<Object> node(ProgramChange change, ProgramVersion version) {
+        return ResponseEntity.ok()
+            .eTag(ProgramETag.of(version))
+            .body(new ProgramNodeResponse(version.getVersion(), version.getResultsVersion(), change.getPath().getNodeId(), change.getNode()));
+    }
+
+    // program is the program after the change
+    static ResponseEntity<Object> change(ProgramChange change, String removedPointer, Program program, ResponseMode mode, ProgramVersion baseVersion, ObjectMapper objectMapper) throws ResourceNotFound {
+        ProgramPath path = change.getPath();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(ProgramETag.of(program));
+
+        if (mode == ResponseMode.NODE) {
+            Object node = change.getType() == ProgramChange.Type.REMOVE ? null : ProgramPatches.node(program, path);
+            ProgramVersion version = ProgramVersion.of(program);
+            return response.body(new ProgramNodeResponse(version.getVersion(), version.getResultsVersion(), path.getNodeId(), node));
+        } else if (mode == ResponseMode.PATCH) {
+            List<JsonPatchOperation> operations;
+            // exact only if this write is the one change since the client's version
+            if (baseVersion != null && ProgramVersion.of(program).follows(baseVersion) && (change.getType() != ProgramChange.Type.REMOVE || removedPointer != null)) {
+                operations = ProgramPatches.operations(program, change, removedPointer, objectMapper);
+            } else {
+                operations = List.of(new JsonPatchOperation("replace", "", objectMapper.valueToTree(program)));
+            }
+            return response.contentType(JSON_PATCH).body(operations);
+        }
+
+        return response.body(program);
+    }
+
+    static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    static ResponseEntity<byte[]> program(ProgramResponseCache.Body body, String acceptEncoding) {
+        // no-cache lets browsers keep the program but revalidate it on every use
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(ProgramETag.of(body.getVersion()))
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+
+        return response.body(body.getIdentity());
+    }
+}
@@ -0,0 +1,6 @@
+package com.ironinstruction.api.program;
+
+public enum ProgramRole {
+    COACH,
+    ATHLETE
+}
@@ -1,197 +1,511 @@
 package com.ironinstruction.api.program;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.ironinstruction.api.errors.ConcurrentModification;
+import com.ironinstruction.api.errors.InvalidRequest;
 import com.ironinstruction.api.errors.ResourceNotFound;
-
+import com.ironinstruction.api.requests.BatchOperation;
+import com.ironinstruction.api.requests.BatchOperationType;
+import com.ironinstruction.api.responses.BatchResponse;
+import com.ironinstruction.api.responses.BulkAssignResponse;
+import com.ironinstruction.api.responses.BulkAssignResult;
+import com.ironinstruction.api.responses.BulkAssignStatus;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
+import com.ironinstruction.api.user.User;
+import com.ironinstruction.api.user.UserService;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.Blocking;
+
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ProgramService {
-    private final ProgramRepository programRepository;
+    private static final int MAX_MODIFY_ATTEMPTS = 5;
+    private static final int MAX_BATCH_OPERATIONS = 5000;
+    private static final int MAX_BULK_ASSIGN = 1000;
+    public static final int MAX_SUMMARY_PAGE_SIZE = 100;
 
-    public ProgramService(ProgramRepository programRepository) {
+    private final ProgramRepository programRepository;
+    private final ProgramWriteStats writeStats;
+    private final ProgramCache programCache;
+    private final ProgramAccessIndex accessIndex;
+    private final ProgramResponseCache responseCache;
+    private final SetResultRepository setResultRepository;
+    private final SetResultBuffer resultBuffer;
+    private final UserService userService;
+    private final ProgramReadService reads;
+
+    public ProgramService(ProgramRepository programRepository, ProgramWriteStats writeStats, ProgramCache programCache, ProgramAccessIndex accessIndex, ProgramResponseCache responseCache, SetResultRepository setResultRepository, SetResultBuffer resultBuffer, UserService userService) {
         this.programRepository = programRepository;
+        this.writeStats = writeStats;
+        this.programCache = programCache;
+        this.accessIndex = accessIndex;
+        this.responseCache = responseCache;
+        this.setResultRepository = setResultRepository;
+        this.resultBuffer = resultBuffer;
+        this.userService = userService;
+        // the reads the reactive profile shares, run on the calling thread
+        this.reads = new ProgramReadService(new BlockingProgramStore(programRepository, setResultRepository), programCache, accessIndex, responseCache, resultBuffer);
+    }
+
+    // read-modify-write without locking: if another write lands between the read and the replace,
+    // the modification is applied again to a fresh copy of the program
+    private <T> T modify(String programId, ProgramModification<T> modification) throws ResourceNotFound, ConcurrentModification {
+        for (int attempt = 0; attempt < MAX_MODIFY_ATTEMPTS; attempt++) {
+            // never modify the cached copy, other requests may be reading it
+            Program program = Blocking.await(reads.load(programId), ResourceNotFound.class);
+            T result = modification.apply(program);
+
+            writeStats.recordAttempt();
+            if (programRepository.replaceIfUnchanged(program)) {
+                return result;
+            }
+            writeStats.recordConflict();
+
+            try {
+                // jittered backoff so competing writers don't retry in lockstep
+                Thread.sleep(ThreadLocalRandom.current().nextInt(1, 2 << attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        writeStats.recordExhausted();
+        throw new ConcurrentModification(programId);
     }
 
-    public Program createProgram(String coachEmail, String name, String description) {
-        Program program = new Program(coachEmail, name, description);
+    public ProgramWriteStats getWriteStats() {
+        return writeStats;
+    }
+
+    public Program createProgram(String coachEmail, String name, String description) throws InvalidRequest {
+        if (name.isBlank()) {
+            throw new InvalidRequest("name field must not be empty");
+        }
+
+        Program program = programRepository.insert(new Program(coachEmail, name, description));
+        accessIndex.put(new ProgramOwnership(program.getId(), program.getCoachEmail(), program.getAthleteEmail()));
 
-        return programRepository.insert(program);
+        return program;
     }
 
-    public Program updateProgram(String programId, String name, String description) throws ResourceNotFound {
-        Program program = findById(programId);
+    public Program updateProgram(String programId, String name, String description) throws ResourceNotFound, InvalidRequest {
+        // the same rule as createProgram, a null name would also page apart from every named program
+        if (name == null || name.isBlank()) {
+            throw new InvalidRequest("name field must not be empty");
+        }
 
-        program.setName(name);
-        program.setDescription(description);
+        // Map.of doesn't allow the null values a request can contain
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("name", name);
+        fields.put("description", description);
 
-        return programRepository.save(program);
+        return programRepository.setProgramFields(programId, fields);
     }
 
     public List<Program> findUserPrograms(String email) {
-        return programRepository.findByEmail(email); 
+        return reads.streamUserPrograms(email).collectList().block();
+    }
+
+    // for exports, only the program currently being written is held in memory, the stream has to be closed
+    public Stream<Program> streamUserPrograms(String email) {
+        return reads.streamUserPrograms(email).toStream(1);
+    }
+
+    // sort is lastModified or name, cursor is the nextCursor of the previous page or null for the first page
+    public ProgramSummaryPage findUserProgramSummaries(String email, String sort, Sort.Direction direction, int limit, String cursor) throws InvalidRequest {
+        return Blocking.await(reads.findUserProgramSummaries(email, sort, direction, limit, cursor), InvalidRequest.class);
     }
 
+    // the returned program may be shared with other requests through the cache, so it is read only
     public Program findById(String id) throws ResourceNotFound {
-        try {
-            return programRepository.findById(id).get();
-        } catch (NoSuchElementException e) {
-            throw new ResourceNotFound(id);
+        return Blocking.await(reads.findById(id), ResourceNotFound.class);
+    }
+
+    // the shared reads over the blocking repositories, they complete on the thread that subscribes
+    public ProgramReadService getReads() {
+        return reads;
+    }
+
+    public ProgramCache getCache() {
+        return programCache;
+    }
+
+    // enough to answer a conditional GET, hot programs are answered from the cache
+    public ProgramVersion findVersion(String programId) throws ResourceNotFound {
+        return Blocking.await(reads.findVersion(programId), ResourceNotFound.class);
+    }
+
+    // response body of the program, serialized at most once per version
+    public ProgramResponseCache.Body findResponseBody(String programId, ProgramVersion version) throws ResourceNotFound, JsonProcessingException {
+        return Blocking.await(reads.findResponseBody(programId, version), ResourceNotFound.class, JsonProcessingException.class);
+    }
+
+    public ProgramResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    // what the user may do with the program, null if it isn't theirs
+    public ProgramRole findRole(String email, String programId) throws ResourceNotFound {
+        return Blocking.await(reads.findRole(email, programId), ResourceNotFound.class);
+    }
+
+    public Week findWeek(String programId, String weekId) throws ResourceNotFound {
+        return Blocking.await(reads.findWeek(programId, weekId), ResourceNotFound.class);
+    }
+
+    public Day findDay(String programId, String weekId, String dayId) throws ResourceNotFound {
+        return Blocking.await(reads.findDay(programId, weekId, dayId), ResourceNotFound.class);
+    }
+
+    public Exercise findExercise(String programId, String weekId, String dayId, String exerciseId) throws ResourceNotFound {
+        return Blocking.await(reads.findExercise(programId, weekId, dayId, exerciseId), ResourceNotFound.class);
+    }
+
+    public Set findSet(String programId, String weekId, String dayId, String exerciseId, String setId) throws ResourceNotFound {
+        return Blocking.await(reads.findSet(programId, weekId, dayId, exerciseId, setId), ResourceNotFound.class);
+    }
+
+    // one read of the subtree, without the set results the videos don't need
+    public Map<String, String> findWeekVideoRefs(String programId, String weekId) throws ResourceNotFound {
+        return Blocking.await(reads.findWeekVideoRefs(programId, weekId), ResourceNotFound.class);
+    }
+
+    public Map<String, String> findDayVideoRefs(String programId, String weekId, String dayId) throws ResourceNotFound {
+        return Blocking.await(reads.findDayVideoRefs(programId, weekId, dayId), ResourceNotFound.class);
+    }
+
+    // what the api assigns, a blank email unassigns the program and a coach can't be assigned one
+    public Program assignToAthlete(String programId, String athleteEmail) throws ResourceNotFound, InvalidRequest {
+        if (!athleteEmail.isBlank() && userService.findByEmail(athleteEmail).getUserType().equals(UserType.COACH)) {
+            throw new InvalidRequest("Cannot assign program to coach");
         }
+
+        return assignProgram(programId, athleteEmail);
     }
 
     public Program assignProgram(String programId, String athleteEmail) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.setAthleteEmail(athleteEmail);
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("athleteEmail", athleteEmail);
 
-        return programRepository.save(program);
+        Program program = programRepository.setProgramFields(programId, fields);
+        accessIndex.put(new ProgramOwnership(program.getId(), program.getCoachEmail(), program.getAthleteEmail()));
+
+        return program;
     }
 
-    public Program addWeek(String programId, String coachNotes) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.addWeek(new Week(coachNotes));
+    // copies the program for every athlete and writes all copies with one insertMany
+    public List<Program> cloneProgram(String programId, List<String> athleteEmails) throws ResourceNotFound {
+        Program template = findById(programId);
+        if (athleteEmails.isEmpty()) {
+            return new ArrayList<Program>();
+        }
+
+        List<Program> copies = new ArrayList<Program>(athleteEmails.size());
+        for (String athleteEmail : athleteEmails) {
+            copies.add(template.copyFor(athleteEmail));
+        }
+
+        List<Program> inserted = programRepository.insert(copies);
+        for (Program program : inserted) {
+            accessIndex.put(new ProgramOwnership(program.getId(), program.getCoachEmail(), program.getAthleteEmail()));
+        }
 
-        return programRepository.save(program);
+        return inserted;
     }
 
-    public Program deleteWeek(String programId, String weekId) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        ArrayList<Week> weeks = program.getWeeks();
-        for (int i = 0; i < weeks.size(); i++) {
-            if (weeks.get(i).getId().equals(weekId)) {
-                weeks.remove(i); 
+    // gives every athlete on a roster their own copy of the program, the program itself stays unassigned
+    public BulkAssignResponse bulkAssign(String programId, List<String> emails) throws ResourceNotFound, InvalidRequest {
+        if (emails == null || emails.isEmpty()) {
+            throw new InvalidRequest("At least one athlete email is required");
+        } else if (emails.size() > MAX_BULK_ASSIGN) {
+            throw new InvalidRequest("Can't assign a program to more than " + MAX_BULK_ASSIGN + " athletes at once");
+        }
+
+        // one query for the whole roster instead of a lookup per athlete
+        Map<String, UserType> userTypes = new HashMap<String, UserType>();
+        for (User user : userService.findAllByEmail(emails)) {
+            userTypes.put(user.getEmail(), user.getUserType());
+        }
+
+        List<BulkAssignResult> results = new ArrayList<BulkAssignResult>(emails.size());
+        List<BulkAssignResult> assigned = new ArrayList<BulkAssignResult>();
+        HashSet<String> seen = new HashSet<String>();
+        for (String email : emails) {
+            BulkAssignResult result;
+            if (!seen.add(email)) {
+                result = new BulkAssignResult(email, BulkAssignStatus.DUPLICATE);
+            } else if (!userTypes.containsKey(email)) {
+                result = new BulkAssignResult(email, BulkAssignStatus.NOT_FOUND);
+            } else if (userTypes.get(email) != UserType.ATHLETE) {
+                result = new BulkAssignResult(email, BulkAssignStatus.NOT_ATHLETE);
+            } else {
+                result = new BulkAssignResult(email, BulkAssignStatus.ASSIGNED);
+                assigned.add(result);
             }
+            results.add(result);
+        }
+
+        List<String> athleteEmails = new ArrayList<String>(assigned.size());
+        assigned.forEach((result) -> athleteEmails.add(result.getEmail()));
+        // copies come back in the order the athletes were passed in
+        List<Program> copies = cloneProgram(programId, athleteEmails);
+        for (int i = 0; i < copies.size(); i++) {
+            assigned.get(i).setProgramId(copies.get(i).getId());
         }
 
-        return programRepository.save(program);
+        return new BulkAssignResponse(copies.size(), results);
+    }
+
+    public Week addWeek(String programId, String coachNotes) throws ResourceNotFound {
+        return programRepository.push(ProgramPath.of(programId), new Week(coachNotes));
     }
 
-    public Program addDay(String programId, String weekId, String coachNotes) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).addDay(new Day(coachNotes)); 
+    public void deleteWeek(String programId, String weekId) throws ResourceNotFound {
+        programRepository.pull(ProgramPath.of(programId, weekId));
+    }
 
-        return programRepository.save(program);
+    public Day addDay(String programId, String weekId, String coachNotes) throws ResourceNotFound {
+        return programRepository.push(ProgramPath.of(programId, weekId), new Day(coachNotes));
     }
 
-    public Program deleteDay(String programId, String weekId, String dayId) throws ResourceNotFound{
-        Program program = this.findById(programId); 
-        ArrayList<Day> days = program.findWeekById(weekId).getDays();
+    public void deleteDay(String programId, String weekId, String dayId) throws ResourceNotFound {
+        programRepository.pull(ProgramPath.of(programId, weekId, dayId));
+    }
 
-        for (int i = 0; i < days.size(); i++) {
-            if (days.get(i).getId().equals(dayId)) {
-                days.remove(i);
-            }
+    public Exercise addExercise(String programId, String weekId, String dayId, String name, String videoRef) throws ResourceNotFound, InvalidRequest {
+        if (name.isBlank()) {
+            throw new InvalidRequest("Exercise name must not be blank");
         }
 
-        return programRepository.save(program);
+        return programRepository.push(ProgramPath.of(programId, weekId, dayId), new Exercise(name, videoRef));
     }
 
-    public Program addExercise(String programId, String weekId, String dayId, String name, String videoRef) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        Exercise exercise = new Exercise(name, videoRef);
-        program.findWeekById(weekId).findDayById(dayId).addExercise(exercise);
+    public Set addSet(String programId, String weekId, String dayId, String exerciseId, int reps, float percentage, PercentageOptions percentageReference, boolean videoRequested) throws ResourceNotFound {
+        Set set = new Set(reps, percentage, percentageReference, videoRequested);
 
-        return programRepository.save(program);
+        return programRepository.push(ProgramPath.of(programId, weekId, dayId, exerciseId), set);
     }
 
-    public Program addSet(String programId, String weekId, String dayId, String exerciseId, int reps, float percentage, PercentageOptions percentageReference, boolean videoRequested) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        Set set = new  Set(reps, percentage, percentageReference, videoRequested);
-        program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).addSet(set);
-        
-        return programRepository.save(program);
+    public Set addSet(String programId, String weekId, String dayId, String exerciseId, float rpe, int reps, float weight, boolean videoRequested) throws ResourceNotFound {
+        Set set = new Set(rpe, reps, weight, videoRequested);
+
+        return programRepository.push(ProgramPath.of(programId, weekId, dayId, exerciseId), set);
     }
 
-    public Program addSet(String programId, String weekId, String dayId, String exerciseId, float rpe, int reps, float weight, boolean videoRequested) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        Set set = new Set(rpe, reps, weight, videoRequested);
-        program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).addSet(set);
-        
-        return programRepository.save(program);
+    public SetResult updateSet(String programId, String weekId, String dayId, String exerciseId, String setId, int completedReps) throws ResourceNotFound {
+        SetResult result = new SetResult(programId, setId, completedReps, null, null);
+        Blocking.await(reads.logResult(ProgramPath.of(programId, weekId, dayId, exerciseId, setId), result), ResourceNotFound.class);
+
+        return result;
     }
 
-    public Program updateSet(String programId, String weekId, String dayId, String exerciseId, String setId, int completedReps) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        Set set = program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).findSetById(setId);
-        set.setCompletedReps(completedReps);
+    // logs the set and returns the program with the new result, read only like findById
+    public Program finishSet(String programId, String weekId, String dayId, String exerciseId, String setId, int completedReps, Float rpe, Float weight) throws ResourceNotFound {
+        return Blocking.await(reads.finishSet(programId, weekId, dayId, exerciseId, setId, completedReps, rpe, weight), ResourceNotFound.class);
+    }
 
-        return programRepository.save(program);
+    // copies the latest set results into a node a write returned
+    <T> T withResults(String programId, T node) {
+        return reads.withResults(programId, node).block();
     }
 
-    public Program deleteExercise(String programId, String weekId, String dayId, String exerciseId) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        ArrayList<Exercise> exercises = program.findWeekById(weekId).findDayById(dayId).getExercises();
-        for (int i = 0; i < exercises.size(); i++) {
-            if (exercises.get(i).getId().equals(exerciseId)) {
-                exercises.remove(i);
-                return programRepository.save(program);
-            }
-        }
+    public boolean hasPendingResults(String programId) {
+        return reads.hasPendingResults(programId);
+    }
 
-        throw new ResourceNotFound(dayId);
+    public SetResultBuffer getResultBuffer() {
+        return resultBuffer;
     }
 
-    public Program updateExercise(String programId, String weekId, String dayId, Exercise exercise) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        ArrayList<Exercise> exercises = program.findWeekById(weekId).findDayById(dayId).getExercises();
-        for (int i = 0; i < exercises.size(); i++) {
-            if (exercises.get(i).getId().equals(exercise.getId())) {
-                exercises.set(i, exercise);
-                return programRepository.save(program);
-            }
+    // every result logged for the set, oldest first
+    public List<SetResult> findSetResults(String programId, String weekId, String dayId, String exerciseId, String setId) throws ResourceNotFound {
+        return Blocking.await(reads.findSetResults(programId, weekId, dayId, exerciseId, setId).collectList(), ResourceNotFound.class);
+    }
+
+    public void deleteExercise(String programId, String weekId, String dayId, String exerciseId) throws ResourceNotFound {
+        programRepository.pull(ProgramPath.of(programId, weekId, dayId, exerciseId));
+    }
+
+    public Exercise updateExercise(String programId, String weekId, String dayId, Exercise exercise) throws ResourceNotFound, InvalidRequest, ConcurrentModification {
+        if (exercise.getName().isBlank()) {
+            throw new InvalidRequest("Exercise name must not be blank");
         }
 
-        throw new ResourceNotFound(dayId);
+        exercise.getSets().forEach(set -> {
+            if (set.getId().isBlank()) {
+                set.generateId();
+            }
+        });
+
+        return modify(programId, program -> {
+            program.findWeekById(weekId).findDayById(dayId).replaceExercise(exercise);
+            return exercise;
+        });
     }
 
-    public Program updateWeekAthleteNote(String programId, String weekId, String athleteNote) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).setAthleteNotes(athleteNote);
+    public Week updateWeekAthleteNote(String programId, String weekId, String athleteNote) throws ResourceNotFound {
+        return programRepository.set(ProgramPath.of(programId, weekId), "athleteNotes", athleteNote, Week.class);
+    }
 
-        return programRepository.save(program);
+    public Week updateWeekCoachNote(String programId, String weekId, String coachNote) throws ResourceNotFound {
+        return programRepository.set(ProgramPath.of(programId, weekId), "coachNotes", coachNote, Week.class);
     }
 
-    public Program updateWeekCoachNote(String programId, String weekId, String coachNote) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).setCoachNotes(coachNote);
+    public Day updateDayAthleteNote(String programId, String weekId, String dayId, String athleteNote) throws ResourceNotFound {
+        return programRepository.set(ProgramPath.of(programId, weekId, dayId), "athleteNotes", athleteNote, Day.class);
+    }
 
-        return programRepository.save(program);
+    public Day updateDayCoachNote(String programId, String weekId, String dayId, String note) throws ResourceNotFound{
+        return programRepository.set(ProgramPath.of(programId, weekId, dayId), "coachNotes", note, Day.class);
     }
 
-    public Program updateDayAthleteNote(String programId, String weekId, String dayId, String athleteNote) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).findDayById(dayId).setAthleteNotes(athleteNote);
+    public Set assignSetVideoUrl(String programId, String weekId, String dayId, String exerciseId, String setId, String link) throws ResourceNotFound {
+        return programRepository.set(ProgramPath.of(programId, weekId, dayId, exerciseId, setId), "videoRef", link, Set.class);
+    }
 
-        return programRepository.save(program);
+    public Exercise assignExerciseVideoUrl(String programId, String weekId, String dayId, String exerciseId, String url) throws ResourceNotFound {
+        return programRepository.set(ProgramPath.of(programId, weekId, dayId, exerciseId), "videoRef", url, Exercise.class);
     }
 
-    public Program updateDayCoachNote(String programId, String weekId, String dayId, String note) throws ResourceNotFound{
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).findDayById(dayId).setCoachNotes(note);
+    // check the whole batch before touching the program so a bad operation doesn't cost a write
+    private static void checkBatch(List<BatchOperation> operations) throws InvalidRequest {
+        if (operations == null || operations.isEmpty()) {
+            throw new InvalidRequest("Batch must contain at least one operation");
+        } else if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new InvalidRequest("Batch can't contain more than " + MAX_BATCH_OPERATIONS + " operations");
+        }
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation.getType() == null) {
+                throw new InvalidRequest("Operation " + i + " must have a type");
+            }
 
-        return programRepository.save(program);
+            boolean missingIds;
+            switch (operation.getType()) {
+                case ADD_WEEK:
+                    missingIds = false;
+                    break;
+                case DELETE_WEEK:
+                case UPDATE_WEEK_NOTE:
+                case ADD_DAY:
+                    missingIds = operation.getWeekId() == null;
+                    break;
+                case DELETE_DAY:
+                case UPDATE_DAY_NOTE:
+                case ADD_EXERCISE:
+                    missingIds = operation.getWeekId() == null || operation.getDayId() == null;
+                    break;
+                case DELETE_EXERCISE:
+                case ADD_SET:
+                    missingIds = operation.getWeekId() == null || operation.getDayId() == null || operation.getExerciseId() == null;
+                    break;
+                case DELETE_SET:
+                default:
+                    missingIds = operation.getWeekId() == null || operation.getDayId() == null || operation.getExerciseId() == null || operation.getSetId() == null;
+            }
+            if (missingIds) {
+                throw new InvalidRequest("Operation " + i + " is missing the ids of the node it applies to");
+            }
+
+            if (operation.getType() == BatchOperationType.ADD_EXERCISE && (operation.getName() == null || operation.getName().isBlank())) {
+                throw new InvalidRequest("Operation " + i + ": exercise name must not be blank");
+            }
+        }
     }
 
-    public Program assignSetVideoUrl(String programId, String weekId, String dayId, String exerciseId, String setId, String link) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).findSetById(setId).setVideoRef(link);
+    // applies every operation in memory and writes the program once
+    public BatchResponse applyBatch(String programId, List<BatchOperation> operations) throws ResourceNotFound, InvalidRequest, ConcurrentModification {
+        checkBatch(operations);
+        return modify(programId, program -> {
+            // rebuilt on every attempt since a retry generates new ids
+            Map<String, String> ids = new LinkedHashMap<String, String>();
+            for (BatchOperation operation : operations) {
+                applyOperation(program, operation, ids);
+            }
 
-        return programRepository.save(program);
+            return new BatchResponse(program, ids);
+        });
     }
 
-    public Program assignExerciseVideoUrl(String programId, String weekId, String dayId, String exerciseId, String url) throws ResourceNotFound {
-        Program program = this.findById(programId);
-        program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).setVideoRef(url);
+    private String resolveId(Map<String, String> ids, String id) {
+        return ids.getOrDefault(id, id);
+    }
+
+    private void applyOperation(Program program, BatchOperation operation, Map<String, String> ids) throws ResourceNotFound {
+        String weekId = resolveId(ids, operation.getWeekId());
+        String dayId = resolveId(ids, operation.getDayId());
+        String exerciseId = resolveId(ids, operation.getExerciseId());
+        String setId = resolveId(ids, operation.getSetId());
+        String createdId = null;
+
+        switch (operation.getType()) {
+            case ADD_WEEK:
+                Week week = new Week(operation.getNote());
+                program.addWeek(week);
+                createdId = week.getId();
+                break;
+            case DELETE_WEEK:
+                program.removeWeek(weekId);
+                break;
+            case UPDATE_WEEK_NOTE:
+                program.findWeekById(weekId).setCoachNotes(operation.getNote());
+                break;
+            case ADD_DAY:
+                Day day = new Day(operation.getNote());
+                program.findWeekById(weekId).addDay(day);
+                createdId = day.getId();
+                break;
+            case DELETE_DAY:
+                program.findWeekById(weekId).removeDay(dayId);
+                break;
+            case UPDATE_DAY_NOTE:
+                program.findWeekById(weekId).findDayById(dayId).setCoachNotes(operation.getNote());
+                break;
+            case ADD_EXERCISE:
+                Exercise exercise = new Exercise(operation.getName(), operation.getVideoRef());
+                program.findWeekById(weekId).findDayById(dayId).addExercise(exercise);
+                createdId = exercise.getId();
+                break;
+            case DELETE_EXERCISE:
+                program.findWeekById(weekId).findDayById(dayId).removeExercise(exerciseId);
+                break;
+            case ADD_SET:
+                // rpe == -1 when set is designed with reps instead of rpe
+                Set set = operation.getRpe() == -1
+                    ? new Set(operation.getReps(), operation.getPercentage(), operation.getPercentageReference(), operation.getVideoRequested())
+                    : new Set(operation.getRpe(), operation.getReps(), operation.getWeight(), operation.getVideoRequested());
+                program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).addSet(set);
+                createdId = set.getId();
+                break;
+            case DELETE_SET:
+                program.findWeekById(weekId).findDayById(dayId).findExerciseById(exerciseId).removeSet(setId);
+                break;
+        }
 
-        return programRepository.save(program);
+        if (createdId != null && operation.getTempId() != null) {
+            ids.put(operation.getTempId(), createdId);
+        }
     }
 
     public void deleteById(String programId) {
         programRepository.deleteById(programId);
+        setResultRepository.deleteByProgramId(programId);
+        programCache.invalidate(programId);
+        responseCache.invalidate(programId);
+        accessIndex.remove(programId);
         return;
     }
 }
-
@@ -0,0 +1,43 @@
+package com.ironinstruction.api.program;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the queries ProgramReadService is written against, BlockingProgramStore runs them on the calling thread
+// through the blocking repositories, ReactiveProgramStore through the reactive driver
+// a missing program or node completes with ResourceNotFound, except findById which completes empty
+public interface ProgramStore {
+    Mono<Program> findById(String programId);
+
+    // read through a cursor, one program is requested at a time
+    Flux<Program> findByEmail(String email);
+
+    <T> Mono<T> findNode(ProgramPath node, Class<T> nodeType);
+
+    Mono<ProgramVersion> findVersion(String programId);
+
+    Mono<ProgramOwnership> findOwnership(String programId);
+
+    Flux<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit);
+
+    Flux<SetResult> findLatestResults(String programId);
+
+    Flux<SetResult> findLatestResults(String programId, Collection<String> setIds);
+
+    // every result of the set, oldest first
+    Flux<SetResult> findResults(String programId, String setId);
+
+    Mono<SetResult> insertResult(SetResult result);
+
+    Mono<Void> deleteResult(SetResult result);
+
+    // whether every node on the path exists, completes true or false
+    Mono<Boolean> exists(ProgramPath node);
+
+    // the results version bump of a logged set, the program's own version stays
+    Mono<Void> bumpResultsVersion(String programId);
+}
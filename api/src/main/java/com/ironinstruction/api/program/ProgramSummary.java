@@ -0,0 +1,52 @@
+package com.ironinstruction.api.program;
+
+import org.bson.types.ObjectId;
+
+import java.util.Date;
+
+// what the dashboard needs to list a program, without its weeks
+public class ProgramSummary {
+    private String id;
+    private String name;
+    private String description;
+    private String coachEmail;
+    private String athleteEmail;
+    private int weekCount;
+    private Date lastModified;
+
+    public ProgramSummary() { }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getCoachEmail() {
+        return coachEmail;
+    }
+
+    public String getAthleteEmail() {
+        return athleteEmail;
+    }
+
+    public int getWeekCount() {
+        return weekCount;
+    }
+
+    // programs written before lastModified existed report their creation time, they still sort as having none
+    public Date getLastModified() {
+        return lastModified != null || !ObjectId.isValid(id) ? lastModified : new ObjectId(id).getDate();
+    }
+
+    // the stored value the summaries were sorted by, null when the program has none
+    Object sortValue(String sort) {
+        return sort.equals("name") ? name : lastModified;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ironinstruction.api.program;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
+
+// where a page of program summaries starts, cursors are "<sort value>|<program id>" in url safe base64,
+// or just "<program id>" when the program had no sort value, ids never contain the separator
+final class ProgramSummaryCursor {
+    private final Object afterValue;
+    private final String afterId;
+
+    private ProgramSummaryCursor(Object afterValue, String afterId) {
+        this.afterValue = afterValue;
+        this.afterId = afterId;
+    }
+
+    // sort is lastModified or name, cursor is the nextCursor of the previous page or null for the first page
+    static ProgramSummaryCursor decode(String sort, int limit, String cursor) throws InvalidRequest {
+        if (!sort.equals("lastModified") && !sort.equals("name")) {
+            throw new InvalidRequest("Programs can only be sorted by lastModified or name");
+        } else if (limit < 1 || limit > ProgramService.MAX_SUMMARY_PAGE_SIZE) {
+            throw new InvalidRequest("limit must be between 1 and " + ProgramService.MAX_SUMMARY_PAGE_SIZE);
+        }
+
+        if (cursor == null) {
+            return new ProgramSummaryCursor(null, null);
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequest("Invalid cursor");
+        }
+        int separator = decoded.lastIndexOf('|');
+        if (separator == -1) {
+            if (decoded.length() == 0) {
+                throw new InvalidRequest("Invalid cursor");
+            }
+            return new ProgramSummaryCursor(null, decoded);
+        }
+        try {
+            Object afterValue = sort.equals("name") ? decoded.substring(0, separator) : new Date(Long.parseLong(decoded.substring(0, separator)));
+            return new ProgramSummaryCursor(afterValue, decoded.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequest("Invalid cursor");
+        }
+    }
+
+    Object getAfterValue() {
+        return afterValue;
+    }
+
+    String getAfterId() {
+        return afterId;
+    }
+
+    // summaries holds one more than limit when another page follows
+    static ProgramSummaryPage page(List<ProgramSummary> summaries, String sort, int limit) {
+        summaries = new ArrayList<ProgramSummary>(summaries);
+        String nextCursor = null;
+        if (summaries.size() > limit) {
+            summaries.subList(limit, summaries.size()).clear();
+            ProgramSummary last = summaries.get(limit - 1);
+            Object lastValue = last.sortValue(sort);
+            String encoded = lastValue == null ? last.getId() : (lastValue instanceof Date ? ((Date) lastValue).getTime() : lastValue) + "|" + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(encoded.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new ProgramSummaryPage(summaries, nextCursor);
+    }
+}
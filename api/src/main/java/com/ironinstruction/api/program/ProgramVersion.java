@@ -0,0 +1,75 @@
+package com.ironinstruction.api.program;
+
+// the version a program's ETag and baseVersion stand for, version counts the writes to the program document
+// and resultsVersion the set results logged against it, which live in their own collection so an athlete
+// logging a set never makes a coach's edit of the document stale
+public final class ProgramVersion implements Comparable<ProgramVersion> {
+    private final long version;
+    private final long resultsVersion;
+
+    ProgramVersion(long version, long resultsVersion) {
+        this.version = version;
+        this.resultsVersion = resultsVersion;
+    }
+
+    // programs written before versioning count as version 0 until their next write
+    static ProgramVersion of(Long version, Long resultsVersion) {
+        return new ProgramVersion(version == null ? 0 : version, resultsVersion == null ? 0 : resultsVersion);
+    }
+
+    public static ProgramVersion of(Program program) {
+        return of(program.getVersion(), program.getResultsVersion());
+    }
+
+    // as toString writes it, either as a number or as the ETag it was sent
+    public static ProgramVersion parse(String value) throws NumberFormatException {
+        String version = value.replace("\"", "");
+        int dot = version.indexOf('.');
+        if (dot < 0) {
+            return new ProgramVersion(Long.parseLong(version), 0);
+        }
+
+        return new ProgramVersion(Long.parseLong(version.substring(0, dot)), Long.parseLong(version.substring(dot + 1)));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getResultsVersion() {
+        return resultsVersion;
+    }
+
+    // true if exactly one write, to the document or its results, happened since base
+    boolean follows(ProgramVersion base) {
+        return version >= base.version && resultsVersion >= base.resultsVersion
+            && (version - base.version) + (resultsVersion - base.resultsVersion) == 1;
+    }
+
+    // both counters only grow, so a later version never compares lower
+    @Override
+    public int compareTo(ProgramVersion other) {
+        int compared = Long.compare(version, other.version);
+        return compared != 0 ? compared : Long.compare(resultsVersion, other.resultsVersion);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof ProgramVersion)) {
+            return false;
+        }
+
+        return version == ((ProgramVersion) other).version && resultsVersion == ((ProgramVersion) other).resultsVersion;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(version) * 31 + Long.hashCode(resultsVersion);
+    }
+
+    // programs nobody logged a set on keep the plain version number they always had
+    @Override
+    public String toString() {
+        return resultsVersion == 0 ? String.valueOf(version) : version + "." + resultsVersion;
+    }
+}
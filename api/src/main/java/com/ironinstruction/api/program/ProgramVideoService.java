@@ -0,0 +1,179 @@
+package com.ironinstruction.api.program;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.requests.CompleteVideoUploadRequest;
+import com.ironinstruction.api.requests.UploadedPart;
+import com.ironinstruction.api.responses.VideoUploadResponse;
+import com.ironinstruction.api.security.SecurityConstants;
+import com.ironinstruction.api.video.PresignedUrlCache;
+import com.ironinstruction.api.video.VideoDeletionQueue;
+import com.ironinstruction.api.video.VideoStorage;
+
+import org.springframework.stereotype.Service;
+
+// the video links and uploads of exercises and sets, shared by the servlet and the reactive controllers
+// an exercise video is stored under {exerciseId}.mp4 and a set video under {setId}.mp4
+@Service
+public class ProgramVideoService {
+    // S3 wants parts of at least 5 MB, 8 MB parts keep a 100 MB video to 12 of them
+    private static final long VIDEO_PART_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_VIDEO_PARTS = (int) ((SecurityConstants.S3_MAX_FILE_SIZE + VIDEO_PART_SIZE - 1) / VIDEO_PART_SIZE);
+
+    private final VideoStorage videoStorage;
+    private final VideoDeletionQueue videoDeletionQueue;
+    private final PresignedUrlCache presignedUrlCache;
+    private final ProgramService programService;
+
+    public ProgramVideoService(VideoStorage videoStorage, VideoDeletionQueue videoDeletionQueue, PresignedUrlCache presignedUrlCache, ProgramService programService) {
+        this.videoStorage = videoStorage;
+        this.videoDeletionQueue = videoDeletionQueue;
+        this.presignedUrlCache = presignedUrlCache;
+        this.programService = programService;
+    }
+
+    public String presignGet(String key) {
+        return this.presignedUrlCache.get(key, this.videoStorage::newPresignedGetUrl);
+    }
+
+    // the download link of the video of an exercise or set, ResourceNotFound if it has none
+    public String presignVideo(String nodeId, String key) throws ResourceNotFound {
+        if (key == null || key.length() == 0) {
+            throw new ResourceNotFound(nodeId);
+        }
+        return presignGet(key);
+    }
+
+    // exercises copied by a bulk assign share their template's video, each key is signed once
+    public Map<String, String> presignVideoRefs(Map<String, String> videoRefs) {
+        Map<String, String> urls = new HashMap<String, String>();
+        Map<String, String> links = new LinkedHashMap<String, String>();
+        videoRefs.forEach((nodeId, key) -> links.put(nodeId, urls.computeIfAbsent(key, this::presignGet)));
+        return links;
+    }
+
+    // the upload replaces the exercise's own video under the same key, a different key belongs to the
+    // template a bulk assign copied this exercise from and the other copies still use it, so nothing is deleted
+    public String newExerciseUploadUrl(String programId, String weekId, String dayId, String exerciseId) throws ResourceNotFound {
+        String key = exerciseId + ".mp4";
+        this.videoDeletionQueue.cancel(key);
+        String videoLink = this.videoStorage.newPresignedPutUrl(key);
+        programService.assignExerciseVideoUrl(programId, weekId, dayId, exerciseId, key);
+        this.presignedUrlCache.invalidate(key);
+
+        return videoLink;
+    }
+
+    public String newSetUploadUrl(String programId, String weekId, String dayId, String exerciseId, String setId) throws ResourceNotFound {
+        String existingKey = programService.findSet(programId, weekId, dayId, exerciseId, setId).getVideoRef();
+        String key = setId + ".mp4";
+        // the upload overwrites a video under the same key, any other key is removed in the background
+        if (existingKey != null && existingKey.length() != 0 && !existingKey.equals(key)) {
+            this.videoDeletionQueue.enqueue(existingKey);
+        }
+        this.videoDeletionQueue.cancel(key);
+        String url = this.videoStorage.newPresignedPutUrl(key);
+        programService.assignSetVideoUrl(programId, weekId, dayId, exerciseId, setId, key);
+        this.presignedUrlCache.invalidate(key);
+        if (existingKey != null && existingKey.length() != 0) {
+            this.presignedUrlCache.invalidate(existingKey);
+        }
+        return url;
+    }
+
+    // multipart uploads let a client send a long video in parts, several at a time, and resend only the parts that failed
+    // the video is assigned to the node once the upload completes, the janitor aborts the ones that never do
+    public VideoUploadResponse startExerciseUpload(String programId, String weekId, String dayId, String exerciseId) throws ResourceNotFound {
+        programService.findExercise(programId, weekId, dayId, exerciseId);
+        return startUpload(exerciseId + ".mp4");
+    }
+
+    public Map<Integer, String> presignExerciseParts(String programId, String weekId, String dayId, String exerciseId, String uploadId, List<Integer> partNumbers) throws ResourceNotFound, InvalidRequest {
+        programService.findExercise(programId, weekId, dayId, exerciseId);
+        return presignParts(exerciseId + ".mp4", uploadId, partNumbers);
+    }
+
+    // returns a download link of the uploaded video
+    public String completeExerciseUpload(String programId, String weekId, String dayId, String exerciseId, String uploadId, CompleteVideoUploadRequest request) throws ResourceNotFound, InvalidRequest {
+        programService.findExercise(programId, weekId, dayId, exerciseId);
+        String key = exerciseId + ".mp4";
+        completeUpload(key, uploadId, request);
+        // as with a single upload, a template's video the exercise pointed at stays for the other copies
+        programService.assignExerciseVideoUrl(programId, weekId, dayId, exerciseId, key);
+        this.presignedUrlCache.invalidate(key);
+
+        return presignGet(key);
+    }
+
+    public void abortExerciseUpload(String programId, String weekId, String dayId, String exerciseId, String uploadId) throws ResourceNotFound {
+        programService.findExercise(programId, weekId, dayId, exerciseId);
+        this.videoStorage.abortMultipartUpload(exerciseId + ".mp4", uploadId);
+    }
+
+    public VideoUploadResponse startSetUpload(String programId, String weekId, String dayId, String exerciseId, String setId) throws ResourceNotFound {
+        programService.findSet(programId, weekId, dayId, exerciseId, setId);
+        return startUpload(setId + ".mp4");
+    }
+
+    public Map<Integer, String> presignSetParts(String programId, String weekId, String dayId, String exerciseId, String setId, String uploadId, List<Integer> partNumbers) throws ResourceNotFound, InvalidRequest {
+        programService.findSet(programId, weekId, dayId, exerciseId, setId);
+        return presignParts(setId + ".mp4", uploadId, partNumbers);
+    }
+
+    public String completeSetUpload(String programId, String weekId, String dayId, String exerciseId, String setId, String uploadId, CompleteVideoUploadRequest request) throws ResourceNotFound, InvalidRequest {
+        String existingKey = programService.findSet(programId, weekId, dayId, exerciseId, setId).getVideoRef();
+        String key = setId + ".mp4";
+        completeUpload(key, uploadId, request);
+        if (existingKey != null && existingKey.length() != 0 && !existingKey.equals(key)) {
+            this.videoDeletionQueue.enqueue(existingKey);
+            this.presignedUrlCache.invalidate(existingKey);
+        }
+        programService.assignSetVideoUrl(programId, weekId, dayId, exerciseId, setId, key);
+        this.presignedUrlCache.invalidate(key);
+
+        return presignGet(key);
+    }
+
+    public void abortSetUpload(String programId, String weekId, String dayId, String exerciseId, String setId, String uploadId) throws ResourceNotFound {
+        programService.findSet(programId, weekId, dayId, exerciseId, setId);
+        this.videoStorage.abortMultipartUpload(setId + ".mp4", uploadId);
+    }
+
+    private VideoUploadResponse startUpload(String key) {
+        // a deletion queued for the key would remove the video this upload is about to create
+        this.videoDeletionQueue.cancel(key);
+        return new VideoUploadResponse(key, this.videoStorage.createMultipartUpload(key), VIDEO_PART_SIZE, MAX_VIDEO_PARTS);
+    }
+
+    // the upload id is only ever used with the node's own key, the storage rejects one that was started for another key
+    private Map<Integer, String> presignParts(String key, String uploadId, List<Integer> partNumbers) throws InvalidRequest {
+        Map<Integer, String> urls = new LinkedHashMap<Integer, String>();
+        for (Integer partNumber : partNumbers) {
+            if (partNumber == null || partNumber < 1 || partNumber > MAX_VIDEO_PARTS) {
+                throw new InvalidRequest("partNumbers must be between 1 and " + MAX_VIDEO_PARTS);
+            }
+            urls.put(partNumber, this.videoStorage.newPresignedUploadPartUrl(key, uploadId, partNumber));
+        }
+
+        return urls;
+    }
+
+    private void completeUpload(String key, String uploadId, CompleteVideoUploadRequest request) throws ResourceNotFound, InvalidRequest {
+        if (request.getParts() == null || request.getParts().isEmpty() || request.getParts().size() > MAX_VIDEO_PARTS) {
+            throw new InvalidRequest("An upload has between 1 and " + MAX_VIDEO_PARTS + " parts");
+        }
+        Map<Integer, String> eTags = new HashMap<Integer, String>();
+        for (UploadedPart part : request.getParts()) {
+            if (part.getEtag() == null || eTags.put(part.getPartNumber(), part.getEtag()) != null) {
+                throw new InvalidRequest("Every part needs an etag and a distinct part number");
+            }
+        }
+
+        this.videoStorage.completeMultipartUpload(key, uploadId, eTags);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ironinstruction.api.program;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+// counts full-document writes and how often they lost the race against another write
+@Component
+public class ProgramWriteStats {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    void recordAttempt() {
+        attempts.increment();
+    }
+
+    void recordConflict() {
+        conflicts.increment();
+    }
+
+    void recordExhausted() {
+        exhausted.increment();
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    // modifications that still conflicted after every retry
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    public double getConflictRate() {
+        long attempts = getAttempts();
+        return attempts == 0 ? 0 : (double) getConflicts() / attempts;
+    }
+}
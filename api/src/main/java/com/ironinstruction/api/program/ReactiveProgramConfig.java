@@ -0,0 +1,16 @@
+package com.ironinstruction.api.program;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// the reactive profile runs the reads ProgramService shares over the reactive driver, the coach's writes
+// still go through ProgramService, so both see the same caches, access index and result buffer
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProgramConfig {
+    @Bean
+    public ProgramReadService reactiveProgramReads(ReactiveProgramRepository programRepository, ReactiveSetResultRepository setResultRepository, ProgramCache programCache, ProgramAccessIndex accessIndex, ProgramResponseCache responseCache, SetResultBuffer resultBuffer) {
+        return new ProgramReadService(new ReactiveProgramStore(programRepository, setResultRepository), programCache, accessIndex, responseCache, resultBuffer);
+    }
+}
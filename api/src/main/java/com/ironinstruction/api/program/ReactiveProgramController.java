@@ -0,0 +1,440 @@
+package com.ironinstruction.api.program;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.requests.AssignProgramRequest;
+import com.ironinstruction.api.requests.BatchRequest;
+import com.ironinstruction.api.requests.BulkAssignRequest;
+import com.ironinstruction.api.requests.CompleteVideoUploadRequest;
+import com.ironinstruction.api.requests.CreateExerciseRequest;
+import com.ironinstruction.api.requests.CreateProgramRequest;
+import com.ironinstruction.api.requests.CreateSetRequest;
+import com.ironinstruction.api.requests.FinishSetRequest;
+import com.ironinstruction.api.requests.NoteRequest;
+import com.ironinstruction.api.requests.ResponseMode;
+import com.ironinstruction.api.responses.BatchResponse;
+import com.ironinstruction.api.responses.BulkAssignResponse;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
+import com.ironinstruction.api.responses.VideoLinkResponse;
+import com.ironinstruction.api.responses.VideoUploadResponse;
+import com.ironinstruction.api.utils.Blocking;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// ProgramController for the reactive profile, same routes and same responses from the same services
+// an athlete's reads and logged sets go through ProgramReadService over the reactive driver, the coach's writes,
+// bulk assigns, batches and uploads through the blocking ProgramService and ProgramVideoService on the bounded elastic pool
+@RestController
+@RequestMapping("/api/v1/programs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProgramController {
+    private final ProgramReadService reads;
+    private final ProgramService programService;
+    private final ProgramVideoService videoService;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveProgramController(ProgramReadService reads, ProgramService programService, ProgramVideoService videoService, ObjectMapper objectMapper) {
+        this.reads = reads;
+        this.programService = programService;
+        this.videoService = videoService;
+        this.objectMapper = objectMapper;
+    }
+
+    // JWTAuthorizationWebFilter puts the JWT token's associated email in the subscriber context
+    private static Mono<String> email() {
+        return ReactiveSecurityContextHolder.getContext().map((context) -> context.getAuthentication().getPrincipal().toString());
+    }
+
+    private static ResponseMode responseMode(ServerWebExchange exchange) throws InvalidRequest {
+        ServerHttpRequest request = exchange.getRequest();
+        return ProgramResponses.responseMode(request.getQueryParams().getFirst("response"), request.getHeaders().getFirst("X-Response-Mode"));
+    }
+
+    private static ProgramVersion baseVersion(ServerWebExchange exchange) throws InvalidRequest {
+        ServerHttpRequest request = exchange.getRequest();
+        return ProgramResponses.baseVersion(request.getQueryParams().getFirst("baseVersion"), request.getHeaders().getFirst("X-Base-Version"));
+    }
+
+    // runs before every handler so a bad mode is rejected before the mutation is applied
+    @ModelAttribute
+    public void checkResponseOptions(ServerWebExchange exchange) throws InvalidRequest {
+        responseMode(exchange);
+        baseVersion(exchange);
+    }
+
+    // a removed node can only be located before the write, empty if no exact patch is possible
+    private Mono<Optional<String>> locateRemoval(ProgramPath path, ServerWebExchange exchange) throws InvalidRequest {
+        ProgramVersion baseVersion = baseVersion(exchange);
+        if (!ProgramResponses.locatesRemoval(responseMode(exchange), baseVersion)) {
+            return Mono.just(Optional.empty());
+        }
+
+        return reads.findById(path.getProgramId())
+            .flatMap((before) -> Mono.fromCallable(() -> Optional.ofNullable(ProgramResponses.removedPointer(before, path, baseVersion))));
+    }
+
+    // the write runs on the bounded elastic pool, the program it answers with is read without blocking
+    private Mono<ResponseEntity<Object>> write(Callable<ProgramChange> write, ServerWebExchange exchange) {
+        return Blocking.call(write).flatMap((change) -> respond(change, null, exchange));
+    }
+
+    private Mono<ResponseEntity<Object>> remove(ProgramPath path, Callable<?> removal, ServerWebExchange exchange) throws InvalidRequest {
+        return locateRemoval(path, exchange).flatMap((removedPointer) -> Blocking.call(removal)
+            .then(respond(ProgramChange.removed(path), removedPointer.orElse(null), exchange)));
+    }
+
+    // the default full response and patches read the program after the write, a node response
+    // only reads the results of the node's sets and the version
+    private Mono<ResponseEntity<Object>> respond(ProgramChange change, String removedPointer, ServerWebExchange exchange) {
+        String programId = change.getPath().getProgramId();
+        return Mono.fromCallable(() -> ProgramResponses.answersFromNode(change, responseMode(exchange))).flatMap((fromNode) -> {
+            if (!fromNode) {
+                return reads.findById(programId).flatMap((program) -> respond(change, removedPointer, program, exchange));
+            }
+
+            Mono<ProgramChange> withResults = change.getNode() == null ? Mono.just(change) : reads.withResults(programId, change.getNode()).map(change::withNode);
+            return withResults.zipWith(reads.findVersion(programId), ProgramResponses::node);
+        });
+    }
+
+    // program is the program after the change
+    private Mono<ResponseEntity<Object>> respond(ProgramChange change, String removedPointer, Program program, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> ProgramResponses.change(change, removedPointer, program, responseMode(exchange), baseVersion(exchange), objectMapper));
+    }
+
+    // ProgramETagAdvice only tags servlet responses
+    private static <T> ResponseEntity<T> tagged(Program program, T body) {
+        return ResponseEntity.ok().eTag(ProgramETag.of(program)).body(body);
+    }
+
+    @PostMapping("")
+    public Mono<ResponseEntity<Program>> createProgram(@RequestBody CreateProgramRequest request) {
+        return email()
+            .flatMap((userEmail) -> Blocking.call(() -> programService.createProgram(userEmail, request.getName(), request.getDescription())))
+            .map((program) -> tagged(program, program));
+    }
+
+    @GetMapping("/user/me")
+    public Mono<ProgramSummaryPage> getUserPrograms(
+        @RequestParam(defaultValue = "lastModified") String sort,
+        @RequestParam(defaultValue = "desc") String direction,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) String cursor
+    ) throws InvalidRequest {
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction).orElseThrow(() -> new InvalidRequest("direction must be asc or desc"));
+        return email().flatMap((userEmail) -> reads.findUserProgramSummaries(userEmail, sort, sortDirection, limit, cursor));
+    }
+
+    // every week, day, exercise and set of every program, only for clients that really need the whole tree
+    // each program is flushed as it comes off the cursor, the json encoder would collect the whole list first
+    @GetMapping("/user/me/full")
+    public Mono<Void> getUserProgramsFull(ServerHttpResponse response) {
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBufferFactory buffers = response.bufferFactory();
+        Flux<DataBuffer> programs = email()
+            .flatMapMany(reads::streamUserPrograms)
+            .index()
+            .handle((indexed, sink) -> {
+                try {
+                    sink.next(json(buffers, indexed.getT1() == 0 ? "" : ",", indexed.getT2()));
+                } catch (IOException e) {
+                    sink.error(e);
+                }
+            });
+
+        return response.writeAndFlushWith(Flux.concat(Mono.fromSupplier(() -> text(buffers, "[")), programs, Mono.fromSupplier(() -> text(buffers, "]"))).map(Mono::just));
+    }
+
+    private static DataBuffer text(DataBufferFactory buffers, String text) {
+        return buffers.wrap(text.getBytes());
+    }
+
+    private DataBuffer json(DataBufferFactory buffers, String separator, Program program) throws IOException {
+        DataBuffer buffer = buffers.allocateBuffer();
+        try (OutputStream out = buffer.asOutputStream(); JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeRaw(separator);
+            generator.writeObject(program);
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+
+        return buffer;
+    }
+
+    @GetMapping("/{programId}")
+    public Mono<ResponseEntity<byte[]>> getProgram(@PathVariable String programId, ServerWebExchange exchange) {
+        // If-None-Match is answered from the version alone, the program is only loaded when it changed
+        return reads.findVersion(programId).flatMap((version) -> {
+            String etag = ProgramETag.of(version);
+            if (!reads.hasPendingResults(programId) && exchange.checkNotModified(etag)) {
+                return Mono.just(ProgramResponses.notModified(etag));
+            }
+
+            return reads.findResponseBody(programId, version)
+                .map((body) -> ProgramResponses.program(body, exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)));
+        });
+    }
+
+    @PostMapping("/{programId}")
+    public Mono<ResponseEntity<Object>> updateProgram(@PathVariable String programId, @RequestBody CreateProgramRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            programService.updateProgram(programId, request.getName(), request.getDescription());
+            return ProgramChange.replaced(ProgramPath.of(programId), "name", "description");
+        }, exchange);
+    }
+
+    @PostMapping("/{programId}/assign")
+    public Mono<ResponseEntity<Object>> assignProgram(@PathVariable String programId, @RequestBody AssignProgramRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            programService.assignToAthlete(programId, request.getEmail());
+            return ProgramChange.replaced(ProgramPath.of(programId), "athleteEmail");
+        }, exchange);
+    }
+
+    // gives every athlete on a roster their own copy of the program, the program itself stays unassigned
+    @PostMapping("/{programId}/assign/bulk")
+    public Mono<BulkAssignResponse> bulkAssignProgram(@PathVariable String programId, @RequestBody BulkAssignRequest request) {
+        return Blocking.call(() -> programService.bulkAssign(programId, request.getEmails()));
+    }
+
+    @PostMapping("/{programId}/batch")
+    public Mono<ResponseEntity<BatchResponse>> applyBatch(@PathVariable String programId, @RequestBody BatchRequest request) {
+        return Blocking.call(() -> programService.applyBatch(programId, request.getOperations())).map((response) -> tagged(response.getProgram(), response));
+    }
+
+    @PostMapping("/{programId}/weeks")
+    public Mono<ResponseEntity<Object>> createWeek(@PathVariable String programId, @RequestBody NoteRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Week week = programService.addWeek(programId, request.getNote());
+            return ProgramChange.added(ProgramPath.of(programId, week.getId())).withNode(week);
+        }, exchange);
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}")
+    public Mono<ResponseEntity<Object>> deleteWeek(@PathVariable String programId, @PathVariable String weekId, ServerWebExchange exchange) throws InvalidRequest {
+        return remove(ProgramPath.of(programId, weekId), () -> {
+            programService.deleteWeek(programId, weekId);
+            return null;
+        }, exchange);
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/notes")
+    public Mono<ResponseEntity<Object>> updateWeekCoachNotes(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Week week = programService.updateWeekCoachNote(programId, weekId, request.getNote());
+            return ProgramChange.replaced(ProgramPath.of(programId, weekId), "coachNotes").withNode(week);
+        }, exchange);
+    }
+
+    @PatchMapping("/{programId}/weeks/{weekId}/notes")
+    public Mono<ResponseEntity<Object>> updateWeekAthleteNote(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Week week = programService.updateWeekAthleteNote(programId, weekId, request.getNote());
+            return ProgramChange.replaced(ProgramPath.of(programId, weekId), "athleteNotes").withNode(week);
+        }, exchange);
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days")
+    public Mono<ResponseEntity<Object>> createDay(@PathVariable String programId, @PathVariable String weekId, @RequestBody NoteRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Day day = programService.addDay(programId, weekId, request.getNote());
+            return ProgramChange.added(ProgramPath.of(programId, weekId, day.getId())).withNode(day);
+        }, exchange);
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}")
+    public Mono<ResponseEntity<Object>> deleteDay(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, ServerWebExchange exchange) throws InvalidRequest {
+        return remove(ProgramPath.of(programId, weekId, dayId), () -> {
+            programService.deleteDay(programId, weekId, dayId);
+            return null;
+        }, exchange);
+    }
+
+    @PatchMapping("/{programId}/weeks/{weekId}/days/{dayId}/notes")
+    public Mono<ResponseEntity<Object>> updateDayAthleteNote(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody NoteRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Day day = programService.updateDayAthleteNote(programId, weekId, dayId, request.getNote());
+            return ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId), "athleteNotes").withNode(day);
+        }, exchange);
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/notes")
+    public Mono<ResponseEntity<Object>> updateDayCoachNote(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody NoteRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Day day = programService.updateDayCoachNote(programId, weekId, dayId, request.getNote());
+            return ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId), "coachNotes").withNode(day);
+        }, exchange);
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises")
+    public Mono<ResponseEntity<Object>> createExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @RequestBody CreateExerciseRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Exercise exercise = programService.addExercise(programId, weekId, dayId, request.getName(), request.getVideoRef());
+            return ProgramChange.added(ProgramPath.of(programId, weekId, dayId, exercise.getId())).withNode(exercise);
+        }, exchange);
+    }
+
+    @PutMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}")
+    public Mono<ResponseEntity<Object>> updateExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @RequestBody Exercise request, ServerWebExchange exchange) {
+        return write(() -> {
+            Exercise exercise = programService.updateExercise(programId, weekId, dayId, request);
+            return ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId, request.getId())).withNode(exercise);
+        }, exchange);
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}")
+    public Mono<ResponseEntity<Object>> deleteExercise(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, ServerWebExchange exchange) throws InvalidRequest {
+        return remove(ProgramPath.of(programId, weekId, dayId, exerciseId), () -> {
+            programService.deleteExercise(programId, weekId, dayId, exerciseId);
+            return null;
+        }, exchange);
+    }
+
+    // presigning is cheap but may sign with credentials that are refreshed over the network
+    private Mono<VideoLinkResponse> videoLink(String nodeId, String key) {
+        return Blocking.call(() -> new VideoLinkResponse(videoService.presignVideo(nodeId, key)));
+    }
+
+    // download links for every video in the week, keyed by exercise or set id, so a client showing
+    // the week doesn't ask for each video on its own
+    @GetMapping("/{programId}/weeks/{weekId}/video-links")
+    public Mono<Map<String, String>> getWeekVideoLinks(@PathVariable String programId, @PathVariable String weekId) {
+        return reads.findWeekVideoRefs(programId, weekId).flatMap((videoRefs) -> Blocking.call(() -> videoService.presignVideoRefs(videoRefs)));
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/video-links")
+    public Mono<Map<String, String>> getDayVideoLinks(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId) {
+        return reads.findDayVideoRefs(programId, weekId, dayId).flatMap((videoRefs) -> Blocking.call(() -> videoService.presignVideoRefs(videoRefs)));
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video")
+    public Mono<VideoLinkResponse> getExerciseVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) {
+        return reads.findExercise(programId, weekId, dayId, exerciseId).flatMap((exercise) -> videoLink(exerciseId, exercise.getVideoRef()));
+    }
+
+    // make it post so only coach can access
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/upload")
+    public Mono<VideoLinkResponse> createExerciseVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) {
+        return Blocking.call(() -> new VideoLinkResponse(videoService.newExerciseUploadUrl(programId, weekId, dayId, exerciseId)));
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets")
+    public Mono<ResponseEntity<Object>> createSet(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @RequestBody CreateSetRequest request, ServerWebExchange exchange) {
+        return write(() -> {
+            Set set;
+            // rpe == -1 when set is designed with reps instead of rpe
+            if (request.getRpe() == -1) {
+                set = programService.addSet(programId, weekId, dayId, exerciseId, request.getReps(), request.getPercentage(), request.getPercentageReference(), request.getVideoRequested());
+            } else {
+                set = programService.addSet(programId, weekId, dayId, exerciseId, request.getRpe(), request.getReps(), request.getWeight(), request.getVideoRequested());
+            }
+
+            return ProgramChange.added(ProgramPath.of(programId, weekId, dayId, exerciseId, set.getId())).withNode(set);
+        }, exchange);
+    }
+
+    @PatchMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}")
+    public Mono<ResponseEntity<Object>> finishSet(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @RequestBody FinishSetRequest request, ServerWebExchange exchange) {
+        // the program comes back with the new result, so respond doesn't read it again
+        return reads.finishSet(programId, weekId, dayId, exerciseId, setId, request.getRepsDone(), request.getRpe(), request.getWeight())
+            .flatMap((program) -> respond(ProgramChange.replaced(ProgramPath.of(programId, weekId, dayId, exerciseId, setId), "completedReps"), null, program, exchange));
+    }
+
+    // every time the set was logged, the program only shows the latest
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/results")
+    public Flux<SetResult> getSetResults(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) {
+        return reads.findSetResults(programId, weekId, dayId, exerciseId, setId);
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video")
+    public Mono<VideoLinkResponse> getSetVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) {
+        return reads.findSet(programId, weekId, dayId, exerciseId, setId).flatMap((set) -> videoLink(setId, set.getVideoRef()));
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/upload")
+    public Mono<VideoLinkResponse> createSetVideoLink(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) {
+        return Blocking.call(() -> new VideoLinkResponse(videoService.newSetUploadUrl(programId, weekId, dayId, exerciseId, setId)));
+    }
+
+    // multipart uploads let a client send a long video in parts, see ProgramController
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart")
+    public Mono<VideoUploadResponse> startExerciseVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId) {
+        return Blocking.call(() -> videoService.startExerciseUpload(programId, weekId, dayId, exerciseId));
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart/{uploadId}")
+    public Mono<Map<Integer, String>> getExerciseVideoPartLinks(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String uploadId, @RequestParam List<Integer> partNumbers) {
+        return Blocking.call(() -> videoService.presignExerciseParts(programId, weekId, dayId, exerciseId, uploadId, partNumbers));
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart/{uploadId}")
+    public Mono<VideoLinkResponse> completeExerciseVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String uploadId, @RequestBody CompleteVideoUploadRequest request) {
+        return Blocking.call(() -> new VideoLinkResponse(videoService.completeExerciseUpload(programId, weekId, dayId, exerciseId, uploadId, request)));
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/video/multipart/{uploadId}")
+    public Mono<ResponseEntity<Object>> abortExerciseVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String uploadId) {
+        return Blocking.call(() -> {
+            videoService.abortExerciseUpload(programId, weekId, dayId, exerciseId, uploadId);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    // athletes upload their set videos, JWTAuthorizationWebFilter lets them use these POST and DELETE endpoints
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart")
+    public Mono<VideoUploadResponse> startSetVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId) {
+        return Blocking.call(() -> videoService.startSetUpload(programId, weekId, dayId, exerciseId, setId));
+    }
+
+    @GetMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart/{uploadId}")
+    public Mono<Map<Integer, String>> getSetVideoPartLinks(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @PathVariable String uploadId, @RequestParam List<Integer> partNumbers) {
+        return Blocking.call(() -> videoService.presignSetParts(programId, weekId, dayId, exerciseId, setId, uploadId, partNumbers));
+    }
+
+    @PostMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart/{uploadId}")
+    public Mono<VideoLinkResponse> completeSetVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @PathVariable String uploadId, @RequestBody CompleteVideoUploadRequest request) {
+        return Blocking.call(() -> new VideoLinkResponse(videoService.completeSetUpload(programId, weekId, dayId, exerciseId, setId, uploadId, request)));
+    }
+
+    @DeleteMapping("/{programId}/weeks/{weekId}/days/{dayId}/exercises/{exerciseId}/sets/{setId}/video/multipart/{uploadId}")
+    public Mono<ResponseEntity<Object>> abortSetVideoUpload(@PathVariable String programId, @PathVariable String weekId, @PathVariable String dayId, @PathVariable String exerciseId, @PathVariable String setId, @PathVariable String uploadId) {
+        return Blocking.call(() -> {
+            videoService.abortSetUpload(programId, weekId, dayId, exerciseId, setId, uploadId);
+            return ResponseEntity.noContent().build();
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.ironinstruction.api.program;
+
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+
+// the programs collection for the reactive profile, only created when the reactive mongo client is
+@Repository
+public interface ReactiveProgramRepository extends ReactiveMongoRepository<Program, String>, ReactiveProgramRepositoryCustom {
+    @Query("{$or: [ {'coachEmail': ?0}, {'athleteEmail': ?0} ]}")
+    @Meta(cursorBatchSize = 20)
+    public Flux<Program> findByEmail(String email);
+}
@@ -0,0 +1,22 @@
+package com.ironinstruction.api.program;
+
+import org.springframework.data.domain.Sort;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the reads and the results version bump the reactive profile serves without blocking, the same queries as
+// ProgramRepositoryCustom, a missing program or node completes with ResourceNotFound
+public interface ReactiveProgramRepositoryCustom {
+    Mono<Boolean> exists(ProgramPath node);
+
+    Mono<Void> bumpResultsVersion(String programId);
+
+    <T> Mono<T> findNode(ProgramPath node, Class<T> nodeType);
+
+    Mono<ProgramVersion> findVersion(String programId);
+
+    Mono<ProgramOwnership> findOwnership(String programId);
+
+    Flux<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit);
+}
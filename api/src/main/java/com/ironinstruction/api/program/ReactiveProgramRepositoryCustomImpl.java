@@ -0,0 +1,72 @@
+package com.ironinstruction.api.program;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ReactiveProgramRepositoryCustomImpl implements ReactiveProgramRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ProgramCache programCache;
+    private final ProgramResponseCache responseCache;
+
+    public ReactiveProgramRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate, ProgramCache programCache, ProgramResponseCache responseCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.programCache = programCache;
+        this.responseCache = responseCache;
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(Program.class);
+    }
+
+    @Override
+    public Mono<Boolean> exists(ProgramPath node) {
+        return mongoTemplate.exists(new Query(node.criteria()), Program.class);
+    }
+
+    @Override
+    public Mono<Void> bumpResultsVersion(String programId) {
+        // by collection name so the template leaves the @Version field alone
+        return mongoTemplate.updateFirst(new Query(ProgramPath.of(programId).criteria()), ProgramRepositoryCustomImpl.bumpResultsVersion(), collection())
+            .flatMap((result) -> result.getMatchedCount() == 0 ? Mono.error(new ResourceNotFound(programId)) : Mono.fromRunnable(() -> {
+                programCache.invalidate(programId);
+                responseCache.invalidate(programId);
+            }));
+    }
+
+    @Override
+    public <T> Mono<T> findNode(ProgramPath node, Class<T> nodeType) {
+        return mongoTemplate.aggregate(Aggregation.newAggregation(node.fragmentStages()), collection(), nodeType)
+            .singleOrEmpty()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFound(node.getNodeId())));
+    }
+
+    @Override
+    public Mono<ProgramVersion> findVersion(String programId) {
+        return mongoTemplate.findOne(ProgramRepositoryCustomImpl.versionQuery(programId), Document.class, collection())
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFound(programId)))
+            .map(ProgramRepositoryCustomImpl::version);
+    }
+
+    @Override
+    public Mono<ProgramOwnership> findOwnership(String programId) {
+        return mongoTemplate.findOne(ProgramRepositoryCustomImpl.ownershipQuery(programId), ProgramOwnership.class, collection())
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFound(programId)));
+    }
+
+    @Override
+    public Flux<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit) {
+        return mongoTemplate.aggregate(
+            ProgramRepositoryCustomImpl.summaryAggregation(email, sortField, direction, afterValue, afterId, limit),
+            collection(),
+            ProgramSummary.class
+        );
+    }
+}
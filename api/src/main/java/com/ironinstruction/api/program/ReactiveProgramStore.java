@@ -0,0 +1,84 @@
+package com.ironinstruction.api.program;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// ProgramStore over the reactive repositories, nothing waits on mongo
+public class ReactiveProgramStore implements ProgramStore {
+    private final ReactiveProgramRepository programRepository;
+    private final ReactiveSetResultRepository setResultRepository;
+
+    public ReactiveProgramStore(ReactiveProgramRepository programRepository, ReactiveSetResultRepository setResultRepository) {
+        this.programRepository = programRepository;
+        this.setResultRepository = setResultRepository;
+    }
+
+    @Override
+    public Mono<Program> findById(String programId) {
+        return programRepository.findById(programId);
+    }
+
+    @Override
+    public Flux<Program> findByEmail(String email) {
+        return programRepository.findByEmail(email);
+    }
+
+    @Override
+    public <T> Mono<T> findNode(ProgramPath node, Class<T> nodeType) {
+        return programRepository.findNode(node, nodeType);
+    }
+
+    @Override
+    public Mono<ProgramVersion> findVersion(String programId) {
+        return programRepository.findVersion(programId);
+    }
+
+    @Override
+    public Mono<ProgramOwnership> findOwnership(String programId) {
+        return programRepository.findOwnership(programId);
+    }
+
+    @Override
+    public Flux<ProgramSummary> findSummaries(String email, String sortField, Sort.Direction direction, Object afterValue, String afterId, int limit) {
+        return programRepository.findSummaries(email, sortField, direction, afterValue, afterId, limit);
+    }
+
+    @Override
+    public Flux<SetResult> findLatestResults(String programId) {
+        return setResultRepository.findLatestByProgramId(programId);
+    }
+
+    @Override
+    public Flux<SetResult> findLatestResults(String programId, Collection<String> setIds) {
+        return setResultRepository.findLatestByProgramIdAndSetIdIn(programId, setIds);
+    }
+
+    @Override
+    public Flux<SetResult> findResults(String programId, String setId) {
+        return setResultRepository.findByProgramIdAndSetIdOrderByRecordedAtAsc(programId, setId);
+    }
+
+    @Override
+    public Mono<SetResult> insertResult(SetResult result) {
+        return setResultRepository.insert(result);
+    }
+
+    @Override
+    public Mono<Void> deleteResult(SetResult result) {
+        return setResultRepository.delete(result);
+    }
+
+    @Override
+    public Mono<Boolean> exists(ProgramPath node) {
+        return programRepository.exists(node);
+    }
+
+    @Override
+    public Mono<Void> bumpResultsVersion(String programId) {
+        return programRepository.bumpResultsVersion(programId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ironinstruction.api.program;
+
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+
+// SetResultRepository for the reactive profile, the buffer still flushes through the blocking one
+@Repository
+public interface ReactiveSetResultRepository extends ReactiveMongoRepository<SetResult, String> {
+    @Aggregation(pipeline = {
+        "{ $match: { programId: ?0 } }",
+        "{ $sort: { setId: 1, recordedAt: -1, _id: -1 } }",
+        "{ $group: { _id: '$setId', latest: { $first: '$$ROOT' } } }",
+        "{ $replaceRoot: { newRoot: '$latest' } }"
+    })
+    Flux<SetResult> findLatestByProgramId(String programId);
+
+    @Aggregation(pipeline = {
+        "{ $match: { programId: ?0, setId: { $in: ?1 } } }",
+        "{ $sort: { setId: 1, recordedAt: -1, _id: -1 } }",
+        "{ $group: { _id: '$setId', latest: { $first: '$$ROOT' } } }",
+        "{ $replaceRoot: { newRoot: '$latest' } }"
+    })
+    Flux<SetResult> findLatestByProgramIdAndSetIdIn(String programId, Collection<String> setIds);
+
+    Flux<SetResult> findByProgramIdAndSetIdOrderByRecordedAtAsc(String programId, String setId);
+}
@@ -109,4 +109,17 @@ public class Set {
     public void setVideoRequested(boolean videoRequested) {
         this.videoRequested = videoRequested;
     }
+
+    // the same prescription under a new id, without the athlete's reps or video
+    Set copy() {
+        Set copy = new Set();
+        copy.reps = this.reps;
+        copy.completedReps = -1;
+        copy.percentage = this.percentage;
+        copy.percentageReference = this.percentageReference;
+        copy.weight = this.weight;
+        copy.rpe = this.rpe;
+        copy.videoRequested = this.videoRequested;
+        return copy;
+    }
 }
@@ -0,0 +1,61 @@
+package com.ironinstruction.api.program;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// one logged attempt at a set, kept apart from the coach's program so logging never rewrites it
+// results are only ever inserted, the latest one per set is what the program shows as completedReps
+@Document(collection = "setResults")
+@CompoundIndex(name = "program_set_latest", def = "{'programId': 1, 'setId': 1, 'recordedAt': -1, '_id': -1}")
+public class SetResult {
+    @Id
+    private String id;
+    private String programId;
+    private String setId;
+    private int completedReps;
+    private Float rpe; // what the athlete reports, null when not given
+    private Float weight; // weight actually used, null when not given
+    private Date recordedAt;
+
+    public SetResult() { }
+
+    public SetResult(String programId, String setId, int completedReps, Float rpe, Float weight) {
+        this.programId = programId;
+        this.setId = setId;
+        this.completedReps = completedReps;
+        this.rpe = rpe;
+        this.weight = weight;
+        this.recordedAt = new Date();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProgramId() {
+        return programId;
+    }
+
+    public String getSetId() {
+        return setId;
+    }
+
+    public int getCompletedReps() {
+        return completedReps;
+    }
+
+    public Float getRpe() {
+        return rpe;
+    }
+
+    public Float getWeight() {
+        return weight;
+    }
+
+    public Date getRecordedAt() {
+        return recordedAt;
+    }
+}
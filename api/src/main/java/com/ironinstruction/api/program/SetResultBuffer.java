@@ -0,0 +1,220 @@
+package com.ironinstruction.api.program;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// optional write-behind for set results: everything logged for a program within one window is written
+// with a single insert and one version bump, and a correction to a set inside the window replaces the earlier tap
+@Component
+public class SetResultBuffer {
+    private final SetResultRepository setResultRepository;
+    private final ProgramRepository programRepository;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final ScheduledThreadPoolExecutor flusher;
+
+    // program id -> set id -> latest result, waiting for the program's window to close
+    private final Map<String, Map<String, SetResult>> pending = new HashMap<String, Map<String, SetResult>>();
+    // results taken out of pending that are still being written, readers keep seeing them until then
+    private final Map<String, Map<String, SetResult>> flushing = new HashMap<String, Map<String, SetResult>>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+
+    public SetResultBuffer(
+        SetResultRepository setResultRepository,
+        ProgramRepository programRepository,
+        @Value("${ironinstruction.set-result-buffer.enabled:false}") boolean enabled,
+        @Value("${ironinstruction.set-result-buffer.window-millis:500}") long windowMillis
+    ) {
+        this.setResultRepository = setResultRepository;
+        this.programRepository = programRepository;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.flusher = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            Thread thread = new Thread(runnable, "set-result-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // on shutdown the pending windows are flushed right away instead of waiting for them
+        this.flusher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(SetResult result) {
+        this.lock.lock();
+        try {
+            Map<String, SetResult> results = this.pending.get(result.getProgramId());
+            if (results == null) {
+                results = new LinkedHashMap<String, SetResult>();
+                this.pending.put(result.getProgramId(), results);
+                this.flusher.schedule(() -> flush(result.getProgramId()), this.windowMillis, TimeUnit.MILLISECONDS);
+            }
+            results.put(result.getSetId(), result);
+            buffered.increment();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // results of the program that aren't in the database yet, oldest first
+    public List<SetResult> pendingResults(String programId) {
+        this.lock.lock();
+        try {
+            List<SetResult> results = new ArrayList<SetResult>();
+            if (this.flushing.containsKey(programId)) {
+                results.addAll(this.flushing.get(programId).values());
+            }
+            if (this.pending.containsKey(programId)) {
+                results.addAll(this.pending.get(programId).values());
+            }
+
+            return results;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public boolean hasPending(String programId) {
+        this.lock.lock();
+        try {
+            return this.pending.containsKey(programId) || this.flushing.containsKey(programId);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    void flush(String programId) {
+        Map<String, SetResult> results;
+        this.lock.lock();
+        try {
+            results = this.pending.remove(programId);
+            if (results == null) {
+                return;
+            }
+            this.flushing.put(programId, results);
+        } finally {
+            this.lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            // the results version moves first, readers that see it already get the results from flushing
+            programRepository.bumpResultsVersion(programId);
+            setResultRepository.insert(results.values());
+
+            long elapsed = System.nanoTime() - start;
+            flushes.increment();
+            written.add(results.size());
+            flushNanos.add(elapsed);
+            maxFlushNanos.accumulate(elapsed);
+        } catch (ResourceNotFound e) {
+            // the program was deleted while its results waited
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            requeue(programId, results);
+        } finally {
+            this.lock.lock();
+            try {
+                this.flushing.remove(programId);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    // puts results back after a failed write, taps logged since then stay the latest
+    private void requeue(String programId, Map<String, SetResult> results) {
+        this.lock.lock();
+        try {
+            if (this.flusher.isShutdown()) {
+                return;
+            }
+
+            Map<String, SetResult> newer = this.pending.get(programId);
+            if (newer == null) {
+                this.pending.put(programId, results);
+                this.flusher.schedule(() -> flush(programId), this.windowMillis, TimeUnit.MILLISECONDS);
+            } else {
+                results.forEach(newer::putIfAbsent);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // writes every pending window now, used on shutdown
+    public void flushAll() {
+        List<String> programIds;
+        this.lock.lock();
+        try {
+            programIds = new ArrayList<String>(this.pending.keySet());
+        } finally {
+            this.lock.unlock();
+        }
+        programIds.forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        this.flusher.shutdown();
+        this.flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+    }
+
+    // results logged through the buffer, including the ones a later correction replaced
+    public long getBuffered() {
+        return buffered.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.sum();
+    }
+
+    // logged results per database write, 1 means nothing was coalesced
+    public double getCoalescingRatio() {
+        long flushes = getFlushes();
+        return flushes == 0 ? 0 : (double) getBuffered() / flushes;
+    }
+
+    public double getAverageFlushMillis() {
+        long flushes = getFlushes();
+        return flushes == 0 ? 0 : flushNanos.sum() / 1e6 / flushes;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1e6;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ironinstruction.api.program;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SetResultRepository extends MongoRepository<SetResult, String> {
+    // latest result of every logged set in the program, the match and sort are served by the compound index
+    @Aggregation(pipeline = {
+        "{ $match: { programId: ?0 } }",
+        "{ $sort: { setId: 1, recordedAt: -1, _id: -1 } }",
+        "{ $group: { _id: '$setId', latest: { $first: '$$ROOT' } } }",
+        "{ $replaceRoot: { newRoot: '$latest' } }"
+    })
+    List<SetResult> findLatestByProgramId(String programId);
+
+    // same as findLatestByProgramId for a part of the program
+    @Aggregation(pipeline = {
+        "{ $match: { programId: ?0, setId: { $in: ?1 } } }",
+        "{ $sort: { setId: 1, recordedAt: -1, _id: -1 } }",
+        "{ $group: { _id: '$setId', latest: { $first: '$$ROOT' } } }",
+        "{ $replaceRoot: { newRoot: '$latest' } }"
+    })
+    List<SetResult> findLatestByProgramIdAndSetIdIn(String programId, Collection<String> setIds);
+
+    List<SetResult> findByProgramIdAndSetIdOrderByRecordedAtAsc(String programId, String setId);
+
+    void deleteByProgramId(String programId);
+}
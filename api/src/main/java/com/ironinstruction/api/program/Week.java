@@ -4,6 +4,7 @@ import com.ironinstruction.api.errors.ResourceNotFound;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 
 import java.util.ArrayList;
 
@@ -13,6 +14,8 @@ public class Week {
     private String coachNotes;
     private String athleteNotes;
     private ArrayList<Day> days;
+    @Transient
+    private final ChildIndex<Day> dayIndex = new ChildIndex<Day>(Day::getId); // position in days by id
 
     public Week() { }
 
@@ -22,14 +25,17 @@ public class Week {
         this.days = new ArrayList<Day>();
     }
 
-    public Day findDayById(String dayId) throws ResourceNotFound {
-        for (Day day : this.days) {
-            if (day.getId().equals(dayId)) {
-                return day;
-            }
+    private int positionOf(String dayId) throws ResourceNotFound {
+        int position = dayIndex.find(this.days, dayId);
+        if (position == -1) {
+            throw new ResourceNotFound(dayId);
         }
 
-        throw new ResourceNotFound(dayId);
+        return position;
+    }
+
+    public Day findDayById(String dayId) throws ResourceNotFound {
+        return this.days.get(positionOf(dayId));
     }
 
     public String getId() {
@@ -59,4 +65,20 @@ public class Week {
     public void addDay(Day day) {
         this.days.add(day);
     }
+
+    public void removeDay(String dayId) throws ResourceNotFound {
+        this.days.remove(positionOf(dayId));
+        this.dayIndex.clear();
+    }
+
+    // coach notes and days under new ids, athlete notes stay with the original
+    Week copy() {
+        Week copy = new Week(this.coachNotes);
+        if (this.days != null) {
+            for (Day day : this.days) {
+                copy.days.add(day.copy());
+            }
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,64 @@
+package com.ironinstruction.api.refreshtoken;
+
+import com.ironinstruction.api.errors.ErrorResponse;
+import com.ironinstruction.api.errors.InvalidToken;
+import com.ironinstruction.api.security.TokenCookies;
+import com.ironinstruction.api.utils.Blocking;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+// RefreshTokenController for the reactive profile, the refresh tokens are checked and replaced on the bounded elastic pool
+@RestController
+@RequestMapping("/api/v1/refreshtoken")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRefreshTokenController {
+    private final RefreshTokenService refreshTokenService;
+
+    public ReactiveRefreshTokenController(RefreshTokenService refreshTokenService) {
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @ResponseBody 
+    @ResponseStatus(value=HttpStatus.FORBIDDEN)
+    @ExceptionHandler(InvalidToken.class)
+    public ErrorResponse invalidToken (InvalidToken e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @PostMapping()
+    public Mono<ResponseEntity<Object>> refreshToken(@CookieValue(name = "refreshToken", defaultValue = "") String refreshToken, @CookieValue(name="accessToken", defaultValue = "") String accessToken, ServerHttpResponse response) {
+        // need access token in case of changed email since changing the email only returns a new access token
+        if (refreshToken.isBlank()) {
+            throw new InvalidToken("No refresh token provided");
+        } else if (accessToken.isBlank()) {
+            throw new InvalidToken("No access token provided");
+        }
+
+        String latestEmail = TokenManager.decodeJWT(accessToken).getSubject();
+        String newRefreshToken = TokenManager.generateJWT(latestEmail, TokenType.REFRESH);
+        return Blocking.call(() -> {
+            // throws error if invalid token 
+            refreshTokenService.verifyRefreshToken(refreshToken);
+            refreshTokenService.deleteRefreshToken(refreshToken);
+            refreshTokenService.saveRefreshToken(new RefreshToken(newRefreshToken));
+
+            response.addCookie(TokenCookies.refreshToken(newRefreshToken));
+            response.addCookie(TokenCookies.accessToken(TokenManager.generateJWT(latestEmail, TokenType.ACCESS)));
+            return new ResponseEntity<Object>(HttpStatus.OK);
+        });
+    }
+}
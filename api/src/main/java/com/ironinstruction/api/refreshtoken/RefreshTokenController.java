@@ -9,6 +9,7 @@ import com.ironinstruction.api.security.SecurityConstants;
 import com.ironinstruction.api.utils.TokenManager;
 import com.ironinstruction.api.utils.TokenType;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CookieValue;
@@ -21,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/v1/refreshtoken")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RefreshTokenController {
     private final RefreshTokenService refreshTokenService;
 
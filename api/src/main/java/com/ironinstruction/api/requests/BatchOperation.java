@@ -0,0 +1,149 @@
+package com.ironinstruction.api.requests;
+
+import com.ironinstruction.api.program.PercentageOptions;
+
+// one step of a batch, ids may be real ids or temporary ids given to nodes added earlier in the batch
+public class BatchOperation {
+    private BatchOperationType type;
+    private String tempId; // client-side id for the node created by this operation
+    private String weekId;
+    private String dayId;
+    private String exerciseId;
+    private String setId;
+    private String note;
+    private String name;
+    private String videoRef;
+    private int reps;
+    private float rpe;
+    private float percentage;
+    private float weight;
+    private PercentageOptions percentageReference;
+    private boolean videoRequested;
+
+    public BatchOperation() { }
+
+    public BatchOperation(BatchOperationType type, String tempId) {
+        this.type = type;
+        this.tempId = tempId;
+    }
+
+    public BatchOperationType getType() {
+        return this.type;
+    }
+
+    public void setType(BatchOperationType type) {
+        this.type = type;
+    }
+
+    public String getTempId() {
+        return this.tempId;
+    }
+
+    public void setTempId(String tempId) {
+        this.tempId = tempId;
+    }
+
+    public String getWeekId() {
+        return this.weekId;
+    }
+
+    public void setWeekId(String weekId) {
+        this.weekId = weekId;
+    }
+
+    public String getDayId() {
+        return this.dayId;
+    }
+
+    public void setDayId(String dayId) {
+        this.dayId = dayId;
+    }
+
+    public String getExerciseId() {
+        return this.exerciseId;
+    }
+
+    public void setExerciseId(String exerciseId) {
+        this.exerciseId = exerciseId;
+    }
+
+    public String getSetId() {
+        return this.setId;
+    }
+
+    public void setSetId(String setId) {
+        this.setId = setId;
+    }
+
+    public String getNote() {
+        return this.note;
+    }
+
+    public void setNote(String note) {
+        this.note = note;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getVideoRef() {
+        return this.videoRef;
+    }
+
+    public void setVideoRef(String videoRef) {
+        this.videoRef = videoRef;
+    }
+
+    public int getReps() {
+        return this.reps;
+    }
+
+    public void setReps(int reps) {
+        this.reps = reps;
+    }
+
+    public float getRpe() {
+        return this.rpe;
+    }
+
+    public void setRpe(float rpe) {
+        this.rpe = rpe;
+    }
+
+    public float getPercentage() {
+        return this.percentage;
+    }
+
+    public void setPercentage(float percentage) {
+        this.percentage = percentage;
+    }
+
+    public float getWeight() {
+        return this.weight;
+    }
+
+    public void setWeight(float weight) {
+        this.weight = weight;
+    }
+
+    public PercentageOptions getPercentageReference() {
+        return this.percentageReference;
+    }
+
+    public void setPercentageReference(PercentageOptions percentageReference) {
+        this.percentageReference = percentageReference;
+    }
+
+    public boolean getVideoRequested() {
+        return this.videoRequested;
+    }
+
+    public void setVideoRequested(boolean videoRequested) {
+        this.videoRequested = videoRequested;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ironinstruction.api.requests;
+
+public enum BatchOperationType {
+    ADD_WEEK,
+    DELETE_WEEK,
+    UPDATE_WEEK_NOTE,
+    ADD_DAY,
+    DELETE_DAY,
+    UPDATE_DAY_NOTE,
+    ADD_EXERCISE,
+    DELETE_EXERCISE,
+    ADD_SET,
+    DELETE_SET
+}
@@ -0,0 +1,24 @@
+package com.ironinstruction.api.requests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchRequest {
+    private List<BatchOperation> operations;
+
+    public BatchRequest() {
+        this.operations = new ArrayList<BatchOperation>();
+    }
+
+    public BatchRequest(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+
+    public void setOperations(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+
+    public List<BatchOperation> getOperations() {
+        return this.operations;
+    }
+}
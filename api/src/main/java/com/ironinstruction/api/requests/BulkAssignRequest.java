@@ -0,0 +1,21 @@
+package com.ironinstruction.api.requests;
+
+import java.util.List;
+
+public class BulkAssignRequest {
+    private List<String> emails; // athletes that each get their own copy of the program
+
+    public BulkAssignRequest() { }
+
+    public BulkAssignRequest(List<String> emails) {
+        this.emails = emails;
+    }
+
+    public List<String> getEmails() {
+        return this.emails;
+    }
+
+    public void setEmails(List<String> emails) {
+        this.emails = emails;
+    }
+}
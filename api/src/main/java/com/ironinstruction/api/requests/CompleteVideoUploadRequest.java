@@ -0,0 +1,21 @@
+package com.ironinstruction.api.requests;
+
+import java.util.List;
+
+public class CompleteVideoUploadRequest {
+    private List<UploadedPart> parts;
+
+    public CompleteVideoUploadRequest() { }
+
+    public CompleteVideoUploadRequest(List<UploadedPart> parts) {
+        this.parts = parts;
+    }
+
+    public List<UploadedPart> getParts() {
+        return this.parts;
+    }
+
+    public void setParts(List<UploadedPart> parts) {
+        this.parts = parts;
+    }
+}
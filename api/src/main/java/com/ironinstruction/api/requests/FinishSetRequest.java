@@ -2,6 +2,8 @@ package com.ironinstruction.api.requests;
 
 public class FinishSetRequest {
     private int repsDone;
+    private Float rpe; // optional, how hard the set felt
+    private Float weight; // optional, the weight actually used
     
     public FinishSetRequest() { }
 
@@ -9,6 +11,12 @@ public class FinishSetRequest {
         this.repsDone = repsDone;
     }
 
+    public FinishSetRequest(int repsDone, Float rpe, Float weight) {
+        this.repsDone = repsDone;
+        this.rpe = rpe;
+        this.weight = weight;
+    }
+
     public void setRepsDone(int repsDone) {
         this.repsDone = repsDone;
     }
@@ -16,4 +24,20 @@ public class FinishSetRequest {
     public int getRepsDone() {
         return this.repsDone;
     }
+
+    public Float getRpe() {
+        return this.rpe;
+    }
+
+    public void setRpe(Float rpe) {
+        this.rpe = rpe;
+    }
+
+    public Float getWeight() {
+        return this.weight;
+    }
+
+    public void setWeight(Float weight) {
+        this.weight = weight;
+    }
 }
@@ -0,0 +1,8 @@
+package com.ironinstruction.api.requests;
+
+// how a program mutation answers
+public enum ResponseMode {
+    FULL, // the whole program
+    NODE, // only the touched node and the new version
+    PATCH // JSON Patch from the client's version to the new one
+}
@@ -0,0 +1,29 @@
+package com.ironinstruction.api.requests;
+
+public class UploadedPart {
+    private int partNumber;
+    private String etag; // the ETag header S3 answered the part's PUT with
+
+    public UploadedPart() { }
+
+    public UploadedPart(int partNumber, String etag) {
+        this.partNumber = partNumber;
+        this.etag = etag;
+    }
+
+    public int getPartNumber() {
+        return this.partNumber;
+    }
+
+    public void setPartNumber(int partNumber) {
+        this.partNumber = partNumber;
+    }
+
+    public String getEtag() {
+        return this.etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+}
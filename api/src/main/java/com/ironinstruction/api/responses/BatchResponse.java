@@ -0,0 +1,33 @@
+package com.ironinstruction.api.responses;
+
+import java.util.Map;
+
+import com.ironinstruction.api.program.Program;
+
+public class BatchResponse {
+    private Program program;
+    private Map<String, String> ids; // temporary id -> generated id
+
+    public BatchResponse() { }
+
+    public BatchResponse(Program program, Map<String, String> ids) {
+        this.program = program;
+        this.ids = ids;
+    }
+
+    public Program getProgram() {
+        return this.program;
+    }
+
+    public void setProgram(Program program) {
+        this.program = program;
+    }
+
+    public Map<String, String> getIds() {
+        return this.ids;
+    }
+
+    public void setIds(Map<String, String> ids) {
+        this.ids = ids;
+    }
+}
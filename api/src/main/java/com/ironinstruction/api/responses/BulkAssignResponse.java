@@ -0,0 +1,31 @@
+package com.ironinstruction.api.responses;
+
+import java.util.List;
+
+public class BulkAssignResponse {
+    private int assigned;
+    private List<BulkAssignResult> results; // one per requested email, in request order
+
+    public BulkAssignResponse() { }
+
+    public BulkAssignResponse(int assigned, List<BulkAssignResult> results) {
+        this.assigned = assigned;
+        this.results = results;
+    }
+
+    public int getAssigned() {
+        return this.assigned;
+    }
+
+    public void setAssigned(int assigned) {
+        this.assigned = assigned;
+    }
+
+    public List<BulkAssignResult> getResults() {
+        return this.results;
+    }
+
+    public void setResults(List<BulkAssignResult> results) {
+        this.results = results;
+    }
+}
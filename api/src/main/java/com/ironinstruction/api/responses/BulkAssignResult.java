@@ -0,0 +1,38 @@
+package com.ironinstruction.api.responses;
+
+public class BulkAssignResult {
+    private String email;
+    private BulkAssignStatus status;
+    private String programId; // id of the athlete's copy, only set when assigned
+
+    public BulkAssignResult() { }
+
+    public BulkAssignResult(String email, BulkAssignStatus status) {
+        this.email = email;
+        this.status = status;
+    }
+
+    public String getEmail() {
+        return this.email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public BulkAssignStatus getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(BulkAssignStatus status) {
+        this.status = status;
+    }
+
+    public String getProgramId() {
+        return this.programId;
+    }
+
+    public void setProgramId(String programId) {
+        this.programId = programId;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ironinstruction.api.responses;
+
+public enum BulkAssignStatus {
+    ASSIGNED,
+    NOT_FOUND,
+    NOT_ATHLETE,
+    DUPLICATE // listed earlier in the same request, only the first entry gets a copy
+}
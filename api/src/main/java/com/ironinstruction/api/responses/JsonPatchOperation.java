@@ -0,0 +1,32 @@
+package com.ironinstruction.api.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+// one RFC 6902 operation, a JSON null value is kept as a NullNode so only remove omits it
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JsonPatchOperation {
+    private String op;
+    private String path;
+    private JsonNode value;
+
+    public JsonPatchOperation() { }
+
+    public JsonPatchOperation(String op, String path, JsonNode value) {
+        this.op = op;
+        this.path = path;
+        this.value = value;
+    }
+
+    public String getOp() {
+        return this.op;
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public JsonNode getValue() {
+        return this.value;
+    }
+}
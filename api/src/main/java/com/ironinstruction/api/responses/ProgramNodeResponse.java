@@ -0,0 +1,34 @@
+package com.ironinstruction.api.responses;
+
+// the node a mutation touched instead of the whole program
+public class ProgramNodeResponse {
+    private long version;
+    private long resultsVersion;
+    private String id;
+    private Object node; // null when the node was deleted
+
+    public ProgramNodeResponse() { }
+
+    public ProgramNodeResponse(long version, long resultsVersion, String id, Object node) {
+        this.version = version;
+        this.resultsVersion = resultsVersion;
+        this.id = id;
+        this.node = node;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public long getResultsVersion() {
+        return this.resultsVersion;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public Object getNode() {
+        return this.node;
+    }
+}
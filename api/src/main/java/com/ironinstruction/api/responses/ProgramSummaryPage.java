@@ -0,0 +1,33 @@
+package com.ironinstruction.api.responses;
+
+import java.util.List;
+
+import com.ironinstruction.api.program.ProgramSummary;
+
+public class ProgramSummaryPage {
+    private List<ProgramSummary> programs;
+    private String nextCursor; // null on the last page
+
+    public ProgramSummaryPage() { }
+
+    public ProgramSummaryPage(List<ProgramSummary> programs, String nextCursor) {
+        this.programs = programs;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProgramSummary> getPrograms() {
+        return this.programs;
+    }
+
+    public void setPrograms(List<ProgramSummary> programs) {
+        this.programs = programs;
+    }
+
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ironinstruction.api.responses;
+
+// an upload the client sends in parts, each part but the last must be partSize bytes
+public class VideoUploadResponse {
+    private String key;
+    private String uploadId;
+    private long partSize;
+    private int maxParts;
+
+    public VideoUploadResponse() { }
+
+    public VideoUploadResponse(String key, String uploadId, long partSize, int maxParts) {
+        this.key = key;
+        this.uploadId = uploadId;
+        this.partSize = partSize;
+        this.maxParts = maxParts;
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    public String getUploadId() {
+        return this.uploadId;
+    }
+
+    public long getPartSize() {
+        return this.partSize;
+    }
+
+    public int getMaxParts() {
+        return this.maxParts;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ironinstruction.api.security;
+
+import org.springframework.http.HttpMethod;
+
+// every route the api serves and who may call it, a request no route matches is denied
+// a new endpoint needs a line here, RouteAuthorizationTests checks this against the controllers' mappings
+public final class ApiRoutes {
+    private static final String USERS = "/api/v1/users";
+    private static final String PROGRAMS = "/api/v1/programs";
+    private static final String PROGRAM = PROGRAMS + "/" + RouteTable.PROGRAM_ID;
+    private static final String WEEK = PROGRAM + "/weeks/{weekId}";
+    private static final String DAY = WEEK + "/days/{dayId}";
+    private static final String EXERCISE = DAY + "/exercises/{exerciseId}";
+    private static final String SET = EXERCISE + "/sets/{setId}";
+
+    public static final RouteTable TABLE = new RouteTable()
+        .add(HttpMethod.POST, SecurityConstants.LOGIN_URL, RouteRule.PUBLIC)
+        .add(HttpMethod.POST, SecurityConstants.REFRESH_URL, RouteRule.PUBLIC)
+        .add(HttpMethod.POST, SecurityConstants.SIGN_UP_URL, RouteRule.PUBLIC)
+        // local video storage links are signed, LocalVideoController checks them
+        .add(HttpMethod.GET, SecurityConstants.VIDEO_URL + "/{key}", RouteRule.PUBLIC)
+        .add(HttpMethod.PUT, SecurityConstants.VIDEO_URL + "/{key}", RouteRule.PUBLIC)
+        .add(HttpMethod.PUT, SecurityConstants.VIDEO_URL + "/{key}/uploads/{uploadId}/{partNumber}", RouteRule.PUBLIC)
+
+        .add(HttpMethod.GET, USERS + "/me", RouteRule.AUTHENTICATED)
+        .add(HttpMethod.POST, USERS + "/me", RouteRule.AUTHENTICATED)
+        .add(HttpMethod.POST, USERS + "/me/athlete", RouteRule.ATHLETE_ACCOUNT)
+
+        .add(HttpMethod.POST, PROGRAMS, RouteRule.COACH_ACCOUNT)
+        .add(HttpMethod.GET, PROGRAMS + "/user/me", RouteRule.AUTHENTICATED)
+        .add(HttpMethod.GET, PROGRAMS + "/user/me/full", RouteRule.AUTHENTICATED)
+        .add(HttpMethod.GET, PROGRAM, RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.POST, PROGRAM, RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.POST, PROGRAM + "/assign", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.POST, PROGRAM + "/assign/bulk", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.POST, PROGRAM + "/batch", RouteRule.PROGRAM_COACH)
+
+        .add(HttpMethod.POST, PROGRAM + "/weeks", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.DELETE, WEEK, RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.POST, WEEK + "/notes", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.PATCH, WEEK + "/notes", RouteRule.PROGRAM_ATHLETE)
+        .add(HttpMethod.GET, WEEK + "/video-links", RouteRule.PROGRAM_MEMBER)
+
+        .add(HttpMethod.POST, WEEK + "/days", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.DELETE, DAY, RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.POST, DAY + "/notes", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.PATCH, DAY + "/notes", RouteRule.PROGRAM_ATHLETE)
+        .add(HttpMethod.GET, DAY + "/video-links", RouteRule.PROGRAM_MEMBER)
+
+        .add(HttpMethod.POST, DAY + "/exercises", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.PUT, EXERCISE, RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.DELETE, EXERCISE, RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.GET, EXERCISE + "/video", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.POST, EXERCISE + "/video/upload", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.POST, EXERCISE + "/video/multipart", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.GET, EXERCISE + "/video/multipart/{uploadId}", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.POST, EXERCISE + "/video/multipart/{uploadId}", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.DELETE, EXERCISE + "/video/multipart/{uploadId}", RouteRule.PROGRAM_COACH)
+
+        .add(HttpMethod.POST, EXERCISE + "/sets", RouteRule.PROGRAM_COACH)
+        .add(HttpMethod.PATCH, SET, RouteRule.PROGRAM_ATHLETE)
+        .add(HttpMethod.GET, SET + "/results", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.GET, SET + "/video", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.GET, SET + "/video/upload", RouteRule.PROGRAM_MEMBER)
+        // athletes upload the videos of their own sets
+        .add(HttpMethod.POST, SET + "/video/multipart", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.GET, SET + "/video/multipart/{uploadId}", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.POST, SET + "/video/multipart/{uploadId}", RouteRule.PROGRAM_MEMBER)
+        .add(HttpMethod.DELETE, SET + "/video/multipart/{uploadId}", RouteRule.PROGRAM_MEMBER);
+
+    private ApiRoutes() { }
+}
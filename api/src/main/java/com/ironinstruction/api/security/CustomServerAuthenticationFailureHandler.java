@@ -0,0 +1,44 @@
+package com.ironinstruction.api.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.errors.AccessDenied;
+import com.ironinstruction.api.errors.ErrorResponse;
+import com.ironinstruction.api.errors.InvalidEmail;
+import com.ironinstruction.api.errors.InvalidToken;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+
+import reactor.core.publisher.Mono;
+
+// CustomAuthenticationFailureHandler for the reactive profile
+public class CustomServerAuthenticationFailureHandler implements ServerAuthenticationFailureHandler {
+    @Override
+    public Mono<Void> onAuthenticationFailure(WebFilterExchange webFilterExchange, AuthenticationException exception) {
+        ServerHttpResponse response = webFilterExchange.getExchange().getResponse();
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        if (exception instanceof AccessDenied) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+        } else if (exception instanceof InvalidEmail) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+        } else if (exception instanceof InvalidToken) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+        } else if (exception instanceof BadCredentialsException) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            byte[] body = new ObjectMapper().writeValueAsBytes(new ErrorResponse(exception.getMessage()));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
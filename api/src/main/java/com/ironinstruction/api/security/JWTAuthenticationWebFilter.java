@@ -0,0 +1,78 @@
+package com.ironinstruction.api.security;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.refreshtoken.RefreshToken;
+import com.ironinstruction.api.refreshtoken.RefreshTokenService;
+import com.ironinstruction.api.requests.LoginRequest;
+import com.ironinstruction.api.utils.Blocking;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+// JWTAuthenticationFilter for the reactive profile, the password is hashed on the bounded elastic pool
+public class JWTAuthenticationWebFilter implements WebFilter {
+    private static final ServerWebExchangeMatcher LOGIN = ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, SecurityConstants.LOGIN_URL);
+
+    private final CustomAuthenticationManager authenticationManager;
+    private final ServerAuthenticationFailureHandler failureHandler;
+    private final RefreshTokenService refreshTokenService;
+
+    public JWTAuthenticationWebFilter(CustomAuthenticationManager authenticationManager, ServerAuthenticationFailureHandler failureHandler, RefreshTokenService refreshTokenService) {
+        this.authenticationManager = authenticationManager;
+        this.failureHandler = failureHandler;
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return LOGIN.matches(exchange).flatMap((match) -> match.isMatch() ? login(exchange, chain) : chain.filter(exchange));
+    }
+
+    private Mono<Void> login(ServerWebExchange exchange, WebFilterChain chain) {
+        return DataBufferUtils.join(exchange.getRequest().getBody())
+            .map((buffer) -> {
+                try {
+                    return new ObjectMapper().readValue(buffer.asInputStream(true), LoginRequest.class);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            })
+            .flatMap((loginRequest) -> Blocking.call(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
+            )))
+            .flatMap((authResult) -> successfulAuthentication(exchange, authResult))
+            .onErrorResume(AuthenticationException.class, (e) -> failureHandler.onAuthenticationFailure(new WebFilterExchange(exchange, chain), e));
+    }
+
+    private Mono<Void> successfulAuthentication(ServerWebExchange exchange, Authentication authResult) {
+        String accessToken = TokenManager.generateJWT((String) authResult.getPrincipal(), TokenType.ACCESS);
+        RefreshToken refreshToken = new RefreshToken(TokenManager.generateJWT((String) authResult.getPrincipal(), TokenType.REFRESH));
+
+        return Blocking.call(() -> {
+            refreshTokenService.saveRefreshToken(refreshToken);
+            return refreshToken;
+        }).then(Mono.defer(() -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.addCookie(TokenCookies.accessToken(accessToken));
+            response.addCookie(TokenCookies.refreshToken(refreshToken.getToken()));
+            return response.setComplete();
+        }));
+    }
+}
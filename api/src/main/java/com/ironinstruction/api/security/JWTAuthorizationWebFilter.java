@@ -0,0 +1,44 @@
+package com.ironinstruction.api.security;
+
+import com.ironinstruction.api.program.ProgramReadService;
+
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+// JWTAuthorizationFilter for the reactive profile, decides every request to the api with RequestAuthorizer
+// the program role is looked up without blocking and the caller's email is passed on in the subscriber context
+public class JWTAuthorizationWebFilter implements WebFilter {
+    private final ServerAuthenticationFailureHandler failureHandler;
+    private final RequestAuthorizer authorizer;
+
+    public JWTAuthorizationWebFilter(ProgramReadService programReads, ServerAuthenticationFailureHandler failureHandler) {
+        this.failureHandler = failureHandler;
+        this.authorizer = new RequestAuthorizer(programReads);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        HttpMethod method = request.getMethod();
+        // the servlet filter is only registered for /api/*
+        if (!path.startsWith("/api/") || RequestAuthorizer.isPublic(method, path)) {
+            return chain.filter(exchange);
+        }
+
+        HttpCookie cookie = request.getCookies().getFirst("accessToken");
+        return authorizer.authorize(method, path, cookie == null ? null : cookie.getValue())
+            .onErrorResume(AuthenticationException.class, (e) -> failureHandler.onAuthenticationFailure(new WebFilterExchange(exchange, chain), e).then(Mono.empty()))
+            .flatMap((authenticationToken) -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticationToken)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.ironinstruction.api.security;
+
+import com.ironinstruction.api.program.ProgramReadService;
+import com.ironinstruction.api.refreshtoken.RefreshTokenService;
+import com.ironinstruction.api.user.UserService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.logout.HttpStatusReturningServerLogoutSuccessHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import reactor.core.publisher.Mono;
+
+// WebSecurityConfig for the reactive profile, the login and authorization filters run inside the security chain
+// every request is permitted there since JWTAuthorizationWebFilter makes the decisions
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+    private final static CustomServerAuthenticationFailureHandler failureHandler = new CustomServerAuthenticationFailureHandler();
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, UserService userService, RefreshTokenService refreshTokenService, ProgramReadService programReads) {
+        CustomAuthenticationManager authenticationManager = new CustomAuthenticationManager(userService);
+
+        return http
+            .csrf().disable()
+            .httpBasic().disable()
+            .formLogin().disable()
+            .cors().configurationSource(corsConfigurationSource())
+            .and()
+            // tokens travel in cookies, nothing is kept in a session
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .requestCache().requestCache(NoOpServerRequestCache.getInstance())
+            .and()
+            .logout(logout -> logout
+                // like the servlet chain without csrf, any method logs out
+                .requiresLogout(ServerWebExchangeMatchers.pathMatchers("/api/v1/logout"))
+                .logoutHandler((webFilterExchange, authentication) -> {
+                    webFilterExchange.getExchange().getResponse().addCookie(TokenCookies.accessToken(""));
+                    webFilterExchange.getExchange().getResponse().addCookie(TokenCookies.refreshToken(""));
+                    return Mono.empty();
+                })
+                .logoutSuccessHandler(new HttpStatusReturningServerLogoutSuccessHandler(HttpStatus.OK))
+            )
+            .addFilterAt(new JWTAuthenticationWebFilter(authenticationManager, failureHandler, refreshTokenService), SecurityWebFiltersOrder.AUTHENTICATION)
+            .addFilterAt(new JWTAuthorizationWebFilter(programReads, failureHandler), SecurityWebFiltersOrder.AUTHORIZATION)
+            .authorizeExchange(exchanges -> exchanges.anyExchange().permitAll())
+            .build();
+    }
+
+    private static CorsConfigurationSource corsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", WebSecurityConfig.corsConfiguration());
+
+        return source;
+    }
+}
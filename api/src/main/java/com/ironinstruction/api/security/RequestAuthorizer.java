@@ -0,0 +1,68 @@
+package com.ironinstruction.api.security;
+
+import com.ironinstruction.api.errors.AccessDenied;
+import com.ironinstruction.api.errors.InvalidToken;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.program.ProgramReadService;
+import com.ironinstruction.api.program.ProgramRole;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.VerifiedAccessToken;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import reactor.core.publisher.Mono;
+
+// decides a request to the api with the rules in ApiRoutes, for JWTAuthorizationFilter and JWTAuthorizationWebFilter
+// over the program reads of their stack, the servlet filter waits for the decision
+public class RequestAuthorizer {
+    private final ProgramReadService programReads;
+
+    public RequestAuthorizer(ProgramReadService programReads) {
+        this.programReads = programReads;
+    }
+
+    // public routes need no token
+    public static boolean isPublic(HttpMethod method, String path) {
+        RouteTable.Route route = ApiRoutes.TABLE.find(method, path);
+        return route != null && route.rule(method) == RouteRule.PUBLIC;
+    }
+
+    // the caller's authentication, or an AuthenticationException if the request is denied
+    public Mono<UsernamePasswordAuthenticationToken> authorize(HttpMethod method, String path, String token) {
+        // the checks before the role lookup throw, defer turns that into an error signal
+        return Mono.defer(() -> {
+            if (token == null || token.length() == 0) {
+                throw new InvalidToken("No token supplied");
+            }
+
+            // token manager throws appropriate errors if failed decode
+            VerifiedAccessToken verified = TokenManager.verifyAccessToken(token);
+            RouteTable.Route route = ApiRoutes.TABLE.find(method, path);
+            if (route == null) {
+                // the api has no such endpoint, or not for this method
+                throw new AccessDenied("Invalid resource requested");
+            }
+
+            RouteRule rule = route.rule(method);
+            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(verified.getEmail(), null);
+            if (!rule.needsProgramRole()) {
+                rule.check(method, verified.getUserType(), null);
+                return Mono.just(authenticationToken);
+            }
+
+            // only the program's coach and athlete are needed, not the program itself; reads may go on an indexed
+            // role for the index's ttl, writes check the ownership as it is stored now
+            boolean write = method != HttpMethod.GET && method != HttpMethod.HEAD;
+            return programReads.findRole(verified.getEmail(), RouteTable.segment(path, route.getProgramIdSegment()), write)
+                .onErrorMap(ResourceNotFound.class, (e) -> new AccessDenied("Invalid resource requested"))
+                .map((role) -> check(rule, method, verified, role, authenticationToken))
+                .switchIfEmpty(Mono.fromSupplier(() -> check(rule, method, verified, null, authenticationToken)));
+        });
+    }
+
+    private static UsernamePasswordAuthenticationToken check(RouteRule rule, HttpMethod method, VerifiedAccessToken verified, ProgramRole role, UsernamePasswordAuthenticationToken authenticationToken) {
+        rule.check(method, verified.getUserType(), role);
+        return authenticationToken;
+    }
+}
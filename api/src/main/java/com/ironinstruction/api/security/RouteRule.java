@@ -0,0 +1,70 @@
+package com.ironinstruction.api.security;
+
+import com.ironinstruction.api.errors.AccessDenied;
+import com.ironinstruction.api.program.ProgramRole;
+import com.ironinstruction.api.user.UserType;
+
+import org.springframework.http.HttpMethod;
+
+// who may call a route, ApiRoutes assigns one to every method and path the api serves
+public enum RouteRule {
+    // no access token, the endpoint checks a password, a refresh token or a signature itself
+    PUBLIC,
+    // any signed in user, the endpoint only works on the caller's own data
+    AUTHENTICATED,
+    COACH_ACCOUNT,
+    ATHLETE_ACCOUNT,
+    // the coach or the athlete of the program in the path
+    PROGRAM_MEMBER,
+    // the program's coach, its athlete only reads it and logs their sets
+    PROGRAM_COACH,
+    // the program's athlete, coaches don't log sets or write athlete notes
+    PROGRAM_ATHLETE;
+
+    // whether the caller's role on the {programId} of the path has to be looked up
+    public boolean needsProgramRole() {
+        return this == PROGRAM_MEMBER || this == PROGRAM_COACH || this == PROGRAM_ATHLETE;
+    }
+
+    // role is null when the caller is neither the program's coach nor its athlete, or the rule doesn't need it
+    public void check(HttpMethod method, UserType userType, ProgramRole role) throws AccessDenied {
+        switch (this) {
+            case COACH_ACCOUNT:
+                if (userType != UserType.COACH) {
+                    throw new AccessDenied("Only coach accounts can create a program");
+                }
+                return;
+            case ATHLETE_ACCOUNT:
+                if (userType != UserType.ATHLETE) {
+                    throw new AccessDenied("User must be an athlete");
+                }
+                return;
+            case PROGRAM_MEMBER:
+                if (role == null) {
+                    throw new AccessDenied("Account doesn't have permission to access requested resource");
+                }
+                return;
+            case PROGRAM_COACH:
+                if (role == ProgramRole.ATHLETE) {
+                    if (method == HttpMethod.DELETE) {
+                        throw new AccessDenied("Only coaches can delete resources");
+                    } else if (method == HttpMethod.PUT) {
+                        throw new AccessDenied("Only coaches can put new resources");
+                    }
+                    throw new AccessDenied("Only coaches can create new resources");
+                } else if (role != ProgramRole.COACH) {
+                    throw new AccessDenied("Account doesn't have permission to access requested resource");
+                }
+                return;
+            case PROGRAM_ATHLETE:
+                if (role == ProgramRole.COACH) {
+                    throw new AccessDenied("Coaches can't use patch requests");
+                } else if (role != ProgramRole.ATHLETE) {
+                    throw new AccessDenied("Account doesn't have permission to access requested resource");
+                }
+                return;
+            default:
+                return;
+        }
+    }
+}
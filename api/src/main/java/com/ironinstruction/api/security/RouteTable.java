@@ -0,0 +1,160 @@
+package com.ironinstruction.api.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.HttpMethod;
+
+// method and path template -> RouteRule, compiled into a trie of path segments
+// a lookup walks the request path in place without splitting or copying it, like Spring it prefers a literal
+// segment over a {variable} one, backtracks when the literal branch doesn't serve the method, and ignores a trailing slash
+public class RouteTable {
+    public static final String PROGRAM_ID = "{programId}";
+
+    // the end of a path template, the rules of its methods
+    public static class Route {
+        private final String template;
+        private final int programIdSegment;
+        private final RouteRule[] rules = new RouteRule[HttpMethod.values().length];
+
+        private Route(String template, int programIdSegment) {
+            this.template = template;
+            this.programIdSegment = programIdSegment;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        // null when the method isn't served on the path, HEAD is answered like GET
+        public RouteRule rule(HttpMethod method) {
+            if (method == null) {
+                return null;
+            }
+            return this.rules[(method == HttpMethod.HEAD ? HttpMethod.GET : method).ordinal()];
+        }
+
+        // the position of {programId} among the path's segments, -1 when the path has none
+        public int getProgramIdSegment() {
+            return programIdSegment;
+        }
+    }
+
+    private static class Node {
+        private String[] literals = new String[0];
+        private Node[] literalChildren = new Node[0];
+        private Node variableChild;
+        private Route route;
+
+        private Node literal(String segment) {
+            for (int i = 0; i < this.literals.length; i++) {
+                if (this.literals[i].equals(segment)) {
+                    return this.literalChildren[i];
+                }
+            }
+            this.literals = Arrays.copyOf(this.literals, this.literals.length + 1);
+            this.literalChildren = Arrays.copyOf(this.literalChildren, this.literalChildren.length + 1);
+            this.literals[this.literals.length - 1] = segment;
+            this.literalChildren[this.literalChildren.length - 1] = new Node();
+            return this.literalChildren[this.literalChildren.length - 1];
+        }
+    }
+
+    private final Node root = new Node();
+    private final List<String> declarations = new ArrayList<String>();
+
+    public RouteTable add(HttpMethod method, String template, RouteRule rule) {
+        if (!template.startsWith("/")) {
+            throw new IllegalArgumentException("Route " + template + " must start with /");
+        }
+
+        String[] segments = template.substring(1).split("/");
+        Node node = this.root;
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Route " + template + " has an empty segment");
+            }
+            if (segment.startsWith("{")) {
+                node.variableChild = node.variableChild == null ? new Node() : node.variableChild;
+                node = node.variableChild;
+            } else {
+                node = node.literal(segment);
+            }
+        }
+
+        int programIdSegment = Arrays.asList(segments).indexOf(PROGRAM_ID);
+        if (rule.needsProgramRole() && programIdSegment == -1) {
+            throw new IllegalArgumentException(rule + " needs a " + PROGRAM_ID + " in " + template);
+        }
+        if (node.route == null) {
+            node.route = new Route(template, programIdSegment);
+        } else if (!node.route.template.equals(template)) {
+            throw new IllegalArgumentException(template + " and " + node.route.template + " match the same paths");
+        }
+        if (node.route.rules[method.ordinal()] != null) {
+            throw new IllegalArgumentException(method + " " + template + " has two rules");
+        }
+
+        node.route.rules[method.ordinal()] = rule;
+        this.declarations.add(method + " " + template);
+        return this;
+    }
+
+    // "METHOD template" of every rule in the order they were added
+    public List<String> getDeclarations() {
+        return Collections.unmodifiableList(this.declarations);
+    }
+
+    // the route that serves the method on the path, null when none does
+    public Route find(HttpMethod method, String path) {
+        if (method == null || !path.startsWith("/")) {
+            return null;
+        }
+
+        int end = path.length() > 1 && path.endsWith("/") ? path.length() - 1 : path.length();
+        return find(this.root, method, path, 1, end);
+    }
+
+    // start is the first character of the segment to match
+    private static Route find(Node node, HttpMethod method, String path, int start, int end) {
+        if (start > end) {
+            return node.route != null && node.route.rule(method) != null ? node.route : null;
+        }
+
+        int slash = path.indexOf('/', start);
+        int segmentEnd = slash == -1 || slash > end ? end : slash;
+        int length = segmentEnd - start;
+        if (length == 0) {
+            return null;
+        }
+
+        for (int i = 0; i < node.literals.length; i++) {
+            String literal = node.literals[i];
+            if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                Route route = find(node.literalChildren[i], method, path, segmentEnd + 1, end);
+                if (route != null) {
+                    return route;
+                }
+                break;
+            }
+        }
+
+        return node.variableChild == null ? null : find(node.variableChild, method, path, segmentEnd + 1, end);
+    }
+
+    // the path's segment at index, counted from the segment after the leading slash
+    public static String segment(String path, int index) {
+        int start = 1;
+        for (int i = 0; i < index; i++) {
+            start = path.indexOf('/', start) + 1;
+            if (start == 0) {
+                return null;
+            }
+        }
+
+        int end = path.indexOf('/', start);
+        return path.substring(start, end == -1 ? path.length() : end);
+    }
+}
@@ -19,9 +19,11 @@ public class SecurityConstants {
     }
 
     public static final int ACCESS_EXPIRATION_TIME_MINUTES = 5; 
+    public static final int ACCESS_TOKEN_CACHE_SIZE = 10000; // verified access tokens TokenManager keeps, a few MB at most
     public static final String SIGN_UP_URL = "/api/v1/users";
     public static final String LOGIN_URL = "/api/v1/login";
     public static final String REFRESH_URL = "/api/v1/refreshtoken";
+    public static final String VIDEO_URL = "/api/v1/videos"; // local video storage, requests carry a signature instead of a token
     public static final int REFRESH_EXPIRATION_TIME_MINUTES = 60 * 24 * 30; // 30 days
     public static final int URL_EXPIRATION_TIME_MINUTES = 10;
     public static final String S3_BUCKET_NAME = "iron-instruction";
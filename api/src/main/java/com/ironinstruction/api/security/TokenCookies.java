@@ -0,0 +1,26 @@
+package com.ironinstruction.api.security;
+
+import java.time.Duration;
+
+import org.springframework.http.ResponseCookie;
+
+// the token cookies of the reactive profile, the servlet filters and controllers build the same ones as
+// javax Cookies and WebSecurityConfig makes them SameSite=None
+public final class TokenCookies {
+    private TokenCookies() { }
+
+    // no max age to let client differentiate between a deleted cookie from logout and an expired access
+    public static ResponseCookie accessToken(String token) {
+        return ResponseCookie.from("accessToken", token).httpOnly(true).secure(true).path("/").sameSite("None").build();
+    }
+
+    public static ResponseCookie refreshToken(String token) {
+        return ResponseCookie.from("refreshToken", token)
+            .httpOnly(true)
+            .secure(true)
+            .path(SecurityConstants.REFRESH_URL)
+            .maxAge(token.isEmpty() ? Duration.ZERO : Duration.ofMinutes(SecurityConstants.REFRESH_EXPIRATION_TIME_MINUTES))
+            .sameSite("None")
+            .build();
+    }
+}
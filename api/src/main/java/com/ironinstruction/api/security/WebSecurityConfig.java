@@ -7,6 +7,7 @@ import com.ironinstruction.api.refreshtoken.RefreshTokenService;
 import com.ironinstruction.api.user.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.server.CookieSameSiteSupplier;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +21,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebSecurityConfig {
     private final static CustomAuthenticationFailureHandler failureHandler = new CustomAuthenticationFailureHandler();
 
@@ -66,16 +68,25 @@ public class WebSecurityConfig {
         return http.build();
     }
 
-    @Bean
-    public CorsConfigurationSource corsConfigurationSource() {
+    // ReactiveSecurityConfig allows the same requests
+    static CorsConfiguration corsConfiguration() {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOriginPatterns(Arrays.asList("*"));
         config.setAllowedMethods(Arrays.asList("HEAD", "GET", "POST", "PATCH", "DELETE", "PUT"));
         config.setAllowCredentials(true);
-        config.setAllowedHeaders(Arrays.asList("Cache-Control", "Content-Type"));
+        // browsers revalidate a program they kept with If-None-Match, mutations pick their response
+        // through X-Response-Mode and X-Base-Version
+        config.setAllowedHeaders(Arrays.asList("Cache-Control", "Content-Type", "Range", "If-None-Match", "X-Response-Mode", "X-Base-Version"));
+        // the program's version for the next If-None-Match, and each part's ETag for multipart uploads to local video storage
+        config.setExposedHeaders(Arrays.asList("ETag"));
+
+        return config;
+    }
 
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", config);
+        source.registerCorsConfiguration("/**", corsConfiguration());
 
         return source;
     }
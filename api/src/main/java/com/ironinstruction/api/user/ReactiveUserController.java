@@ -0,0 +1,93 @@
+package com.ironinstruction.api.user;
+
+import com.ironinstruction.api.errors.DuplicateEmail;
+import com.ironinstruction.api.errors.ErrorResponse;
+import com.ironinstruction.api.requests.CreateUserRequest;
+import com.ironinstruction.api.requests.UpdateAthleteRequest;
+import com.ironinstruction.api.requests.UpdateUserRequest;
+import com.ironinstruction.api.security.TokenCookies;
+import com.ironinstruction.api.utils.Blocking;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+
+import reactor.core.publisher.Mono;
+
+// UserController for the reactive profile, the user service blocks so every call runs on the bounded elastic pool
+@RestController
+@RequestMapping("/api/v1/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+    private final UserService userService;
+
+    public ReactiveUserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    private static Mono<String> email() {
+        return ReactiveSecurityContextHolder.getContext().map((context) -> context.getAuthentication().getPrincipal().toString());
+    }
+
+    @ResponseBody
+    @ResponseStatus(value=HttpStatus.INTERNAL_SERVER_ERROR)
+    @ExceptionHandler({NoSuchAlgorithmException.class, InvalidKeySpecException.class})
+    public ErrorResponse hashingError() {
+        return new ErrorResponse("Error hashing password");
+    }
+
+    @ResponseBody
+    @ResponseStatus(value=HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(DuplicateEmail.class)
+    public ErrorResponse duplicateEmail(DuplicateEmail e) {
+        return new ErrorResponse("Account with email '" + e.getEmail() + "' already exists");
+    }
+
+    @PostMapping
+    public Mono<User> createUser(@RequestBody CreateUserRequest createUserRequest) {
+        return Blocking.call(() -> {
+            try {
+                return userService.cleanseUser(userService.createUser(createUserRequest.getName(), createUserRequest.getEmail(), createUserRequest.getPassword(), createUserRequest.getUserType()));
+            } catch (DuplicateKeyException e) {
+                throw new DuplicateEmail(createUserRequest.getEmail());
+            }
+        });
+    }
+
+    @GetMapping("/me")
+    public Mono<User> getUser() {
+        return email().flatMap((userEmail) -> Blocking.call(() -> userService.cleanseUser(userService.findByEmail(userEmail))));
+    }
+
+    @PostMapping("/me")
+    public Mono<User> updateUserInfo(@RequestBody UpdateUserRequest request, ServerHttpResponse response) {
+        return email()
+            .flatMap((userEmail) -> Blocking.call(() -> userService.cleanseUser(userService.updateUserInfoByEmail(userEmail, request.getEmail(), request.getName()))))
+            .doOnNext((updatedUser) -> {
+                // send new access token with updated cookie
+                response.addCookie(TokenCookies.accessToken(TokenManager.generateJWT(request.getEmail() + ";" + updatedUser.getUserType(), TokenType.ACCESS)));
+            });
+    }
+
+    @PostMapping("/me/athlete")
+    public Mono<Athlete> updateAthleteInfo(@RequestBody UpdateAthleteRequest request) {
+        return email().flatMap((userEmail) -> Blocking.call(() -> (Athlete) userService.cleanseUser(userService.updateAthleteInfoByEmail(
+            userEmail,
+            request.getWeightClass(),
+            request.getWeight(),
+            request.getDob(),
+            request.getSquatMax(),
+            request.getBenchMax(),
+            request.getDeadliftMax(),
+            request.getHeight()
+        ))));
+    }
+}
@@ -3,11 +3,15 @@ package com.ironinstruction.api.user;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     // use optional because it is not guaranteed that an athlete will be found
     Optional<User> findByEmail(String email);
+    // single $in query on the unique email index, unknown emails are simply missing from the result
+    List<User> findByEmailIn(Collection<String> emails);
     void deleteByEmail(String email);
 }
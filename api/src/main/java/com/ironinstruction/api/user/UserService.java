@@ -6,7 +6,9 @@ import org.springframework.stereotype.Service;
 
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 @Service
@@ -34,6 +36,10 @@ public class UserService {
         }
     }
 
+    public List<User> findAllByEmail(Collection<String> emails) {
+        return userRepository.findByEmailIn(emails);
+    }
+
     public User createUser(String name, String email, String password, UserType userType) throws NoSuchAlgorithmException, InvalidKeySpecException {
         final String salt = passwordManager.createSalt();
         final String hash = passwordManager.hash(password, salt);
@@ -0,0 +1,34 @@
+package com.ironinstruction.api.utils;
+
+import com.ironinstruction.api.errors.ConcurrentModification;
+import com.ironinstruction.api.errors.ErrorResponse;
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// the answers to the api's errors, GlobalErrorHandler and ReactiveErrorHandler only map their stack's exceptions to these
+public final class ApiErrors {
+    private ApiErrors() { }
+
+    public static ResponseEntity<Object> invalidBody() {
+        return new ResponseEntity<Object>(new ErrorResponse("Invalid body (general)"), HttpStatus.BAD_REQUEST);
+    }
+
+    public static ResponseEntity<Object> badRequest(String message) {
+        return new ResponseEntity<Object>(new ErrorResponse(message), HttpStatus.BAD_REQUEST);
+    }
+
+    public static ResponseEntity<Object> resourceNotFound(ResourceNotFound e) {
+        return new ResponseEntity<Object>(new ErrorResponse("Resource with identifier '" + e.getResourceId() + "' not found"), HttpStatus.NOT_FOUND);
+    }
+
+    public static ResponseEntity<Object> invalidRequest(InvalidRequest e) {
+        return badRequest(e.getMessage());
+    }
+
+    public static ResponseEntity<Object> concurrentModification(ConcurrentModification e) {
+        return new ResponseEntity<Object>(new ErrorResponse("Resource with identifier '" + e.getResourceId() + "' is being modified too often, try again"), HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ironinstruction.api.utils;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import com.ironinstruction.api.program.ProgramAccessIndex;
+import com.ironinstruction.api.program.ProgramCache;
+import com.ironinstruction.api.program.ProgramResponseCache;
+import com.ironinstruction.api.program.ProgramWriteStats;
+import com.ironinstruction.api.program.SetResultBuffer;
+import com.ironinstruction.api.video.OrphanedVideoCollector;
+import com.ironinstruction.api.video.PresignedUrlCache;
+import com.ironinstruction.api.video.VideoDeletionQueue;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// publishes the counters the caches, buffers and background jobs keep to micrometer, see /actuator/metrics
+// caches follow micrometer's cache conventions: cache.gets tagged with result hit or miss, cache.evictions
+// and cache.size, all tagged with the cache name, so a hit rate is hits over gets
+@Component
+public class ApiMetrics implements MeterBinder {
+    private final ProgramCache programCache;
+    private final ProgramResponseCache responseCache;
+    private final ProgramAccessIndex accessIndex;
+    private final ProgramWriteStats writeStats;
+    private final SetResultBuffer resultBuffer;
+    private final PresignedUrlCache presignedUrlCache;
+    private final VideoDeletionQueue videoDeletionQueue;
+    private final OrphanedVideoCollector orphanedVideoCollector;
+
+    // the meter registry binds this before the mongo client exists, and the mongo client's pool metrics need the
+    // registry, so the components that sit on a repository are only resolved when their meters are first read
+    public ApiMetrics(ProgramCache programCache, ProgramResponseCache responseCache, ProgramAccessIndex accessIndex, ProgramWriteStats writeStats, @Lazy SetResultBuffer resultBuffer, PresignedUrlCache presignedUrlCache, @Lazy VideoDeletionQueue videoDeletionQueue, @Lazy OrphanedVideoCollector orphanedVideoCollector) {
+        this.programCache = programCache;
+        this.responseCache = responseCache;
+        this.accessIndex = accessIndex;
+        this.writeStats = writeStats;
+        this.resultBuffer = resultBuffer;
+        this.presignedUrlCache = presignedUrlCache;
+        this.videoDeletionQueue = videoDeletionQueue;
+        this.orphanedVideoCollector = orphanedVideoCollector;
+    }
+
+    // micrometer only keeps a weak reference to what a function counter reads, so it reads the component,
+    // which the context holds on to, rather than a method reference nothing else would
+    private static <T> void counter(MeterRegistry registry, String name, String description, T source, ToLongFunction<T> count, String... tags) {
+        FunctionCounter.builder(name, source, (component) -> count.applyAsLong(component)).description(description).tags(tags).register(registry);
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, String description, T source, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, source, value).description(description).tags(tags).strongReference(true).register(registry);
+    }
+
+    private static <T> void cache(MeterRegistry registry, String cache, T source, ToLongFunction<T> hits, ToLongFunction<T> misses, ToLongFunction<T> evictions, ToDoubleFunction<T> size) {
+        counter(registry, "cache.gets", "Lookups answered from the cache", source, hits, "cache", cache, "result", "hit");
+        counter(registry, "cache.gets", "Lookups the cache couldn't answer", source, misses, "cache", cache, "result", "miss");
+        counter(registry, "cache.evictions", "Entries dropped because the cache was full or they expired", source, evictions, "cache", cache);
+        gauge(registry, "cache.size", "Entries in the cache", source, size, "cache", cache);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache(registry, "programs", programCache, ProgramCache::getHits, ProgramCache::getMisses, ProgramCache::getEvictions, ProgramCache::getSize);
+        gauge(registry, "ironinstruction.program.cache.weight", "Program nodes held by the program cache", programCache, ProgramCache::getWeight);
+
+        cache(registry, "programResponses", responseCache, ProgramResponseCache::getHits, ProgramResponseCache::getMisses, ProgramResponseCache::getEvictions, ProgramResponseCache::getSize);
+        gauge(registry, "ironinstruction.program.response.cache.bytes", "Serialized and gzipped bodies held by the response cache", responseCache, ProgramResponseCache::getBytes);
+
+        cache(registry, "programAccess", accessIndex, ProgramAccessIndex::getHits, ProgramAccessIndex::getMisses, ProgramAccessIndex::getEvictions, ProgramAccessIndex::getSize);
+        gauge(registry, "ironinstruction.program.access.users", "Users linked to a program in the access index", accessIndex, ProgramAccessIndex::getUserCount);
+
+        cache(registry, "presignedUrls", presignedUrlCache, PresignedUrlCache::getHits, PresignedUrlCache::getMisses, PresignedUrlCache::getEvictions, PresignedUrlCache::getSize);
+
+        VerifiedTokenCache tokenCache = TokenManager.getAccessTokenCache();
+        cache(registry, "accessTokens", tokenCache, VerifiedTokenCache::getHits, VerifiedTokenCache::getMisses, VerifiedTokenCache::getEvictions, VerifiedTokenCache::getSize);
+
+        counter(registry, "ironinstruction.program.writes", "Full-document program writes attempted", writeStats, ProgramWriteStats::getAttempts);
+        counter(registry, "ironinstruction.program.write.conflicts", "Full-document writes that lost to a concurrent write and were retried", writeStats, ProgramWriteStats::getConflicts);
+        counter(registry, "ironinstruction.program.write.exhausted", "Full-document writes that gave up after every retry", writeStats, ProgramWriteStats::getExhausted);
+
+        counter(registry, "ironinstruction.set.results.buffered", "Set results logged through the write-behind buffer", resultBuffer, SetResultBuffer::getBuffered);
+        counter(registry, "ironinstruction.set.results.written", "Set results the buffer wrote to the database", resultBuffer, SetResultBuffer::getWritten);
+        counter(registry, "ironinstruction.set.results.flushes", "Buffer flushes", resultBuffer, SetResultBuffer::getFlushes);
+        counter(registry, "ironinstruction.set.results.flush.failures", "Buffer flushes that failed and were kept for the next one", resultBuffer, SetResultBuffer::getFailedFlushes);
+        gauge(registry, "ironinstruction.set.results.coalescing.ratio", "Logged results per database write, 1 means nothing was coalesced", resultBuffer, SetResultBuffer::getCoalescingRatio);
+        gauge(registry, "ironinstruction.set.results.flush.max", "Longest buffer flush in milliseconds", resultBuffer, SetResultBuffer::getMaxFlushMillis);
+
+        counter(registry, "ironinstruction.video.deletions.queued", "Videos queued for deletion", videoDeletionQueue, VideoDeletionQueue::getQueued);
+        counter(registry, "ironinstruction.video.deletions.deleted", "Queued videos the storage deleted", videoDeletionQueue, VideoDeletionQueue::getDeleted);
+        counter(registry, "ironinstruction.video.deletions.failures", "Queued deletions the storage refused, retried later", videoDeletionQueue, VideoDeletionQueue::getFailures);
+
+        counter(registry, "ironinstruction.video.gc.scanned", "Stored videos the orphan collector looked at", orphanedVideoCollector, OrphanedVideoCollector::getScanned);
+        counter(registry, "ironinstruction.video.gc.orphaned", "Stored videos no program refers to, counted in dry runs too", orphanedVideoCollector, OrphanedVideoCollector::getOrphaned);
+        counter(registry, "ironinstruction.video.gc.deleted", "Orphaned videos the collector deleted", orphanedVideoCollector, OrphanedVideoCollector::getDeleted);
+    }
+}
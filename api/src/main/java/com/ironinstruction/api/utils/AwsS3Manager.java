@@ -1,19 +1,48 @@
 package com.ironinstruction.api.utils;
+import java.net.URI;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
 import com.ironinstruction.api.security.SecurityConstants;
+import com.ironinstruction.api.video.PendingVideoUpload;
+import com.ironinstruction.api.video.StoredVideo;
+import com.ironinstruction.api.video.VideoStorage;
 
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
 
-public class AwsS3Manager {
+public class AwsS3Manager implements VideoStorage {
     private S3Presigner presigner; 
     private S3Client client;
     private String bucketName;
@@ -24,6 +53,20 @@ public class AwsS3Manager {
         this.bucketName = bucketName;
     }
 
+    // for an S3 compatible server such as MinIO or LocalStack, which serve buckets by path rather than by host
+    public AwsS3Manager(String bucketName, URI endpoint) {
+        S3Configuration configuration = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        this.presigner = S3Presigner.builder().endpointOverride(endpoint).serviceConfiguration(configuration).build();
+        this.client = S3Client.builder().endpointOverride(endpoint).serviceConfiguration(configuration).build();
+        this.bucketName = bucketName;
+    }
+
+    public AwsS3Manager(S3Client client, S3Presigner presigner, String bucketName) {
+        this.presigner = presigner;
+        this.client = client;
+        this.bucketName = bucketName;
+    }
+
     public void setBucketName(String bucketName) {
         this.bucketName = bucketName;
     }
@@ -37,6 +80,22 @@ public class AwsS3Manager {
         client.deleteObject(deleteObjectRequest);
     }
 
+    // one DeleteObjects request, quiet mode leaves the deleted keys out of the response
+    @Override
+    public List<String> deleteObjects(Collection<String> fileNames) {
+        DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+            .bucket(this.bucketName)
+            .delete(Delete.builder()
+                .objects(fileNames.stream().map((fileName) -> ObjectIdentifier.builder().key(fileName).build()).collect(Collectors.toList()))
+                .quiet(true)
+                .build())
+            .build();
+
+        DeleteObjectsResponse response = client.deleteObjects(deleteObjectsRequest);
+        return response.errors().stream().map((error) -> error.key()).collect(Collectors.toList());
+    }
+
+    @Override
     public String newPresignedGetUrl(String fileName) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
             .bucket(this.bucketName)
@@ -51,6 +110,7 @@ public class AwsS3Manager {
         return presigner.presignGetObject(getObjectPresignRequest).url().toString();
     }
 
+    @Override
     public String newPresignedPutUrl(String fileName) {
         PutObjectRequest objectRequest = PutObjectRequest.builder()
             .bucket(this.bucketName)
@@ -65,4 +125,118 @@ public class AwsS3Manager {
 
         return this.presigner.presignPutObject(presignRequest).url().toString();
     }
+
+    @Override
+    public String createMultipartUpload(String fileName) {
+        CreateMultipartUploadRequest createRequest = CreateMultipartUploadRequest.builder()
+            .bucket(this.bucketName)
+            .key(fileName)
+            .contentType("video/mp4")
+            .build();
+
+        return client.createMultipartUpload(createRequest).uploadId();
+    }
+
+    @Override
+    public String newPresignedUploadPartUrl(String fileName, String uploadId, int partNumber) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+            .bucket(this.bucketName)
+            .key(fileName)
+            .uploadId(uploadId)
+            .partNumber(partNumber)
+            .build();
+
+        UploadPartPresignRequest presignRequest = UploadPartPresignRequest.builder()
+            .signatureDuration(Duration.ofMinutes(SecurityConstants.URL_EXPIRATION_TIME_MINUTES))
+            .uploadPartRequest(uploadPartRequest)
+            .build();
+
+        return this.presigner.presignUploadPart(presignRequest).url().toString();
+    }
+
+    // S3 wants the parts in ascending order
+    @Override
+    public void completeMultipartUpload(String fileName, String uploadId, Map<Integer, String> eTags) throws ResourceNotFound, InvalidRequest {
+        List<CompletedPart> parts = eTags.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map((part) -> CompletedPart.builder().partNumber(part.getKey()).eTag(part.getValue()).build())
+            .collect(Collectors.toList());
+
+        CompleteMultipartUploadRequest completeRequest = CompleteMultipartUploadRequest.builder()
+            .bucket(this.bucketName)
+            .key(fileName)
+            .uploadId(uploadId)
+            .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+            .build();
+
+        try {
+            client.completeMultipartUpload(completeRequest);
+        } catch (NoSuchUploadException e) {
+            throw new ResourceNotFound(uploadId);
+        } catch (S3Exception e) {
+            // a missing or too small part, or an etag that doesn't match, the parts can be sent again
+            if (e.statusCode() == 400) {
+                throw new InvalidRequest(e.awsErrorDetails().errorMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String fileName, String uploadId) throws ResourceNotFound {
+        AbortMultipartUploadRequest abortRequest = AbortMultipartUploadRequest.builder()
+            .bucket(this.bucketName)
+            .key(fileName)
+            .uploadId(uploadId)
+            .build();
+
+        try {
+            client.abortMultipartUpload(abortRequest);
+        } catch (NoSuchUploadException e) {
+            throw new ResourceNotFound(uploadId);
+        }
+    }
+
+    // read a page of 1000 at a time
+    @Override
+    public List<PendingVideoUpload> listMultipartUploads(Instant initiatedBefore) {
+        List<PendingVideoUpload> uploads = new ArrayList<PendingVideoUpload>();
+        String keyMarker = null;
+        String uploadIdMarker = null;
+        ListMultipartUploadsResponse page;
+        do {
+            page = client.listMultipartUploads(ListMultipartUploadsRequest.builder()
+                .bucket(this.bucketName)
+                .keyMarker(keyMarker)
+                .uploadIdMarker(uploadIdMarker)
+                .build());
+            page.uploads().stream()
+                .filter((upload) -> upload.initiated().isBefore(initiatedBefore))
+                .forEach((upload) -> uploads.add(new PendingVideoUpload(upload.key(), upload.uploadId(), upload.initiated())));
+            keyMarker = page.nextKeyMarker();
+            uploadIdMarker = page.nextUploadIdMarker();
+        } while (Boolean.TRUE.equals(page.isTruncated()));
+
+        return uploads;
+    }
+
+    @Override
+    public List<StoredVideo> listVideos(String startAfter, int limit) {
+        List<StoredVideo> videos = new ArrayList<StoredVideo>();
+        String continuationToken = null;
+        ListObjectsV2Response page;
+        // S3 may answer with fewer keys than asked for, keep going until the page is full or the bucket ends
+        do {
+            page = client.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(this.bucketName)
+                .startAfter(startAfter)
+                .continuationToken(continuationToken)
+                .maxKeys(Math.min(limit - videos.size(), 1000))
+                .build());
+            page.contents().forEach((object) -> videos.add(new StoredVideo(object.key(), object.lastModified(), object.size())));
+            continuationToken = page.nextContinuationToken();
+        } while (Boolean.TRUE.equals(page.isTruncated()) && videos.size() < limit);
+
+        return videos;
+    }
 }
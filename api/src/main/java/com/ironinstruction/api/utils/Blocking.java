@@ -0,0 +1,44 @@
+package com.ironinstruction.api.utils;
+
+import java.util.concurrent.Callable;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// the reactive profile calls the blocking services through this, mongo writes, password hashing and the
+// like run on reactor's bounded elastic pool instead of an event loop thread
+public final class Blocking {
+    private Blocking() { }
+
+    // a call that returns null completes empty
+    public static <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // the other way around, the blocking services wait for the logic they share with the reactive profile
+    // an empty mono is null, block wraps checked errors so the expected one is unwrapped and rethrown
+    public static <T, E extends Exception> T await(Mono<T> mono, Class<E> checked) throws E {
+        try {
+            return mono.block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (checked.isInstance(cause)) {
+                throw checked.cast(cause);
+            }
+            throw e;
+        }
+    }
+
+    public static <T, E1 extends Exception, E2 extends Exception> T await(Mono<T> mono, Class<E1> checked, Class<E2> otherChecked) throws E1, E2 {
+        try {
+            return await(mono, checked);
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (otherChecked.isInstance(cause)) {
+                throw otherChecked.cast(cause);
+            }
+            throw e;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.ironinstruction.api.utils;
 
-import com.ironinstruction.api.errors.ErrorResponse;
+import com.ironinstruction.api.errors.ConcurrentModification;
 import com.ironinstruction.api.errors.ResourceNotFound;
 import com.ironinstruction.api.errors.InvalidRequest;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,21 +16,28 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalErrorHandler extends ResponseEntityExceptionHandler {
     @Override
     public ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException e, HttpHeaders headers, HttpStatus status, WebRequest req) {
-        return new ResponseEntity<Object>(new ErrorResponse("Invalid body (general)"), HttpStatus.BAD_REQUEST);
+        return ApiErrors.invalidBody();
     }
 
     @ResponseBody
     @ExceptionHandler(value = ResourceNotFound.class)
     public ResponseEntity<Object> handleResourceNotFound(ResourceNotFound e) {
-        return new ResponseEntity<Object>(new ErrorResponse("Resource with identifier '" + e.getResourceId() + "' not found"), HttpStatus.NOT_FOUND);
+        return ApiErrors.resourceNotFound(e);
     }
     
     @ResponseBody
     @ExceptionHandler(value = InvalidRequest.class) 
     public ResponseEntity<Object> handleInvalidRequest(InvalidRequest e) {
-        return new ResponseEntity<Object>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
+        return ApiErrors.invalidRequest(e);
+    }
+
+    @ResponseBody
+    @ExceptionHandler(value = ConcurrentModification.class)
+    public ResponseEntity<Object> handleConcurrentModification(ConcurrentModification e) {
+        return ApiErrors.concurrentModification(e);
     }
 }
@@ -0,0 +1,33 @@
+package com.ironinstruction.api.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// sizes the mongo connection pool next to the request threads, unset values keep the driver's
+// defaults or whatever the connection string asks for
+@Configuration
+public class MongoPoolConfig {
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+        @Value("${ironinstruction.mongo.max-pool-size:#{null}}") Integer maxPoolSize,
+        @Value("${ironinstruction.mongo.min-pool-size:#{null}}") Integer minPoolSize,
+        @Value("${ironinstruction.mongo.max-wait-millis:#{null}}") Long maxWaitMillis
+    ) {
+        return (settings) -> settings.applyToConnectionPoolSettings((pool) -> {
+            if (maxPoolSize != null) {
+                pool.maxSize(maxPoolSize);
+            }
+            if (minPoolSize != null) {
+                pool.minSize(minPoolSize);
+            }
+            // a request that can't get a connection fails instead of holding its thread for two minutes
+            if (maxWaitMillis != null) {
+                pool.maxWaitTime(maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+}
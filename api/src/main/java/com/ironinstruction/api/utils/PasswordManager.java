@@ -10,6 +10,10 @@ import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 
 public class PasswordManager {
+    // one generator for every salt, seeded once, a new SecureRandom per call reads the OS source under a lock
+    // and a virtual thread doing that blocking read holds on to its carrier
+    private static final SecureRandom RANDOM = createRandom();
+
     private final int strength;
     private final int keyLength;
 
@@ -22,6 +26,15 @@ public class PasswordManager {
         this.keyLength = keyLength;
     }
 
+    private static SecureRandom createRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    // CPU bound and doesn't pin, but at 100000 iterations it keeps a carrier busy for the whole hash
     public String hash(String password, String salt) throws NoSuchAlgorithmException, InvalidKeySpecException {
         byte[] saltBytes = HexUtils.fromHexString(salt);
         PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), saltBytes, this.strength,this.keyLength);
@@ -30,17 +43,15 @@ public class PasswordManager {
     }
 
     public String createSalt(int size) {
-        SecureRandom random = new SecureRandom();
         byte[] salt = new byte[size];
-        random.nextBytes(salt);
+        RANDOM.nextBytes(salt);
 
         return HexUtils.toHexString(salt);
     }
 
     public String createSalt() {
-        SecureRandom random = new SecureRandom();
         byte[] salt = new byte[16];
-        random.nextBytes(salt);
+        RANDOM.nextBytes(salt);
 
         return HexUtils.toHexString(salt);
     }
@@ -0,0 +1,163 @@
+package com.ironinstruction.api.utils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramPath;
+import com.ironinstruction.api.program.ProgramRepositoryCustomImpl;
+import com.ironinstruction.api.program.SetResult;
+import com.ironinstruction.api.refreshtoken.RefreshToken;
+import com.ironinstruction.api.user.User;
+import com.ironinstruction.api.video.VideoDeletion;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+// explains the filter of every query the repositories send and reports the ones mongo answers with a collection scan
+@Component
+public class QueryPlanVerifier {
+    private final MongoTemplate mongoTemplate;
+    private final boolean verifyOnStartup;
+
+    public QueryPlanVerifier(MongoTemplate mongoTemplate, @Value("${ironinstruction.verify-query-plans:false}") boolean verifyOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.verifyOnStartup = verifyOnStartup;
+    }
+
+    // methods that read every document on purpose, a collection scan is what they ask for
+    public static final Set<String> FULL_SCANS = Set.of(
+        "ProgramRepositoryCustom.forEachVideoRef" // the orphaned video collector walks every program
+    );
+
+    // one entry per repository query method, named <repository>.<method>; QueryPlanTests fails when a method has none.
+    // The reactive repositories send the same queries as their blocking counterparts
+    private Map<String, Document> queries() {
+        String sampleId = new ObjectId().toHexString();
+        String sampleEmail = "explain@gmail.com";
+        String programs = mongoTemplate.getCollectionName(Program.class);
+        String users = mongoTemplate.getCollectionName(User.class);
+        String refreshTokens = mongoTemplate.getCollectionName(RefreshToken.class);
+        String setResults = mongoTemplate.getCollectionName(SetResult.class);
+        String videoDeletions = mongoTemplate.getCollectionName(VideoDeletion.class);
+        ProgramPath program = ProgramPath.of(sampleId);
+        ProgramPath set = ProgramPath.of(sampleId, sampleId, sampleId, sampleId, sampleId);
+
+        Map<String, Document> queries = new LinkedHashMap<String, Document>();
+        queries.put("ProgramRepository.findById", find(programs, program.criteria()));
+        Criteria byEmail = new Criteria().orOperator(Criteria.where("coachEmail").is(sampleEmail), Criteria.where("athleteEmail").is(sampleEmail));
+        queries.put("ProgramRepository.findByEmail", find(programs, byEmail));
+        queries.put("ProgramRepository.streamByEmail", find(programs, byEmail));
+        // targeted updates and reads match every node along the path
+        queries.put("ProgramRepositoryCustom.push", find(programs, set.parent().criteria()));
+        queries.put("ProgramRepositoryCustom.pull", find(programs, set.criteria()));
+        queries.put("ProgramRepositoryCustom.set", find(programs, set.criteria()));
+        queries.put("ProgramRepositoryCustom.exists", find(programs, set.criteria()));
+        queries.put("ProgramRepositoryCustom.findNode", aggregate(programs, Aggregation.newAggregation(set.fragmentStages())));
+        queries.put("ProgramRepositoryCustom.setProgramFields", find(programs, program.criteria()));
+        queries.put("ProgramRepositoryCustom.bumpResultsVersion", find(programs, program.criteria()));
+        queries.put("ProgramRepositoryCustom.replaceIfUnchanged", find(programs, program.criteria().and("version").is(1L)));
+        queries.put("ProgramRepositoryCustom.findVersion", find(programs, program.criteria())
+            .append("projection", new Document("version", 1).append("resultsVersion", 1)));
+        queries.put("ProgramRepositoryCustom.findOwnership", find(programs, program.criteria())
+            .append("projection", new Document("coachEmail", 1).append("athleteEmail", 1))
+            .append("hint", Program.OWNERSHIP_INDEX));
+        // the first page of the default sort, and a later page of the other one
+        queries.put("ProgramRepositoryCustom.findSummaries", aggregate(programs,
+            ProgramRepositoryCustomImpl.summaryAggregation(sampleEmail, "lastModified", Sort.Direction.DESC, null, null, 21)));
+        queries.put("ProgramRepositoryCustom.findSummaries after a cursor", aggregate(programs,
+            ProgramRepositoryCustomImpl.summaryAggregation(sampleEmail, "name", Sort.Direction.ASC, "sample", sampleId, 21)));
+        // the latest result aggregations start with the same $match and $sort
+        Document latestSort = new Document("setId", 1).append("recordedAt", -1).append("_id", -1);
+        queries.put("SetResultRepository.findLatestByProgramId", find(setResults, Criteria.where("programId").is(sampleId))
+            .append("sort", latestSort));
+        queries.put("SetResultRepository.findLatestByProgramIdAndSetIdIn", find(setResults, Criteria.where("programId").is(sampleId).and("setId").in(sampleId, sampleId))
+            .append("sort", latestSort));
+        queries.put("SetResultRepository.findByProgramIdAndSetIdOrderByRecordedAtAsc", find(setResults, Criteria.where("programId").is(sampleId).and("setId").is(sampleId))
+            .append("sort", new Document("recordedAt", 1)));
+        queries.put("SetResultRepository.deleteByProgramId", delete(setResults, Criteria.where("programId").is(sampleId)));
+        queries.put("VideoDeletionRepository.findByNextAttemptAtLessThanEqual", find(videoDeletions, Criteria.where("nextAttemptAt").lte(new Date()))
+            .append("sort", new Document("nextAttemptAt", 1)));
+        queries.put("VideoDeletionRepositoryCustom.rescheduleAll", find(videoDeletions, Criteria.where("_id").is(sampleId).and("queuedAt").is(new Date())));
+        queries.put("UserRepository.findByEmail", find(users, Criteria.where("email").is(sampleEmail)));
+        queries.put("UserRepository.findByEmailIn", find(users, Criteria.where("email").in(sampleEmail, "explain2@gmail.com")));
+        queries.put("UserRepository.deleteByEmail", delete(users, Criteria.where("email").is(sampleEmail)));
+        queries.put("RefreshTokenRepository.findById", find(refreshTokens, Criteria.where("_id").is(sampleId)));
+        queries.put("RefreshTokenRepository.deleteById", delete(refreshTokens, Criteria.where("_id").is(sampleId)));
+
+        return queries;
+    }
+
+    // names of the queries that are explained
+    public Set<String> getQueryNames() {
+        return queries().keySet();
+    }
+
+    private Document find(String collection, Criteria criteria) {
+        return new Document("find", collection).append("filter", new Query(criteria).getQueryObject());
+    }
+
+    private Document delete(String collection, Criteria criteria) {
+        return new Document("delete", collection)
+            .append("deletes", List.of(new Document("q", new Query(criteria).getQueryObject()).append("limit", 0)));
+    }
+
+    private Document aggregate(String collection, Aggregation aggregation) {
+        return new Document("aggregate", collection)
+            .append("pipeline", aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT))
+            .append("cursor", new Document());
+    }
+
+    private boolean containsCollectionScan(Object plan) {
+        if (plan instanceof Document) {
+            Document document = (Document) plan;
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(this::containsCollectionScan);
+        } else if (plan instanceof List) {
+            return ((List<?>) plan).stream().anyMatch(this::containsCollectionScan);
+        }
+
+        return false;
+    }
+
+    // names of the queries whose winning or rejected plans scan a whole collection
+    public List<String> findCollectionScans() {
+        List<String> collectionScans = new ArrayList<String>();
+        queries().forEach((name, command) -> {
+            Document explain = mongoTemplate.getDb().runCommand(new Document("explain", command).append("verbosity", "queryPlanner"));
+            // aggregations that aren't pushed down whole report the plan of their first stage under stages
+            if (containsCollectionScan(explain.containsKey("queryPlanner") ? explain.get("queryPlanner") : explain.get("stages"))) {
+                collectionScans.add(name);
+            }
+        });
+
+        return collectionScans;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        if (!this.verifyOnStartup) {
+            return;
+        }
+
+        List<String> collectionScans = findCollectionScans();
+        if (!collectionScans.isEmpty()) {
+            throw new IllegalStateException("Queries without a usable index: " + String.join(", ", collectionScans));
+        }
+    }
+}
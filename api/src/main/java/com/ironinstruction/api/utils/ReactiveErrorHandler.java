@@ -0,0 +1,43 @@
+package com.ironinstruction.api.utils;
+
+import com.ironinstruction.api.errors.ConcurrentModification;
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ServerWebInputException;
+
+// GlobalErrorHandler for the reactive profile, the same errors answered the same way
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveErrorHandler {
+    // a body that can't be read arrives as a decoding error, missing parameters and the like keep their own reason
+    @ResponseBody
+    @ExceptionHandler(value = ServerWebInputException.class)
+    public ResponseEntity<Object> handleServerWebInput(ServerWebInputException e) {
+        return e.getCause() instanceof DecodingException ? ApiErrors.invalidBody() : ApiErrors.badRequest(e.getReason());
+    }
+
+    @ResponseBody
+    @ExceptionHandler(value = ResourceNotFound.class)
+    public ResponseEntity<Object> handleResourceNotFound(ResourceNotFound e) {
+        return ApiErrors.resourceNotFound(e);
+    }
+
+    @ResponseBody
+    @ExceptionHandler(value = InvalidRequest.class)
+    public ResponseEntity<Object> handleInvalidRequest(InvalidRequest e) {
+        return ApiErrors.invalidRequest(e);
+    }
+
+    @ResponseBody
+    @ExceptionHandler(value = ConcurrentModification.class)
+    public ResponseEntity<Object> handleConcurrentModification(ConcurrentModification e) {
+        return ApiErrors.concurrentModification(e);
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.SignatureVerificationException;
@@ -12,12 +13,22 @@ import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.ironinstruction.api.errors.InvalidToken;
 import com.ironinstruction.api.security.SecurityConstants;
+import com.ironinstruction.api.user.UserType;
 
 public class TokenManager {
+    // the secrets are fixed for the life of the process, so the keys and verifiers are built once, both are thread safe
+    private static final Algorithm ACCESS_ALGORITHM = Algorithm.HMAC512(SecurityConstants.ACCESS_SECRET.getBytes());
+    private static final Algorithm REFRESH_ALGORITHM = Algorithm.HMAC512(SecurityConstants.REFRESH_SECRET.getBytes());
+    private static final JWTVerifier ACCESS_VERIFIER = JWT.require(ACCESS_ALGORITHM).build();
+    private static final JWTVerifier REFRESH_VERIFIER = JWT.require(REFRESH_ALGORITHM).build();
+
+    // every authenticated request presents its access token, most of them one seen a moment ago
+    private static final VerifiedTokenCache ACCESS_TOKENS = new VerifiedTokenCache(SecurityConstants.ACCESS_TOKEN_CACHE_SIZE);
+
     public TokenManager() { }
 
     private static Algorithm getAlgorithm(TokenType tokenType) {
-        return Algorithm.HMAC512((tokenType == TokenType.ACCESS ? SecurityConstants.ACCESS_SECRET : SecurityConstants.REFRESH_SECRET).getBytes());
+        return tokenType == TokenType.ACCESS ? ACCESS_ALGORITHM : REFRESH_ALGORITHM;
     }
 
     public static String generateJWT(String body, TokenType tokenType)  {
@@ -37,7 +48,7 @@ public class TokenManager {
 
     public static DecodedJWT verifyJWT (String token, TokenType tokenType) throws InvalidToken {
         try {
-            return JWT.require(getAlgorithm(tokenType)).build().verify(token);
+            return (tokenType == TokenType.ACCESS ? ACCESS_VERIFIER : REFRESH_VERIFIER).verify(token);
         } catch (JWTDecodeException | SignatureVerificationException e) {
             throw new InvalidToken("Invalid token");
         } catch (TokenExpiredException e) {
@@ -45,6 +56,30 @@ public class TokenManager {
         }
     }
 
+    // verifies an access token and splits its subject, a token verified before comes from the cache until it expires
+    public static VerifiedAccessToken verifyAccessToken(String token) throws InvalidToken {
+        return ACCESS_TOKENS.get(token, TokenManager::parseAccessToken);
+    }
+
+    private static VerifiedAccessToken parseAccessToken(String token) throws InvalidToken {
+        DecodedJWT decoded = verifyJWT(token, TokenType.ACCESS);
+        String subject[] = decoded.getSubject() == null ? new String[0] : decoded.getSubject().split(";");
+        // every access token the api issues expires, one without an expiration would be cached and accepted forever
+        if (subject.length != 2 || decoded.getExpiresAt() == null) {
+            throw new InvalidToken("Invalid token");
+        }
+
+        try {
+            return new VerifiedAccessToken(subject[0], UserType.valueOf(subject[1]), decoded.getExpiresAt().getTime());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidToken("Invalid token");
+        }
+    }
+
+    public static VerifiedTokenCache getAccessTokenCache() {
+        return ACCESS_TOKENS;
+    }
+
     public static DecodedJWT decodeJWT(String token) {
         try {
             return JWT.decode(token);
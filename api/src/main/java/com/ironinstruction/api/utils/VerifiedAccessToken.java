@@ -0,0 +1,33 @@
+package com.ironinstruction.api.utils;
+
+import com.ironinstruction.api.user.UserType;
+
+// what an access token says once its signature checked out, the subject is "email;USER_TYPE"
+public class VerifiedAccessToken {
+    private final String email;
+    private final UserType userType;
+    private final long expiresAt;
+
+    public VerifiedAccessToken(String email, UserType userType, long expiresAt) {
+        this.email = email;
+        this.userType = userType;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public UserType getUserType() {
+        return userType;
+    }
+
+    // epoch millis
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= this.expiresAt;
+    }
+}
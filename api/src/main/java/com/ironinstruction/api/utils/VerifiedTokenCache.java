@@ -0,0 +1,101 @@
+package com.ironinstruction.api.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import com.ironinstruction.api.errors.InvalidToken;
+
+// access tokens that already passed verification, keyed by a SHA-256 digest so the tokens themselves aren't kept
+// an entry lives as long as its token, an expired one is dropped and fails like the verifier would
+// only valid tokens are cached, a bad token is verified, and rejected, every time
+public class VerifiedTokenCache {
+    private final int maxEntries;
+
+    // access ordered, so iteration starts at the least recently used token
+    private final LinkedHashMap<String, VerifiedAccessToken> entries = new LinkedHashMap<String, VerifiedAccessToken>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public VerifiedAccessToken get(String token, Function<String, VerifiedAccessToken> verify) throws InvalidToken {
+        String key = digest(token);
+        this.lock.lock();
+        try {
+            VerifiedAccessToken verified = this.entries.get(key);
+            if (verified != null && !verified.isExpired()) {
+                hits.increment();
+                return verified;
+            } else if (verified != null) {
+                this.entries.remove(key);
+                evictions.increment();
+                throw new InvalidToken("Token expired");
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        // verified outside the lock, two requests with the same new token both verify it
+        misses.increment();
+        VerifiedAccessToken verified = verify.apply(token);
+
+        this.lock.lock();
+        try {
+            this.entries.put(key, verified);
+            Iterator<Map.Entry<String, VerifiedAccessToken>> iterator = this.entries.entrySet().iterator();
+            while (this.entries.size() > this.maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        return verified;
+    }
+
+    public int getSize() {
+        this.lock.lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // tokens dropped because the cache was full or they expired
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
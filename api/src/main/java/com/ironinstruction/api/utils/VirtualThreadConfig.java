@@ -0,0 +1,20 @@
+package com.ironinstruction.api.utils;
+
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// serves every request on its own virtual thread instead of tomcat's worker pool, a request blocked
+// on mongo or s3 parks and frees its carrier for the next one
+// server.tomcat.threads.* no longer applies, mongo's pool size becomes the limit on concurrent queries
+@Configuration
+@ConditionalOnProperty(name = "ironinstruction.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutor() {
+        return (protocolHandler) -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,148 @@
+package com.ironinstruction.api.video;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.ironinstruction.api.errors.ErrorResponse;
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.InvalidToken;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.security.SecurityConstants;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+// the urls LocalVideoStorage signs, JWTAuthorizationFilter leaves these to the signature check
+@RestController
+@RequestMapping(SecurityConstants.VIDEO_URL)
+@ConditionalOnProperty(name = "ironinstruction.video-storage.type", havingValue = "local")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LocalVideoController {
+    private final LocalVideoStorage videoStorage;
+
+    public LocalVideoController(LocalVideoStorage videoStorage) {
+        this.videoStorage = videoStorage;
+    }
+
+    @ResponseBody
+    @ResponseStatus(value = HttpStatus.FORBIDDEN)
+    @ExceptionHandler(InvalidToken.class)
+    public ErrorResponse invalidSignature(InvalidToken e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    private void verify(String method, String resource, long expires, String signature) {
+        if (!videoStorage.verify(method, resource, expires, signature)) {
+            throw new InvalidToken("Invalid or expired video link");
+        }
+    }
+
+    // the first and last byte a single range header asks for, null for the whole file and an empty array
+    // when no byte of the file is in the range, several ranges are answered with the whole file
+    public static long[] byteRange(String header, long length) {
+        if (header == null || !header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+
+        String range = header.substring("bytes=".length()).trim();
+        int dash = range.indexOf('-');
+        try {
+            long first;
+            long last;
+            if (dash == 0) {
+                // the last n bytes
+                long suffix = Long.parseLong(range.substring(1));
+                if (suffix == 0) {
+                    return new long[0];
+                }
+                first = Math.max(length - suffix, 0);
+                last = length - 1;
+            } else if (dash > 0) {
+                first = Long.parseLong(range.substring(0, dash));
+                last = dash == range.length() - 1 ? length - 1 : Math.min(Long.parseLong(range.substring(dash + 1)), length - 1);
+                if (last < first && dash != range.length() - 1) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+            return first >= length ? new long[0] : new long[] { first, last };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // a video seeks by asking for byte ranges, Tomcat sends the file with sendfile when the connector
+    // supports it, otherwise FileChannel.transferTo copies it to the response
+    @GetMapping("/{key}")
+    public void download(@PathVariable String key, @RequestParam long expires, @RequestParam String signature, @RequestHeader(value = "Range", required = false) String range, HttpServletRequest request, HttpServletResponse response) throws ResourceNotFound, IOException {
+        verify("GET", key, expires, signature);
+        Path file = videoStorage.find(key);
+        long length = Files.size(file);
+
+        long[] bytes = byteRange(range, length);
+        long first = 0;
+        long last = length - 1;
+        if (bytes != null && bytes.length == 0) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader("Content-Range", "bytes */" + length);
+            return;
+        } else if (bytes != null) {
+            first = bytes[0];
+            last = bytes[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader("Content-Range", "bytes " + first + "-" + last + "/" + length);
+        }
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setContentType("video/mp4");
+        response.setContentLengthLong(last - first + 1);
+
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", first);
+            request.setAttribute("org.apache.tomcat.sendfile.end", last + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = first;
+            while (position <= last) {
+                position += channel.transferTo(position, last - position + 1, output);
+            }
+        }
+    }
+
+    @PutMapping("/{key}")
+    public ResponseEntity<Object> upload(@PathVariable String key, @RequestParam long expires, @RequestParam String signature, HttpServletRequest request) throws IOException, InvalidRequest {
+        verify("PUT", key, expires, signature);
+        videoStorage.write(key, request.getInputStream());
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/{key}/uploads/{uploadId}/{partNumber}")
+    public ResponseEntity<Object> uploadPart(@PathVariable String key, @PathVariable String uploadId, @PathVariable int partNumber, @RequestParam long expires, @RequestParam String signature, HttpServletRequest request) throws IOException, ResourceNotFound, InvalidRequest {
+        verify("PUT", key + "/uploads/" + uploadId + "/" + partNumber, expires, signature);
+        return ResponseEntity.ok().eTag(videoStorage.writePart(key, uploadId, partNumber, request.getInputStream())).build();
+    }
+}
@@ -0,0 +1,296 @@
+package com.ironinstruction.api.video;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.security.SecurityConstants;
+
+// videos kept as files under one directory for installs without S3, LocalVideoController serves them
+// presigning is an HMAC over the method, the resource and the expiry, so a url works for
+// URL_EXPIRATION_TIME_MINUTES like an S3 one and can't be altered to reach another video
+// multipart uploads keep their parts under .uploads/{uploadId} until they are joined into the video
+public class LocalVideoStorage implements VideoStorage {
+    private static final Pattern KEY = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final String UPLOADS = ".uploads";
+    private static final String UPLOAD_KEY = "key";
+
+    private final Path root;
+    private final Path uploads;
+    private final String baseUrl;
+    private final SecretKeySpec secret;
+
+    // baseUrl is put in front of the urls, leave it empty for urls relative to the api
+    public LocalVideoStorage(Path root, String baseUrl, byte[] secret) {
+        this.root = root.toAbsolutePath().normalize();
+        this.uploads = this.root.resolve(UPLOADS);
+        this.baseUrl = baseUrl;
+        this.secret = new SecretKeySpec(secret, "HmacSHA256");
+        try {
+            Files.createDirectories(this.uploads);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String sign(String method, String resource, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(this.secret);
+            byte[] signature = mac.doFinal((method + "\n" + resource + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String signedUrl(String method, String resource) {
+        long expires = Instant.now().getEpochSecond() + TimeUnit.MINUTES.toSeconds(SecurityConstants.URL_EXPIRATION_TIME_MINUTES);
+        return this.baseUrl + SecurityConstants.VIDEO_URL + "/" + resource + "?expires=" + expires + "&signature=" + sign(method, resource, expires);
+    }
+
+    // resource is the url path after VIDEO_URL, expires is in epoch seconds
+    public boolean verify(String method, String resource, long expires, String signature) {
+        if (expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        // constant time, a signature can't be guessed byte by byte
+        return MessageDigest.isEqual(sign(method, resource, expires).getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Path file(String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid video key " + key);
+        }
+        return this.root.resolve(key);
+    }
+
+    // the directory of an upload started for the key
+    private Path upload(String key, String uploadId) throws ResourceNotFound {
+        Path upload = this.uploads.resolve(uploadId);
+        try {
+            if (!KEY.matcher(uploadId).matches() || !Files.readString(upload.resolve(UPLOAD_KEY)).equals(key)) {
+                throw new ResourceNotFound(uploadId);
+            }
+        } catch (IOException e) {
+            throw new ResourceNotFound(uploadId);
+        }
+        return upload;
+    }
+
+    public Path find(String key) throws ResourceNotFound {
+        Path file = KEY.matcher(key).matches() ? file(key) : null;
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new ResourceNotFound(key);
+        }
+        return file;
+    }
+
+    // copies the stream into a file next to the video and moves it into place, readers never see half a video
+    private long write(Path target, InputStream content, long maxBytes) throws IOException, InvalidRequest {
+        Path temporary = Files.createTempFile(this.root, UPLOADS, ".tmp");
+        try {
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+                ReadableByteChannel source = Channels.newChannel(content)) {
+                long copied;
+                while ((copied = channel.transferFrom(source, size, 1 << 20)) > 0) {
+                    size += copied;
+                    if (size > maxBytes) {
+                        throw new InvalidRequest("Videos can't be larger than " + maxBytes + " bytes");
+                    }
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public void write(String key, InputStream content) throws IOException, InvalidRequest {
+        write(file(key), content, SecurityConstants.S3_MAX_FILE_SIZE);
+    }
+
+    // returns the part's ETag, an MD5 of its bytes like S3's
+    public String writePart(String key, String uploadId, int partNumber, InputStream content) throws IOException, ResourceNotFound, InvalidRequest {
+        Path upload = upload(key, uploadId);
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        write(upload.resolve(String.valueOf(partNumber)), new DigestInputStream(content, md5), SecurityConstants.S3_MAX_FILE_SIZE);
+        String eTag = "\"" + HexFormat.of().formatHex(md5.digest()) + "\"";
+        Files.writeString(upload.resolve(partNumber + ".etag"), eTag);
+        return eTag;
+    }
+
+    @Override
+    public String newPresignedGetUrl(String key) {
+        return signedUrl("GET", file(key).getFileName().toString());
+    }
+
+    @Override
+    public String newPresignedPutUrl(String key) {
+        return signedUrl("PUT", file(key).getFileName().toString());
+    }
+
+    @Override
+    public List<String> deleteObjects(Collection<String> keys) {
+        List<String> failed = new ArrayList<String>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (IOException e) {
+                failed.add(key);
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public String createMultipartUpload(String key) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Path upload = Files.createDirectory(this.uploads.resolve(uploadId));
+            Files.writeString(upload.resolve(UPLOAD_KEY), file(key).getFileName().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String newPresignedUploadPartUrl(String key, String uploadId, int partNumber) {
+        return signedUrl("PUT", file(key).getFileName() + "/uploads/" + uploadId + "/" + partNumber);
+    }
+
+    // the parts are joined file to file, which the kernel does without copying through the jvm
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, Map<Integer, String> eTags) throws ResourceNotFound, InvalidRequest {
+        Path upload = upload(key, uploadId);
+        try {
+            Path joined = Files.createTempFile(this.root, UPLOADS, ".tmp");
+            try {
+                try (FileChannel target = FileChannel.open(joined, StandardOpenOption.WRITE)) {
+                    for (Map.Entry<Integer, String> part : new TreeMap<Integer, String>(eTags).entrySet()) {
+                        Path partFile = upload.resolve(String.valueOf(part.getKey()));
+                        Path eTagFile = upload.resolve(part.getKey() + ".etag");
+                        if (!Files.exists(eTagFile) || !Files.readString(eTagFile).replace("\"", "").equals(part.getValue().replace("\"", ""))) {
+                            throw new InvalidRequest("Part " + part.getKey() + " is missing or its etag doesn't match");
+                        }
+                        try (FileChannel source = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                            long position = 0;
+                            long size = source.size();
+                            while (position < size) {
+                                position += source.transferTo(position, size - position, target);
+                            }
+                        }
+                    }
+                }
+                Files.move(joined, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(joined);
+            }
+            delete(upload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) throws ResourceNotFound {
+        try {
+            delete(upload(key, uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<PendingVideoUpload> listMultipartUploads(Instant initiatedBefore) {
+        List<PendingVideoUpload> pending = new ArrayList<PendingVideoUpload>();
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(this.uploads)) {
+            for (Path upload : directories) {
+                Path keyFile = upload.resolve(UPLOAD_KEY);
+                // the key is written right after the directory is made, an upload without one is still starting
+                if (Files.exists(keyFile)) {
+                    Instant initiated = Files.getLastModifiedTime(keyFile).toInstant();
+                    if (initiated.isBefore(initiatedBefore)) {
+                        pending.add(new PendingVideoUpload(Files.readString(keyFile), upload.getFileName().toString(), initiated));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return pending;
+    }
+
+    // the upload directory and temporary files start with a dot and are never listed
+    @Override
+    public List<StoredVideo> listVideos(String startAfter, int limit) {
+        List<StoredVideo> videos = new ArrayList<StoredVideo>();
+        try (Stream<Path> files = Files.list(this.root)) {
+            List<Path> page = files
+                .filter((file) -> KEY.matcher(file.getFileName().toString()).matches())
+                .filter((file) -> startAfter == null || file.getFileName().toString().compareTo(startAfter) > 0)
+                .sorted()
+                .limit(limit)
+                .toList();
+            for (Path file : page) {
+                try {
+                    videos.add(new StoredVideo(file.getFileName().toString(), Files.getLastModifiedTime(file).toInstant(), Files.size(file)));
+                } catch (NoSuchFileException e) {
+                    // deleted since the directory was read
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return videos;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ironinstruction.api.video;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+// the storage keeps the parts of a multipart upload, and S3 bills them, until it is completed or aborted,
+// clients that give up halfway never do either, so uploads older than a day are aborted
+// a bucket lifecycle rule can do the same on S3, this also covers local storage and S3 compatible servers without one
+@Component
+public class MultipartUploadJanitor {
+    private final VideoStorage videoStorage;
+    private final Duration staleAfter;
+
+    private final LongAdder aborted = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public MultipartUploadJanitor(VideoStorage videoStorage, @Value("${ironinstruction.multipart-janitor.stale-hours:24}") long staleHours) {
+        this.videoStorage = videoStorage;
+        this.staleAfter = Duration.ofHours(staleHours);
+    }
+
+    @Scheduled(
+        initialDelayString = "${ironinstruction.multipart-janitor.interval-millis:3600000}",
+        fixedDelayString = "${ironinstruction.multipart-janitor.interval-millis:3600000}"
+    )
+    public void abortStaleUploads() {
+        abortUploadsInitiatedBefore(Instant.now().minus(this.staleAfter));
+    }
+
+    public void abortUploadsInitiatedBefore(Instant cutoff) {
+        for (PendingVideoUpload upload : videoStorage.listMultipartUploads(cutoff)) {
+            try {
+                videoStorage.abortMultipartUpload(upload.getKey(), upload.getUploadId());
+                aborted.increment();
+            } catch (ResourceNotFound e) {
+                // completed or aborted since it was listed
+                failures.increment();
+            } catch (RuntimeException e) {
+                // tried again on the next run
+                failures.increment();
+            }
+        }
+    }
+
+    public long getAborted() {
+        return aborted.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,192 @@
+package com.ironinstruction.api.video;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import com.ironinstruction.api.program.ProgramRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// deleting a program, week, day or exercise leaves the videos of its exercises and sets in the storage,
+// this finds them with a mark and sweep: every videoRef in the programs collection is read into a VideoKeySet,
+// then the storage is listed a page at a time, the videos nobody refers to are checked against a second mark
+// and deleted in batches of a page
+// runs are incremental, each one sweeps a few pages and the next run continues after the last key it saw
+// it starts as a dry run that only counts the orphans, deletes are turned on with VIDEO_GC_DRY_RUN=false
+// once the orphaned count of a dry run has been checked
+@Component
+public class OrphanedVideoCollector {
+    // the keys the api uploads to, {exerciseId}.mp4 and {setId}.mp4, anything else in the storage isn't ours to delete
+    private static final Pattern VIDEO_KEY = Pattern.compile("[0-9a-f]{24}\\.mp4");
+
+    private final ProgramRepository programRepository;
+    private final VideoStorage videoStorage;
+    private final boolean enabled;
+    private final boolean dryRun;
+    private final Duration gracePeriod;
+    private final int pageSize;
+    private final int pagesPerRun;
+    private final long pageIntervalMillis;
+
+    // where the next run continues, null at the start of the storage
+    private volatile String resumeAfter = null;
+    private volatile int referencedKeys = 0;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder orphaned = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public OrphanedVideoCollector(
+        ProgramRepository programRepository,
+        VideoStorage videoStorage,
+        @Value("${ironinstruction.video-gc.enabled:true}") boolean enabled,
+        @Value("${ironinstruction.video-gc.dry-run:true}") boolean dryRun,
+        @Value("${ironinstruction.video-gc.grace-hours:72}") long graceHours,
+        @Value("${ironinstruction.video-gc.page-size:1000}") int pageSize,
+        @Value("${ironinstruction.video-gc.pages-per-run:20}") int pagesPerRun,
+        @Value("${ironinstruction.video-gc.page-interval-millis:1000}") long pageIntervalMillis
+    ) {
+        this.programRepository = programRepository;
+        this.videoStorage = videoStorage;
+        this.enabled = enabled;
+        this.dryRun = dryRun;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        // one page is one delete batch
+        this.pageSize = Math.min(pageSize, VideoDeletionQueue.MAX_BATCH_SIZE);
+        this.pagesPerRun = pagesPerRun;
+        this.pageIntervalMillis = pageIntervalMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(
+        initialDelayString = "${ironinstruction.video-gc.interval-millis:21600000}",
+        fixedDelayString = "${ironinstruction.video-gc.interval-millis:21600000}"
+    )
+    public void collectOrphans() {
+        if (this.enabled) {
+            collect();
+        }
+    }
+
+    public void collect() {
+        // a video stored within the grace period can be a finished upload whose videoRef isn't saved yet
+        Instant cutoff = Instant.now().minus(this.gracePeriod);
+        VideoKeySet referenced = new VideoKeySet();
+        programRepository.forEachVideoRef(referenced::add);
+        this.referencedKeys = referenced.size();
+
+        List<String> candidates = new ArrayList<String>();
+        String after = this.resumeAfter;
+        for (int page = 0; page < this.pagesPerRun; page++) {
+            // spreads the listing and delete requests out instead of sending them back to back
+            if (page > 0 && !pause()) {
+                break;
+            }
+
+            List<StoredVideo> videos = videoStorage.listVideos(after, this.pageSize);
+            sweep(videos, referenced, cutoff, candidates);
+            if (videos.size() < this.pageSize) {
+                // the end of the storage, the next run starts over with a fresh mark
+                after = null;
+                break;
+            }
+            after = videos.get(videos.size() - 1).getKey();
+        }
+        this.resumeAfter = after;
+
+        if (!candidates.isEmpty()) {
+            delete(orphans(candidates));
+        }
+        runs.increment();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(this.pageIntervalMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void sweep(List<StoredVideo> videos, VideoKeySet referenced, Instant cutoff, List<String> candidates) {
+        for (StoredVideo video : videos) {
+            if (VIDEO_KEY.matcher(video.getKey()).matches() && video.getLastModified().isBefore(cutoff) && !referenced.mightContain(video.getKey())) {
+                candidates.add(video.getKey());
+            }
+        }
+        scanned.add(videos.size());
+    }
+
+    // a program copied or an exercise added while the first mark and the sweep ran can refer to a video
+    // the first mark didn't see, a second mark taken after the sweep drops those, one more read of the
+    // video refs a run instead of a query on the unindexed refs for every page
+    private List<String> orphans(List<String> candidates) {
+        VideoKeySet referenced = new VideoKeySet();
+        programRepository.forEachVideoRef(referenced::add);
+        candidates.removeIf(referenced::mightContain);
+        orphaned.add(candidates.size());
+        return candidates;
+    }
+
+    private void delete(List<String> orphans) {
+        if (this.dryRun) {
+            return;
+        }
+
+        for (int start = 0; start < orphans.size(); start += this.pageSize) {
+            if (start > 0 && !pause()) {
+                return;
+            }
+
+            List<String> batch = orphans.subList(start, Math.min(start + this.pageSize, orphans.size()));
+            List<String> failedKeys;
+            try {
+                failedKeys = videoStorage.deleteObjects(batch);
+            } catch (RuntimeException e) {
+                // still orphaned on the next pass over these keys
+                failedKeys = batch;
+            }
+            deleted.add(batch.size() - failedKeys.size());
+            failures.add(failedKeys.size());
+        }
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public long getScanned() {
+        return scanned.sum();
+    }
+
+    // orphans found, in a dry run these are the videos that would have been deleted
+    public long getOrphaned() {
+        return orphaned.sum();
+    }
+
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    // distinct keys the last mark found
+    public int getReferencedKeys() {
+        return referencedKeys;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ironinstruction.api.video;
+
+import java.time.Instant;
+
+public class PendingVideoUpload {
+    private final String key;
+    private final String uploadId;
+    private final Instant initiated;
+
+    public PendingVideoUpload(String key, String uploadId, Instant initiated) {
+        this.key = key;
+        this.uploadId = uploadId;
+        this.initiated = initiated;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public Instant getInitiated() {
+        return initiated;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ironinstruction.api.video;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import com.ironinstruction.api.security.SecurityConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// presigned download urls by object key, a cached url is handed out for at most half of its validity
+// so a client always gets one that works for another five minutes or more
+// the upload endpoints invalidate the keys they replace, other instances keep serving their urls until
+// they expire, which is harmless as the url names the key rather than the video under it
+@Component
+public class PresignedUrlCache {
+    private static class Entry {
+        private final String url;
+        private final long expiresAt;
+
+        private Entry(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // access ordered, so iteration starts at the least recently used key
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    // bumped on every invalidation so a url signed while its key was invalidated isn't cached
+    private long generation;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PresignedUrlCache(
+        @Value("${ironinstruction.presigned-url-cache.enabled:true}") boolean enabled,
+        @Value("${ironinstruction.presigned-url-cache.max-entries:10000}") int maxEntries,
+        @Value("${ironinstruction.presigned-url-cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        long maxTtlSeconds = TimeUnit.MINUTES.toSeconds(SecurityConstants.URL_EXPIRATION_TIME_MINUTES) / 2;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.min(ttlSeconds, maxTtlSeconds));
+    }
+
+    public String get(String key, Function<String, String> presign) {
+        if (!this.enabled) {
+            return presign.apply(key);
+        }
+
+        long signGeneration;
+        this.lock.lock();
+        try {
+            Entry entry = this.entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.url;
+            } else if (entry != null) {
+                this.entries.remove(key);
+                evictions.increment();
+            }
+            signGeneration = this.generation;
+        } finally {
+            this.lock.unlock();
+        }
+
+        // signing happens outside the lock, two requests missing the same key both sign and the last one is kept
+        misses.increment();
+        long signedAt = System.nanoTime();
+        String url = presign.apply(key);
+
+        this.lock.lock();
+        try {
+            if (signGeneration == this.generation) {
+                this.entries.put(key, new Entry(url, signedAt + this.ttlNanos));
+                Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+                while (this.entries.size() > this.maxEntries && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        return url;
+    }
+
+    // the live url of the key counted as a hit, or null without counting anything, for callers that sign
+    // a missing url elsewhere through get, like the reactive profile that keeps signing off its event loop
+    public String find(String key) {
+        if (!this.enabled) {
+            return null;
+        }
+
+        this.lock.lock();
+        try {
+            Entry entry = this.entries.get(key);
+            if (entry == null || entry.expiresAt - System.nanoTime() <= 0) {
+                return null;
+            }
+            hits.increment();
+            return entry.url;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void invalidate(String key) {
+        this.lock.lock();
+        try {
+            this.generation++;
+            this.entries.remove(key);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getSize() {
+        this.lock.lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // urls dropped because the cache was full or their entry expired, not because of an invalidation
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long requests = getHits() + getMisses();
+        return requests == 0 ? 0 : (double) getHits() / requests;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ironinstruction.api.video;
+
+import java.time.Instant;
+
+public class StoredVideo {
+    private final String key;
+    private final Instant lastModified;
+    private final long size;
+
+    public StoredVideo(String key, Instant lastModified, long size) {
+        this.key = key;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
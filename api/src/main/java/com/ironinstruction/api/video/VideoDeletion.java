@@ -0,0 +1,52 @@
+package com.ironinstruction.api.video;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// an object waiting to be removed from the bucket, kept in mongo so deletions queued before a restart still happen
+// the key is the id, queueing the same object twice leaves one entry
+@Document(collection = "videoDeletions")
+public class VideoDeletion {
+    private static final long MAX_BACKOFF_MILLIS = 60 * 60 * 1000;
+
+    @Id
+    private String key;
+    private Date queuedAt;
+    @Indexed
+    private Date nextAttemptAt;
+    private int attempts;
+
+    public VideoDeletion() { }
+
+    public VideoDeletion(String key) {
+        this.key = key;
+        this.queuedAt = new Date();
+        this.nextAttemptAt = this.queuedAt;
+    }
+
+    // failed deletions are retried with exponential backoff up to an hour, they are never given up on
+    void retryLater() {
+        this.attempts++;
+        long backoff = Math.min(1000L << Math.min(this.attempts, 20), MAX_BACKOFF_MILLIS);
+        this.nextAttemptAt = new Date(System.currentTimeMillis() + backoff);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Date getQueuedAt() {
+        return queuedAt;
+    }
+
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ironinstruction.api.video;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// takes video deletions off the request path: callers queue the key and a background worker removes due keys
+// in batches (one DeleteObjects request on S3), keys the storage refused or that hit an error stay queued for a retry
+// deletes are idempotent, so a batch repeated after a crash or by a second instance does no harm
+@Component
+public class VideoDeletionQueue {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final VideoDeletionRepository videoDeletionRepository;
+    private final VideoStorage videoStorage;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public VideoDeletionQueue(VideoDeletionRepository videoDeletionRepository, VideoStorage videoStorage) {
+        this.videoDeletionRepository = videoDeletionRepository;
+        this.videoStorage = videoStorage;
+    }
+
+    public void enqueue(String key) {
+        videoDeletionRepository.save(new VideoDeletion(key));
+        queued.increment();
+    }
+
+    // a key that's being uploaded again must not be deleted afterwards
+    // a batch already on its way to the storage can still remove it, uploads take far longer than a batch,
+    // but if the storage refused it the retry isn't written back
+    public void cancel(String key) {
+        videoDeletionRepository.deleteById(key);
+    }
+
+    @Scheduled(fixedDelayString = "${ironinstruction.video-deletion.interval-millis:5000}")
+    public void drain() {
+        List<VideoDeletion> batch;
+        do {
+            batch = videoDeletionRepository.findByNextAttemptAtLessThanEqual(
+                new Date(),
+                PageRequest.of(0, MAX_BATCH_SIZE, Sort.by("nextAttemptAt"))
+            );
+            if (!batch.isEmpty()) {
+                deleteBatch(batch);
+            }
+        // failed keys move into the future, so a full batch of failures still ends the loop
+        } while (batch.size() == MAX_BATCH_SIZE);
+    }
+
+    private void deleteBatch(List<VideoDeletion> batch) {
+        Map<String, VideoDeletion> byKey = new HashMap<String, VideoDeletion>();
+        batch.forEach((deletion) -> byKey.put(deletion.getKey(), deletion));
+
+        List<String> failedKeys;
+        try {
+            failedKeys = videoStorage.deleteObjects(byKey.keySet());
+        } catch (RuntimeException e) {
+            failedKeys = new ArrayList<String>(byKey.keySet());
+        }
+        batches.increment();
+
+        List<VideoDeletion> retries = new ArrayList<VideoDeletion>();
+        for (String key : failedKeys) {
+            VideoDeletion deletion = byKey.remove(key);
+            if (deletion != null) {
+                deletion.retryLater();
+                retries.add(deletion);
+            }
+        }
+
+        videoDeletionRepository.deleteAllById(byKey.keySet());
+        videoDeletionRepository.rescheduleAll(retries);
+        deleted.add(byKey.size());
+        failures.add(retries.size());
+    }
+
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    // failed attempts, a key that fails twice counts twice
+    public long getFailures() {
+        return failures.sum();
+    }
+}
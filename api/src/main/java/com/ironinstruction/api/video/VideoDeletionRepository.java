@@ -0,0 +1,13 @@
+package com.ironinstruction.api.video;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VideoDeletionRepository extends MongoRepository<VideoDeletion, String>, VideoDeletionRepositoryCustom {
+    List<VideoDeletion> findByNextAttemptAtLessThanEqual(Date now, Pageable pageable);
+}
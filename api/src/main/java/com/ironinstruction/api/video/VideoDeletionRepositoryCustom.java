@@ -0,0 +1,8 @@
+package com.ironinstruction.api.video;
+
+import java.util.Collection;
+
+public interface VideoDeletionRepositoryCustom {
+    // writes the next attempt of each deletion that is still queued; one cancelled meanwhile stays gone
+    void rescheduleAll(Collection<VideoDeletion> deletions);
+}
@@ -0,0 +1,34 @@
+package com.ironinstruction.api.video;
+
+import java.util.Collection;
+
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class VideoDeletionRepositoryCustomImpl implements VideoDeletionRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    public VideoDeletionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void rescheduleAll(Collection<VideoDeletion> deletions) {
+        if (deletions.isEmpty()) {
+            return;
+        }
+
+        // updateOne never upserts, and matching queuedAt leaves a key that was cancelled and queued again alone
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VideoDeletion.class);
+        for (VideoDeletion deletion : deletions) {
+            operations.updateOne(
+                new Query(Criteria.where("_id").is(deletion.getKey()).and("queuedAt").is(deletion.getQueuedAt())),
+                new Update().set("attempts", deletion.getAttempts()).set("nextAttemptAt", deletion.getNextAttemptAt())
+            );
+        }
+        operations.execute();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ironinstruction.api.video;
+
+import java.util.Arrays;
+
+// the video keys a collection run found in the programs, kept as a sorted array of 64 bit hashes,
+// 8 bytes a key instead of a String and a hash set entry each
+// two keys with the same hash only keep an orphaned video around, a referenced one is never missed
+public class VideoKeySet {
+    private long[] hashes = new long[1024];
+    private int size = 0;
+    private boolean sorted = true;
+
+    // FNV-1a over the key's chars
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public void add(String key) {
+        if (this.size == this.hashes.length) {
+            this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+        }
+        this.hashes[this.size++] = hash(key);
+        this.sorted = false;
+    }
+
+    // sorts and drops duplicates once after the adds, keys shared by copies of a program are stored once
+    private void sort() {
+        Arrays.sort(this.hashes, 0, this.size);
+        int unique = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (unique == 0 || this.hashes[unique - 1] != this.hashes[i]) {
+                this.hashes[unique++] = this.hashes[i];
+            }
+        }
+        this.size = unique;
+        this.sorted = true;
+    }
+
+    public boolean mightContain(String key) {
+        if (!this.sorted) {
+            sort();
+        }
+        return Arrays.binarySearch(this.hashes, 0, this.size, hash(key)) >= 0;
+    }
+
+    // distinct keys, after the first lookup
+    public int size() {
+        if (!this.sorted) {
+            sort();
+        }
+        return this.size;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ironinstruction.api.video;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+
+// where lift videos live, clients never send video through the api: they get signed, expiring urls
+// and talk to the storage directly, S3 through AwsS3Manager or the api's own LocalVideoController
+// for an install that keeps videos on disk
+// a failure of the storage itself surfaces as a runtime exception
+public interface VideoStorage {
+    String newPresignedGetUrl(String key);
+
+    String newPresignedPutUrl(String key);
+
+    // up to 1000 keys at a time, returns the keys that couldn't be deleted, missing keys count as deleted
+    List<String> deleteObjects(Collection<String> keys);
+
+    String createMultipartUpload(String key);
+
+    String newPresignedUploadPartUrl(String key, String uploadId, int partNumber);
+
+    // part number -> ETag returned by the part's upload, the upload must have been started for the key
+    void completeMultipartUpload(String key, String uploadId, Map<Integer, String> eTags) throws ResourceNotFound, InvalidRequest;
+
+    void abortMultipartUpload(String key, String uploadId) throws ResourceNotFound;
+
+    // uploads started before the given time that were neither completed nor aborted
+    List<PendingVideoUpload> listMultipartUploads(Instant initiatedBefore);
+
+    // up to limit stored videos in key order after startAfter, null starts at the first key,
+    // a page shorter than the limit is the last one
+    List<StoredVideo> listVideos(String startAfter, int limit);
+}
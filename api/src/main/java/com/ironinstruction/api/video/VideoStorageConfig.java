@@ -0,0 +1,53 @@
+package com.ironinstruction.api.video;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+
+import com.ironinstruction.api.security.SecurityConstants;
+import com.ironinstruction.api.utils.AwsS3Manager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// ironinstruction.video-storage.type picks where videos are kept, s3 unless it is set to local
+@Configuration
+public class VideoStorageConfig {
+    // an endpoint points the client at an S3 compatible server instead of AWS
+    @Bean
+    @ConditionalOnProperty(name = "ironinstruction.video-storage.type", havingValue = "s3", matchIfMissing = true)
+    public AwsS3Manager s3VideoStorage(
+        @Value("${ironinstruction.s3.bucket:" + SecurityConstants.S3_BUCKET_NAME + "}") String bucketName,
+        @Value("${ironinstruction.s3.endpoint:}") String endpoint
+    ) {
+        return endpoint.isEmpty() ? new AwsS3Manager(bucketName) : new AwsS3Manager(bucketName, URI.create(endpoint));
+    }
+
+    // without a configured secret the links stop working on a restart and only work on the instance that signed them
+    @Bean
+    @ConditionalOnProperty(name = "ironinstruction.video-storage.type", havingValue = "local")
+    public LocalVideoStorage localVideoStorage(
+        @Value("${ironinstruction.video-storage.local.root:videos}") String root,
+        @Value("${ironinstruction.video-storage.local.base-url:}") String baseUrl,
+        @Value("${ironinstruction.video-storage.local.secret:}") String secret,
+        ApplicationContext context
+    ) {
+        // the signed links are served by LocalVideoController, which the reactive profile doesn't have,
+        // so every link would 404 instead of the app refusing to start
+        if (context instanceof ReactiveWebApplicationContext) {
+            throw new IllegalStateException("local video storage needs the servlet stack, use ironinstruction.video-storage.type=s3 with the reactive profile");
+        }
+
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+        return new LocalVideoStorage(Path.of(root), baseUrl, key);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ironinstruction.api;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.ironinstruction.api.security.SecurityConstants;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// what the filter spends on the access token of one request: building a verifier for every request as before,
+// reusing the verifier, and the verified token cache
+// 1000 users each sending several requests within their token's lifetime, so the cache sees repeats
+// run with mvn test -P benchmark
+@Tag("benchmark")
+public class AccessTokenVerificationBenchmark {
+    private static final int USERS = 1000;
+    private static final int ROUNDS = 200;
+
+    private final List<String> tokens = new ArrayList<String>();
+
+    private static String[] uncachedVerify(String token) {
+        return JWT.require(Algorithm.HMAC512(SecurityConstants.ACCESS_SECRET.getBytes())).build().verify(token).getSubject().split(";");
+    }
+
+    private static String[] reusedVerifierVerify(String token) {
+        return TokenManager.verifyJWT(token, TokenType.ACCESS).getSubject().split(";");
+    }
+
+    // ns per request over every token and round, after one warm up pass
+    private long measure(Consumer<String> verify) {
+        for (int r = 0; r < ROUNDS / 4; r++) {
+            tokens.forEach(verify);
+        }
+
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            tokens.forEach(verify);
+        }
+        return (System.nanoTime() - start) / ((long) ROUNDS * USERS);
+    }
+
+    @Test
+    public void benchmarkAccessTokenVerification() {
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(TokenManager.generateJWT("user" + i + "@verify.benchmark;" + UserType.ATHLETE, TokenType.ACCESS));
+        }
+
+        long uncached = measure(AccessTokenVerificationBenchmark::uncachedVerify);
+        long reusedVerifier = measure(AccessTokenVerificationBenchmark::reusedVerifierVerify);
+        long cached = measure(TokenManager::verifyAccessToken);
+
+        System.out.println(getClass().getSimpleName() + ": verifier per request " + uncached + " ns, shared verifier "
+            + reusedVerifier + " ns, verified token cache " + cached + " ns per request");
+
+        assertTrue(cached < uncached);
+    }
+}
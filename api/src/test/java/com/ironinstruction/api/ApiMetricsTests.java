@@ -0,0 +1,49 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.ProgramAccessIndex;
+import com.ironinstruction.api.program.ProgramCache;
+import com.ironinstruction.api.program.ProgramResponseCache;
+import com.ironinstruction.api.program.ProgramWriteStats;
+import com.ironinstruction.api.program.SetResultBuffer;
+import com.ironinstruction.api.utils.ApiMetrics;
+import com.ironinstruction.api.video.OrphanedVideoCollector;
+import com.ironinstruction.api.video.PresignedUrlCache;
+import com.ironinstruction.api.video.VideoDeletionQueue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApiMetricsTests {
+    @Test
+    public void testCacheMeters() {
+        PresignedUrlCache presignedUrlCache = new PresignedUrlCache(true, 10, 300);
+        ProgramWriteStats writeStats = new ProgramWriteStats();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new ApiMetrics(
+            new ProgramCache(true, 10, 1000, 60),
+            new ProgramResponseCache(new ObjectMapper(), true, 1024),
+            new ProgramAccessIndex(60, 1000),
+            writeStats,
+            new SetResultBuffer(null, null, false, 500),
+            presignedUrlCache,
+            new VideoDeletionQueue(null, null),
+            new OrphanedVideoCollector(null, null, false, true, 72, 1000, 20, 1000)
+        ).bindTo(registry);
+
+        presignedUrlCache.get("set.mp4", (key) -> "https://bucket/" + key);
+        presignedUrlCache.get("set.mp4", (key) -> "https://bucket/" + key);
+
+        // the meters read the live counters, nothing has to be pushed to them
+        assertTrue(registry.get("cache.gets").tags("cache", "presignedUrls", "result", "hit").functionCounter().count() == 1);
+        assertTrue(registry.get("cache.gets").tags("cache", "presignedUrls", "result", "miss").functionCounter().count() == 1);
+        assertTrue(registry.get("cache.size").tags("cache", "presignedUrls").gauge().value() == 1);
+        assertTrue(registry.get("cache.gets").tags("cache", "accessTokens", "result", "hit").functionCounter() != null);
+        assertTrue(registry.get("ironinstruction.program.writes").functionCounter().count() == 0);
+        assertTrue(registry.get("ironinstruction.set.results.coalescing.ratio").gauge().value() == 0);
+    }
+}
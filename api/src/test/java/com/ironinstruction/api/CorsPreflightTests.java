@@ -0,0 +1,50 @@
+package com.ironinstruction.api;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CorsPreflightTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testProgramHeadersArePreflighted() throws Exception {
+        String setPath = "/api/v1/programs/" + new ObjectId() + "/weeks/" + new ObjectId() + "/days/" + new ObjectId() + "/exercises/" + new ObjectId() + "/sets/" + new ObjectId();
+
+        // a patch response against the version the client holds
+        mockMvc.perform(options(setPath)
+            .header(HttpHeaders.ORIGIN, "https://app.example.com")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "content-type, x-response-mode, x-base-version"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "https://app.example.com"))
+            .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("x-response-mode")))
+            .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("x-base-version")));
+
+        // revalidating a kept program
+        mockMvc.perform(options("/api/v1/programs/" + new ObjectId())
+            .header(HttpHeaders.ORIGIN, "https://app.example.com")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "if-none-match"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-none-match")));
+
+        // a header nobody allowed is still refused
+        mockMvc.perform(options(setPath)
+            .header(HttpHeaders.ORIGIN, "https://app.example.com")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "x-unknown"))
+            .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,8 @@
+package com.ironinstruction.api;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// same load as ProgramLoadBenchmark with the thread and connection pools of the high-concurrency profile
+@ActiveProfiles("high-concurrency")
+public class HighConcurrencyLoadBenchmark extends ProgramLoadBenchmark {
+}
@@ -0,0 +1,170 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.program.ProgramAccessIndex;
+import com.ironinstruction.api.program.ProgramCache;
+import com.ironinstruction.api.program.ProgramOwnership;
+import com.ironinstruction.api.program.ProgramReadService;
+import com.ironinstruction.api.program.ProgramResponseCache;
+import com.ironinstruction.api.program.ReactiveProgramRepository;
+import com.ironinstruction.api.program.ReactiveProgramStore;
+import com.ironinstruction.api.program.ReactiveSetResultRepository;
+import com.ironinstruction.api.program.SetResultBuffer;
+import com.ironinstruction.api.security.CustomServerAuthenticationFailureHandler;
+import com.ironinstruction.api.security.JWTAuthorizationWebFilter;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import reactor.core.publisher.Mono;
+
+public class JWTAuthorizationWebFilterTests {
+    private static final String COACH_EMAIL = "coach@webfilter.test";
+    private static final String ATHLETE_EMAIL = "athlete@webfilter.test";
+
+    private final String programId = new ObjectId().toHexString();
+    private final AtomicInteger ownershipLookups = new AtomicInteger();
+    // the program's athlete as stored, another instance may reassign it
+    private final AtomicReference<String> storedAthlete = new AtomicReference<String>(ATHLETE_EMAIL);
+    private final JWTAuthorizationWebFilter filter;
+
+    // the email the chain saw, null if the request was stopped
+    private final AtomicReference<String> passedAs = new AtomicReference<String>();
+
+    public JWTAuthorizationWebFilterTests() {
+        ReactiveProgramRepository programRepository = (ReactiveProgramRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ReactiveProgramRepository.class }, (proxy, method, args) -> {
+            if (method.getName().equals("findOwnership")) {
+                ownershipLookups.incrementAndGet();
+                return args[0].equals(programId) ? Mono.just(new ProgramOwnership(programId, COACH_EMAIL, storedAthlete.get())) : Mono.error(new ResourceNotFound((String) args[0]));
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        ProgramReadService programReads = new ProgramReadService(
+            new ReactiveProgramStore(programRepository, (ReactiveSetResultRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ReactiveSetResultRepository.class }, (proxy, method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            })),
+            new ProgramCache(true, 10, 1000, 60),
+            new ProgramAccessIndex(60, 1000),
+            new ProgramResponseCache(new ObjectMapper(), true, 1024),
+            new SetResultBuffer(null, null, false, 500)
+        );
+        filter = new JWTAuthorizationWebFilter(programReads, new CustomServerAuthenticationFailureHandler());
+    }
+
+    private static String token(String email, UserType userType) {
+        return TokenManager.generateJWT(email + ";" + userType, TokenType.ACCESS);
+    }
+
+    private MockServerWebExchange filter(HttpMethod method, String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.method(method, path);
+        if (token != null) {
+            request.cookie(new HttpCookie("accessToken", token));
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        passedAs.set(null);
+        filter.filter(exchange, (filtered) -> ReactiveSecurityContextHolder.getContext()
+            .doOnNext((context) -> passedAs.set((String) context.getAuthentication().getPrincipal()))
+            .then()).block();
+        return exchange;
+    }
+
+    private static boolean denied(MockServerWebExchange exchange, String message) {
+        String body = ((MockServerHttpResponse) exchange.getResponse()).getBodyAsString().block();
+        return exchange.getResponse().getStatusCode() == HttpStatus.FORBIDDEN && body.contains(message);
+    }
+
+    @Test
+    public void testPublicRoutesNeedNoToken() {
+        MockServerWebExchange exchange = filter(HttpMethod.POST, "/api/v1/users", null);
+        assertTrue(exchange.getResponse().getStatusCode() == null);
+        assertTrue(passedAs.get() == null);
+
+        // and neither does anything outside the api
+        assertTrue(filter(HttpMethod.GET, "/actuator/health", null).getResponse().getStatusCode() == null);
+    }
+
+    @Test
+    public void testMissingTokenIsDenied() {
+        assertTrue(denied(filter(HttpMethod.GET, "/api/v1/users/me", null), "No token supplied"));
+        assertTrue(passedAs.get() == null);
+        assertTrue(denied(filter(HttpMethod.GET, "/api/v1/programs/" + programId, ""), "No token supplied"));
+    }
+
+    @Test
+    public void testAccountRoutes() {
+        filter(HttpMethod.GET, "/api/v1/users/me", token(ATHLETE_EMAIL, UserType.ATHLETE));
+        assertTrue(ATHLETE_EMAIL.equals(passedAs.get()));
+
+        assertTrue(denied(filter(HttpMethod.POST, "/api/v1/programs", token(ATHLETE_EMAIL, UserType.ATHLETE)), ""));
+        assertTrue(passedAs.get() == null);
+        filter(HttpMethod.POST, "/api/v1/programs", token(COACH_EMAIL, UserType.COACH));
+        assertTrue(COACH_EMAIL.equals(passedAs.get()));
+
+        assertTrue(denied(filter(HttpMethod.GET, "/api/v1/users/someone@webfilter.test", token(ATHLETE_EMAIL, UserType.ATHLETE)), "Invalid resource requested"));
+        assertTrue(ownershipLookups.get() == 0);
+    }
+
+    @Test
+    public void testProgramRoutesCheckTheRole() {
+        String program = "/api/v1/programs/" + programId;
+        filter(HttpMethod.GET, program, token(ATHLETE_EMAIL, UserType.ATHLETE));
+        assertTrue(ATHLETE_EMAIL.equals(passedAs.get()));
+        String week = program + "/weeks/" + new ObjectId().toHexString();
+        filter(HttpMethod.DELETE, week, token(COACH_EMAIL, UserType.COACH));
+        assertTrue(COACH_EMAIL.equals(passedAs.get()));
+
+        // the athlete can't change the program and strangers can't read it
+        assertTrue(denied(filter(HttpMethod.DELETE, week, token(ATHLETE_EMAIL, UserType.ATHLETE)), "delete"));
+        assertTrue(denied(filter(HttpMethod.GET, program, token("stranger@webfilter.test", UserType.COACH)), ""));
+        assertTrue(passedAs.get() == null);
+
+        // reads were answered from the ownership indexed by the first one, the writes looked it up again
+        assertTrue(ownershipLookups.get() == 3);
+    }
+
+    @Test
+    public void testWritesSeeOwnershipChangedElsewhere() {
+        String program = "/api/v1/programs/" + programId;
+        String notes = program + "/weeks/" + new ObjectId().toHexString() + "/notes";
+        filter(HttpMethod.GET, program, token(ATHLETE_EMAIL, UserType.ATHLETE));
+        assertTrue(ATHLETE_EMAIL.equals(passedAs.get()));
+
+        // reassigned through another instance, this one's index still has the previous athlete
+        storedAthlete.set("other@webfilter.test");
+        filter(HttpMethod.GET, program, token(ATHLETE_EMAIL, UserType.ATHLETE));
+        assertTrue(ATHLETE_EMAIL.equals(passedAs.get()));
+
+        // but the previous athlete can't write to it any more
+        assertTrue(denied(filter(HttpMethod.PATCH, notes, token(ATHLETE_EMAIL, UserType.ATHLETE)), ""));
+        assertTrue(passedAs.get() == null);
+        filter(HttpMethod.PATCH, notes, token("other@webfilter.test", UserType.ATHLETE));
+        assertTrue("other@webfilter.test".equals(passedAs.get()));
+
+        // and the write refreshed the index for the reads that follow
+        assertTrue(denied(filter(HttpMethod.GET, program, token(ATHLETE_EMAIL, UserType.ATHLETE)), ""));
+    }
+
+    @Test
+    public void testMissingProgramIsDenied() {
+        assertTrue(denied(filter(HttpMethod.GET, "/api/v1/programs/" + new ObjectId().toHexString(), token(COACH_EMAIL, UserType.COACH)), "Invalid resource requested"));
+        assertTrue(passedAs.get() == null);
+    }
+}
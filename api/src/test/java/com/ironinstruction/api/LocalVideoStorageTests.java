@@ -0,0 +1,131 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.video.LocalVideoController;
+import com.ironinstruction.api.video.LocalVideoStorage;
+import com.ironinstruction.api.video.VideoStorageConfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class LocalVideoStorageTests {
+    @TempDir
+    Path root;
+
+    private LocalVideoStorage storage() {
+        return new LocalVideoStorage(root, "", "test secret".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteArrayInputStream content(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSignedUrls() {
+        LocalVideoStorage storage = storage();
+        String url = storage.newPresignedGetUrl("video.mp4");
+        assertTrue(url.startsWith("/api/v1/videos/video.mp4?expires="));
+
+        long expires = Long.parseLong(url.substring(url.indexOf("expires=") + 8, url.indexOf("&")));
+        String signature = url.substring(url.indexOf("signature=") + 10);
+        assertTrue(storage.verify("GET", "video.mp4", expires, signature));
+        // a get link doesn't allow an upload, another video or a later expiry
+        assertTrue(!storage.verify("PUT", "video.mp4", expires, signature));
+        assertTrue(!storage.verify("GET", "other.mp4", expires, signature));
+        assertTrue(!storage.verify("GET", "video.mp4", expires + 60, signature));
+        // and another instance's secret doesn't sign the same links
+        LocalVideoStorage other = new LocalVideoStorage(root, "", "other secret".getBytes(StandardCharsets.UTF_8));
+        assertTrue(!other.verify("GET", "video.mp4", expires, signature));
+        assertTrue(!storage.verify("GET", "video.mp4", Instant.now().getEpochSecond() - 1, signature));
+
+        assertThrows(IllegalArgumentException.class, () -> storage.newPresignedGetUrl("../secret"));
+    }
+
+    @Test
+    public void testWriteAndDelete() throws Exception {
+        LocalVideoStorage storage = storage();
+        storage.write("video.mp4", content("first"));
+        storage.write("video.mp4", content("second"));
+        assertTrue(Files.readString(storage.find("video.mp4")).equals("second"));
+        assertThrows(ResourceNotFound.class, () -> storage.find("missing.mp4"));
+        assertThrows(ResourceNotFound.class, () -> storage.find("../video.mp4"));
+
+        assertTrue(storage.deleteObjects(List.of("video.mp4", "missing.mp4")).isEmpty());
+        assertThrows(ResourceNotFound.class, () -> storage.find("video.mp4"));
+    }
+
+    @Test
+    public void testMultipartUpload() throws Exception {
+        LocalVideoStorage storage = storage();
+        String uploadId = storage.createMultipartUpload("video.mp4");
+        assertTrue(storage.newPresignedUploadPartUrl("video.mp4", uploadId, 2).startsWith("/api/v1/videos/video.mp4/uploads/" + uploadId + "/2?"));
+
+        String first = storage.writePart("video.mp4", uploadId, 1, content("first "));
+        String second = storage.writePart("video.mp4", uploadId, 2, content("second"));
+        assertThrows(ResourceNotFound.class, () -> storage.writePart("other.mp4", uploadId, 1, content("other")));
+
+        // a part that was uploaded again since the client read its etag isn't joined
+        assertThrows(InvalidRequest.class, () -> storage.completeMultipartUpload("video.mp4", uploadId, Map.of(1, second, 2, second)));
+        assertThrows(InvalidRequest.class, () -> storage.completeMultipartUpload("video.mp4", uploadId, Map.of(1, first, 3, second)));
+
+        storage.completeMultipartUpload("video.mp4", uploadId, Map.of(2, second, 1, first));
+        assertTrue(Files.readString(storage.find("video.mp4")).equals("first second"));
+        assertThrows(ResourceNotFound.class, () -> storage.completeMultipartUpload("video.mp4", uploadId, Map.of(1, first)));
+    }
+
+    @Test
+    public void testListAndAbortUploads() throws Exception {
+        LocalVideoStorage storage = storage();
+        String uploadId = storage.createMultipartUpload("video.mp4");
+        storage.writePart("video.mp4", uploadId, 1, content("part"));
+
+        assertTrue(storage.listMultipartUploads(Instant.now().minusSeconds(60)).isEmpty());
+        assertTrue(storage.listMultipartUploads(Instant.now().plusSeconds(60)).get(0).getUploadId().equals(uploadId));
+
+        assertThrows(ResourceNotFound.class, () -> storage.abortMultipartUpload("other.mp4", uploadId));
+        storage.abortMultipartUpload("video.mp4", uploadId);
+        assertTrue(storage.listMultipartUploads(Instant.now().plusSeconds(60)).isEmpty());
+        assertThrows(ResourceNotFound.class, () -> storage.abortMultipartUpload("video.mp4", uploadId));
+    }
+
+    @Test
+    public void testByteRange() {
+        assertNull(LocalVideoController.byteRange(null, 100));
+        assertNull(LocalVideoController.byteRange("bytes=0-9,20-29", 100));
+        assertNull(LocalVideoController.byteRange("bytes=50-10", 100));
+        assertArrayEquals(new long[] { 0, 9 }, LocalVideoController.byteRange("bytes=0-9", 100));
+        assertArrayEquals(new long[] { 90, 99 }, LocalVideoController.byteRange("bytes=90-200", 100));
+        assertArrayEquals(new long[] { 50, 99 }, LocalVideoController.byteRange("bytes=50-", 100));
+        assertArrayEquals(new long[] { 80, 99 }, LocalVideoController.byteRange("bytes=-20", 100));
+        assertArrayEquals(new long[] { 0, 99 }, LocalVideoController.byteRange("bytes=-200", 100));
+        // past the end can't be satisfied
+        assertTrue(LocalVideoController.byteRange("bytes=100-", 100).length == 0);
+        assertTrue(LocalVideoController.byteRange("bytes=-0", 100).length == 0);
+    }
+
+    @Test
+    public void testNeedsTheServletStack() {
+        String[] properties = { "ironinstruction.video-storage.type=local", "ironinstruction.video-storage.local.root=" + root, "ironinstruction.video-storage.local.secret=test secret" };
+        new WebApplicationContextRunner().withUserConfiguration(VideoStorageConfig.class).withPropertyValues(properties)
+            .run((context) -> assertTrue(context.getStartupFailure() == null && context.containsBean("localVideoStorage")));
+        // the reactive profile has no LocalVideoController to serve the signed links
+        new ReactiveWebApplicationContextRunner().withUserConfiguration(VideoStorageConfig.class).withPropertyValues(properties)
+            .run((context) -> assertTrue(context.getStartupFailure() != null));
+    }
+}
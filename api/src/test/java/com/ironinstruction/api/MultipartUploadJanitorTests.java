@@ -0,0 +1,68 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.utils.AwsS3Manager;
+import com.ironinstruction.api.video.MultipartUploadJanitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsRequest;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
+import software.amazon.awssdk.services.s3.model.MultipartUpload;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+public class MultipartUploadJanitorTests {
+    private final List<String> abortedUploads = new ArrayList<String>();
+
+    private static MultipartUpload upload(String uploadId, Instant initiated) {
+        return MultipartUpload.builder().key(uploadId + ".mp4").uploadId(uploadId).initiated(initiated).build();
+    }
+
+    @Test
+    public void testAbortsStaleUploadsOnEveryPage() {
+        Instant now = Instant.now();
+        // two pages of uploads, S3 lists them by key
+        List<MultipartUpload> firstPage = List.of(upload("a", now.minus(2, ChronoUnit.DAYS)), upload("b", now.minus(1, ChronoUnit.HOURS)));
+        List<MultipartUpload> secondPage = List.of(upload("c", now.minus(25, ChronoUnit.HOURS)), upload("gone", now.minus(3, ChronoUnit.DAYS)));
+
+        S3Client client = (S3Client) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { S3Client.class }, (proxy, method, args) -> {
+            if (method.getName().equals("listMultipartUploads")) {
+                boolean first = ((ListMultipartUploadsRequest) args[0]).keyMarker() == null;
+                return ListMultipartUploadsResponse.builder()
+                    .uploads(first ? firstPage : secondPage)
+                    .isTruncated(first)
+                    .nextKeyMarker(first ? "b.mp4" : null)
+                    .nextUploadIdMarker(first ? "b" : null)
+                    .build();
+            } else if (method.getName().equals("abortMultipartUpload")) {
+                String uploadId = ((AbortMultipartUploadRequest) args[0]).uploadId();
+                // completed or aborted by someone else in the meantime
+                if (uploadId.equals("gone")) {
+                    throw NoSuchUploadException.builder().message("gone").build();
+                }
+                abortedUploads.add(uploadId);
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        S3Presigner presigner = (S3Presigner) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { S3Presigner.class }, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        MultipartUploadJanitor janitor = new MultipartUploadJanitor(new AwsS3Manager(client, presigner, "bucket"), 24);
+        janitor.abortStaleUploads();
+
+        assertTrue(abortedUploads.equals(List.of("a", "c")));
+        assertTrue(janitor.getAborted() == 2 && janitor.getFailures() == 1);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+import com.ironinstruction.api.requests.CompleteVideoUploadRequest;
+import com.ironinstruction.api.requests.UploadedPart;
+import com.ironinstruction.api.responses.VideoLinkResponse;
+import com.ironinstruction.api.responses.VideoUploadResponse;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+import com.ironinstruction.api.video.MultipartUploadJanitor;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+
+// runs the multipart flow against an S3 compatible server, for example
+//   docker run -p 9000:9000 minio/minio server /data  and a bucket made with  mc mb local/iron-instruction
+//   S3_ENDPOINT=http://localhost:9000 AWS_REGION=us-east-1 AWS_ACCESS_KEY_ID=minioadmin AWS_SECRET_ACCESS_KEY=minioadmin mvn test
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "S3_ENDPOINT", matches = ".+")
+public class MultipartUploadTests {
+    private static final String COACH_EMAIL = "coach@multipart.test";
+    private static final String ATHLETE_EMAIL = "athlete@multipart.test";
+    // the smallest part S3 accepts that isn't the last one
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private MultipartUploadJanitor janitor;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Cookie coachAccess = new Cookie("accessToken", TokenManager.generateJWT(COACH_EMAIL + ";" + UserType.COACH, TokenType.ACCESS));
+    private final Cookie athleteAccess = new Cookie("accessToken", TokenManager.generateJWT(ATHLETE_EMAIL + ";" + UserType.ATHLETE, TokenType.ACCESS));
+
+    private Program program;
+    private String exercisePath;
+    private String setPath;
+    private Exercise exercise;
+
+    @BeforeAll
+    public void createProgram() throws Exception {
+        program = programService.createProgram(COACH_EMAIL, "uploads", "");
+        programService.assignProgram(program.getId(), ATHLETE_EMAIL);
+        Week week = programService.addWeek(program.getId(), "week 1");
+        Day day = programService.addDay(program.getId(), week.getId(), "day 1");
+        exercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Squat", "");
+        Set set = programService.addSet(program.getId(), week.getId(), day.getId(), exercise.getId(), 5, 80, PercentageOptions.Squat, true);
+        exercisePath = "/api/v1/programs/" + program.getId() + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId();
+        setPath = exercisePath + "/sets/" + set.getId();
+    }
+
+    private VideoUploadResponse start(String nodePath, Cookie access) throws Exception {
+        return objectMapper.readValue(mockMvc.perform(post(nodePath + "/video/multipart")
+            .cookie(access))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), VideoUploadResponse.class);
+    }
+
+    private String putPart(String url, byte[] content) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url)).PUT(HttpRequest.BodyPublishers.ofByteArray(content)).build(), HttpResponse.BodyHandlers.discarding());
+        assertTrue(response.statusCode() == 200);
+        return response.headers().firstValue("ETag").get();
+    }
+
+    @Test
+    public void testUploadInParts() throws Exception {
+        VideoUploadResponse upload = start(exercisePath, coachAccess);
+        assertTrue(upload.getKey().equals(exercise.getId() + ".mp4") && upload.getMaxParts() == 12);
+
+        Map<Integer, String> partLinks = objectMapper.readValue(mockMvc.perform(get(exercisePath + "/video/multipart/" + upload.getUploadId())
+            .param("partNumbers", "1", "2")
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), new TypeReference<Map<Integer, String>>(){});
+
+        byte[] first = new byte[MIN_PART_SIZE];
+        Arrays.fill(first, (byte) 1);
+        byte[] last = "end of the lift".getBytes();
+        List<UploadedPart> parts = new ArrayList<UploadedPart>();
+        parts.add(new UploadedPart(2, putPart(partLinks.get(2), last)));
+        // a failed part is sent again on its own, the latest upload of a part number is the one kept
+        putPart(partLinks.get(1), new byte[MIN_PART_SIZE]);
+        parts.add(new UploadedPart(1, putPart(partLinks.get(1), first)));
+
+        VideoLinkResponse download = objectMapper.readValue(mockMvc.perform(post(exercisePath + "/video/multipart/" + upload.getUploadId())
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new CompleteVideoUploadRequest(parts)))
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), VideoLinkResponse.class);
+
+        byte[] video = client.send(HttpRequest.newBuilder(URI.create(download.getUrl())).GET().build(), HttpResponse.BodyHandlers.ofByteArray()).body();
+        assertTrue(video.length == first.length + last.length && video[0] == 1);
+        assertTrue(programService.findById(program.getId()).getWeeks().get(0).getDays().get(0).getExercises().get(0).getVideoRef().equals(upload.getKey()));
+
+        // part numbers past the largest video are refused
+        mockMvc.perform(get(exercisePath + "/video/multipart/" + upload.getUploadId())
+            .param("partNumbers", "13")
+            .cookie(coachAccess))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testAbortAndJanitor() throws Exception {
+        // athletes start and abort their own set uploads
+        VideoUploadResponse aborted = start(setPath, athleteAccess);
+        mockMvc.perform(delete(setPath + "/video/multipart/" + aborted.getUploadId())
+            .cookie(athleteAccess))
+            .andExpect(status().isNoContent());
+
+        // and can't start one for the coach's exercise
+        mockMvc.perform(post(exercisePath + "/video/multipart")
+            .cookie(athleteAccess))
+            .andExpect(status().isForbidden());
+
+        VideoUploadResponse abandoned = start(setPath, athleteAccess);
+        janitor.abortUploadsInitiatedBefore(Instant.now().plusSeconds(60));
+        assertTrue(janitor.getAborted() >= 1);
+
+        List<UploadedPart> parts = List.of(new UploadedPart(1, "\"etag\""));
+        mockMvc.perform(post(setPath + "/video/multipart/" + abandoned.getUploadId())
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new CompleteVideoUploadRequest(parts)))
+            .cookie(athleteAccess))
+            .andExpect(status().isNotFound());
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
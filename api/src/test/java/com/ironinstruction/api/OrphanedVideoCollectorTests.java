@@ -0,0 +1,129 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.video.LocalVideoStorage;
+import com.ironinstruction.api.video.OrphanedVideoCollector;
+import com.ironinstruction.api.video.VideoKeySet;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class OrphanedVideoCollectorTests {
+    @TempDir
+    Path root;
+
+    // videoRefs the programs hold, and the ones only the second mark of a run finds
+    private final List<String> marked = new ArrayList<String>();
+    private final List<String> referencedLater = new ArrayList<String>();
+    private int marks = 0;
+
+    @SuppressWarnings("unchecked")
+    private ProgramRepository programRepository() {
+        return (ProgramRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ProgramRepository.class }, (proxy, method, args) -> {
+            if (method.getName().equals("forEachVideoRef")) {
+                marked.forEach((Consumer<String>) args[0]);
+                if (marks++ % 2 == 1) {
+                    referencedLater.forEach((Consumer<String>) args[0]);
+                }
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private String video(LocalVideoStorage storage, String key, Instant lastModified) throws Exception {
+        storage.write(key, new ByteArrayInputStream(key.getBytes(StandardCharsets.UTF_8)));
+        Files.setLastModifiedTime(storage.find(key), FileTime.from(lastModified));
+        return key;
+    }
+
+    private static String key() {
+        return new ObjectId().toHexString() + ".mp4";
+    }
+
+    private boolean stored(LocalVideoStorage storage, String key) {
+        return Files.exists(root.resolve(key));
+    }
+
+    @Test
+    public void testDeletesOnlyOldUnreferencedVideos() throws Exception {
+        LocalVideoStorage storage = new LocalVideoStorage(root, "", new byte[32]);
+        Instant old = Instant.now().minus(10, ChronoUnit.DAYS);
+        String referenced = video(storage, key(), old);
+        String orphan = video(storage, key(), old);
+        String recent = video(storage, key(), Instant.now().minus(1, ChronoUnit.HOURS));
+        String copied = video(storage, key(), old);
+        String foreign = video(storage, "logo.mp4", old);
+        marked.add(referenced);
+        referencedLater.add(copied);
+
+        OrphanedVideoCollector collector = new OrphanedVideoCollector(programRepository(), storage, true, false, 72, 1000, 20, 0);
+        collector.collect();
+
+        assertTrue(!stored(storage, orphan));
+        assertTrue(stored(storage, referenced) && stored(storage, recent) && stored(storage, copied) && stored(storage, foreign));
+        assertTrue(collector.getScanned() == 5 && collector.getOrphaned() == 1 && collector.getDeleted() == 1);
+        assertTrue(collector.getReferencedKeys() == 1 && marks == 2);
+    }
+
+    @Test
+    public void testDryRunDeletesNothing() throws Exception {
+        LocalVideoStorage storage = new LocalVideoStorage(root, "", new byte[32]);
+        String orphan = video(storage, key(), Instant.now().minus(10, ChronoUnit.DAYS));
+
+        OrphanedVideoCollector collector = new OrphanedVideoCollector(programRepository(), storage, true, true, 72, 1000, 20, 0);
+        collector.collect();
+
+        assertTrue(stored(storage, orphan));
+        assertTrue(collector.getOrphaned() == 1 && collector.getDeleted() == 0);
+    }
+
+    @Test
+    public void testContinuesWhereTheLastRunStopped() throws Exception {
+        LocalVideoStorage storage = new LocalVideoStorage(root, "", new byte[32]);
+        Instant old = Instant.now().minus(10, ChronoUnit.DAYS);
+        for (int i = 0; i < 5; i++) {
+            video(storage, key(), old);
+        }
+
+        // two pages of two videos a run
+        OrphanedVideoCollector collector = new OrphanedVideoCollector(programRepository(), storage, true, false, 72, 2, 2, 0);
+        collector.collect();
+        assertTrue(collector.getScanned() == 4 && storage.listVideos(null, 10).size() == 1);
+        collector.collect();
+        assertTrue(collector.getScanned() == 5 && storage.listVideos(null, 10).isEmpty());
+        // one second mark a run, not one a page
+        assertTrue(collector.getRuns() == 2 && marks == 4);
+    }
+
+    @Test
+    public void testVideoKeySet() {
+        VideoKeySet keys = new VideoKeySet();
+        List<String> added = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            added.add(key());
+            keys.add(added.get(i));
+        }
+        // copies of a program share their template's keys
+        keys.add(added.get(0));
+
+        assertTrue(keys.size() == 5000);
+        assertTrue(added.stream().allMatch(keys::mightContain));
+        assertTrue(!keys.mightContain(key()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.video.PresignedUrlCache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PresignedUrlCacheTests {
+    private final AtomicInteger signatures = new AtomicInteger();
+
+    private String presign(String key) {
+        return "https://bucket/" + key + "?signature=" + signatures.incrementAndGet();
+    }
+
+    @Test
+    public void testHitsAndInvalidation() {
+        PresignedUrlCache cache = new PresignedUrlCache(true, 10, 300);
+
+        String first = cache.get("set.mp4", this::presign);
+        assertTrue(first.equals(cache.get("set.mp4", this::presign)));
+        assertTrue(signatures.get() == 1 && cache.getHitRate() == 0.5);
+
+        // a new upload under the key signs a fresh url
+        cache.invalidate("set.mp4");
+        assertTrue(!first.equals(cache.get("set.mp4", this::presign)));
+        assertTrue(signatures.get() == 2);
+    }
+
+    @Test
+    public void testEvictionAndExpiry() throws InterruptedException {
+        PresignedUrlCache cache = new PresignedUrlCache(true, 2, 300);
+        cache.get("a.mp4", this::presign);
+        cache.get("b.mp4", this::presign);
+        cache.get("a.mp4", this::presign);
+        cache.get("c.mp4", this::presign);
+        // b was the least recently used
+        assertTrue(cache.getSize() == 2 && cache.getEvictions() == 1);
+        cache.get("b.mp4", this::presign);
+        assertTrue(signatures.get() == 4);
+
+        // an expired entry is signed again
+        PresignedUrlCache expiring = new PresignedUrlCache(true, 10, 0);
+        expiring.get("a.mp4", this::presign);
+        Thread.sleep(1);
+        expiring.get("a.mp4", this::presign);
+        assertTrue(expiring.getHits() == 0 && signatures.get() == 6);
+
+        PresignedUrlCache disabled = new PresignedUrlCache(false, 10, 300);
+        disabled.get("a.mp4", this::presign);
+        disabled.get("a.mp4", this::presign);
+        assertTrue(disabled.getSize() == 0 && signatures.get() == 8);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.program.ProgramAccessIndex;
+import com.ironinstruction.api.program.ProgramOwnership;
+import com.ironinstruction.api.program.ProgramRole;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProgramAccessIndexTests {
+    @Test
+    public void testRoles() {
+        ProgramAccessIndex index = new ProgramAccessIndex(60, 1000);
+        assertTrue(!index.contains("program"));
+
+        // newly created programs have no athlete yet
+        index.put(new ProgramOwnership("program", "coach@gmail.com", ""));
+        assertTrue(index.contains("program"));
+        assertTrue(index.roleOf("coach@gmail.com", "program") == ProgramRole.COACH);
+        assertTrue(index.roleOf("athlete@gmail.com", "program") == null);
+
+        index.put(new ProgramOwnership("program", "coach@gmail.com", "athlete@gmail.com"));
+        assertTrue(index.roleOf("athlete@gmail.com", "program") == ProgramRole.ATHLETE);
+
+        // reassigning takes access away from the previous athlete
+        index.put(new ProgramOwnership("program", "coach@gmail.com", "other@gmail.com"));
+        assertTrue(index.roleOf("athlete@gmail.com", "program") == null);
+        assertTrue(index.roleOf("other@gmail.com", "program") == ProgramRole.ATHLETE);
+
+        index.remove("program");
+        assertTrue(!index.contains("program"));
+        assertTrue(index.roleOf("coach@gmail.com", "program") == null);
+        assertTrue(index.getSize() == 0);
+    }
+
+    @Test
+    public void testExpiry() {
+        ProgramAccessIndex index = new ProgramAccessIndex(0, 1000);
+        index.put(new ProgramOwnership("program", "coach@gmail.com", null));
+        // expired programs have to be looked up again
+        assertTrue(!index.contains("program"));
+        assertTrue(index.getMisses() == 1);
+    }
+
+    @Test
+    public void testBounded() {
+        ProgramAccessIndex index = new ProgramAccessIndex(60, 100);
+        for (int i = 0; i < 1000; i++) {
+            index.put(new ProgramOwnership("program" + i, "coach" + i + "@gmail.com", "athlete" + i + "@gmail.com"));
+        }
+
+        // programs and the users linked to them stay within the cap, the latest writes are kept
+        assertTrue(index.getSize() <= 100);
+        assertTrue(index.getUserCount() <= 200);
+        assertTrue(index.getEvictions() >= 900);
+        assertTrue(index.contains("program999"));
+        assertTrue(index.roleOf("athlete999@gmail.com", "program999") == ProgramRole.ATHLETE);
+        assertTrue(!index.contains("program0"));
+        assertTrue(index.roleOf("coach0@gmail.com", "program0") == null);
+    }
+
+    @Test
+    public void testExpiredPurgedOnWrite() {
+        ProgramAccessIndex index = new ProgramAccessIndex(0, 10);
+        for (int i = 0; i < 100; i++) {
+            index.put(new ProgramOwnership("program" + i, "coach@gmail.com", "athlete" + i + "@gmail.com"));
+        }
+
+        // every entry is expired as soon as it is written, so the sweeps leave next to nothing behind
+        assertTrue(index.getSize() <= 11);
+        assertTrue(index.getUserCount() <= 12);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+import com.ironinstruction.api.requests.BulkAssignRequest;
+import com.ironinstruction.api.responses.BulkAssignResponse;
+import com.ironinstruction.api.responses.BulkAssignResult;
+import com.ironinstruction.api.user.Athlete;
+import com.ironinstruction.api.user.User;
+import com.ironinstruction.api.user.UserRepository;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.Cookie;
+
+// assigns a 12 week block to a 500 athlete roster in one request
+// run with mvn test -P benchmark
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramAssignBenchmark {
+    private static final String COACH_EMAIL = "coach@assign.benchmark";
+    private static final int ATHLETES = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Program template;
+    private List<String> athleteEmails = new ArrayList<String>();
+    private List<String> copyIds = new ArrayList<String>();
+
+    @BeforeAll
+    public void createRoster() {
+        // 12 weeks of 4 days with 5 exercises of 4 sets each
+        Program template = new Program(COACH_EMAIL, "team block", "same program for the whole roster");
+        for (int w = 0; w < 12; w++) {
+            Week week = new Week("week " + w);
+            for (int d = 0; d < 4; d++) {
+                Day day = new Day("day " + d);
+                for (int e = 0; e < 5; e++) {
+                    Exercise exercise = new Exercise("exercise " + e, "");
+                    for (int s = 0; s < 4; s++) {
+                        exercise.addSet(new Set(5, 75, PercentageOptions.Squat, false));
+                    }
+                    day.addExercise(exercise);
+                }
+                week.addDay(day);
+            }
+            template.addWeek(week);
+        }
+        this.template = programRepository.insert(template);
+
+        // hashing a password per athlete would dominate setup, they never log in
+        List<User> athletes = new ArrayList<User>();
+        for (int i = 0; i < ATHLETES; i++) {
+            String email = "athlete" + i + "@assign.benchmark";
+            athletes.add(new Athlete("athlete " + i, email, "", ""));
+            athleteEmails.add(email);
+        }
+        userRepository.insert(athletes);
+    }
+
+    @Test
+    public void benchmarkBulkAssign() throws Exception {
+        Cookie coachAccess = new Cookie("accessToken", TokenManager.generateJWT(COACH_EMAIL + ";" + UserType.COACH, TokenType.ACCESS));
+        String content = objectMapper.writeValueAsString(new BulkAssignRequest(athleteEmails));
+
+        long start = System.nanoTime();
+        BulkAssignResponse response = objectMapper.readValue(mockMvc.perform(post("/api/v1/programs/" + template.getId() + "/assign/bulk")
+            .cookie(coachAccess)
+            .contentType("application/json")
+            .content(content))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), BulkAssignResponse.class);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for (BulkAssignResult result : response.getResults()) {
+            copyIds.add(result.getProgramId());
+        }
+        System.out.println("Bulk assign: " + response.getAssigned() + " athletes in " + elapsedMillis + " ms");
+
+        assertTrue(response.getAssigned() == ATHLETES);
+        assertTrue(elapsedMillis < 1000);
+    }
+
+    @AfterAll
+    public void deleteRoster() {
+        programService.deleteById(template.getId());
+        copyIds.forEach((id) -> programService.deleteById(id));
+        athleteEmails.forEach((email) -> userRepository.deleteByEmail(email));
+    }
+}
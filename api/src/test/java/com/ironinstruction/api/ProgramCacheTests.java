@@ -0,0 +1,134 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramCache;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProgramCacheTests {
+    private final Map<String, Program> database = new HashMap<String, Program>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Program load(String programId) throws ResourceNotFound {
+        loads.incrementAndGet();
+        if (!database.containsKey(programId)) {
+            throw new ResourceNotFound(programId);
+        }
+        return database.get(programId);
+    }
+
+    private Program program(int weeks) {
+        Program program = new Program("cache@gmail.com", "cache", "");
+        for (int i = 0; i < weeks; i++) {
+            Week week = new Week("week " + i);
+            week.addDay(new Day("day"));
+            program.addWeek(week);
+        }
+        return program;
+    }
+
+    @Test
+    public void testHitsAndInvalidation() throws ResourceNotFound {
+        ProgramCache cache = new ProgramCache(true, 10, 1000, 60);
+        database.put("a", program(1));
+
+        Program first = cache.get("a", this::load);
+        Program second = cache.get("a", this::load);
+        assertTrue(first == second);
+        assertTrue(loads.get() == 1);
+        assertTrue(cache.getHits() == 1 && cache.getMisses() == 1);
+
+        // a write replaces the stored program
+        database.put("a", program(2));
+        cache.invalidate("a");
+        assertTrue(cache.get("a", this::load).getWeeks().size() == 2);
+        assertTrue(loads.get() == 2);
+
+        // missing programs aren't cached
+        assertThrows(ResourceNotFound.class, () -> cache.get("missing", this::load));
+        assertThrows(ResourceNotFound.class, () -> cache.get("missing", this::load));
+        assertTrue(loads.get() == 4);
+    }
+
+    @Test
+    public void testRacedLoads() {
+        ProgramCache cache = new ProgramCache(true, 2, 1000, 60);
+
+        // a write to another program while a is loading doesn't keep a out of the cache
+        long loadGeneration = cache.getGeneration();
+        cache.invalidate("b");
+        cache.put("a", program(1), loadGeneration);
+        assertTrue(cache.peek("a") != null);
+
+        // a write to a itself does, the load may have read the program from before it
+        loadGeneration = cache.getGeneration();
+        cache.invalidate("a");
+        cache.put("a", program(1), loadGeneration);
+        assertTrue(cache.peek("a") == null);
+
+        // once the stamps are dropped to stay within max entries, loads that started before can't be told apart
+        loadGeneration = cache.getGeneration();
+        cache.invalidate("c");
+        cache.invalidate("d");
+        cache.invalidate("e");
+        cache.put("a", program(1), loadGeneration);
+        assertTrue(cache.peek("a") == null);
+        loadGeneration = cache.getGeneration();
+        cache.invalidate("f");
+        cache.put("a", program(1), loadGeneration);
+        assertTrue(cache.peek("a") != null);
+    }
+
+    @Test
+    public void testEviction() throws ResourceNotFound {
+        // each program weighs 1 + 2 per week
+        ProgramCache cache = new ProgramCache(true, 2, 12, 60);
+        database.put("a", program(1));
+        database.put("b", program(1));
+        database.put("c", program(1));
+        database.put("heavy", program(5));
+        database.put("too heavy", program(10));
+
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        // over the entry limit, b is the least recently used
+        cache.get("c", this::load);
+        assertTrue(cache.getSize() == 2);
+        assertTrue(cache.getEvictions() == 1);
+        cache.get("a", this::load);
+        assertTrue(cache.getHits() == 2);
+
+        // over the weight limit, both remaining programs have to go
+        cache.get("heavy", this::load);
+        assertTrue(cache.getSize() == 1 && cache.getWeight() == 11);
+        assertTrue(cache.getEvictions() == 3);
+
+        cache.get("too heavy", this::load);
+        assertTrue(cache.getSize() == 1);
+    }
+
+    @Test
+    public void testExpiryAndDisabled() throws ResourceNotFound {
+        ProgramCache expiring = new ProgramCache(true, 10, 1000, 0);
+        database.put("a", program(1));
+        expiring.get("a", this::load);
+        expiring.get("a", this::load);
+        assertTrue(expiring.getHits() == 0 && expiring.getEvictions() == 1);
+
+        ProgramCache disabled = new ProgramCache(false, 10, 1000, 60);
+        disabled.get("a", this::load);
+        disabled.get("a", this::load);
+        assertTrue(disabled.getSize() == 0 && loads.get() == 4);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.ConcurrentModification;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// athletes logging sets while coaches replace exercises on the same day
+// run with mvn test -P benchmark
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramConcurrencyBenchmark {
+    private static final int ATHLETE_THREADS = 8;
+    private static final int COACH_THREADS = 8;
+    private static final int OPERATIONS = 20;
+
+    @Autowired
+    private ProgramService programService;
+
+    private Program program;
+    private Week week;
+    private Day day;
+    private Exercise loggedExercise;
+    private Exercise editedExercise;
+
+    @BeforeAll
+    public void createProgram() throws Exception {
+        program = programService.createProgram("concurrency-benchmark@gmail.com", "concurrency", "hammered from many threads");
+        week = programService.addWeek(program.getId(), "week 1");
+        day = programService.addDay(program.getId(), week.getId(), "day 1");
+        loggedExercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Squat", "");
+        editedExercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Bench", "");
+        for (int i = 0; i < ATHLETE_THREADS; i++) {
+            programService.addSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), 5, 80, PercentageOptions.Squat, false);
+        }
+    }
+
+    @Test
+    public void benchmarkConcurrentWrites() throws Exception {
+        List<Set> sets = programService.findExercise(program.getId(), week.getId(), day.getId(), loggedExercise.getId()).getSets();
+        ExecutorService executor = Executors.newFixedThreadPool(ATHLETE_THREADS + COACH_THREADS);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        AtomicInteger rejectedEdits = new AtomicInteger();
+        long conflictsBefore = programService.getWriteStats().getConflicts();
+        long attemptsBefore = programService.getWriteStats().getAttempts();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < ATHLETE_THREADS; t++) {
+            final String setId = sets.get(t).getId();
+            futures.add(executor.submit(() -> {
+                for (int i = 1; i <= OPERATIONS; i++) {
+                    programService.updateSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), setId, i);
+                }
+                return null;
+            }));
+        }
+        for (int t = 0; t < COACH_THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    Exercise edit = programService.findExercise(program.getId(), week.getId(), day.getId(), editedExercise.getId());
+                    edit.setName("Bench " + thread + "-" + i);
+                    try {
+                        programService.updateExercise(program.getId(), week.getId(), day.getId(), edit);
+                    } catch (ConcurrentModification e) {
+                        rejectedEdits.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+
+        long attempts = programService.getWriteStats().getAttempts() - attemptsBefore;
+        long conflicts = programService.getWriteStats().getConflicts() - conflictsBefore;
+        int operations = (ATHLETE_THREADS + COACH_THREADS) * OPERATIONS;
+        System.out.println("Concurrent writes: " + operations + " operations in " + elapsedMillis + " ms");
+        System.out.println("Full-document writes: " + attempts + " attempts, " + conflicts + " conflicts, " + rejectedEdits.get() + " rejected");
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
@@ -0,0 +1,182 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.ConcurrentModification;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramConcurrencyTests {
+    private static final int ATHLETE_THREADS = 8;
+    private static final int COACH_THREADS = 8;
+    private static final int OPERATIONS = 20;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    private Program program;
+    private Week week;
+    private Day day;
+    private Exercise loggedExercise;
+    private Exercise editedExercise;
+
+    @BeforeAll
+    public void createProgram() throws Exception {
+        program = programService.createProgram("concurrency@gmail.com", "concurrency", "hammered from many threads");
+        week = programService.addWeek(program.getId(), "week 1");
+        day = programService.addDay(program.getId(), week.getId(), "day 1");
+        loggedExercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Squat", "");
+        editedExercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Bench", "");
+        for (int i = 0; i < ATHLETE_THREADS; i++) {
+            programService.addSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), 5, 80, PercentageOptions.Squat, false);
+        }
+    }
+
+    @Test
+    public void testNoLostUpdates() throws Exception {
+        List<Set> sets = programService.findExercise(program.getId(), week.getId(), day.getId(), loggedExercise.getId()).getSets();
+        ExecutorService executor = Executors.newFixedThreadPool(ATHLETE_THREADS + COACH_THREADS);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        // athletes finish their sets while the coach keeps replacing another exercise on the same day
+        for (int t = 0; t < ATHLETE_THREADS; t++) {
+            final String setId = sets.get(t).getId();
+            futures.add(executor.submit(() -> {
+                for (int i = 1; i <= OPERATIONS; i++) {
+                    programService.updateSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), setId, i);
+                }
+                return null;
+            }));
+        }
+        for (int t = 0; t < COACH_THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    Exercise edit = programService.findExercise(program.getId(), week.getId(), day.getId(), editedExercise.getId());
+                    edit.setName("Bench " + thread + "-" + i);
+                    try {
+                        programService.updateExercise(program.getId(), week.getId(), day.getId(), edit);
+                    } catch (ConcurrentModification e) {
+                        // giving up after the retries is allowed, losing the other writes is not
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // a replace based on a stale read would have rolled completed reps back
+        Exercise logged = programService.findExercise(program.getId(), week.getId(), day.getId(), loggedExercise.getId());
+        assertEquals(ATHLETE_THREADS, logged.getSets().size());
+        for (Set set : logged.getSets()) {
+            assertEquals(OPERATIONS, set.getCompletedReps());
+        }
+    }
+
+    @Test
+    public void testStaleReplaceIsRejected() throws Exception {
+        // two writers read the same version of the program
+        Program first = programRepository.findById(program.getId()).get();
+        Program second = programRepository.findById(program.getId()).get();
+        assertEquals(first.getVersion(), second.getVersion());
+
+        first.setDescription("written first");
+        assertTrue(programRepository.replaceIfUnchanged(first));
+
+        // the second replace is based on a read from before the first write and must not overwrite it
+        second.setName("written second");
+        Long staleVersion = second.getVersion();
+        assertFalse(programRepository.replaceIfUnchanged(second));
+        assertEquals(staleVersion, second.getVersion());
+
+        Program stored = programRepository.findById(program.getId()).get();
+        assertEquals("written first", stored.getDescription());
+        assertEquals(program.getName(), stored.getName());
+        assertEquals(first.getVersion(), stored.getVersion());
+    }
+
+    @Test
+    public void testTargetedWriteConflictsWithStaleReplace() throws Exception {
+        Program stale = programRepository.findById(program.getId()).get();
+        // a targeted update bumps the version like any other write
+        programService.addWeek(program.getId(), "added while the replace was in flight");
+
+        stale.setName("stale rename");
+        assertFalse(programRepository.replaceIfUnchanged(stale));
+
+        Program stored = programRepository.findById(program.getId()).get();
+        assertTrue(stored.getWeeks().stream().anyMatch((week) -> week.getCoachNotes().equals("added while the replace was in flight")));
+        assertEquals(program.getName(), stored.getName());
+    }
+
+    @Test
+    public void testLoggedSetDoesNotConflictWithCoachEdit() throws Exception {
+        Set set = programService.findExercise(program.getId(), week.getId(), day.getId(), loggedExercise.getId()).getSets().get(0);
+
+        // the athlete logs a set between the coach's read and write, the write still applies
+        Program coachRead = programRepository.findById(program.getId()).get();
+        programService.finishSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), set.getId(), 3, null, null);
+        coachRead.setDescription("edited while a set was logged");
+        assertTrue(programRepository.replaceIfUnchanged(coachRead));
+        assertEquals(3, programService.findSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), set.getId()).getCompletedReps());
+
+        // a coach PUT racing a finished set, neither needs a retry
+        long conflicts = programService.getWriteStats().getConflicts();
+        Exercise edit = programService.findExercise(program.getId(), week.getId(), day.getId(), editedExercise.getId());
+        edit.setName("Bench raced");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> coach = executor.submit(() -> {
+            start.await();
+            return programService.updateExercise(program.getId(), week.getId(), day.getId(), edit);
+        });
+        Future<?> athlete = executor.submit(() -> {
+            start.await();
+            return programService.finishSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), set.getId(), 4, null, null);
+        });
+        start.countDown();
+        coach.get();
+        athlete.get();
+        executor.shutdown();
+
+        assertEquals(conflicts, programService.getWriteStats().getConflicts());
+        assertEquals("Bench raced", programService.findExercise(program.getId(), week.getId(), day.getId(), editedExercise.getId()).getName());
+        assertEquals(4, programService.findSet(program.getId(), week.getId(), day.getId(), loggedExercise.getId(), set.getId()).getCompletedReps());
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
@@ -0,0 +1,80 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+public class ProgramIndexTests {
+    private Program program(int weeks) {
+        Program program = new Program("index@gmail.com", "index", "");
+        for (int i = 0; i < weeks; i++) {
+            program.addWeek(new Week("week " + i));
+        }
+        return program;
+    }
+
+    @Test
+    public void testListChangedThroughGetter() throws ResourceNotFound {
+        Program program = program(3);
+        Week first = program.getWeeks().get(0);
+        Week last = program.getWeeks().get(2);
+        assertTrue(program.findWeekById(first.getId()) == first);
+
+        // same size as before, the index can't tell from the count
+        Week replacement = new Week("replacement");
+        program.getWeeks().set(0, replacement);
+        assertTrue(program.findWeekById(replacement.getId()) == replacement);
+        assertThrows(ResourceNotFound.class, () -> program.findWeekById(first.getId()));
+
+        Collections.reverse(program.getWeeks());
+        assertTrue(program.findWeekById(last.getId()) == last);
+        assertTrue(program.findWeekById(replacement.getId()) == replacement);
+
+        program.getWeeks().remove(last);
+        program.getWeeks().add(first);
+        assertTrue(program.findWeekById(first.getId()) == first);
+        assertThrows(ResourceNotFound.class, () -> program.findWeekById(last.getId()));
+    }
+
+    @Test
+    public void testRemoveAndReplace() throws ResourceNotFound {
+        // removing before anything was looked up, with no index built yet
+        Program program = program(3);
+        Week second = program.getWeeks().get(1);
+        Week third = program.getWeeks().get(2);
+        program.removeWeek(second.getId());
+        assertThrows(ResourceNotFound.class, () -> program.findWeekById(second.getId()));
+        assertTrue(program.findWeekById(third.getId()) == third);
+
+        // the children after a removed one move up
+        Day day = new Day("day");
+        Exercise squat = new Exercise("Squat", "");
+        Exercise bench = new Exercise("Bench", "");
+        day.addExercise(squat);
+        day.addExercise(bench);
+        assertTrue(day.findExerciseById(bench.getId()) == bench);
+        day.removeExercise(squat.getId());
+        assertTrue(day.findExerciseById(bench.getId()) == bench);
+        assertThrows(ResourceNotFound.class, () -> day.replaceExercise(squat));
+
+        Set set = new Set(5, 80, PercentageOptions.Squat, false);
+        bench.addSet(set);
+        bench.removeSet(set.getId());
+        assertTrue(bench.getSets().isEmpty());
+        assertThrows(ResourceNotFound.class, () -> bench.findSetById(set.getId()));
+
+        third.addDay(day);
+        assertTrue(third.findDayById(day.getId()) == day);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramJsonWriter;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+public class ProgramJsonWriterTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Program program(String name) {
+        Program program = new Program("writer@gmail.com", name, "streamed");
+        for (int w = 0; w < 3; w++) {
+            Week week = new Week("week " + w);
+            for (int d = 0; d < 2; d++) {
+                Day day = new Day("day " + d);
+                Exercise exercise = new Exercise("Squat", "");
+                exercise.addSet(new Set(5, 80, PercentageOptions.Squat, true));
+                exercise.addSet(new Set(3, 85, PercentageOptions.Squat, false));
+                day.addExercise(exercise);
+                day.addExercise(new Exercise("Bench", ""));
+                week.addDay(day);
+            }
+            program.addWeek(week);
+        }
+        program.getWeeks().get(1).setAthleteNotes("felt heavy");
+        return program;
+    }
+
+    @Test
+    public void testMatchesObjectMapper() throws Exception {
+        List<Program> programs = List.of(program("first"), program("second"), new Program("writer@gmail.com", "empty", ""));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+            ProgramJsonWriter.writePrograms(generator, programs.iterator());
+        }
+
+        JsonNode streamed = objectMapper.readTree(output.toByteArray());
+        assertTrue(streamed.equals(objectMapper.readTree(objectMapper.writeValueAsBytes(programs))));
+    }
+
+    @Test
+    public void testFollowsMapperSettings() throws Exception {
+        // the application's mapper writes dates as text, the writer goes through whatever mapper made the generator
+        ObjectMapper isoDates = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        List<Program> programs = List.of(program("dated"));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = isoDates.createGenerator(output)) {
+            ProgramJsonWriter.writePrograms(generator, programs.iterator());
+        }
+
+        assertTrue(output.toString().equals(isoDates.writeValueAsString(programs)));
+        assertTrue(isoDates.readTree(output.toByteArray()).get(0).get("lastModified").isTextual());
+    }
+}
@@ -0,0 +1,132 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+import com.ironinstruction.api.requests.FinishSetRequest;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// evening peak against a real tomcat: many athletes checking their programs and logging sets at once
+// run with mvn test -P benchmark, HighConcurrencyLoadBenchmark repeats it with the high-concurrency profile
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramLoadBenchmark {
+    private static final String ATHLETE_EMAIL = "athlete@load.benchmark";
+    private static final int CLIENTS = 300;
+    private static final int REQUESTS_PER_CLIENT = 40;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Program program;
+    private List<String> setPaths = new ArrayList<String>();
+
+    @BeforeAll
+    public void createProgram() throws Exception {
+        program = programService.createProgram("coach@load.benchmark", "evening session", "");
+        programService.assignProgram(program.getId(), ATHLETE_EMAIL);
+        Week week = programService.addWeek(program.getId(), "week 1");
+        Day day = programService.addDay(program.getId(), week.getId(), "day 1");
+        Exercise exercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Squat", "");
+        for (int i = 0; i < 10; i++) {
+            Set set = programService.addSet(program.getId(), week.getId(), day.getId(), exercise.getId(), 5, 80, PercentageOptions.Squat, false);
+            setPaths.add("/api/v1/programs/" + program.getId() + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId() + "/sets/" + set.getId());
+        }
+    }
+
+    @Test
+    public void benchmarkEveningPeak() throws Exception {
+        String cookie = "accessToken=" + TokenManager.generateJWT(ATHLETE_EMAIL + ";" + UserType.ATHLETE, TokenType.ACCESS);
+        String finishSet = objectMapper.writeValueAsString(new FinishSetRequest(5));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+
+        // every client alternates between reading the program list and logging a set
+        List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            final String setPath = setPaths.get(c % setPaths.size());
+            futures.add(executor.submit(() -> {
+                long[] latencies = new long[REQUESTS_PER_CLIENT];
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    HttpRequest request = i % 2 == 0
+                        ? HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/programs/user/me")).header("Cookie", cookie).GET().build()
+                        : HttpRequest.newBuilder(URI.create("http://localhost:" + port + setPath)).header("Cookie", cookie).header("Content-Type", "application/json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(finishSet)).build();
+                    long sent = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    latencies[i] = response.statusCode() == 200 ? System.nanoTime() - sent : -1;
+                }
+                return latencies;
+            }));
+        }
+
+        List<Long> latencies = new ArrayList<Long>();
+        int failed = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                if (latency < 0) {
+                    failed++;
+                } else {
+                    latencies.add(latency);
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.println(getClass().getSimpleName() + ": " + sorted.length + " requests, " + failed + " failed, "
+            + Math.round(sorted.length * 1e9 / elapsedNanos) + " req/s");
+        System.out.println(getClass().getSimpleName() + ": p50 " + TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length / 2]) + " ms, p99 "
+            + TimeUnit.NANOSECONDS.toMillis(sorted[(int) (sorted.length * 0.99)]) + " ms, max " + TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1]) + " ms");
+
+        assertTrue(failed == 0);
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.ResourceNotFound;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// resolves random sets in a year long program by scanning every level and through the id indexes
+// run with mvn test -P benchmark
+@Tag("benchmark")
+public class ProgramNavigationBenchmark {
+    private static final int LOOKUPS = 200000;
+    private static final int ROUNDS = 5;
+
+    private Set scan(Program program, String[] path) {
+        for (Week week : program.getWeeks()) {
+            if (!week.getId().equals(path[0])) continue;
+            for (Day day : week.getDays()) {
+                if (!day.getId().equals(path[1])) continue;
+                for (Exercise exercise : day.getExercises()) {
+                    if (!exercise.getId().equals(path[2])) continue;
+                    for (Set set : exercise.getSets()) {
+                        if (set.getId().equals(path[3])) {
+                            return set;
+                        }
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Test
+    public void benchmarkFindSet() throws ResourceNotFound {
+        // 52 weeks of 7 days with 10 exercises of 8 sets each
+        Program program = new Program("benchmark@gmail.com", "benchmark", "year long program");
+        List<String[]> paths = new ArrayList<String[]>();
+        for (int w = 0; w < 52; w++) {
+            Week week = new Week("week " + w);
+            for (int d = 0; d < 7; d++) {
+                Day day = new Day("day " + d);
+                for (int e = 0; e < 10; e++) {
+                    Exercise exercise = new Exercise("exercise " + e, "");
+                    for (int s = 0; s < 8; s++) {
+                        Set set = new Set(5, 80, PercentageOptions.Squat, false);
+                        exercise.addSet(set);
+                        paths.add(new String[] { week.getId(), day.getId(), exercise.getId(), set.getId() });
+                    }
+                    day.addExercise(exercise);
+                }
+                week.addDay(day);
+            }
+            program.addWeek(week);
+        }
+
+        Random random = new Random(42);
+        String[][] lookups = new String[LOOKUPS][];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = paths.get(random.nextInt(paths.size()));
+        }
+
+        // best of several rounds so JIT compilation and the lazily built indexes don't count
+        long scanNanos = Long.MAX_VALUE;
+        long indexNanos = Long.MAX_VALUE;
+        long found = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            found = 0;
+            long start = System.nanoTime();
+            for (String[] path : lookups) {
+                found += scan(program, path) != null ? 1 : 0;
+            }
+            scanNanos = Math.min(scanNanos, (System.nanoTime() - start) / LOOKUPS);
+
+            start = System.nanoTime();
+            for (String[] path : lookups) {
+                found += program.findWeekById(path[0]).findDayById(path[1]).findExerciseById(path[2]).findSetById(path[3]) != null ? 1 : 0;
+            }
+            indexNanos = Math.min(indexNanos, (System.nanoTime() - start) / LOOKUPS);
+        }
+
+        System.out.println("Find set in " + paths.size() + " sets, linear scan: " + scanNanos + " ns");
+        System.out.println("Find set in " + paths.size() + " sets, id index:    " + indexNanos + " ns");
+
+        assertTrue(found == 2L * LOOKUPS);
+        assertTrue(indexNanos < scanNanos);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramResponseCache;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.servlet.http.Cookie;
+
+// requests per second for a large program with and without the serialized response cache
+// run with mvn test -P benchmark
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramResponseBenchmark {
+    private static final String COACH_EMAIL = "response@benchmark.com";
+    private static final int REQUESTS = 500;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    private Program program;
+    private Cookie coachAccess;
+
+    @BeforeAll
+    public void createProgram() {
+        // 16 weeks of 5 days with 6 exercises of 5 sets each
+        Program program = new Program(COACH_EMAIL, "benchmark", "long periodized block");
+        for (int w = 0; w < 16; w++) {
+            Week week = new Week("week " + w);
+            for (int d = 0; d < 5; d++) {
+                Day day = new Day("day " + d);
+                for (int e = 0; e < 6; e++) {
+                    Exercise exercise = new Exercise("exercise " + e, "");
+                    for (int s = 0; s < 5; s++) {
+                        exercise.addSet(new Set(5, 80, PercentageOptions.Squat, false));
+                    }
+                    day.addExercise(exercise);
+                }
+                week.addDay(day);
+            }
+            program.addWeek(week);
+        }
+
+        this.program = programRepository.insert(program);
+        this.coachAccess = new Cookie("accessToken", TokenManager.generateJWT(COACH_EMAIL + ";" + UserType.COACH, TokenType.ACCESS));
+    }
+
+    // best of several rounds, so the first round only warms up the JIT and the caches
+    private double requestsPerSecond(String acceptEncoding) throws Exception {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                mockMvc.perform(get("/api/v1/programs/" + program.getId())
+                    .cookie(coachAccess)
+                    .header("Accept-Encoding", acceptEncoding))
+                    .andExpect(status().isOk());
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        return REQUESTS * 1e9 / bestNanos;
+    }
+
+    @Test
+    public void benchmarkGetProgram() throws Exception {
+        ProgramResponseCache responseCache = programService.getResponseCache();
+        try {
+            responseCache.setEnabled(false);
+            double uncached = requestsPerSecond("identity");
+            double uncachedGzip = requestsPerSecond("gzip");
+
+            responseCache.setEnabled(true);
+            double cached = requestsPerSecond("identity");
+            double cachedGzip = requestsPerSecond("gzip");
+
+            System.out.println("Get program, serialized per request: " + Math.round(uncached) + " req/s, gzip " + Math.round(uncachedGzip) + " req/s");
+            System.out.println("Get program, cached bytes:           " + Math.round(cached) + " req/s, gzip " + Math.round(cachedGzip) + " req/s");
+            System.out.println("Response cache: " + responseCache.getBytes() + " bytes, " + responseCache.getHits() + " hits, " + responseCache.getMisses() + " misses");
+
+            assertTrue(cachedGzip > uncachedGzip);
+        } finally {
+            responseCache.setEnabled(true);
+        }
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramService;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// dashboard lookup latency as the programs collection grows from 1k to 1M documents
+// run with mvn test -P benchmark, -Dbenchmark.maxPrograms lowers the largest size
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramScalingBenchmark {
+    private static final String EMAIL_DOMAIN = "@scaling.benchmark";
+    private static final int PROGRAMS_PER_COACH = 10;
+    private static final int INSERT_BATCH = 10000;
+    private static final int LOOKUPS = 100;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private void insertPrograms(int from, int to) {
+        List<Program> batch = new ArrayList<Program>();
+        for (int i = from; i < to; i++) {
+            Program program = new Program("coach" + (i / PROGRAMS_PER_COACH) + EMAIL_DOMAIN, "program " + i, "");
+            program.setAthleteEmail("athlete" + (i / PROGRAMS_PER_COACH) + EMAIL_DOMAIN);
+            batch.add(program);
+            if (batch.size() == INSERT_BATCH) {
+                mongoTemplate.insert(batch, Program.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Program.class);
+        }
+    }
+
+    private long docsExamined(String email) {
+        Document filter = new Query(new Criteria().orOperator(Criteria.where("coachEmail").is(email), Criteria.where("athleteEmail").is(email))).getQueryObject();
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain", new Document("find", mongoTemplate.getCollectionName(Program.class)).append("filter", filter))
+            .append("verbosity", "executionStats"));
+
+        return ((Number) explain.get("executionStats", Document.class).get("totalDocsExamined")).longValue();
+    }
+
+    @Test
+    public void benchmarkFindByEmail() {
+        int maxPrograms = Integer.getInteger("benchmark.maxPrograms", 1000000);
+        int inserted = 0;
+        for (int size = 1000; size <= maxPrograms; size *= 10) {
+            insertPrograms(inserted, size);
+            inserted = size;
+
+            String email = "coach" + (size / PROGRAMS_PER_COACH / 2) + EMAIL_DOMAIN;
+            programService.findUserPrograms(email); // warm up
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                programService.findUserPrograms(email);
+            }
+            long lookupNanos = (System.nanoTime() - start) / LOOKUPS;
+            long examined = docsExamined(email);
+
+            System.out.println(size + " programs: " + lookupNanos / 1000 + " us per lookup, " + examined + " documents examined");
+            // with both emails indexed only the coach's own programs are read
+            assertTrue(examined == PROGRAMS_PER_COACH);
+        }
+    }
+
+    @AfterAll
+    public void deletePrograms() {
+        mongoTemplate.remove(new Query(Criteria.where("coachEmail").regex("^coach\\d+" + EMAIL_DOMAIN.replace(".", "\\.") + "$")), Program.class);
+    }
+}
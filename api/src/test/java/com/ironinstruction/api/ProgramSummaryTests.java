@@ -0,0 +1,84 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.InvalidRequest;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramSummaryTests {
+    private static final String COACH = "summaries@gmail.com";
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    private final List<String> created = new ArrayList<String>();
+
+    @BeforeAll
+    public void createPrograms() throws Exception {
+        created.add(programService.createProgram(COACH, "b", "").getId());
+        created.add(programService.createProgram(COACH, "a", "").getId());
+        // programs created before names were required may have none
+        created.add(programRepository.insert(new Program(COACH, null, "")).getId());
+        created.add(programRepository.insert(new Program(COACH, null, "")).getId());
+    }
+
+    // reads every page of the coach's summaries one program at a time
+    private List<String> pageThrough(Sort.Direction direction) throws InvalidRequest {
+        List<String> ids = new ArrayList<String>();
+        String cursor = null;
+        do {
+            ProgramSummaryPage page = programService.findUserProgramSummaries(COACH, "name", direction, 1, cursor);
+            assertTrue(page.getPrograms().size() <= 1);
+            page.getPrograms().forEach((summary) -> ids.add(summary.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        return ids;
+    }
+
+    @Test
+    public void testPagesAcrossNullNames() throws Exception {
+        // mongo sorts a missing name before any other, ties in id order
+        List<String> ascending = List.of(created.get(2), created.get(3), created.get(1), created.get(0));
+        assertEquals(ascending, pageThrough(Sort.Direction.ASC));
+
+        List<String> descending = new ArrayList<String>(ascending);
+        Collections.reverse(descending);
+        assertEquals(descending, pageThrough(Sort.Direction.DESC));
+    }
+
+    @Test
+    public void testRenameRequiresName() throws Exception {
+        assertThrows(InvalidRequest.class, () -> programService.updateProgram(created.get(0), " ", ""));
+        assertThrows(InvalidRequest.class, () -> programService.updateProgram(created.get(0), null, ""));
+        assertEquals("b", programService.findById(created.get(0)).getName());
+    }
+
+    @AfterAll
+    public void deletePrograms() {
+        created.forEach((id) -> programService.deleteById(id));
+    }
+}
@@ -0,0 +1,125 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramPath;
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.SetResult;
+import com.ironinstruction.api.program.Week;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// compares saving the whole program against appending a set result
+// run with mvn test -P benchmark
+@Tag("benchmark")
+@SpringBootTest
+@TestInstance(Lifecycle.PER_CLASS)
+public class ProgramWriteBenchmark {
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Program program;
+    private Week week;
+    private Day day;
+    private Exercise exercise;
+    private Set set;
+
+    private int bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    @BeforeAll
+    public void createProgram() {
+        // 16 weeks of 5 days with 6 exercises of 5 sets each
+        Program program = new Program("benchmark@gmail.com", "benchmark", "long periodized block");
+        for (int w = 0; w < 16; w++) {
+            Week week = new Week("week " + w);
+            for (int d = 0; d < 5; d++) {
+                Day day = new Day("day " + d);
+                for (int e = 0; e < 6; e++) {
+                    Exercise exercise = new Exercise("exercise " + e, "");
+                    for (int s = 0; s < 5; s++) {
+                        exercise.addSet(new Set(5, 80, PercentageOptions.Squat, false));
+                    }
+                    day.addExercise(exercise);
+                }
+                week.addDay(day);
+            }
+            program.addWeek(week);
+        }
+
+        this.program = programRepository.insert(program);
+        // finish a set in the middle of the block
+        this.week = this.program.getWeeks().get(8);
+        this.day = this.week.getDays().get(2);
+        this.exercise = this.day.getExercises().get(3);
+        this.set = this.exercise.getSets().get(4);
+    }
+
+    @Test
+    public void benchmarkFinishSet() throws Exception {
+        // bytes sent to mongo for a single finished set
+        Document fullDocument = new Document();
+        mongoTemplate.getConverter().write(program, fullDocument);
+        Document resultDocument = new Document();
+        mongoTemplate.getConverter().write(new SetResult(program.getId(), set.getId(), 5, null, null), resultDocument);
+        // the result is followed by a results version bump on the program
+        Update touch = new Update().inc("resultsVersion", 1).currentDate("lastModified");
+        Document touchDocument = new Document("q", new Query(ProgramPath.of(program.getId()).criteria()).getQueryObject())
+            .append("u", new UpdateMapper(mongoTemplate.getConverter()).getMappedObject(touch.getUpdateObject(), mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Program.class)));
+        int resultBytes = bsonSize(resultDocument) + bsonSize(touchDocument);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Program loaded = programRepository.findById(program.getId()).get();
+            loaded.findWeekById(week.getId()).findDayById(day.getId()).findExerciseById(exercise.getId()).findSetById(set.getId()).setCompletedReps(i);
+            programRepository.save(loaded);
+        }
+        long saveNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            programService.updateSet(program.getId(), week.getId(), day.getId(), exercise.getId(), set.getId(), i);
+        }
+        long resultNanos = (System.nanoTime() - start) / ITERATIONS;
+
+        System.out.println("Finish set, full save:  " + bsonSize(fullDocument) + " bytes written, " + saveNanos / 1000 + " us");
+        System.out.println("Finish set, result:     " + resultBytes + " bytes written, " + resultNanos / 1000 + " us");
+
+        assertTrue(programService.findSet(program.getId(), week.getId(), day.getId(), exercise.getId(), set.getId()).getCompletedReps() == ITERATIONS - 1);
+        assertTrue(resultBytes < bsonSize(fullDocument));
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
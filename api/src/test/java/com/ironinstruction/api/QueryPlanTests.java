@@ -0,0 +1,62 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramRepositoryCustom;
+import com.ironinstruction.api.program.ReactiveProgramRepository;
+import com.ironinstruction.api.program.ReactiveProgramRepositoryCustom;
+import com.ironinstruction.api.program.ReactiveSetResultRepository;
+import com.ironinstruction.api.program.SetResultRepository;
+import com.ironinstruction.api.refreshtoken.RefreshTokenRepository;
+import com.ironinstruction.api.user.UserRepository;
+import com.ironinstruction.api.utils.QueryPlanVerifier;
+import com.ironinstruction.api.video.VideoDeletionRepository;
+import com.ironinstruction.api.video.VideoDeletionRepositoryCustom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@SpringBootTest
+public class QueryPlanTests {
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Test
+    public void testNoCollectionScans() {
+        List<String> collectionScans = queryPlanVerifier.findCollectionScans();
+        assertTrue(collectionScans.isEmpty(), "Collection scans: " + collectionScans);
+    }
+
+    @Test
+    public void testEveryQueryMethodIsVerified() {
+        List<Class<?>> repositories = List.of(
+            ProgramRepository.class, ProgramRepositoryCustom.class, ReactiveProgramRepository.class, ReactiveProgramRepositoryCustom.class,
+            SetResultRepository.class, ReactiveSetResultRepository.class, UserRepository.class, RefreshTokenRepository.class,
+            VideoDeletionRepository.class, VideoDeletionRepositoryCustom.class
+        );
+        // the inherited CRUD methods go by _id, the findById entries stand for them
+        Set<String> verified = queryPlanVerifier.getQueryNames();
+        List<String> missing = new ArrayList<String>();
+        for (Class<?> repository : repositories) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (method.isDefault() || method.isSynthetic()) {
+                    continue;
+                }
+                // a reactive repository sends the same query as its blocking counterpart
+                String name = repository.getSimpleName().replaceFirst("^Reactive", "") + "." + method.getName();
+                if (!verified.contains(name) && !QueryPlanVerifier.FULL_SCANS.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+
+        assertTrue(missing.isEmpty(), "Query methods without a plan check: " + missing);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ironinstruction.api;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// same load as ProgramLoadBenchmark on netty with the reactive profile, compare the p99 of the two
+@ActiveProfiles("reactive")
+public class ReactiveLoadBenchmark extends ProgramLoadBenchmark {
+}
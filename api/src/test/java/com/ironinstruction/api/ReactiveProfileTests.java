@@ -0,0 +1,134 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+import com.ironinstruction.api.requests.FinishSetRequest;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+// starts the app with the reactive profile on netty and walks an athlete through a program
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@TestInstance(Lifecycle.PER_CLASS)
+public class ReactiveProfileTests {
+    private static final String COACH_EMAIL = "coach@reactive.test";
+    private static final String ATHLETE_EMAIL = "athlete@reactive.test";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Program program;
+    private String setPath;
+
+    @BeforeAll
+    public void createProgram() throws Exception {
+        program = programService.createProgram(COACH_EMAIL, "reactive block", "");
+        programService.assignProgram(program.getId(), ATHLETE_EMAIL);
+        Week week = programService.addWeek(program.getId(), "week 1");
+        Day day = programService.addDay(program.getId(), week.getId(), "day 1");
+        Exercise exercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Squat", "");
+        Set set = programService.addSet(program.getId(), week.getId(), day.getId(), exercise.getId(), 5, 80, PercentageOptions.Squat, false);
+        setPath = "/api/v1/programs/" + program.getId() + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId() + "/sets/" + set.getId();
+    }
+
+    private static String cookie(String email, UserType userType) {
+        return "accessToken=" + TokenManager.generateJWT(email + ";" + userType, TokenType.ACCESS);
+    }
+
+    private HttpRequest.Builder request(String path, String email, UserType userType) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Cookie", cookie(email, userType));
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testAthleteReadsAndLogsSets() throws Exception {
+        assertTrue(context instanceof ReactiveWebApplicationContext);
+
+        HttpResponse<String> read = send(request("/api/v1/programs/" + program.getId(), ATHLETE_EMAIL, UserType.ATHLETE).GET().build());
+        assertTrue(read.statusCode() == 200);
+        assertTrue(read.body().contains("reactive block"));
+        String etag = read.headers().firstValue("ETag").get();
+        assertTrue(send(request("/api/v1/programs/" + program.getId(), ATHLETE_EMAIL, UserType.ATHLETE).header("If-None-Match", etag).GET().build()).statusCode() == 304);
+
+        HttpResponse<String> logged = send(request(setPath, ATHLETE_EMAIL, UserType.ATHLETE)
+            .header("Content-Type", "application/json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(new FinishSetRequest(4))))
+            .build());
+        assertTrue(logged.statusCode() == 200);
+        assertTrue(logged.body().contains("\"completedReps\":4"));
+        assertTrue(!etag.equals(logged.headers().firstValue("ETag").get()));
+
+        HttpResponse<String> results = send(request(setPath + "/results", ATHLETE_EMAIL, UserType.ATHLETE).GET().build());
+        assertTrue(results.statusCode() == 200);
+        assertTrue(objectMapper.readTree(results.body()).size() == 1);
+    }
+
+    @Test
+    public void testRequestsAreCheckedLikeTheServletStack() throws Exception {
+        // strangers can't read the program and the athlete can't change it
+        assertTrue(send(request("/api/v1/programs/" + program.getId(), "stranger@reactive.test", UserType.COACH).GET().build()).statusCode() == 403);
+        assertTrue(send(request("/api/v1/programs/" + program.getId() + "/weeks", ATHLETE_EMAIL, UserType.ATHLETE)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{}"))
+            .build()).statusCode() == 403);
+
+        HttpResponse<String> unreadable = send(request(setPath, ATHLETE_EMAIL, UserType.ATHLETE)
+            .header("Content-Type", "application/json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString("{"))
+            .build());
+        assertTrue(unreadable.statusCode() == 400);
+        assertTrue(unreadable.body().contains("Invalid body (general)"));
+
+        HttpResponse<String> blank = send(request("/api/v1/programs", COACH_EMAIL, UserType.COACH)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"name\": \" \", \"description\": \"\"}"))
+            .build());
+        assertTrue(blank.statusCode() == 400);
+        assertTrue(blank.body().contains("name field must not be empty"));
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
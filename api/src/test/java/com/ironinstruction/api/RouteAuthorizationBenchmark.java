@@ -0,0 +1,117 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.security.ApiRoutes;
+import com.ironinstruction.api.security.RouteRule;
+import com.ironinstruction.api.security.RouteTable;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// the filter's routing decision for a mix of app requests, without the token and role lookups both versions share:
+// the string checks and per request Pattern.compile the filter used before, and the route table
+// run with mvn test -P benchmark
+@Tag("benchmark")
+public class RouteAuthorizationBenchmark {
+    private static final int ROUNDS = 200000;
+    private static final Pattern SET_VIDEO_UPLOAD = Pattern.compile("/sets/[a-z0-9]+/video/multipart(/[^/]+)?$");
+
+    private static class Request {
+        private final String method;
+        private final String path;
+
+        private Request(String method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+    }
+
+    private final List<Request> requests = new ArrayList<Request>();
+
+    // what the old filter worked out before looking up the role, the program id and whether the method is allowed
+    private static int stringChecks(Request request) {
+        String requestUrl = request.path;
+        if (requestUrl.contains("me") || !requestUrl.contains("programs") || requestUrl.equals("/api/v1/programs")) {
+            return 0;
+        }
+        Pattern programIdRegex = Pattern.compile("(?<=\\/programs\\/)[a-z0-9]+");
+        Matcher matchProgramId = programIdRegex.matcher(requestUrl);
+        matchProgramId.find();
+        String programId = matchProgramId.group();
+        boolean setVideoUpload = SET_VIDEO_UPLOAD.matcher(requestUrl).find();
+        boolean athleteDenied = (request.method.equals("POST") && !setVideoUpload) || (request.method.equals("DELETE") && !setVideoUpload) || request.method.equals("PUT");
+        return programId.length() + (athleteDenied ? 1 : 0);
+    }
+
+    private static int routeTable(Request request) {
+        HttpMethod method = HttpMethod.resolve(request.method);
+        RouteTable.Route route = ApiRoutes.TABLE.find(method, request.path);
+        if (route == null) {
+            return -1;
+        }
+        RouteRule rule = route.rule(method);
+        return rule.needsProgramRole() ? RouteTable.segment(request.path, route.getProgramIdSegment()).length() + rule.ordinal() : rule.ordinal();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // ns and bytes allocated per request, after a warm up pass
+    private long[] measure(ToIntFunction<Request> decide) {
+        int checksum = 0;
+        for (int r = 0; r < ROUNDS / 4; r++) {
+            for (Request request : requests) {
+                checksum += decide.applyAsInt(request);
+            }
+        }
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Request request : requests) {
+                checksum += decide.applyAsInt(request);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - bytes;
+
+        long count = (long) ROUNDS * requests.size();
+        return new long[] { elapsed / count, allocated / count, checksum };
+    }
+
+    @Test
+    public void benchmarkRouteDecision() {
+        String program = "/api/v1/programs/" + new ObjectId().toHexString();
+        String exercise = program + "/weeks/" + new ObjectId().toHexString() + "/days/" + new ObjectId().toHexString() + "/exercises/" + new ObjectId().toHexString();
+        String set = exercise + "/sets/" + new ObjectId().toHexString();
+        // an athlete's session: opening the program, logging sets, uploading a video
+        requests.add(new Request("GET", "/api/v1/programs/user/me"));
+        requests.add(new Request("GET", program));
+        requests.add(new Request("PATCH", set));
+        requests.add(new Request("PATCH", set));
+        requests.add(new Request("GET", set + "/results"));
+        requests.add(new Request("POST", set + "/video/multipart"));
+        requests.add(new Request("POST", set + "/video/multipart/" + new ObjectId().toHexString()));
+        requests.add(new Request("GET", exercise + "/video"));
+        requests.add(new Request("DELETE", exercise));
+
+        long[] before = measure(RouteAuthorizationBenchmark::stringChecks);
+        long[] after = measure(RouteAuthorizationBenchmark::routeTable);
+
+        System.out.println(getClass().getSimpleName() + ": string checks " + before[0] + " ns and " + before[1] + " bytes, route table "
+            + after[0] + " ns and " + after[1] + " bytes per request");
+
+        assertTrue(after[0] < before[0] && after[1] < before[1]);
+    }
+}
@@ -0,0 +1,203 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.AccessDenied;
+import com.ironinstruction.api.program.ProgramController;
+import com.ironinstruction.api.program.ProgramRole;
+import com.ironinstruction.api.program.ReactiveProgramController;
+import com.ironinstruction.api.refreshtoken.ReactiveRefreshTokenController;
+import com.ironinstruction.api.refreshtoken.RefreshTokenController;
+import com.ironinstruction.api.security.ApiRoutes;
+import com.ironinstruction.api.security.RouteRule;
+import com.ironinstruction.api.security.RouteTable;
+import com.ironinstruction.api.security.SecurityConstants;
+import com.ironinstruction.api.user.ReactiveUserController;
+import com.ironinstruction.api.user.UserController;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.video.LocalVideoController;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class RouteAuthorizationTests {
+    private static final List<Class<?>> CONTROLLERS = List.of(ProgramController.class, UserController.class, RefreshTokenController.class, LocalVideoController.class);
+    // local video storage is only served by the servlet stack
+    private static final List<Class<?>> REACTIVE_CONTROLLERS = List.of(ReactiveProgramController.class, ReactiveUserController.class, ReactiveRefreshTokenController.class);
+
+    // the routes outside a program, written out here rather than read from ApiRoutes
+    private static final Map<String, RouteRule> ACCOUNT_ROUTES = Map.ofEntries(
+        Map.entry("POST " + SecurityConstants.LOGIN_URL, RouteRule.PUBLIC),
+        Map.entry("POST /api/v1/refreshtoken", RouteRule.PUBLIC),
+        Map.entry("POST /api/v1/users", RouteRule.PUBLIC),
+        Map.entry("GET /api/v1/videos/{key}", RouteRule.PUBLIC),
+        Map.entry("PUT /api/v1/videos/{key}", RouteRule.PUBLIC),
+        Map.entry("PUT /api/v1/videos/{key}/uploads/{uploadId}/{partNumber}", RouteRule.PUBLIC),
+        Map.entry("GET /api/v1/users/me", RouteRule.AUTHENTICATED),
+        Map.entry("POST /api/v1/users/me", RouteRule.AUTHENTICATED),
+        Map.entry("POST /api/v1/users/me/athlete", RouteRule.ATHLETE_ACCOUNT),
+        Map.entry("POST /api/v1/programs", RouteRule.COACH_ACCOUNT),
+        Map.entry("GET /api/v1/programs/user/me", RouteRule.AUTHENTICATED),
+        Map.entry("GET /api/v1/programs/user/me/full", RouteRule.AUTHENTICATED)
+    );
+
+    // within a program members read, coaches write and athletes patch, the athlete also uploads their set videos
+    private static RouteRule expectedRule(HttpMethod method, String template) {
+        if (!template.contains(RouteTable.PROGRAM_ID)) {
+            return ACCOUNT_ROUTES.get(method + " " + template);
+        } else if (method == HttpMethod.GET || template.contains("/sets/{setId}/video/multipart")) {
+            return RouteRule.PROGRAM_MEMBER;
+        }
+        return method == HttpMethod.PATCH ? RouteRule.PROGRAM_ATHLETE : RouteRule.PROGRAM_COACH;
+    }
+
+    private static String join(String prefix, String[] paths) {
+        return prefix + (paths.length == 0 ? "" : paths[0]);
+    }
+
+    // "METHOD template" of every handler method of the controllers
+    private static List<String> mappings() {
+        return mappings(CONTROLLERS);
+    }
+
+    private static List<String> mappings(List<Class<?>> controllers) {
+        List<String> mappings = new ArrayList<String>();
+        for (Class<?> controller : controllers) {
+            String prefix = controller.getAnnotation(RequestMapping.class).value()[0];
+            for (Method handler : controller.getDeclaredMethods()) {
+                if (handler.isAnnotationPresent(GetMapping.class)) {
+                    mappings.add("GET " + join(prefix, handler.getAnnotation(GetMapping.class).value()));
+                } else if (handler.isAnnotationPresent(PostMapping.class)) {
+                    mappings.add("POST " + join(prefix, handler.getAnnotation(PostMapping.class).value()));
+                } else if (handler.isAnnotationPresent(PutMapping.class)) {
+                    mappings.add("PUT " + join(prefix, handler.getAnnotation(PutMapping.class).value()));
+                } else if (handler.isAnnotationPresent(PatchMapping.class)) {
+                    mappings.add("PATCH " + join(prefix, handler.getAnnotation(PatchMapping.class).value()));
+                } else if (handler.isAnnotationPresent(DeleteMapping.class)) {
+                    mappings.add("DELETE " + join(prefix, handler.getAnnotation(DeleteMapping.class).value()));
+                }
+            }
+        }
+        // served by JWTAuthenticationFilter
+        mappings.add("POST " + SecurityConstants.LOGIN_URL);
+        return mappings;
+    }
+
+    // a request path for the template with fresh ids in place of its variables
+    private static String path(String template) {
+        return template.replaceAll("\\{[^}]+\\}", new ObjectId().toHexString());
+    }
+
+    @Test
+    public void testEveryRouteHasItsRule() {
+        List<String> mappings = mappings();
+        assertTrue(mappings.size() > 40);
+        for (String mapping : mappings) {
+            HttpMethod method = HttpMethod.valueOf(mapping.substring(0, mapping.indexOf(' ')));
+            String template = mapping.substring(mapping.indexOf(' ') + 1);
+            RouteRule expected = expectedRule(method, template);
+            assertTrue(expected != null, "No expected rule for " + mapping);
+
+            for (String path : List.of(path(template), path(template) + "/")) {
+                RouteTable.Route route = ApiRoutes.TABLE.find(method, path);
+                assertTrue(route != null && route.getTemplate().equals(template), mapping + " matched " + (route == null ? null : route.getTemplate()));
+                assertTrue(route.rule(method) == expected, mapping + " has " + route.rule(method) + " instead of " + expected);
+            }
+            if (method == HttpMethod.GET) {
+                assertTrue(ApiRoutes.TABLE.find(HttpMethod.HEAD, path(template)).rule(HttpMethod.HEAD) == expected);
+            }
+            if (expected.needsProgramRole()) {
+                String path = path(template);
+                String programId = path.substring("/api/v1/programs/".length(), "/api/v1/programs/".length() + 24);
+                assertTrue(RouteTable.segment(path, ApiRoutes.TABLE.find(method, path).getProgramIdSegment()).equals(programId));
+            }
+        }
+
+        // and nothing else is allowed
+        assertTrue(new HashSet<String>(ApiRoutes.TABLE.getDeclarations()).equals(new HashSet<String>(mappings)));
+        assertTrue(ApiRoutes.TABLE.getDeclarations().size() == mappings.size());
+    }
+
+    @Test
+    public void testReactiveControllersServeTheSameRoutes() {
+        List<String> servlet = mappings(List.of(ProgramController.class, UserController.class, RefreshTokenController.class));
+        List<String> reactive = mappings(REACTIVE_CONTROLLERS);
+        assertTrue(new HashSet<String>(reactive).equals(new HashSet<String>(servlet)));
+        assertTrue(reactive.size() == servlet.size());
+    }
+
+    @Test
+    public void testOtherMethodsAreDenied() {
+        List<String> mappings = mappings();
+        for (String mapping : mappings) {
+            String template = mapping.substring(mapping.indexOf(' ') + 1);
+            for (HttpMethod method : HttpMethod.values()) {
+                RouteTable.Route route = ApiRoutes.TABLE.find(method, path(template));
+                assertTrue(route == null || mappings.contains((method == HttpMethod.HEAD ? HttpMethod.GET : method) + " " + route.getTemplate()), method + " " + template);
+            }
+        }
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.OPTIONS, "/api/v1/users/me") == null);
+        assertTrue(ApiRoutes.TABLE.find(null, "/api/v1/users/me") == null);
+    }
+
+    @Test
+    public void testUnknownPathsAreDenied() {
+        String program = "/api/v1/programs/" + new ObjectId().toHexString();
+        // a segment called me used to skip the program checks
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.GET, program + "/weeks/me") == null);
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.GET, "/api/v1/users/hello@gmail.com") == null);
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.GET, "/api/v1/videos/video.mp4/uploads") == null);
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.GET, "/api/v1/programs//weeks") == null);
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.GET, "api/v1/users/me") == null);
+        // like Spring, a literal segment that leads nowhere falls back to the variable one
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.GET, "/api/v1/programs/user").getTemplate().equals("/api/v1/programs/{programId}"));
+        assertTrue(ApiRoutes.TABLE.find(HttpMethod.POST, "/api/v1/programs/user/me") == null);
+    }
+
+    private static boolean allowed(RouteRule rule, HttpMethod method, UserType userType, ProgramRole role) {
+        try {
+            rule.check(method, userType, role);
+            return true;
+        } catch (AccessDenied e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testRules() {
+        for (UserType userType : UserType.values()) {
+            assertTrue(allowed(RouteRule.AUTHENTICATED, HttpMethod.GET, userType, null));
+            assertTrue(allowed(RouteRule.COACH_ACCOUNT, HttpMethod.POST, userType, null) == (userType == UserType.COACH));
+            assertTrue(allowed(RouteRule.ATHLETE_ACCOUNT, HttpMethod.POST, userType, null) == (userType == UserType.ATHLETE));
+
+            // the role on the program decides, not the account type
+            for (RouteRule rule : List.of(RouteRule.PROGRAM_MEMBER, RouteRule.PROGRAM_COACH, RouteRule.PROGRAM_ATHLETE)) {
+                assertTrue(!allowed(rule, HttpMethod.GET, userType, null));
+            }
+            assertTrue(allowed(RouteRule.PROGRAM_MEMBER, HttpMethod.GET, userType, ProgramRole.COACH));
+            assertTrue(allowed(RouteRule.PROGRAM_MEMBER, HttpMethod.POST, userType, ProgramRole.ATHLETE));
+            assertTrue(allowed(RouteRule.PROGRAM_COACH, HttpMethod.DELETE, userType, ProgramRole.COACH));
+            assertTrue(!allowed(RouteRule.PROGRAM_COACH, HttpMethod.POST, userType, ProgramRole.ATHLETE));
+            assertTrue(allowed(RouteRule.PROGRAM_ATHLETE, HttpMethod.PATCH, userType, ProgramRole.ATHLETE));
+            assertTrue(!allowed(RouteRule.PROGRAM_ATHLETE, HttpMethod.PATCH, userType, ProgramRole.COACH));
+        }
+
+        assertTrue(assertThrows(AccessDenied.class, () -> RouteRule.PROGRAM_COACH.check(HttpMethod.DELETE, UserType.ATHLETE, ProgramRole.ATHLETE)).getMessage().contains("delete"));
+        assertTrue(assertThrows(AccessDenied.class, () -> RouteRule.PROGRAM_COACH.check(HttpMethod.PUT, UserType.ATHLETE, ProgramRole.ATHLETE)).getMessage().contains("put"));
+        assertTrue(assertThrows(AccessDenied.class, () -> RouteRule.PROGRAM_ATHLETE.check(HttpMethod.PATCH, UserType.COACH, ProgramRole.COACH)).getMessage().contains("Coaches can't use"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramAccessIndex;
+import com.ironinstruction.api.program.ProgramCache;
+import com.ironinstruction.api.program.ProgramPath;
+import com.ironinstruction.api.program.ProgramReadService;
+import com.ironinstruction.api.program.ProgramRepository;
+import com.ironinstruction.api.program.ProgramResponseCache;
+import com.ironinstruction.api.program.ProgramStore;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.SetResult;
+import com.ironinstruction.api.program.SetResultBuffer;
+import com.ironinstruction.api.program.SetResultRepository;
+import com.ironinstruction.api.program.Week;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.types.ObjectId;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class SetResultBufferTests {
+    private final List<SetResult> inserted = new ArrayList<SetResult>();
+    private final List<String> touched = new ArrayList<String>();
+
+    // records the writes the buffer makes instead of sending them to mongo
+    private SetResultBuffer buffer(long windowMillis) {
+        SetResultRepository setResultRepository = (SetResultRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SetResultRepository.class }, (proxy, method, args) -> {
+            if (method.getName().equals("insert") && args[0] instanceof Collection) {
+                synchronized (inserted) {
+                    ((Collection<?>) args[0]).forEach((result) -> inserted.add((SetResult) result));
+                }
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        ProgramRepository programRepository = (ProgramRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ProgramRepository.class }, (proxy, method, args) -> {
+            if (method.getName().equals("bumpResultsVersion")) {
+                synchronized (touched) {
+                    touched.add((String) args[0]);
+                }
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        return new SetResultBuffer(setResultRepository, programRepository, true, windowMillis);
+    }
+
+    @Test
+    public void testCoalescesWithinWindow() throws Exception {
+        SetResultBuffer buffer = buffer(60000);
+        buffer.add(new SetResult("program", "first", 5, null, null));
+        buffer.add(new SetResult("program", "second", 3, null, null));
+        // a correction replaces the earlier tap on the same set
+        buffer.add(new SetResult("program", "first", 4, null, null));
+        buffer.add(new SetResult("other", "third", 8, null, null));
+
+        // nothing is written yet but readers already see the latest values
+        List<SetResult> pending = buffer.pendingResults("program");
+        assertTrue(inserted.isEmpty() && touched.isEmpty());
+        assertTrue(pending.size() == 2 && pending.get(0).getCompletedReps() == 4);
+        assertTrue(buffer.hasPending("other"));
+
+        // shutting down writes every open window at once
+        buffer.close();
+        assertTrue(inserted.size() == 3 && touched.size() == 2);
+        assertTrue(!buffer.hasPending("program") && buffer.pendingResults("program").isEmpty());
+        assertTrue(buffer.getFlushes() == 2 && buffer.getWritten() == 3);
+        assertTrue(buffer.getCoalescingRatio() == 2);
+    }
+
+    @Test
+    public void testFlushesAfterWindow() throws Exception {
+        SetResultBuffer buffer = buffer(20);
+        buffer.add(new SetResult("program", "first", 5, null, null));
+        buffer.add(new SetResult("program", "second", 5, null, null));
+
+        for (int i = 0; i < 100 && buffer.hasPending("program"); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(!buffer.hasPending("program"));
+        assertTrue(inserted.size() == 2 && touched.size() == 1);
+        assertTrue(buffer.getMaxFlushMillis() >= buffer.getAverageFlushMillis());
+        buffer.close();
+    }
+
+    @Test
+    public void testBufferedTapKeepsCachedProgram() throws Exception {
+        String programId = new ObjectId().toString();
+        Program program = new Program("buffer@gmail.com", "buffer", "");
+        Week week = new Week("week");
+        Day day = new Day("day");
+        Exercise exercise = new Exercise("Squat", "");
+        Set set = new Set(5, 80, PercentageOptions.Squat, false);
+        exercise.addSet(set);
+        day.addExercise(exercise);
+        week.addDay(day);
+        program.addWeek(week);
+
+        // a store that only knows the program and counts how often it is loaded
+        AtomicInteger loads = new AtomicInteger();
+        ProgramStore store = (ProgramStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ProgramStore.class }, (proxy, method, args) -> {
+            if (method.getName().equals("findById")) {
+                return Mono.fromSupplier(() -> {
+                    loads.incrementAndGet();
+                    return program;
+                });
+            } else if (method.getName().equals("findLatestResults")) {
+                return Flux.empty();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        SetResultBuffer buffer = buffer(60000);
+        ProgramCache programCache = new ProgramCache(true, 10, 1000, 60);
+        ProgramReadService reads = new ProgramReadService(store, programCache, new ProgramAccessIndex(60, 10), new ProgramResponseCache(new ObjectMapper(), true, 1 << 20), buffer);
+
+        assertTrue(reads.findById(programId).block().getWeeks().size() == 1);
+        reads.logResult(ProgramPath.of(programId, week.getId(), day.getId(), exercise.getId(), set.getId()), new SetResult(programId, set.getId(), 4, null, null)).block();
+
+        // the tap doesn't drop the cached program, the read copies the buffered result into it
+        Program read = reads.findById(programId).block();
+        assertTrue(loads.get() == 1 && programCache.peek(programId) != null);
+        assertTrue(read.getWeeks().get(0).getDays().get(0).getExercises().get(0).getSets().get(0).getCompletedReps() == 4);
+        buffer.close();
+    }
+}
@@ -0,0 +1,135 @@
+package com.ironinstruction.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironinstruction.api.program.Day;
+import com.ironinstruction.api.program.Exercise;
+import com.ironinstruction.api.program.PercentageOptions;
+import com.ironinstruction.api.program.Program;
+import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.Week;
+import com.ironinstruction.api.requests.FinishSetRequest;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+// 10k athletes on bad gym wifi logging a set at the same time, each body arrives in two halves a while apart
+// a request thread reading the body blocks until the second half shows up, so the default pool of 200 threads
+// works through the clients a pool at a time, VirtualThreadLoadBenchmark repeats it with a virtual thread per request
+// run with mvn test -P benchmark, needs a file descriptor limit above 20000
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "server.tomcat.max-connections=12000",
+    "server.tomcat.accept-count=2000",
+    "ironinstruction.mongo.max-pool-size=200"
+})
+@TestInstance(Lifecycle.PER_CLASS)
+public class SlowClientLoadBenchmark {
+    private static final String ATHLETE_EMAIL = "athlete@slow.benchmark";
+    private static final int CLIENTS = 10000;
+    private static final long BODY_DELAY_MILLIS = 500;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProgramService programService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Program program;
+    private List<String> setPaths = new ArrayList<String>();
+
+    @BeforeAll
+    public void createProgram() throws Exception {
+        program = programService.createProgram("coach@slow.benchmark", "evening session", "");
+        programService.assignProgram(program.getId(), ATHLETE_EMAIL);
+        Week week = programService.addWeek(program.getId(), "week 1");
+        Day day = programService.addDay(program.getId(), week.getId(), "day 1");
+        Exercise exercise = programService.addExercise(program.getId(), week.getId(), day.getId(), "Squat", "");
+        for (int i = 0; i < 10; i++) {
+            Set set = programService.addSet(program.getId(), week.getId(), day.getId(), exercise.getId(), 5, 80, PercentageOptions.Squat, false);
+            setPaths.add("/api/v1/programs/" + program.getId() + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId() + "/sets/" + set.getId());
+        }
+    }
+
+    @Test
+    public void benchmarkSlowClients() throws Exception {
+        String cookie = "accessToken=" + TokenManager.generateJWT(ATHLETE_EMAIL + ";" + UserType.ATHLETE, TokenType.ACCESS);
+        byte[] finishSet = objectMapper.writeValueAsBytes(new FinishSetRequest(5));
+        int half = finishSet.length / 2;
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        ScheduledExecutorService trickle = Executors.newScheduledThreadPool(4);
+
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<CompletableFuture<HttpResponse<Void>>>();
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            // the first half goes out with the headers, the rest after the delay
+            SubmissionPublisher<ByteBuffer> body = new SubmissionPublisher<ByteBuffer>();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + setPaths.get(c % setPaths.size())))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .method("PATCH", HttpRequest.BodyPublishers.fromPublisher(body, finishSet.length))
+                .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+            body.submit(ByteBuffer.wrap(finishSet, 0, half));
+            trickle.schedule(() -> {
+                body.submit(ByteBuffer.wrap(finishSet, half, finishSet.length - half));
+                body.close();
+            }, BODY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        int failed = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            try {
+                if (response.get().statusCode() != 200) {
+                    failed++;
+                }
+            } catch (Exception e) {
+                failed++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        trickle.shutdown();
+
+        System.out.println(getClass().getSimpleName() + ": " + CLIENTS + " slow clients, " + failed + " failed, "
+            + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms, " + Math.round((CLIENTS - failed) * 1e9 / elapsedNanos) + " req/s");
+
+        assertTrue(failed == 0);
+    }
+
+    @AfterAll
+    public void deleteProgram() {
+        programService.deleteById(program.getId());
+    }
+}
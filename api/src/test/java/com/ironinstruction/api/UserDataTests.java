@@ -8,9 +8,16 @@ import com.ironinstruction.api.program.Exercise;
 import com.ironinstruction.api.program.PercentageOptions;
 import com.ironinstruction.api.program.Program;
 import com.ironinstruction.api.program.ProgramService;
+import com.ironinstruction.api.program.ProgramVersion;
 import com.ironinstruction.api.program.Set;
+import com.ironinstruction.api.program.SetResult;
+import com.ironinstruction.api.program.SetResultRepository;
 import com.ironinstruction.api.program.Week;
 import com.ironinstruction.api.requests.AssignProgramRequest;
+import com.ironinstruction.api.requests.BatchOperation;
+import com.ironinstruction.api.requests.BatchOperationType;
+import com.ironinstruction.api.requests.BatchRequest;
+import com.ironinstruction.api.requests.BulkAssignRequest;
 import com.ironinstruction.api.requests.NoteRequest;
 import com.ironinstruction.api.requests.FinishSetRequest;
 import com.ironinstruction.api.requests.CreateExerciseRequest;
@@ -19,12 +26,17 @@ import com.ironinstruction.api.requests.CreateSetRequest;
 import com.ironinstruction.api.requests.LoginRequest;
 import com.ironinstruction.api.requests.UpdateAthleteRequest;
 import com.ironinstruction.api.requests.UpdateUserRequest;
+import com.ironinstruction.api.responses.BatchResponse;
+import com.ironinstruction.api.responses.BulkAssignResponse;
+import com.ironinstruction.api.responses.BulkAssignStatus;
+import com.ironinstruction.api.responses.ProgramSummaryPage;
 import com.ironinstruction.api.responses.VideoLinkResponse;
 import com.ironinstruction.api.user.Athlete;
 import com.ironinstruction.api.user.User;
 import com.ironinstruction.api.user.UserService;
 import com.ironinstruction.api.user.UserType;
 
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -42,11 +54,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import javax.servlet.http.Cookie;
 
@@ -68,6 +83,9 @@ public class UserDataTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SetResultRepository setResultRepository;
+
     private ArrayList<String> createdAccounts;
     private ArrayList<String> createdPrograms;
 
@@ -221,8 +239,56 @@ public class UserDataTests {
             .andExpect(status().isBadRequest())
             .andExpect(jsonPath("$.message", containsString("Cannot assign program")));
 
-        // get coach's programs 
-        List<Program> coachPrograms = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me")
+        // get coach's program summaries a page at a time
+        ProgramSummaryPage firstPage = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me")
+            .param("sort", "name")
+            .param("direction", "asc")
+            .param("limit", "1")
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.programs[0].weeks").doesNotExist())
+            .andReturn().getResponse().getContentAsString(), ProgramSummaryPage.class);
+
+        assertTrue(firstPage.getPrograms().size() == 1);
+        assertTrue(firstPage.getPrograms().get(0).getId().equals(secondProgram.getId()));
+        assertTrue(firstPage.getPrograms().get(0).getWeekCount() == 0);
+        assertTrue(firstPage.getNextCursor() != null);
+
+        ProgramSummaryPage secondPage = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me")
+            .param("sort", "name")
+            .param("direction", "asc")
+            .param("limit", "1")
+            .param("cursor", firstPage.getNextCursor())
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), ProgramSummaryPage.class);
+
+        assertTrue(secondPage.getPrograms().size() == 1);
+        assertTrue(secondPage.getPrograms().get(0).getId().equals(createdProgram.getId()));
+        assertTrue(secondPage.getPrograms().get(0).getAthleteEmail().equals("data@gmail.com"));
+        assertTrue(secondPage.getNextCursor() == null);
+
+        // most recently modified first by default
+        ProgramSummaryPage recentPage = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me")
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), ProgramSummaryPage.class);
+
+        assertTrue(recentPage.getPrograms().size() == 2);
+        assertTrue(recentPage.getPrograms().get(0).getId().equals(createdProgram.getId()));
+
+        mockMvc.perform(get("/api/v1/programs/user/me")
+            .param("sort", "weeks")
+            .cookie(coachAccess))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/v1/programs/user/me")
+            .param("cursor", "not a cursor")
+            .cookie(coachAccess))
+            .andExpect(status().isBadRequest());
+
+        // get coach's full programs 
+        List<Program> coachPrograms = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me/full")
             .cookie(coachAccess))
             .andExpect(status().isOk())
             .andReturn().getResponse().getContentAsString(), new TypeReference<List<Program>>(){});
@@ -232,7 +298,7 @@ public class UserDataTests {
         assertTrue(coachPrograms.get(1).getId().equals(secondProgram.getId()));
 
         // get athlete's programs
-        List<Program> athletePrograms = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me")
+        List<Program> athletePrograms = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/user/me/full")
             .cookie(athleteAccess))
             .andExpect(status().isOk())
             .andReturn().getResponse().getContentAsString(), new TypeReference<List<Program>>(){});
@@ -240,12 +306,50 @@ public class UserDataTests {
         assertTrue(athletePrograms.size() == 1);
         assertTrue(athletePrograms.get(0).getId().equals(createdProgram.getId()));
 
-        // add week to program
-        mockMvc.perform(post(programUrlPath + "/weeks")
+        // conditional get answers 304 while the program is unchanged
+        String etag = mockMvc.perform(get(programUrlPath)
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(programUrlPath)
+            .cookie(coachAccess)
+            .header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", etag));
+
+        // add week to program, the response carries the new tag
+        String weekEtag = mockMvc.perform(post(programUrlPath + "/weeks")
             .cookie(coachAccess)
             .contentType("application/json")
             .content(objectMapper.writeValueAsString(new NoteRequest("week 1"))))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+        assertTrue(weekEtag != null && !weekEtag.equals(etag));
+
+        mockMvc.perform(get(programUrlPath)
+            .cookie(coachAccess)
+            .header("If-None-Match", etag))
             .andExpect(status().isOk());
+
+        mockMvc.perform(get(programUrlPath)
+            .cookie(athleteAccess)
+            .header("If-None-Match", weekEtag))
+            .andExpect(status().isNotModified());
+
+        // clients that accept gzip get the compressed body
+        byte[] compressed = mockMvc.perform(get(programUrlPath)
+            .cookie(athleteAccess)
+            .header("Accept-Encoding", "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().string("ETag", weekEtag))
+            .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertTrue(objectMapper.readValue(gzip, Program.class).getWeeks().size() == 1);
+        }
+
         Week week = programService.findById(createdProgram.getId()).getWeeks().get(0);
         assertTrue(week.getCoachNotes().equals("week 1"));
 
@@ -313,6 +417,80 @@ public class UserDataTests {
         setReps = programService.findById(createdProgram.getId()).getWeeks().get(0).getDays().get(0).getExercises().get(0).getSets().get(1);
         assertTrue(setReps.getCompletedReps() == finishSetRequest.getRepsDone());
 
+        // finishing a set again can answer with just the set
+        String setPath = programUrlPath + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId() + "/sets/" + setReps.getId();
+        // logging a set moves the results version, the version a coach's edit is checked against stays
+        ProgramVersion version = programService.findVersion(createdProgram.getId());
+        mockMvc.perform(patch(setPath)
+            .param("response", "node")
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new FinishSetRequest(9)))
+            .cookie(athleteAccess))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value((int) version.getVersion()))
+            .andExpect(jsonPath("$.resultsVersion").value((int) version.getResultsVersion() + 1))
+            .andExpect(jsonPath("$.id").value(setReps.getId()))
+            .andExpect(jsonPath("$.node.completedReps").value(9))
+            .andExpect(jsonPath("$.weeks").doesNotExist());
+
+        // or with a JSON patch against the version the client has
+        mockMvc.perform(patch(setPath)
+            .header("X-Response-Mode", "patch")
+            .header("X-Base-Version", "\"" + programService.findVersion(createdProgram.getId()) + "\"")
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new FinishSetRequest(10)))
+            .cookie(athleteAccess))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].op").value("replace"))
+            .andExpect(jsonPath("$[0].path").value("/weeks/0/days/0/exercises/0/sets/1/completedReps"))
+            .andExpect(jsonPath("$[0].value").value(10))
+            .andExpect(jsonPath("$[1].path").value("/version"))
+            .andExpect(jsonPath("$[3].path").value("/resultsVersion"));
+
+        // a stale base version gets the whole program as a single replace
+        mockMvc.perform(patch(setPath)
+            .param("response", "patch")
+            .param("baseVersion", version.toString())
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(finishSetRequest))
+            .cookie(athleteAccess))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].path").value(""))
+            .andExpect(jsonPath("$[0].value.id").value(createdProgram.getId()));
+
+        mockMvc.perform(patch(setPath)
+            .param("response", "tree")
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(finishSetRequest))
+            .cookie(athleteAccess))
+            .andExpect(status().isBadRequest());
+
+        // every finish is kept as a result, the program shows the latest one
+        mockMvc.perform(patch(setPath)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new FinishSetRequest(7, 8.5f, 102.5f)))
+            .cookie(athleteAccess))
+            .andExpect(status().isOk());
+        List<SetResult> results = objectMapper.readValue(mockMvc.perform(get(setPath + "/results")
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), new TypeReference<List<SetResult>>(){});
+        assertTrue(results.size() == 5);
+        assertTrue(results.get(0).getCompletedReps() == 8 && results.get(0).getRpe() == null);
+        assertTrue(results.get(4).getCompletedReps() == 7 && results.get(4).getWeight() == 102.5f);
+        assertTrue(programService.findSet(createdProgram.getId(), week.getId(), day.getId(), exercise.getId(), setReps.getId()).getCompletedReps() == 7);
+
+        // finishing a set that doesn't exist leaves neither a result nor a new version behind
+        ProgramVersion versionBeforeMissing = programService.findVersion(createdProgram.getId());
+        String missingSetId = new ObjectId().toString();
+        mockMvc.perform(patch(programUrlPath + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId() + "/sets/" + missingSetId)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(finishSetRequest))
+            .cookie(athleteAccess))
+            .andExpect(status().isNotFound());
+        assertTrue(programService.findVersion(createdProgram.getId()).equals(versionBeforeMissing));
+        assertTrue(setResultRepository.findByProgramIdAndSetIdOrderByRecordedAtAsc(createdProgram.getId(), missingSetId).isEmpty());
+
         // get non existent download link  
         mockMvc.perform(get(programUrlPath + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId() + "/sets/" + set.getId() + "/video")
             .cookie(coachAccess))
@@ -363,6 +541,18 @@ public class UserDataTests {
         exercise = programService.findById(createdProgram.getId()).getWeeks().get(0).getDays().get(0).getExercises().get(0);
         assertTrue(exercise.getVideoRef().equals(exercise.getId() + ".mp4"));
 
+        // every video in the day and week with one request
+        Map<String, String> dayVideoLinks = objectMapper.readValue(mockMvc.perform(get(programUrlPath + "/weeks/" + week.getId() + "/days/" + day.getId() + "/video-links")
+            .cookie(athleteAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), new TypeReference<Map<String, String>>(){});
+        assertTrue(dayVideoLinks.get(exercise.getId()).contains(exercise.getId() + ".mp4"));
+        assertTrue(dayVideoLinks.get(set.getId()).contains(set.getId() + ".mp4"));
+        mockMvc.perform(get(programUrlPath + "/weeks/" + week.getId() + "/video-links")
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$." + set.getId()).exists());
+
         // update exercise with blank name 
         exercise.setName("   ");
         mockMvc.perform(put(programUrlPath + "/weeks/" + week.getId() + "/days/" + day.getId() + "/exercises/" + exercise.getId())
@@ -427,12 +617,19 @@ public class UserDataTests {
 
         assertTrue(programService.findById(createdProgram.getId()).getWeeks().get(0).getAthleteNotes().equals("Good week"));
 
-        // update day athlete note 
+        // update day athlete note, answered with the day the write returned
+        ProgramVersion beforeDayNote = programService.findVersion(createdProgram.getId());
         mockMvc.perform(patch(programUrlPath + "/weeks/" + week.getId() + "/days/" + day.getId() + "/notes")
+            .param("response", "node")
             .cookie(athleteAccess)
             .contentType("application/json")
             .content(objectMapper.writeValueAsString(new NoteRequest("Good day"))))
-            .andExpect(status().isOk()); 
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(day.getId()))
+            .andExpect(jsonPath("$.node.athleteNotes").value("Good day"))
+            .andExpect(jsonPath("$.version").value((int) beforeDayNote.getVersion() + 1))
+            .andExpect(jsonPath("$.resultsVersion").value((int) beforeDayNote.getResultsVersion()))
+            .andExpect(jsonPath("$.weeks").doesNotExist());
 
         assertTrue(programService.findById(createdProgram.getId()).getWeeks().get(0).getDays().get(0).getAthleteNotes().equals("Good day"));
 
@@ -467,6 +664,101 @@ public class UserDataTests {
             .andExpect(jsonPath("$.message", containsString("not found")));
     }
 
+    @Test
+    public void testProgramBatch() throws Exception {
+        CreateProgramRequest createProgramRequest = new CreateProgramRequest("batch", "built in one request");
+        Program createdProgram = objectMapper.readValue(mockMvc.perform(post("/api/v1/programs")
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(createProgramRequest))
+            .cookie(coachAccess))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse().getContentAsString(), Program.class);
+        this.createdPrograms.add(createdProgram.getId());
+
+        String batchUrlPath = "/api/v1/programs/" + createdProgram.getId() + "/batch";
+
+        // build week -> day -> exercise -> sets referring to nodes by temporary ids
+        BatchOperation addWeek = new BatchOperation(BatchOperationType.ADD_WEEK, "week");
+        addWeek.setNote("week 1");
+        BatchOperation addDay = new BatchOperation(BatchOperationType.ADD_DAY, "day");
+        addDay.setWeekId("week");
+        addDay.setNote("day 1");
+        BatchOperation addExercise = new BatchOperation(BatchOperationType.ADD_EXERCISE, "exercise");
+        addExercise.setWeekId("week");
+        addExercise.setDayId("day");
+        addExercise.setName("Squat");
+        BatchOperation addSet = new BatchOperation(BatchOperationType.ADD_SET, "set");
+        addSet.setWeekId("week");
+        addSet.setDayId("day");
+        addSet.setExerciseId("exercise");
+        addSet.setRpe(-1);
+        addSet.setReps(5);
+        addSet.setPercentage(80);
+        addSet.setPercentageReference(PercentageOptions.Squat);
+        BatchOperation addSecondSet = new BatchOperation(BatchOperationType.ADD_SET, "second set");
+        addSecondSet.setWeekId("week");
+        addSecondSet.setDayId("day");
+        addSecondSet.setExerciseId("exercise");
+        addSecondSet.setRpe(8);
+        addSecondSet.setReps(3);
+        addSecondSet.setWeight(180);
+        BatchOperation deleteSecondSet = new BatchOperation(BatchOperationType.DELETE_SET, null);
+        deleteSecondSet.setWeekId("week");
+        deleteSecondSet.setDayId("day");
+        deleteSecondSet.setExerciseId("exercise");
+        deleteSecondSet.setSetId("second set");
+        BatchOperation updateDayNote = new BatchOperation(BatchOperationType.UPDATE_DAY_NOTE, null);
+        updateDayNote.setWeekId("week");
+        updateDayNote.setDayId("day");
+        updateDayNote.setNote("heavy day");
+
+        BatchRequest batchRequest = new BatchRequest(List.of(addWeek, addDay, addExercise, addSet, addSecondSet, deleteSecondSet, updateDayNote));
+        BatchResponse batchResponse = objectMapper.readValue(mockMvc.perform(post(batchUrlPath)
+            .cookie(coachAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(batchRequest)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), BatchResponse.class);
+
+        Program program = programService.findById(createdProgram.getId());
+        Day day = program.findWeekById(batchResponse.getIds().get("week")).findDayById(batchResponse.getIds().get("day"));
+        Exercise exercise = day.findExerciseById(batchResponse.getIds().get("exercise"));
+        assertTrue(day.getCoachNotes().equals("heavy day"));
+        assertTrue(exercise.getSets().size() == 1);
+        assertTrue(exercise.getSets().get(0).getId().equals(batchResponse.getIds().get("set")));
+        assertTrue(batchResponse.getProgram().getWeeks().size() == 1);
+
+        // a failing operation leaves the program untouched
+        BatchOperation addOrphanDay = new BatchOperation(BatchOperationType.ADD_DAY, null);
+        addOrphanDay.setWeekId("missing week");
+        mockMvc.perform(post(batchUrlPath)
+            .cookie(coachAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new BatchRequest(List.of(addWeek, addOrphanDay)))))
+            .andExpect(status().isNotFound());
+        assertTrue(programService.findById(createdProgram.getId()).getWeeks().size() == 1);
+
+        // blank exercise names are rejected before anything is applied
+        addExercise.setName("  ");
+        mockMvc.perform(post(batchUrlPath)
+            .cookie(coachAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new BatchRequest(List.of(addWeek, addDay, addExercise)))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message", containsString("must not be blank")));
+
+        // athletes can't build programs
+        mockMvc.perform(post(batchUrlPath)
+            .cookie(athleteAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new BatchRequest(List.of(addWeek)))))
+            .andExpect(status().isForbidden());
+
+        // the coach's program listing in testProgramData expects only its own programs
+        programService.deleteById(createdProgram.getId());
+    }
+
     @Test 
     public void testUserUpdate() throws Exception {
         userService.createUser("hi", "userupdate@gmail.com", "test", UserType.ATHLETE);
@@ -550,6 +842,61 @@ public class UserDataTests {
             .andExpect(jsonPath("$.message", containsString("Invalid body")));
     }
 
+    @Test
+    public void testBulkAssign() throws Exception {
+        Program template = programService.createProgram("coachdata@gmail.com", "team block", "for everyone");
+        this.createdPrograms.add(template.getId());
+        Week week = programService.addWeek(template.getId(), "week 1");
+        Day day = programService.addDay(template.getId(), week.getId(), "day 1");
+        Exercise exercise = programService.addExercise(template.getId(), week.getId(), day.getId(), "Squat", "");
+        Set set = programService.addSet(template.getId(), week.getId(), day.getId(), exercise.getId(), 5, 80, PercentageOptions.Squat, false);
+        programService.updateSet(template.getId(), week.getId(), day.getId(), exercise.getId(), set.getId(), 5);
+
+        BulkAssignResponse response = objectMapper.readValue(mockMvc.perform(post("/api/v1/programs/" + template.getId() + "/assign/bulk")
+            .cookie(coachAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new BulkAssignRequest(List.of("data@gmail.com", "coachdata@gmail.com", "nobody@gmail.com", "data@gmail.com")))))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), BulkAssignResponse.class);
+
+        assertTrue(response.getAssigned() == 1);
+        assertTrue(response.getResults().get(0).getStatus() == BulkAssignStatus.ASSIGNED);
+        assertTrue(response.getResults().get(1).getStatus() == BulkAssignStatus.NOT_ATHLETE);
+        assertTrue(response.getResults().get(2).getStatus() == BulkAssignStatus.NOT_FOUND);
+        assertTrue(response.getResults().get(3).getStatus() == BulkAssignStatus.DUPLICATE);
+
+        // the copy has new ids and none of the logged reps
+        String copyId = response.getResults().get(0).getProgramId();
+        this.createdPrograms.add(copyId);
+        Program copy = objectMapper.readValue(mockMvc.perform(get("/api/v1/programs/" + copyId)
+            .cookie(athleteAccess))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(), Program.class);
+        Week copiedWeek = copy.getWeeks().get(0);
+        Set copiedSet = copiedWeek.getDays().get(0).getExercises().get(0).getSets().get(0);
+        assertTrue(copy.getAthleteEmail().equals("data@gmail.com"));
+        assertTrue(!copiedWeek.getId().equals(week.getId()) && !copiedSet.getId().equals(set.getId()));
+        assertTrue(copiedSet.getReps() == 5 && copiedSet.getCompletedReps() == -1);
+        assertTrue(programService.findById(template.getId()).getAthleteEmail() == null);
+
+        // only the program's coach can hand it out
+        mockMvc.perform(post("/api/v1/programs/" + copyId + "/assign/bulk")
+            .cookie(athleteAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new BulkAssignRequest(List.of("data@gmail.com")))))
+            .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/v1/programs/" + template.getId() + "/assign/bulk")
+            .cookie(coachAccess)
+            .contentType("application/json")
+            .content(objectMapper.writeValueAsString(new BulkAssignRequest(List.of()))))
+            .andExpect(status().isBadRequest());
+
+        // the other tests page through the coach's programs and don't expect these
+        programService.deleteById(copyId);
+        programService.deleteById(template.getId());
+    }
+
     @AfterAll
     public void deleteAccounts() {
         this.createdAccounts.forEach((email) -> userService.deleteByEmail(email));
@@ -0,0 +1,77 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.errors.InvalidToken;
+import com.ironinstruction.api.user.UserType;
+import com.ironinstruction.api.utils.TokenManager;
+import com.ironinstruction.api.utils.TokenType;
+import com.ironinstruction.api.utils.VerifiedAccessToken;
+import com.ironinstruction.api.utils.VerifiedTokenCache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class VerifiedTokenCacheTests {
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private Function<String, VerifiedAccessToken> verifier(long expiresAt) {
+        return (token) -> {
+            verifications.incrementAndGet();
+            if (token.startsWith("bad")) {
+                throw new InvalidToken("Invalid token");
+            }
+            return new VerifiedAccessToken(token + "@gmail.com", UserType.ATHLETE, expiresAt);
+        };
+    }
+
+    @Test
+    public void testVerifiesEachTokenOnce() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(2);
+        long later = System.currentTimeMillis() + 60000;
+        assertTrue(cache.get("first", verifier(later)).getEmail().equals("first@gmail.com"));
+        assertTrue(cache.get("first", verifier(later)).getEmail().equals("first@gmail.com"));
+        assertTrue(verifications.get() == 1 && cache.getHits() == 1);
+
+        // rejected tokens are never cached
+        assertThrows(InvalidToken.class, () -> cache.get("bad", verifier(later)));
+        assertThrows(InvalidToken.class, () -> cache.get("bad", verifier(later)));
+        assertTrue(verifications.get() == 3 && cache.getSize() == 1);
+
+        // the least recently used token makes room
+        cache.get("second", verifier(later));
+        cache.get("first", verifier(later));
+        cache.get("third", verifier(later));
+        assertTrue(cache.getSize() == 2 && cache.getEvictions() == 1);
+        cache.get("second", verifier(later));
+        assertTrue(verifications.get() == 6);
+    }
+
+    @Test
+    public void testExpiresWithTheToken() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.get("soon", verifier(System.currentTimeMillis() + 50));
+        Thread.sleep(100);
+        assertThrows(InvalidToken.class, () -> cache.get("soon", verifier(System.currentTimeMillis() + 60000)));
+        assertTrue(cache.getSize() == 0);
+    }
+
+    @Test
+    public void testAccessTokens() {
+        String token = TokenManager.generateJWT("cache@gmail.com;" + UserType.COACH, TokenType.ACCESS);
+        VerifiedAccessToken verified = TokenManager.verifyAccessToken(token);
+        assertTrue(verified.getEmail().equals("cache@gmail.com") && verified.getUserType() == UserType.COACH);
+        assertTrue(TokenManager.verifyAccessToken(token) == verified);
+
+        assertThrows(InvalidToken.class, () -> TokenManager.verifyAccessToken(TokenManager.generateJWT("cache@gmail.com;" + UserType.COACH, TokenType.REFRESH)));
+        assertThrows(InvalidToken.class, () -> TokenManager.verifyAccessToken(TokenManager.generateJWT("cache@gmail.com", TokenType.ACCESS)));
+        assertThrows(InvalidToken.class, () -> TokenManager.verifyAccessToken(TokenManager.generateJWT("cache@gmail.com;ADMIN", TokenType.ACCESS)));
+        assertThrows(InvalidToken.class, () -> TokenManager.verifyAccessToken(TokenManager.generateJWT("cache@gmail.com;" + UserType.COACH, TokenType.ACCESS, new Date(System.currentTimeMillis() - 1000))));
+        // signed by the api but without an expiration
+        assertThrows(InvalidToken.class, () -> TokenManager.verifyAccessToken(TokenManager.generateJWT("cache@gmail.com;" + UserType.COACH, TokenType.ACCESS, null)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.utils.AwsS3Manager;
+import com.ironinstruction.api.video.VideoDeletion;
+import com.ironinstruction.api.video.VideoDeletionQueue;
+import com.ironinstruction.api.video.VideoDeletionRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+public class VideoDeletionQueueTests {
+    // the queue's collection, kept in memory
+    private final Map<String, VideoDeletion> stored = new LinkedHashMap<String, VideoDeletion>();
+    private final List<Integer> batchSizes = new ArrayList<Integer>();
+    private final Set<String> deletedKeys = new HashSet<String>();
+    private final Set<String> refusedKeys = new HashSet<String>();
+    // runs while a batch is on its way to the storage
+    private Runnable duringBatch = () -> { };
+
+    @SuppressWarnings("unchecked")
+    private VideoDeletionQueue queue() {
+        VideoDeletionRepository repository = (VideoDeletionRepository) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { VideoDeletionRepository.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "save":
+                    VideoDeletion deletion = (VideoDeletion) args[0];
+                    stored.put(deletion.getKey(), deletion);
+                    return deletion;
+                case "rescheduleAll":
+                    // like the bulk update, only entries that are still queued are written
+                    ((Iterable<VideoDeletion>) args[0]).forEach((retried) -> stored.computeIfPresent(retried.getKey(), (key, current) -> current.getQueuedAt().equals(retried.getQueuedAt()) ? retried : current));
+                    return null;
+                case "deleteById":
+                    stored.remove(args[0]);
+                    return null;
+                case "deleteAllById":
+                    ((Iterable<String>) args[0]).forEach(stored::remove);
+                    return null;
+                case "findByNextAttemptAtLessThanEqual":
+                    return stored.values().stream()
+                        .filter((due) -> !due.getNextAttemptAt().after((Date) args[0]))
+                        .sorted(Comparator.comparing(VideoDeletion::getNextAttemptAt))
+                        .limit(((Pageable) args[1]).getPageSize())
+                        .collect(Collectors.toList());
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        S3Client client = (S3Client) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { S3Client.class }, (proxy, method, args) -> {
+            if (method.getName().equals("deleteObjects")) {
+                List<ObjectIdentifier> objects = ((DeleteObjectsRequest) args[0]).delete().objects();
+                duringBatch.run();
+                batchSizes.add(objects.size());
+                List<S3Error> errors = new ArrayList<S3Error>();
+                for (ObjectIdentifier object : objects) {
+                    if (refusedKeys.contains(object.key())) {
+                        errors.add(S3Error.builder().key(object.key()).code("AccessDenied").build());
+                    } else {
+                        deletedKeys.add(object.key());
+                    }
+                }
+                return DeleteObjectsResponse.builder().errors(errors).build();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        S3Presigner presigner = (S3Presigner) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { S3Presigner.class }, (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        return new VideoDeletionQueue(repository, new AwsS3Manager(client, presigner, "bucket"));
+    }
+
+    @Test
+    public void testBatchesDeletions() {
+        VideoDeletionQueue queue = queue();
+        for (int i = 0; i < 2500; i++) {
+            queue.enqueue(i + ".mp4");
+        }
+        // queueing a key again doesn't delete it twice
+        queue.enqueue("0.mp4");
+        queue.drain();
+
+        assertTrue(batchSizes.equals(List.of(1000, 1000, 500)));
+        assertTrue(deletedKeys.size() == 2500 && stored.isEmpty());
+        assertTrue(queue.getDeleted() == 2500 && queue.getBatches() == 3);
+    }
+
+    @Test
+    public void testRetriesRefusedKeys() {
+        VideoDeletionQueue queue = queue();
+        queue.enqueue("kept.mp4");
+        queue.enqueue("refused.mp4");
+        queue.enqueue("uploaded-again.mp4");
+        queue.cancel("uploaded-again.mp4");
+        refusedKeys.add("refused.mp4");
+        queue.drain();
+
+        // the refused key stays queued and isn't due again right away
+        assertTrue(deletedKeys.equals(Set.of("kept.mp4")));
+        assertTrue(stored.size() == 1 && stored.get("refused.mp4").getAttempts() == 1);
+        assertTrue(stored.get("refused.mp4").getNextAttemptAt().after(new Date()));
+        queue.drain();
+        assertTrue(batchSizes.size() == 1 && queue.getFailures() == 1);
+    }
+
+    @Test
+    public void testCancelledDuringBatchStaysGone() {
+        VideoDeletionQueue queue = queue();
+        queue.enqueue("uploaded-again.mp4");
+        refusedKeys.add("uploaded-again.mp4");
+        // a new upload to the key starts while the batch is in flight and the storage refuses the key
+        duringBatch = () -> queue.cancel("uploaded-again.mp4");
+        queue.drain();
+
+        // the failed attempt must not bring the deletion back, the retry would remove the new video
+        assertTrue(stored.isEmpty() && queue.getFailures() == 1);
+    }
+}
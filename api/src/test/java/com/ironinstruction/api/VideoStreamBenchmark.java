@@ -0,0 +1,119 @@
+package com.ironinstruction.api;
+
+import com.ironinstruction.api.video.LocalVideoStorage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// 32 athletes watching the same 64 MB form check video from local storage at once, half of them seeking into it
+// the bytes go from the page cache to the socket without being copied through the jvm
+// run with mvn test -P benchmark
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "ironinstruction.video-storage.type=local",
+    "ironinstruction.video-storage.local.root=target/benchmark-videos"
+})
+@TestInstance(Lifecycle.PER_CLASS)
+public class VideoStreamBenchmark {
+    private static final String KEY = "stream-benchmark.mp4";
+    private static final int VIDEO_BYTES = 64 << 20;
+    private static final int CLIENTS = 32;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LocalVideoStorage videoStorage;
+
+    @BeforeAll
+    public void writeVideo() throws Exception {
+        byte[] chunk = new byte[1 << 20];
+        new Random(1).nextBytes(chunk);
+        videoStorage.write(KEY, new InputStream() {
+            private int position = 0;
+
+            @Override
+            public int read() {
+                return position < VIDEO_BYTES ? chunk[position++ % chunk.length] & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (position >= VIDEO_BYTES) {
+                    return -1;
+                }
+                int read = Math.min(Math.min(length, VIDEO_BYTES - position), chunk.length - position % chunk.length);
+                System.arraycopy(chunk, position % chunk.length, buffer, offset, read);
+                position += read;
+                return read;
+            }
+        });
+    }
+
+    @Test
+    public void benchmarkConcurrentStreams() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+
+        List<CompletableFuture<HttpResponse<InputStream>>> responses = new ArrayList<CompletableFuture<HttpResponse<InputStream>>>();
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + videoStorage.newPresignedGetUrl(KEY)));
+            // every other client skips to the second half like a player seeking
+            if (c % 2 == 1) {
+                request.header("Range", "bytes=" + VIDEO_BYTES / 2 + "-");
+            }
+            responses.add(client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream()));
+        }
+
+        long streamed = 0;
+        int failed = 0;
+        byte[] buffer = new byte[1 << 16];
+        for (int c = 0; c < CLIENTS; c++) {
+            HttpResponse<InputStream> response = responses.get(c).get();
+            long expected = c % 2 == 1 ? VIDEO_BYTES / 2 : VIDEO_BYTES;
+            long received = 0;
+            try (InputStream body = response.body()) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    received += read;
+                }
+            }
+            if (response.statusCode() != (c % 2 == 1 ? 206 : 200) || received != expected) {
+                failed++;
+            }
+            streamed += received;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.println(getClass().getSimpleName() + ": " + CLIENTS + " streams, " + failed + " failed, "
+            + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms, " + Math.round(streamed / 1e6 * 1e9 / elapsedNanos) + " MB/s");
+
+        assertTrue(failed == 0);
+    }
+
+    @AfterAll
+    public void deleteVideo() {
+        videoStorage.deleteObjects(List.of(KEY));
+    }
+}
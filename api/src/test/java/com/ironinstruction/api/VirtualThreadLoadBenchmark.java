@@ -0,0 +1,8 @@
+package com.ironinstruction.api;
+
+import org.springframework.test.context.TestPropertySource;
+
+// same slow clients as SlowClientLoadBenchmark with every request on its own virtual thread
+@TestPropertySource(properties = "ironinstruction.virtual-threads.enabled=true")
+public class VirtualThreadLoadBenchmark extends SlowClientLoadBenchmark {
+}
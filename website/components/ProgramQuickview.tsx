@@ -1,9 +1,9 @@
 import { NextPage } from "next"
 import Link from "next/link"
-import { Program, UserType } from "../utils/api.types"
+import { ProgramSummary, UserType } from "../utils/api.types"
 
 type Props = {
-    program: Program
+    program: ProgramSummary
     userType: UserType
 }
 
@@ -20,7 +20,7 @@ const ProgramQuickview: NextPage<Props> = (props: Props) => {
                     `Coach: ${props.program.coachEmail}`
                 }
             </p>
-            <p>Total Weeks: {props.program.weeks.length}</p>
+            <p>Total Weeks: {props.program.weekCount}</p>
             <div className="flex flex-row justify-center mt-3">
                 <Link href={`/program/${props.program.id}`}>
                     <button type="button" className="w-full purple-bg rounded-md px-6 py-1 text-white">
@@ -9,14 +9,14 @@ import ProgramQuickview from "../components/ProgramQuickview";
 import { useUserContext } from "../context/UserContext";
 import Api from '../utils/api'
 import { NeedLogin } from "../utils/api.errors";
-import { Athlete, Program, User, UserType } from "../utils/api.types";
+import { Athlete, ProgramSummary, User, UserType } from "../utils/api.types";
 
 const Dashboard: NextPage = () => {
     const [loading, setLoading] = useState<boolean>(true)
     const { user, setUser } = useUserContext()
     const [userForm, setUserForm] = useState<User>(user as User)
     const [editing, setEditing] = useState<boolean>(false)
-    const [programs, setPrograms] = useState<Program[]>([])
+    const [programs, setPrograms] = useState<ProgramSummary[]>([])
     const [modalOpen, setModalOpen] = useState<boolean>(false)
     const [error, setError] = useState<string>("")
 
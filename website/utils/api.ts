@@ -1,6 +1,6 @@
 import axios, { AxiosError, AxiosInstance, AxiosRequestConfig, AxiosResponse } from "axios";
 import { ApiError, NeedLogin } from "./api.errors";
-import { ErrorResponse, Exercise, PercentageOptions, Program, User, UserType, VideoLinkResponse } from "./api.types";
+import { ErrorResponse, Exercise, PercentageOptions, Program, ProgramSummary, ProgramSummaryPage, User, UserType, VideoLinkResponse } from "./api.types";
 
 class Api {
     private client: AxiosInstance
@@ -89,8 +89,22 @@ class Api {
         })
     }
 
-    public async getUserPrograms(): Promise<Program[]> {
-        return (await this.client.get(`/programs/user/me`)).data as unknown as Program[]
+    public async getUserPrograms(): Promise<ProgramSummary[]> {
+        const programs: ProgramSummary[] = []
+        let cursor: string | null = null
+        do {
+            const page: ProgramSummaryPage = (await this.client.get(`/programs/user/me`, {
+                params: { limit: 100, cursor: cursor || undefined }
+            })).data as unknown as ProgramSummaryPage
+            programs.push(...page.programs)
+            cursor = page.nextCursor
+        } while (cursor)
+
+        return programs
+    }
+
+    public async getUserProgramsFull(): Promise<Program[]> {
+        return (await this.client.get(`/programs/user/me/full`)).data as unknown as Program[]
     }
 
     public async getProgram(programId: string): Promise<Program> {
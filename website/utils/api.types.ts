@@ -36,6 +36,21 @@ export interface Program {
     coachEmail: string
 }
 
+export interface ProgramSummary {
+    id: string
+    name: string
+    description: string
+    athleteEmail: string
+    coachEmail: string
+    weekCount: number
+    lastModified: string
+}
+
+export interface ProgramSummaryPage {
+    programs: ProgramSummary[]
+    nextCursor: string | null
+}
+
 export interface Week {
     id: string
     coachNotes: string